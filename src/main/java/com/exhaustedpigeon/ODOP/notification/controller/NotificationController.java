@@ -2,6 +2,8 @@ package com.exhaustedpigeon.ODOP.notification.controller;
 
 import com.exhaustedpigeon.ODOP.notification.dto.*;
 import com.exhaustedpigeon.ODOP.notification.model.Notification;
+import com.exhaustedpigeon.ODOP.notification.model.NotificationJob;
+import com.exhaustedpigeon.ODOP.notification.service.NotificationFanOutService;
 import com.exhaustedpigeon.ODOP.notification.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,6 +27,7 @@ import java.util.Map;
 public class NotificationController {
     
     private final NotificationService notificationService;
+    private final NotificationFanOutService fanOutService;
     
     // ==================== USER NOTIFICATIONS ====================
     
@@ -196,11 +199,12 @@ public class NotificationController {
         log.info("Admin sending bulk notification");
         
         if (request.isSendToAll()) {
-            notificationService.broadcast(request);
-            return ResponseEntity.ok(Map.of("message", "Broadcasting to all users"));
+            NotificationJob job = fanOutService.start(null, request);
+            return ResponseEntity.ok(Map.of("message", "Broadcasting to all users", "jobId", job.getId()));
         } else if (request.getUserType() != null) {
-            notificationService.sendToUserType(request.getUserType(), request);
-            return ResponseEntity.ok(Map.of("message", "Sending to all " + request.getUserType() + " users"));
+            NotificationJob job = fanOutService.start(request.getUserType(), request);
+            return ResponseEntity.ok(Map.of("message", "Sending to all " + request.getUserType() + " users",
+                    "jobId", job.getId()));
         } else if (request.getUserIds() != null && !request.getUserIds().isEmpty()) {
             notificationService.sendToUsers(request.getUserIds(), request);
             return ResponseEntity.ok(Map.of("message", "Sending to " + request.getUserIds().size() + " users"));
@@ -235,12 +239,24 @@ public class NotificationController {
                     .actionType("OPEN_URL")
                     .sendToAll(true)
                     .build();
-            notificationService.broadcast(request);
+            NotificationJob job = fanOutService.start(null, request);
+            return ResponseEntity.ok(Map.of("message", "Promotion queued for all users", "jobId", job.getId()));
         }
         
         return ResponseEntity.ok(Map.of("message", "Promotion sent successfully"));
     }
     
+    /**
+     * Progress of a broadcast notification job (Admin only)
+     */
+    @GetMapping("/admin/jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<NotificationJob> getJob(@PathVariable String jobId) {
+        return fanOutService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     // ==================== TEST ENDPOINTS ====================
     
     /**
@@ -0,0 +1,53 @@
+package com.exhaustedpigeon.ODOP.notification.model;
+
+import com.exhaustedpigeon.ODOP.notification.dto.SendNotificationRequest;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification sent to every user, or every user of a type, and how far the fan-out has got
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "notification_jobs")
+public class NotificationJob {
+    
+    @Id
+    private String id;
+    
+    private String userType;        // null = every user with notifications enabled
+    private SendNotificationRequest request;
+    
+    private JobStatus status;
+    private String error;
+    
+    // Progress
+    private String lastUserId;      // recipients are processed in userId order
+    private long recipients;
+    private long created;
+    private long failedDeliveries;
+    
+    // Lease held by the node running the job
+    private String leaseOwner;
+    private LocalDateTime leaseUntil;
+    
+    // Timestamps
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+    
+    public enum JobStatus {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
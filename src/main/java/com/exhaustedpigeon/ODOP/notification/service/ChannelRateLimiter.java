@@ -0,0 +1,65 @@
+package com.exhaustedpigeon.ODOP.notification.service;
+
+import com.exhaustedpigeon.ODOP.notification.model.Notification.NotificationChannel;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-channel token buckets shared by every fan-out worker, so the email, SMS and push
+ * providers see a steady rate however many chunks are in flight.
+ *
+ * Each bucket hands out evenly spaced send slots and lets up to one second of unused slots
+ * accumulate as a burst. Channels without a positive rate are not limited.
+ */
+class ChannelRateLimiter {
+
+    private final Map<NotificationChannel, Bucket> buckets = new EnumMap<>(NotificationChannel.class);
+
+    ChannelRateLimiter(Map<NotificationChannel, Integer> perSecond) {
+        perSecond.forEach((channel, rate) -> {
+            if (rate != null && rate > 0) {
+                buckets.put(channel, new Bucket(rate));
+            }
+        });
+    }
+
+    /**
+     * Block until the channel may send once more
+     */
+    void acquire(NotificationChannel channel) {
+        Bucket bucket = buckets.get(channel);
+        if (bucket == null) {
+            return;
+        }
+        long waitNanos = bucket.reserve(System.nanoTime());
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting to send through " + channel, e);
+            }
+        }
+    }
+
+    private static final class Bucket {
+
+        private final long intervalNanos;
+        private final long burstNanos;
+        private long nextFree;
+
+        Bucket(int perSecond) {
+            intervalNanos = TimeUnit.SECONDS.toNanos(1) / perSecond;
+            burstNanos = TimeUnit.SECONDS.toNanos(1) - intervalNanos;
+            nextFree = System.nanoTime();
+        }
+
+        synchronized long reserve(long now) {
+            long slot = Math.max(nextFree, now - burstNanos);
+            nextFree = slot + intervalNanos;
+            return slot - now;
+        }
+    }
+}
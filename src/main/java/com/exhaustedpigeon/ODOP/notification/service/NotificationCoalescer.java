@@ -0,0 +1,197 @@
+package com.exhaustedpigeon.ODOP.notification.service;
+
+import com.exhaustedpigeon.ODOP.notification.dto.SendNotificationRequest;
+import com.exhaustedpigeon.ODOP.notification.model.Notification.NotificationPriority;
+import com.exhaustedpigeon.ODOP.notification.model.Notification.NotificationType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Folds bursts of the same kind of notification for one user into a digest.
+ *
+ * The first notification of a (user, type) pair goes out at once and opens a window (per type,
+ * notification.digest.window-ms.*); anything of that type arriving while the window is
+ * open is held. When the window closes, the held notifications are sent as one digest and a
+ * new window opens, so a steady stream becomes one send per window. For low stock and price
+ * drops only the latest notification per product is kept, since it supersedes the earlier ones.
+ *
+ * Types without a window, and notifications at or above notification.digest.bypass-priority,
+ * are never held. Windows live in memory on each node: a node that stops without running its
+ * shutdown flush loses what it was holding.
+ */
+@Component
+public class NotificationCoalescer {
+
+    private static final int DIGEST_LINES = 3;
+
+    // Types where a newer notification about a reference replaces the older one
+    private static final Set<NotificationType> SUPERSEDING = EnumSet.of(
+            NotificationType.LOW_STOCK_ALERT, NotificationType.PRICE_DROP);
+
+    private final Map<NotificationType, Long> windowMillis = new EnumMap<>(NotificationType.class);
+    private final NotificationPriority bypassPriority;
+
+    // userId|type -> open window
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public NotificationCoalescer(@Value("${notification.digest.window-ms.new-order:300000}") long newOrder,
+                                 @Value("${notification.digest.window-ms.low-stock:3600000}") long lowStock,
+                                 @Value("${notification.digest.window-ms.review:900000}") long review,
+                                 @Value("${notification.digest.window-ms.price-drop:3600000}") long priceDrop,
+                                 @Value("${notification.digest.bypass-priority:URGENT}") NotificationPriority bypassPriority) {
+        windowMillis.put(NotificationType.NEW_ORDER, newOrder);
+        windowMillis.put(NotificationType.LOW_STOCK_ALERT, lowStock);
+        windowMillis.put(NotificationType.REVIEW_RECEIVED, review);
+        windowMillis.put(NotificationType.PRICE_DROP, priceDrop);
+        this.bypassPriority = bypassPriority;
+    }
+
+    /**
+     * Whether the caller should send the notification now; false means it is held for a digest
+     */
+    public boolean offer(String userId, SendNotificationRequest request) {
+        return offer(userId, request, System.currentTimeMillis());
+    }
+
+    boolean offer(String userId, SendNotificationRequest request, long now) {
+        long window = windowMillis.getOrDefault(request.getType(), 0L);
+        if (window <= 0 || isUrgent(request)) {
+            return true;
+        }
+        boolean[] sendNow = {false};
+        windows.compute(userId + "|" + request.getType(), (key, open) -> {
+            // A closed window still holding notifications is about to be flushed; join it
+            if (open == null || (now >= open.closesAt && open.held.isEmpty())) {
+                sendNow[0] = true;
+                return new Window(userId, now, window);
+            }
+            open.hold(request, SUPERSEDING.contains(request.getType()));
+            return open;
+        });
+        return sendNow[0];
+    }
+
+    /**
+     * Digests for the windows that have closed
+     */
+    public List<Digest> drainDue() {
+        return drain(System.currentTimeMillis(), false);
+    }
+
+    /**
+     * Digests for everything held, open windows included (on shutdown)
+     */
+    public List<Digest> drainAll() {
+        return drain(System.currentTimeMillis(), true);
+    }
+
+    List<Digest> drain(long now, boolean all) {
+        List<Digest> digests = new ArrayList<>();
+        for (String key : windows.keySet()) {
+            windows.computeIfPresent(key, (k, open) -> {
+                if (!all && now < open.closesAt) {
+                    return open;
+                }
+                if (open.held.isEmpty()) {
+                    return null;
+                }
+                digests.add(new Digest(open.userId, digest(new ArrayList<>(open.held.values()), open.events)));
+                // Keep holding while the burst goes on
+                return all ? null : new Window(open.userId, now, open.length);
+            });
+        }
+        return digests;
+    }
+
+    private boolean isUrgent(SendNotificationRequest request) {
+        return request.getPriority() != null && request.getPriority().compareTo(bypassPriority) >= 0;
+    }
+
+    /**
+     * One notification standing for all the held ones
+     */
+    static SendNotificationRequest digest(List<SendNotificationRequest> held, int events) {
+        SendNotificationRequest latest = held.get(held.size() - 1);
+        if (held.size() == 1) {
+            return latest;
+        }
+
+        StringBuilder body = new StringBuilder();
+        for (int i = held.size() - 1; i >= Math.max(0, held.size() - DIGEST_LINES); i--) {
+            body.append(held.get(i).getBody()).append('\n');
+        }
+        if (held.size() > DIGEST_LINES) {
+            body.append(String.format("...and %d more", held.size() - DIGEST_LINES));
+        }
+
+        NotificationPriority priority = held.stream()
+                .map(SendNotificationRequest::getPriority)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(NotificationPriority.NORMAL);
+        boolean sameUrl = held.stream().allMatch(r -> Objects.equals(r.getActionUrl(), latest.getActionUrl()));
+        boolean sameReference = held.stream().allMatch(r -> Objects.equals(r.getReferenceId(), latest.getReferenceId()));
+
+        return SendNotificationRequest.builder()
+                .title(digestTitle(latest, held.size()))
+                .body(body.toString().strip())
+                .type(latest.getType())
+                .category(latest.getCategory())
+                .channels(latest.getChannels())
+                .actionUrl(sameUrl ? latest.getActionUrl() : listUrl(latest))
+                .actionType(sameUrl ? latest.getActionType() : "OPEN_URL")
+                .actionData(Map.of("digestCount", String.valueOf(events)))
+                .referenceId(sameReference ? latest.getReferenceId() : null)
+                .referenceType(sameReference ? latest.getReferenceType() : null)
+                .priority(priority)
+                .build();
+    }
+
+    private static String digestTitle(SendNotificationRequest latest, int count) {
+        return switch (latest.getType()) {
+            case NEW_ORDER -> String.format("%d New Orders Received!", count);
+            case LOW_STOCK_ALERT -> String.format("Low Stock on %d Products", count);
+            case REVIEW_RECEIVED -> String.format("%d New Reviews Received!", count);
+            case PRICE_DROP -> String.format("Price Drops on %d Products 🎉", count);
+            default -> String.format("%s (%d)", latest.getTitle(), count);
+        };
+    }
+
+    private static String listUrl(SendNotificationRequest latest) {
+        return switch (latest.getType()) {
+            case NEW_ORDER -> "/vendor/orders";
+            case LOW_STOCK_ALERT, REVIEW_RECEIVED -> "/vendor/products";
+            default -> latest.getActionUrl();
+        };
+    }
+
+    public record Digest(String userId, SendNotificationRequest request) {}
+
+    private static final class Window {
+
+        private final String userId;
+        private final long length;
+        private final long closesAt;
+        // reference -> latest notification about it, in arrival order
+        private final LinkedHashMap<String, SendNotificationRequest> held = new LinkedHashMap<>();
+        private int events;
+
+        Window(String userId, long opensAt, long length) {
+            this.userId = userId;
+            this.length = length;
+            this.closesAt = opensAt + length;
+        }
+
+        void hold(SendNotificationRequest request, boolean supersedes) {
+            String reference = supersedes && request.getReferenceId() != null
+                    ? request.getReferenceId()
+                    : "#" + events;
+            held.remove(reference);
+            held.put(reference, request);
+            events++;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.exhaustedpigeon.ODOP.notification.service;
+
+import com.exhaustedpigeon.ODOP.notification.dto.SendNotificationRequest;
+import com.exhaustedpigeon.ODOP.notification.model.Notification;
+import com.exhaustedpigeon.ODOP.notification.model.Notification.NotificationChannel;
+import com.exhaustedpigeon.ODOP.notification.model.NotificationJob;
+import com.exhaustedpigeon.ODOP.notification.model.NotificationJob.JobStatus;
+import com.exhaustedpigeon.ODOP.notification.model.NotificationPreference;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Sends one notification to every user, or every user of a type, as a resumable job.
+ *
+ * Recipients are read from notification_preferences in userId order, one wave of
+ * notification.fanout.parallelism chunks at a time. Each chunk is bulk-inserted and delivered
+ * on the "notificationFanOutExecutor" pool, with email, SMS and push sends paced by
+ * {@link ChannelRateLimiter}. After every wave the job document records the last userId and
+ * the counts, and its lease is renewed.
+ *
+ * If a node dies mid-job its lease runs out and another node resumes from the checkpoint. At
+ * most one wave is replayed: notification ids are derived from the job and the user, so the
+ * replayed inserts are rejected as duplicates and those users are not notified twice.
+ */
+@Service
+@Slf4j
+public class NotificationFanOutService {
+
+    private final MongoTemplate mongoTemplate;
+    private final NotificationService notificationService;
+    private final Executor jobExecutor;
+    private final Executor chunkExecutor;
+    private final ChannelRateLimiter rateLimiter;
+
+    @Value("${notification.fanout.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${notification.fanout.parallelism:4}")
+    private int parallelism;
+
+    @Value("${notification.fanout.lease-ms:300000}")
+    private long leaseMillis;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Jobs queued or running on this node, so a resume pass does not submit them again
+    private final Set<String> localJobs = ConcurrentHashMap.newKeySet();
+
+    public NotificationFanOutService(MongoTemplate mongoTemplate,
+                                     NotificationService notificationService,
+                                     @Qualifier("notificationJobExecutor") Executor jobExecutor,
+                                     @Qualifier("notificationFanOutExecutor") Executor chunkExecutor,
+                                     @Value("${notification.fanout.rate-per-second.email:50}") int emailRate,
+                                     @Value("${notification.fanout.rate-per-second.sms:20}") int smsRate,
+                                     @Value("${notification.fanout.rate-per-second.push:500}") int pushRate,
+                                     @Value("${notification.fanout.rate-per-second.whatsapp:20}") int whatsappRate) {
+        this.mongoTemplate = mongoTemplate;
+        this.notificationService = notificationService;
+        this.jobExecutor = jobExecutor;
+        this.chunkExecutor = chunkExecutor;
+        this.rateLimiter = new ChannelRateLimiter(Map.of(
+                NotificationChannel.EMAIL, emailRate,
+                NotificationChannel.SMS, smsRate,
+                NotificationChannel.PUSH, pushRate,
+                NotificationChannel.WHATSAPP, whatsappRate));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            mongoTemplate.indexOps(NotificationPreference.class).ensureIndex(new CompoundIndexDefinition(
+                    new Document("userType", 1).append("userId", 1))
+                    .named("type_user_idx"));
+        } catch (RuntimeException e) {
+            log.warn("Could not create notification preference indexes: {}", e.getMessage());
+        }
+    }
+
+    // ==================== JOBS ====================
+
+    /**
+     * Queue a notification for every user of the given type (null for everyone)
+     */
+    public NotificationJob start(String userType, SendNotificationRequest request) {
+        LocalDateTime now = LocalDateTime.now();
+        NotificationJob job = mongoTemplate.insert(NotificationJob.builder()
+                .userType(userType)
+                .request(request)
+                .status(JobStatus.PENDING)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        log.info("Queued notification job {} for {}", job.getId(), userType != null ? userType + " users" : "all users");
+        submit(job.getId());
+        return job;
+    }
+
+    public Optional<NotificationJob> getJob(String jobId) {
+        return Optional.ofNullable(mongoTemplate.findById(jobId, NotificationJob.class));
+    }
+
+    /**
+     * Pick up jobs that were never started or whose node stopped renewing the lease
+     */
+    @Scheduled(fixedDelayString = "${notification.fanout.resume-interval-ms:30000}",
+            initialDelayString = "${notification.fanout.resume-interval-ms:30000}")
+    public void resumeStalled() {
+        Query stalled = Query.query(Criteria.where("status").in(JobStatus.PENDING, JobStatus.RUNNING)
+                .orOperator(
+                        Criteria.where("leaseUntil").lt(LocalDateTime.now()),
+                        Criteria.where("leaseUntil").exists(false)));
+        stalled.fields().include("_id");
+        for (NotificationJob job : mongoTemplate.find(stalled, NotificationJob.class)) {
+            log.info("Resuming notification job {}", job.getId());
+            submit(job.getId());
+        }
+    }
+
+    private void submit(String jobId) {
+        if (!localJobs.add(jobId)) {
+            return;
+        }
+        try {
+            jobExecutor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    localJobs.remove(jobId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            localJobs.remove(jobId);
+            log.warn("Notification job {} left for the next resume pass: {}", jobId, e.getMessage());
+        }
+    }
+
+    void run(String jobId) {
+        NotificationJob job = claim(jobId);
+        if (job == null) {
+            return;
+        }
+        try {
+            int waveSize = chunkSize * Math.max(1, parallelism);
+            while (true) {
+                List<NotificationPreference> wave = nextRecipients(job, waveSize);
+                if (wave.isEmpty()) {
+                    break;
+                }
+                ChunkResult result = deliverWave(job, wave);
+                String lastUserId = wave.get(wave.size() - 1).getUserId();
+                if (!checkpoint(job, lastUserId, wave.size(), result)) {
+                    log.warn("Notification job {} lost its lease, stopping on this node", jobId);
+                    return;
+                }
+                job.setLastUserId(lastUserId);
+                if (wave.size() < waveSize) {
+                    break;
+                }
+            }
+            finish(job, JobStatus.COMPLETED, null);
+            log.info("Notification job {} completed", jobId);
+        } catch (RuntimeException e) {
+            log.error("Notification job {} failed: {}", jobId, e.getMessage(), e);
+            finish(job, JobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    // ==================== CHUNKS ====================
+
+    private List<NotificationPreference> nextRecipients(NotificationJob job, int limit) {
+        Criteria criteria = Criteria.where("globalEnabled").is(true);
+        if (job.getUserType() != null) {
+            criteria = criteria.and("userType").is(job.getUserType());
+        }
+        if (job.getLastUserId() != null) {
+            criteria = criteria.and("userId").gt(job.getLastUserId());
+        }
+        return mongoTemplate.find(Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "userId"))
+                .limit(limit), NotificationPreference.class);
+    }
+
+    private ChunkResult deliverWave(NotificationJob job, List<NotificationPreference> wave) {
+        List<CompletableFuture<ChunkResult>> chunks = new ArrayList<>();
+        for (int from = 0; from < wave.size(); from += chunkSize) {
+            List<NotificationPreference> chunk = wave.subList(from, Math.min(from + chunkSize, wave.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> deliverChunk(job, chunk), chunkExecutor));
+        }
+        ChunkResult total = new ChunkResult(0, 0);
+        for (CompletableFuture<ChunkResult> chunk : chunks) {
+            total = total.plus(chunk.join());
+        }
+        return total;
+    }
+
+    private ChunkResult deliverChunk(NotificationJob job, List<NotificationPreference> recipients) {
+        SendNotificationRequest request = job.getRequest();
+        List<Notification> notifications = new ArrayList<>(recipients.size());
+        for (NotificationPreference pref : recipients) {
+            Notification notification = notificationService.createNotification(pref.getUserId(), pref.getUserType(), request);
+            notification.setId(job.getId() + ":" + pref.getUserId());
+            notifications.add(notification);
+        }
+
+        Set<Integer> notInserted = insert(job, notifications);
+
+        // Deliver the new notifications, then record the outcome per distinct set of channels
+        Map<List<NotificationChannel>, List<String>> idsBySent = new HashMap<>();
+        int failed = 0;
+        for (int i = 0; i < notifications.size(); i++) {
+            if (notInserted.contains(i)) {
+                continue;
+            }
+            Notification notification = notifications.get(i);
+            NotificationPreference pref = recipients.get(i);
+            List<NotificationChannel> sent = new ArrayList<>();
+            for (NotificationChannel channel : notificationService.determineChannels(request, pref)) {
+                try {
+                    rateLimiter.acquire(channel);
+                    notificationService.sendThrough(channel, notification, pref);
+                    sent.add(channel);
+                } catch (Exception e) {
+                    failed++;
+                    log.error("Failed to send notification {} through {}: {}", notification.getId(), channel, e.getMessage());
+                }
+            }
+            idsBySent.computeIfAbsent(sent, k -> new ArrayList<>()).add(notification.getId());
+        }
+
+        LocalDateTime deliveredAt = LocalDateTime.now();
+        idsBySent.forEach((sent, ids) -> mongoTemplate.updateMulti(
+                Query.query(Criteria.where("_id").in(ids)),
+                new Update()
+                        .set("sentChannels", sent)
+                        .set("delivered", !sent.isEmpty())
+                        .set("deliveredAt", deliveredAt),
+                Notification.class));
+
+        return new ChunkResult(notifications.size() - notInserted.size(), failed);
+    }
+
+    /**
+     * Bulk-insert the chunk; returns the positions that were not inserted, either because a
+     * previous run of this job already did (duplicate id) or because the write failed
+     */
+    private Set<Integer> insert(NotificationJob job, List<Notification> notifications) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class)
+                    .insert(notifications)
+                    .execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            Set<Integer> skipped = new HashSet<>();
+            int errors = 0;
+            for (BulkWriteError error : e.getErrors()) {
+                skipped.add(error.getIndex());
+                if (error.getCode() != 11000) {
+                    errors++;
+                }
+            }
+            if (errors > 0) {
+                log.warn("Notification job {}: {} of {} inserts failed", job.getId(), errors, notifications.size());
+            }
+            return skipped;
+        }
+    }
+
+    // ==================== JOB DOCUMENT ====================
+
+    /**
+     * Take the job's lease; null if it is finished or any run, this node's included, holds it.
+     * A lease only becomes free again by running out, never because it is ours.
+     */
+    private NotificationJob claim(String jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        Query claimable = Query.query(new Criteria().andOperator(
+                Criteria.where("_id").is(jobId),
+                Criteria.where("status").in(JobStatus.PENDING, JobStatus.RUNNING),
+                new Criteria().orOperator(
+                        Criteria.where("leaseUntil").lt(now),
+                        Criteria.where("leaseUntil").exists(false))));
+        return mongoTemplate.findAndModify(claimable,
+                new Update()
+                        .set("status", JobStatus.RUNNING)
+                        .set("leaseOwner", nodeId)
+                        .set("leaseUntil", now.plusNanos(leaseMillis * 1_000_000))
+                        .set("updatedAt", now),
+                FindAndModifyOptions.options().returnNew(true),
+                NotificationJob.class);
+    }
+
+    private boolean checkpoint(NotificationJob job, String lastUserId, int recipients, ChunkResult result) {
+        LocalDateTime now = LocalDateTime.now();
+        return mongoTemplate.updateFirst(ownedBy(job.getId()),
+                new Update()
+                        .set("lastUserId", lastUserId)
+                        .inc("recipients", recipients)
+                        .inc("created", result.created())
+                        .inc("failedDeliveries", result.failed())
+                        .set("leaseUntil", now.plusNanos(leaseMillis * 1_000_000))
+                        .set("updatedAt", now),
+                NotificationJob.class).getModifiedCount() > 0;
+    }
+
+    private void finish(NotificationJob job, JobStatus status, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("status", status)
+                .unset("leaseOwner")
+                .unset("leaseUntil")
+                .set("updatedAt", now)
+                .set("completedAt", now);
+        if (error != null) {
+            update.set("error", error);
+        }
+        mongoTemplate.updateFirst(ownedBy(job.getId()), update, NotificationJob.class);
+    }
+
+    private Query ownedBy(String jobId) {
+        return Query.query(Criteria.where("_id").is(jobId).and("leaseOwner").is(nodeId));
+    }
+
+    private record ChunkResult(long created, long failed) {
+        ChunkResult plus(ChunkResult other) {
+            return new ChunkResult(created + other.created, failed + other.failed);
+        }
+    }
+}
@@ -6,12 +6,18 @@ import com.exhaustedpigeon.ODOP.notification.model.Notification.*;
 import com.exhaustedpigeon.ODOP.notification.model.NotificationPreference;
 import com.exhaustedpigeon.ODOP.notification.repository.NotificationPreferenceRepository;
 import com.exhaustedpigeon.ODOP.notification.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -30,6 +36,8 @@ public class NotificationService {
     
     private final NotificationRepository notificationRepository;
     private final NotificationPreferenceRepository preferenceRepository;
+    private final MongoTemplate mongoTemplate;
+    private final NotificationCoalescer coalescer;
     
     // ==================== SEND NOTIFICATIONS ====================
     
@@ -81,40 +89,36 @@ public class NotificationService {
         }
     }
     
+    // Sending to every user, or every user of a type, goes through NotificationFanOutService
+    
     /**
-     * Send notification to all users of a specific type
+     * Send now, or hold for a digest if the user just had one of the same type
      */
-    @Async
-    public void sendToUserType(String userType, SendNotificationRequest request) {
-        log.info("Sending notification to all users of type: {}", userType);
-        
-        List<NotificationPreference> preferences = preferenceRepository.findByUserType(userType);
-        
-        for (NotificationPreference pref : preferences) {
-            try {
-                if (pref.isGlobalEnabled()) {
-                    sendToUser(pref.getUserId(), request);
-                }
-            } catch (Exception e) {
-                log.error("Failed to send notification to user: {}", pref.getUserId(), e);
-            }
+    private void sendCoalesced(String userId, SendNotificationRequest request) {
+        if (coalescer.offer(userId, request)) {
+            sendToUser(userId, request);
         }
     }
     
     /**
-     * Broadcast notification to all users
+     * Send the digests whose window has closed
      */
-    @Async
-    public void broadcast(SendNotificationRequest request) {
-        log.info("Broadcasting notification to all users");
-        
-        List<NotificationPreference> allPrefs = preferenceRepository.findByGlobalEnabledTrue();
-        
-        for (NotificationPreference pref : allPrefs) {
+    @Scheduled(fixedDelayString = "${notification.digest.flush-interval-ms:5000}")
+    public void flushDigests() {
+        sendDigests(coalescer.drainDue());
+    }
+    
+    @PreDestroy
+    public void flushAllDigests() {
+        sendDigests(coalescer.drainAll());
+    }
+    
+    private void sendDigests(List<NotificationCoalescer.Digest> digests) {
+        for (NotificationCoalescer.Digest digest : digests) {
             try {
-                sendToUser(pref.getUserId(), request);
+                sendToUser(digest.userId(), digest.request());
             } catch (Exception e) {
-                log.error("Failed to broadcast to user: {}", pref.getUserId(), e);
+                log.error("Failed to send notification digest to user: {}", digest.userId(), e);
             }
         }
     }
@@ -181,6 +185,26 @@ public class NotificationService {
         sendToUser(customerId, request);
     }
     
+    /**
+     * Send a shipment progress notification (dispatch, out for delivery, delays, delivery)
+     */
+    public void notifyShipmentUpdate(String customerId, String orderId, String trackingNumber,
+                                     NotificationType type, String statusName, String description) {
+        SendNotificationRequest request = SendNotificationRequest.builder()
+                .title("Shipment " + statusName)
+                .body(String.format("%s (tracking %s)", description, trackingNumber))
+                .type(type)
+                .category("SHIPMENT")
+                .actionUrl("/track-order/" + orderId)
+                .actionType("OPEN_TRACKING")
+                .referenceId(orderId)
+                .referenceType("ORDER")
+                .priority(type == NotificationType.SHIPMENT_DELAYED ? NotificationPriority.HIGH : NotificationPriority.NORMAL)
+                .build();
+        
+        sendToUser(customerId, request);
+    }
+    
     // ==================== VENDOR NOTIFICATIONS ====================
     
     /**
@@ -199,7 +223,7 @@ public class NotificationService {
                 .priority(NotificationPriority.HIGH)
                 .build();
         
-        sendToUser(vendorId, request);
+        sendCoalesced(vendorId, request);
     }
     
     /**
@@ -216,10 +240,11 @@ public class NotificationService {
                 .actionType("OPEN_PRODUCT")
                 .referenceId(productId)
                 .referenceType("PRODUCT")
-                .priority(NotificationPriority.HIGH)
+                // Sold out is never held back for a digest
+                .priority(currentStock <= 0 ? NotificationPriority.URGENT : NotificationPriority.HIGH)
                 .build();
         
-        sendToUser(vendorId, request);
+        sendCoalesced(vendorId, request);
     }
     
     /**
@@ -240,7 +265,7 @@ public class NotificationService {
                 .priority(NotificationPriority.NORMAL)
                 .build();
         
-        sendToUser(vendorId, request);
+        sendCoalesced(vendorId, request);
     }
     
     /**
@@ -366,7 +391,7 @@ public class NotificationService {
                 .priority(NotificationPriority.NORMAL)
                 .build();
         
-        sendToUser(userId, request);
+        sendCoalesced(userId, request);
     }
     
     /**
@@ -432,26 +457,20 @@ public class NotificationService {
      * Mark notification as read
      */
     public void markAsRead(String notificationId) {
-        notificationRepository.findById(notificationId).ifPresent(notification -> {
-            notification.setRead(true);
-            notification.setReadAt(LocalDateTime.now());
-            notificationRepository.save(notification);
-        });
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(notificationId).and("read").is(false)),
+                new Update().set("read", true).set("readAt", LocalDateTime.now()),
+                Notification.class);
     }
     
     /**
-     * Mark all notifications as read for a user
+     * Mark all notifications as read for a user, in one updateMany
      */
     public void markAllAsRead(String userId) {
-        List<Notification> unread = notificationRepository.findByUserIdAndReadFalseOrderByCreatedAtDesc(userId);
-        LocalDateTime now = LocalDateTime.now();
-        
-        unread.forEach(notification -> {
-            notification.setRead(true);
-            notification.setReadAt(now);
-        });
-        
-        notificationRepository.saveAll(unread);
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("userId").is(userId).and("read").is(false)),
+                new Update().set("read", true).set("readAt", LocalDateTime.now()),
+                Notification.class);
     }
     
     /**
@@ -588,7 +607,7 @@ public class NotificationService {
                 });
     }
     
-    private Notification createNotification(String userId, String userType, SendNotificationRequest request) {
+    Notification createNotification(String userId, String userType, SendNotificationRequest request) {
         return Notification.builder()
                 .userId(userId)
                 .userType(userType)
@@ -610,8 +629,8 @@ public class NotificationService {
                 .build();
     }
     
-    private List<NotificationChannel> determineChannels(SendNotificationRequest request, 
-                                                        NotificationPreference preferences) {
+    List<NotificationChannel> determineChannels(SendNotificationRequest request, 
+                                                NotificationPreference preferences) {
         List<NotificationChannel> channels = new ArrayList<>();
         
         // If channels specified in request, use those
@@ -692,25 +711,8 @@ public class NotificationService {
         
         for (NotificationChannel channel : channels) {
             try {
-                switch (channel) {
-                    case PUSH -> {
-                        sendPushNotification(notification, preferences);
-                        sentChannels.add(channel);
-                    }
-                    case EMAIL -> {
-                        sendEmailNotification(notification, preferences);
-                        sentChannels.add(channel);
-                    }
-                    case SMS -> {
-                        sendSmsNotification(notification, preferences);
-                        sentChannels.add(channel);
-                    }
-                    case WHATSAPP -> {
-                        sendWhatsAppNotification(notification, preferences);
-                        sentChannels.add(channel);
-                    }
-                    case IN_APP -> sentChannels.add(channel);  // Already stored
-                }
+                sendThrough(channel, notification, preferences);
+                sentChannels.add(channel);
             } catch (Exception e) {
                 log.error("Failed to send notification through {}: {}", channel, e.getMessage());
             }
@@ -722,6 +724,19 @@ public class NotificationService {
         notificationRepository.save(notification);
     }
     
+    /**
+     * Deliver a stored notification through one channel; throws if the channel fails
+     */
+    void sendThrough(NotificationChannel channel, Notification notification, NotificationPreference preferences) {
+        switch (channel) {
+            case PUSH -> sendPushNotification(notification, preferences);
+            case EMAIL -> sendEmailNotification(notification, preferences);
+            case SMS -> sendSmsNotification(notification, preferences);
+            case WHATSAPP -> sendWhatsAppNotification(notification, preferences);
+            case IN_APP -> { }  // Already stored
+        }
+    }
+    
     private void sendPushNotification(Notification notification, NotificationPreference preferences) {
         // TODO: Implement Firebase Cloud Messaging
         // For now, log the notification
@@ -0,0 +1,98 @@
+package com.exhaustedpigeon.ODOP.notification.service;
+
+import com.exhaustedpigeon.ODOP.notification.model.Notification.NotificationType;
+import com.exhaustedpigeon.ODOP.shipping.model.ShipmentStatus;
+import com.odop.root.events.model.OutboxEvent;
+import com.odop.root.events.service.OutboxConsumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns order, payment and shipment outbox events into customer notifications
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderEventNotifier implements OutboxConsumer {
+
+    private static final Set<String> EVENT_TYPES = Set.of(
+            OutboxEvent.ORDER_CREATED,
+            OutboxEvent.ORDER_STATUS_CHANGED,
+            OutboxEvent.PAYMENT_STATUS_CHANGED,
+            OutboxEvent.SHIPMENT_STATUS_CHANGED);
+
+    private final NotificationService notificationService;
+
+    @Override
+    public String name() {
+        return "notifications";
+    }
+
+    @Override
+    public boolean accepts(String eventType) {
+        return EVENT_TYPES.contains(eventType);
+    }
+
+    @Override
+    public void handle(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            Map<String, Object> payload = event.getPayload();
+            String customerId = (String) payload.get("customerId");
+            if (customerId == null) {
+                continue;
+            }
+            String orderId = event.getAggregateType().equals("ORDER")
+                    ? event.getAggregateId()
+                    : (String) payload.get("orderId");
+            switch (event.getType()) {
+                case OutboxEvent.ORDER_CREATED ->
+                        notificationService.notifyOrderPlaced(customerId, orderId, amount(payload));
+                case OutboxEvent.ORDER_STATUS_CHANGED -> {
+                    String status = (String) payload.get("to");
+                    if ("SHIPPED".equals(status)) {
+                        notificationService.notifyOrderShipped(customerId, orderId, (String) payload.get("trackingNumber"));
+                    } else if ("DELIVERED".equals(status)) {
+                        notificationService.notifyOrderDelivered(customerId, orderId);
+                    }
+                }
+                case OutboxEvent.PAYMENT_STATUS_CHANGED -> {
+                    String status = (String) payload.get("to");
+                    if ("PAID".equals(status)) {
+                        notificationService.notifyPaymentSuccess(customerId, orderId, amount(payload));
+                    } else if ("FAILED".equals(status)) {
+                        notificationService.notifyPaymentFailed(customerId, orderId, "payment was declined");
+                    } else if ("REFUNDED".equals(status)) {
+                        notificationService.notifyRefundProcessed(customerId, orderId, amount(payload));
+                    }
+                }
+                case OutboxEvent.SHIPMENT_STATUS_CHANGED -> notifyShipment(customerId, orderId, payload);
+                default -> {}
+            }
+        }
+    }
+
+    private void notifyShipment(String customerId, String orderId, Map<String, Object> payload) {
+        ShipmentStatus status = ShipmentStatus.valueOf((String) payload.get("status"));
+        NotificationType type = switch (status) {
+            case PICKED_UP -> NotificationType.SHIPMENT_DISPATCHED;
+            case OUT_FOR_DELIVERY -> NotificationType.SHIPMENT_OUT_FOR_DELIVERY;
+            case DELIVERY_ATTEMPTED, RESCHEDULED -> NotificationType.SHIPMENT_DELAYED;
+            case DELIVERED -> NotificationType.SHIPMENT_DELIVERED;
+            default -> null;
+        };
+        if (type != null) {
+            notificationService.notifyShipmentUpdate(customerId, orderId, (String) payload.get("trackingNumber"),
+                    type, status.getDisplayName(), status.getDescription());
+        }
+    }
+
+    private static double amount(Map<String, Object> payload) {
+        Object amount = payload.get("amount");
+        return amount instanceof Number number ? number.doubleValue() : 0;
+    }
+}
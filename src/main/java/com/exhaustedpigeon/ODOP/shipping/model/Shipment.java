@@ -140,13 +140,4 @@ public class Shipment {
         this.statusDescription = event.getDescription();
         this.lastUpdatedAt = event.getTimestamp();
     }
-    
-    /**
-     * Generate tracking number
-     */
-    public static String generateTrackingNumber(String prefix) {
-        long timestamp = System.currentTimeMillis();
-        int random = (int) (Math.random() * 10000);
-        return String.format("%s%d%04d", prefix, timestamp % 100000000, random);
-    }
 }
@@ -7,12 +7,22 @@ import com.exhaustedpigeon.ODOP.shipping.model.Shipment;
 import com.exhaustedpigeon.ODOP.shipping.model.ShipmentStatus;
 import com.exhaustedpigeon.ODOP.shipping.repository.ShipmentRepository;
 import lombok.RequiredArgsConstructor;
+import com.odop.root.cache.StatsCache;
+import com.odop.root.events.model.OutboxEvent;
+import com.odop.root.events.service.OutboxService;
+import com.odop.root.sequence.service.SequenceService;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service for managing shipments and tracking
@@ -23,9 +33,15 @@ import java.util.List;
 public class ShippingService {
     
     private final ShipmentRepository shipmentRepository;
+    private final MongoTemplate mongoTemplate;
+    private final StatsCache statsCache;
+    private final OutboxService outboxService;
+    private final SequenceService sequenceService;
     
     // Tracking number prefix for ODOP
     private static final String TRACKING_PREFIX = "ODOP";
+    // 13 digits keeps sequence-based numbers clear of the older timestamp-based ones (at most 12)
+    private static final int TRACKING_DIGITS = 13;
     
     /**
      * Create a new shipment for an order
@@ -38,7 +54,7 @@ public class ShippingService {
         }
         
         // Generate tracking number
-        String trackingNumber = Shipment.generateTrackingNumber(TRACKING_PREFIX);
+        String trackingNumber = sequenceService.next("shipment", TRACKING_PREFIX, TRACKING_DIGITS);
         
         // Calculate estimated delivery (3-7 days based on mode)
         LocalDateTime estimatedDelivery = calculateEstimatedDelivery(request.getShippingMode());
@@ -79,8 +95,9 @@ public class ShippingService {
                 .updatedBy("System")
                 .build());
         
-        Shipment saved = shipmentRepository.save(shipment);
+        Shipment saved = save(shipment);
         log.info("Created shipment {} for order {}", trackingNumber, request.getOrderId());
+        publish(OutboxEvent.SHIPMENT_CREATED, saved);
         
         return saved;
     }
@@ -140,11 +157,11 @@ public class ShippingService {
             default -> {}
         }
         
-        Shipment saved = shipmentRepository.save(shipment);
+        Shipment saved = save(shipment);
         log.info("Updated shipment {} status to {}", trackingNumber, request.getStatus());
         
-        // Send notification
-        sendStatusNotification(shipment);
+        // Customers are notified asynchronously from the outbox
+        publish(OutboxEvent.SHIPMENT_STATUS_CHANGED, saved);
         
         return saved;
     }
@@ -204,7 +221,7 @@ public class ShippingService {
                     .build());
         }
         
-        return shipmentRepository.save(shipment);
+        return save(shipment);
     }
     
     /**
@@ -221,7 +238,7 @@ public class ShippingService {
         
         // Swap pickup and delivery addresses
         Shipment returnShipment = Shipment.builder()
-                .trackingNumber(Shipment.generateTrackingNumber(TRACKING_PREFIX + "R"))
+                .trackingNumber(sequenceService.next("shipment", TRACKING_PREFIX + "R", TRACKING_DIGITS))
                 .orderId(original.getOrderId() + "-RETURN")
                 .customerId(original.getCustomerId())
                 .vendorId(original.getVendorId())
@@ -247,32 +264,52 @@ public class ShippingService {
                 .updatedBy("System")
                 .build());
         
-        return shipmentRepository.save(returnShipment);
+        return save(returnShipment);
     }
     
     /**
-     * Get shipment statistics for vendor dashboard
+     * Get shipment statistics for vendor dashboard.
+     * One $match + $group by status per vendor, cached briefly and invalidated on shipment writes.
      */
     public VendorShipmentStats getVendorStats(String vendorId) {
-        List<ShipmentStatus> activeStatuses = List.of(
-                ShipmentStatus.ORDER_PLACED, ShipmentStatus.ORDER_CONFIRMED,
-                ShipmentStatus.PROCESSING, ShipmentStatus.READY_FOR_PICKUP,
-                ShipmentStatus.PICKED_UP, ShipmentStatus.IN_TRANSIT_TO_HUB,
-                ShipmentStatus.REACHED_HUB, ShipmentStatus.IN_TRANSIT,
-                ShipmentStatus.OUT_FOR_DELIVERY
-        );
-        
-        long pending = shipmentRepository.countByVendorIdAndStatusIn(vendorId, 
-                List.of(ShipmentStatus.ORDER_PLACED, ShipmentStatus.ORDER_CONFIRMED, ShipmentStatus.PROCESSING));
-        long inTransit = shipmentRepository.countByVendorIdAndStatusIn(vendorId,
-                List.of(ShipmentStatus.PICKED_UP, ShipmentStatus.IN_TRANSIT_TO_HUB, 
-                        ShipmentStatus.REACHED_HUB, ShipmentStatus.IN_TRANSIT));
-        long outForDelivery = shipmentRepository.countByVendorIdAndStatusIn(vendorId,
-                List.of(ShipmentStatus.OUT_FOR_DELIVERY));
-        long delivered = shipmentRepository.countByVendorIdAndStatusIn(vendorId,
-                List.of(ShipmentStatus.DELIVERED));
-        
-        return new VendorShipmentStats(pending, inTransit, outForDelivery, delivered);
+        return statsCache.get(StatsCache.key(StatsCache.SHIPMENTS, vendorId), () -> {
+            Map<ShipmentStatus, Long> counts = countByStatus(vendorId);
+            long pending = sum(counts, ShipmentStatus.ORDER_PLACED, ShipmentStatus.ORDER_CONFIRMED,
+                    ShipmentStatus.PROCESSING);
+            long inTransit = sum(counts, ShipmentStatus.PICKED_UP, ShipmentStatus.IN_TRANSIT_TO_HUB,
+                    ShipmentStatus.REACHED_HUB, ShipmentStatus.IN_TRANSIT);
+            long outForDelivery = sum(counts, ShipmentStatus.OUT_FOR_DELIVERY);
+            long delivered = sum(counts, ShipmentStatus.DELIVERED);
+            return new VendorShipmentStats(pending, inTransit, outForDelivery, delivered);
+        });
+    }
+    
+    private Map<ShipmentStatus, Long> countByStatus(String vendorId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("vendorId").is(vendorId)),
+                Aggregation.group("status").count().as("count"));
+        Map<ShipmentStatus, Long> counts = new HashMap<>();
+        for (Document bucket : mongoTemplate.aggregate(aggregation, Shipment.class, Document.class)) {
+            Object status = bucket.get("_id");
+            if (status != null) {
+                counts.put(ShipmentStatus.valueOf(status.toString()), ((Number) bucket.get("count")).longValue());
+            }
+        }
+        return counts;
+    }
+    
+    private static long sum(Map<ShipmentStatus, Long> counts, ShipmentStatus... statuses) {
+        long total = 0;
+        for (ShipmentStatus status : statuses) {
+            total += counts.getOrDefault(status, 0L);
+        }
+        return total;
+    }
+    
+    private Shipment save(Shipment shipment) {
+        Shipment saved = shipmentRepository.save(shipment);
+        statsCache.invalidate(StatsCache.key(StatsCache.SHIPMENTS, saved.getVendorId()));
+        return saved;
     }
     
     /**
@@ -302,13 +339,14 @@ public class ShippingService {
         // Add more specific transition rules as needed
     }
     
-    /**
-     * Send notification for status update
-     */
-    private void sendStatusNotification(Shipment shipment) {
-        // TODO: Integrate with notification service
-        log.info("Notification sent for shipment {} - Status: {}", 
-                shipment.getTrackingNumber(), shipment.getStatus());
+    private void publish(String eventType, Shipment shipment) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("trackingNumber", shipment.getTrackingNumber());
+        payload.put("orderId", shipment.getOrderId());
+        payload.put("customerId", shipment.getCustomerId());
+        payload.put("vendorId", shipment.getVendorId());
+        payload.put("status", shipment.getStatus().name());
+        outboxService.publish(eventType, "SHIPMENT", shipment.getId(), payload);
     }
     
     /**
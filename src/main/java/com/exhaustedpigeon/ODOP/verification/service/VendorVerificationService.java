@@ -4,19 +4,25 @@ import com.exhaustedpigeon.ODOP.verification.dto.VerificationStatusDto;
 import com.exhaustedpigeon.ODOP.verification.model.VendorVerification;
 import com.exhaustedpigeon.ODOP.verification.model.VendorVerification.*;
 import com.exhaustedpigeon.ODOP.verification.repository.VendorVerificationRepository;
+import com.odop.root.cache.StatsCache;
 import com.odop.root.dto.ImageUploadResponse;
 import com.odop.root.models.Vendor;
 import com.odop.root.repository.VendorRepository;
 import com.odop.root.services.ImageUploadService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -30,6 +36,8 @@ public class VendorVerificationService {
     private final VendorVerificationRepository verificationRepository;
     private final VendorRepository vendorRepository;
     private final ImageUploadService imageUploadService;
+    private final MongoTemplate mongoTemplate;
+    private final StatsCache statsCache;
     
     /**
      * Start verification process for a vendor
@@ -69,7 +77,7 @@ public class VendorVerificationService {
                 .lastUpdatedAt(LocalDateTime.now())
                 .build();
         
-        VendorVerification saved = verificationRepository.save(verification);
+        VendorVerification saved = save(verification);
         log.info("Started verification for vendor: {}", vendorId);
         
         return saved;
@@ -138,7 +146,7 @@ public class VendorVerificationService {
             verification.setStatusMessage("All documents uploaded. Awaiting admin review.");
         }
         
-        VendorVerification saved = verificationRepository.save(verification);
+        VendorVerification saved = save(verification);
         log.info("Uploaded document {} for vendor {}", documentType, vendorId);
         
         return saved;
@@ -161,7 +169,7 @@ public class VendorVerificationService {
         verification.setStatusMessage("Verification submitted for admin review");
         verification.setLastUpdatedAt(LocalDateTime.now());
         
-        VendorVerification saved = verificationRepository.save(verification);
+        VendorVerification saved = save(verification);
         log.info("Submitted verification for review: vendor {}", vendorId);
         
         // TODO: Send notification to admin
@@ -186,7 +194,7 @@ public class VendorVerificationService {
                 .build());
         verification.setLastUpdatedAt(LocalDateTime.now());
         
-        return verificationRepository.save(verification);
+        return save(verification);
     }
     
     /**
@@ -215,7 +223,7 @@ public class VendorVerificationService {
         // Update steps if applicable
         updateStepsBasedOnDocuments(verification);
         
-        return verificationRepository.save(verification);
+        return save(verification);
     }
     
     /**
@@ -255,7 +263,7 @@ public class VendorVerificationService {
         steps.setBankDetailsVerified(true);
         steps.setAgreementSigned(true);
         
-        VendorVerification saved = verificationRepository.save(verification);
+        VendorVerification saved = save(verification);
         
         // Update vendor status
         updateVendorVerificationStatus(vendorId, true);
@@ -294,7 +302,7 @@ public class VendorVerificationService {
                 .build());
         verification.setRejectionHistory(history);
         
-        VendorVerification saved = verificationRepository.save(verification);
+        VendorVerification saved = save(verification);
         
         // Update vendor status
         updateVendorVerificationStatus(vendorId, false);
@@ -319,7 +327,7 @@ public class VendorVerificationService {
         verification.setStatusMessage("Additional information required: " + String.join(", ", requiredItems));
         verification.setLastUpdatedAt(LocalDateTime.now());
         
-        return verificationRepository.save(verification);
+        return save(verification);
     }
     
     /**
@@ -332,22 +340,42 @@ public class VendorVerificationService {
     }
     
     /**
-     * Get verification statistics for admin dashboard
+     * Get verification statistics for admin dashboard.
+     * One $group by status, cached briefly and invalidated on verification writes.
      */
     public VerificationStats getVerificationStats() {
-        return new VerificationStats(
-                verificationRepository.countByStatus(VerificationStatus.DOCUMENTS_PENDING),
-                verificationRepository.countByStatus(VerificationStatus.DOCUMENTS_SUBMITTED),
-                verificationRepository.countByStatus(VerificationStatus.UNDER_REVIEW),
-                verificationRepository.countByStatus(VerificationStatus.APPROVED),
-                verificationRepository.countByStatus(VerificationStatus.REJECTED)
-        );
+        return statsCache.get(StatsCache.VENDOR_VERIFICATIONS, () -> {
+            Map<String, Long> counts = countByStatus();
+            return new VerificationStats(
+                    counts.getOrDefault(VerificationStatus.DOCUMENTS_PENDING.name(), 0L),
+                    counts.getOrDefault(VerificationStatus.DOCUMENTS_SUBMITTED.name(), 0L),
+                    counts.getOrDefault(VerificationStatus.UNDER_REVIEW.name(), 0L),
+                    counts.getOrDefault(VerificationStatus.APPROVED.name(), 0L),
+                    counts.getOrDefault(VerificationStatus.REJECTED.name(), 0L)
+            );
+        });
     }
     
     // ============================================
     // HELPER METHODS
     // ============================================
     
+    private VendorVerification save(VendorVerification verification) {
+        VendorVerification saved = verificationRepository.save(verification);
+        statsCache.invalidate(StatsCache.VENDOR_VERIFICATIONS);
+        return saved;
+    }
+    
+    private Map<String, Long> countByStatus() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("status").count().as("count"));
+        Map<String, Long> counts = new HashMap<>();
+        for (Document bucket : mongoTemplate.aggregate(aggregation, VendorVerification.class, Document.class)) {
+            counts.put(String.valueOf(bucket.get("_id")), ((Number) bucket.get("count")).longValue());
+        }
+        return counts;
+    }
+    
     private boolean areAllRequiredDocumentsUploaded(VendorVerification verification) {
         List<DocumentType> requiredTypes = java.util.Arrays.stream(DocumentType.values())
                 .filter(DocumentType::isRequired)
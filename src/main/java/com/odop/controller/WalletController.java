@@ -1,8 +1,9 @@
 package com.odop.controller;
 
 import com.odop.model.Wallet;
-import com.odop.model.Wallet.WalletTransaction;
+import com.odop.model.WalletLedgerEntry;
 import com.odop.service.WalletService;
+import com.odop.service.WalletService.TransactionPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -12,7 +13,7 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/odop/customer/{customerId}/wallet")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = "X-Next-Cursor")
 public class WalletController {
 
     @Autowired
@@ -154,33 +155,45 @@ public class WalletController {
     }
 
     /**
-     * Get all transactions
+     * Get transactions, newest first, one page at a time.
+     * The cursor for the next page is returned in the X-Next-Cursor header (absent on the last page).
      */
     @GetMapping("/transactions")
-    public ResponseEntity<List<WalletTransaction>> getTransactions(@PathVariable String customerId) {
-        List<WalletTransaction> transactions = walletService.getTransactionHistory(customerId);
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<List<WalletLedgerEntry>> getTransactions(
+            @PathVariable String customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return page(walletService.getTransactionHistory(customerId, null, cursor, limit));
     }
 
     /**
      * Get recent transactions
      */
     @GetMapping("/transactions/recent")
-    public ResponseEntity<List<WalletTransaction>> getRecentTransactions(
+    public ResponseEntity<List<WalletLedgerEntry>> getRecentTransactions(
             @PathVariable String customerId,
             @RequestParam(defaultValue = "10") int limit) {
-        List<WalletTransaction> transactions = walletService.getRecentTransactions(customerId, limit);
+        List<WalletLedgerEntry> transactions = walletService.getRecentTransactions(customerId, limit);
         return ResponseEntity.ok(transactions);
     }
 
     /**
-     * Get transactions by type
+     * Get transactions by type, paged like /transactions
      */
     @GetMapping("/transactions/type/{type}")
-    public ResponseEntity<List<WalletTransaction>> getTransactionsByType(
+    public ResponseEntity<List<WalletLedgerEntry>> getTransactionsByType(
             @PathVariable String customerId,
-            @PathVariable String type) {
-        List<WalletTransaction> transactions = walletService.getTransactionsByType(customerId, type);
-        return ResponseEntity.ok(transactions);
+            @PathVariable String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return page(walletService.getTransactionHistory(customerId, type, cursor, limit));
+    }
+
+    private ResponseEntity<List<WalletLedgerEntry>> page(TransactionPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 }
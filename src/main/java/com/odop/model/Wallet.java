@@ -6,7 +6,6 @@ import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.util.Date;
 import java.util.List;
-import java.util.ArrayList;
 
 @Document(collection = "wallets")
 public class Wallet {
@@ -24,12 +23,14 @@ public class Wallet {
     private boolean isLocked = false;
     private String lockReason;
 
-    private List<WalletTransaction> transactions = new ArrayList<>();
+    // Legacy embedded history, moved to the wallet_transactions ledger (WalletLedgerEntry) at startup
+    @Deprecated
+    private List<WalletTransaction> transactions;
 
     private Date createdAt;
     private Date updatedAt;
 
-    // Nested class for wallet transactions
+    // Nested class for the legacy embedded wallet transactions
     public static class WalletTransaction {
         private String transactionId;
         private String type; // credit, debit, refund, cashback, bonus
@@ -220,65 +221,4 @@ public class Wallet {
     public void setUpdatedAt(Date updatedAt) {
         this.updatedAt = updatedAt;
     }
-
-    // Helper methods
-    public WalletTransaction addCredit(double amount, String description, String referenceId, String referenceType) {
-        if (this.isLocked) {
-            throw new IllegalStateException("Wallet is locked: " + this.lockReason);
-        }
-        
-        WalletTransaction transaction = new WalletTransaction();
-        transaction.setTransactionId("TXN-" + System.currentTimeMillis());
-        transaction.setType("credit");
-        transaction.setAmount(amount);
-        transaction.setDescription(description);
-        transaction.setReferenceId(referenceId);
-        transaction.setReferenceType(referenceType);
-        
-        this.balance += amount;
-        transaction.setBalanceAfter(this.balance);
-        
-        if (this.transactions == null) {
-            this.transactions = new ArrayList<>();
-        }
-        this.transactions.add(0, transaction); // Add to front for recent first
-        this.updatedAt = new Date();
-        
-        return transaction;
-    }
-
-    public WalletTransaction addDebit(double amount, String description, String referenceId, String referenceType) {
-        if (this.isLocked) {
-            throw new IllegalStateException("Wallet is locked: " + this.lockReason);
-        }
-        if (this.balance < amount) {
-            throw new IllegalStateException("Insufficient balance");
-        }
-        
-        WalletTransaction transaction = new WalletTransaction();
-        transaction.setTransactionId("TXN-" + System.currentTimeMillis());
-        transaction.setType("debit");
-        transaction.setAmount(amount);
-        transaction.setDescription(description);
-        transaction.setReferenceId(referenceId);
-        transaction.setReferenceType(referenceType);
-        
-        this.balance -= amount;
-        transaction.setBalanceAfter(this.balance);
-        
-        if (this.transactions == null) {
-            this.transactions = new ArrayList<>();
-        }
-        this.transactions.add(0, transaction);
-        this.updatedAt = new Date();
-        
-        return transaction;
-    }
-
-    public List<WalletTransaction> getRecentTransactions(int limit) {
-        if (this.transactions == null || this.transactions.isEmpty()) {
-            return new ArrayList<>();
-        }
-        return this.transactions.subList(0, Math.min(limit, this.transactions.size()));
-    }
 }
@@ -0,0 +1,132 @@
+package com.odop.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * One wallet transaction in the append-only ledger. Entries are written once, after the
+ * balance change they describe, and never updated. History is read newest first by
+ * (customerId, timestamp, _id); see WalletService for the indexes.
+ */
+@Document(collection = "wallet_transactions")
+public class WalletLedgerEntry {
+
+    @Id
+    private String id;
+
+    private String customerId;
+    private String transactionId;
+    private String type; // credit, debit
+    private double amount;
+    private double balanceAfter;
+    private String description;
+    private String referenceId; // order ID, payment ID, etc.
+    private String referenceType; // order, refund, cashback, topup, withdrawal, etc.
+    private String status; // completed
+    private Date timestamp;
+    private boolean migrated; // copied from the wallet's former embedded transaction list
+
+    public WalletLedgerEntry() {
+        this.timestamp = new Date();
+        this.status = "completed";
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+
+    public double getBalanceAfter() {
+        return balanceAfter;
+    }
+
+    public void setBalanceAfter(double balanceAfter) {
+        this.balanceAfter = balanceAfter;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getReferenceId() {
+        return referenceId;
+    }
+
+    public void setReferenceId(String referenceId) {
+        this.referenceId = referenceId;
+    }
+
+    public String getReferenceType() {
+        return referenceType;
+    }
+
+    public void setReferenceType(String referenceType) {
+        this.referenceType = referenceType;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Date getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Date timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public boolean isMigrated() {
+        return migrated;
+    }
+
+    public void setMigrated(boolean migrated) {
+        this.migrated = migrated;
+    }
+}
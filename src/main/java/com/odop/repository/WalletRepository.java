@@ -33,8 +33,4 @@ public interface WalletRepository extends MongoRepository<Wallet, String> {
 
     // Count active wallets
     long countByIsActive(boolean isActive);
-
-    // Find wallets with recent transactions
-    @Query("{ 'transactions.0.timestamp': { $gte: ?0 } }")
-    List<Wallet> findWalletsWithRecentTransactions(java.util.Date since);
 }
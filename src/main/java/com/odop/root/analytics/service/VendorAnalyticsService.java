@@ -23,7 +23,6 @@ public class VendorAnalyticsService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final VendorRepository vendorRepository;
-    private final ReviewRepository reviewRepository;
 
     /**
      * Get analytics for a specific vendor
@@ -97,17 +96,10 @@ public class VendorAnalyticsService {
         // Top products by sales
         List<VendorAnalyticsDto.ProductPerformance> topProducts = getTopProductsForVendor(vendorOrders, vendorProducts, 5);
 
-        // Rating distribution
+        // Rating distribution, from the summary kept on the vendor
+        RatingSummary ratings = vendor.getRatingSummary() != null ? vendor.getRatingSummary() : new RatingSummary();
         Map<Integer, Long> ratingDist = new HashMap<>();
-        for (int i = 1; i <= 5; i++) ratingDist.put(i, 0L);
-        
-        List<Review> reviews = reviewRepository.findByVendorId(vendorId);
-        for (Review review : reviews) {
-            int r = review.getRating();
-            if (r >= 1 && r <= 5) {
-                ratingDist.merge(r, 1L, Long::sum);
-            }
-        }
+        for (int i = 1; i <= 5; i++) ratingDist.put(i, ratings.countOf(i));
 
         return VendorAnalyticsDto.builder()
             .vendorId(vendorId)
@@ -127,8 +119,9 @@ public class VendorAnalyticsService {
             .uniqueCustomers((long) uniqueCustomerIds.size())
             .repeatCustomers(repeatCustomers)
             .repeatCustomerRate(Math.round(repeatRate * 100.0) / 100.0)
-            .averageRating(vendor.getRatings() != null ? vendor.getRatings() : 0)
-            .totalReviews((long) reviews.size())
+            .averageRating(ratings.getCount() > 0 ? ratings.getAverage()
+                : vendor.getRatings() != null ? vendor.getRatings() : 0)
+            .totalReviews(ratings.getCount())
             .ratingDistribution(ratingDist)
             .build();
     }
@@ -1,6 +1,7 @@
 package com.odop.root.bulkupload.service;
 
 import com.odop.root.bulkupload.dto.*;
+import com.odop.root.cache.StatsCache;
 import com.odop.root.bulkupload.model.BulkUploadJob;
 import com.odop.root.bulkupload.model.BulkUploadJob.*;
 import com.odop.root.bulkupload.repository.BulkUploadJobRepository;
@@ -32,6 +33,7 @@ public class BulkUploadService {
     private final CsvParserService csvParserService;
     private final ProductRepository productRepository;
     private final ProductVariantRepository variantRepository;
+    private final StatsCache statsCache;
     
     private static final int MAX_CONCURRENT_JOBS = 3;
     
@@ -134,6 +136,9 @@ public class BulkUploadService {
             job.markFailed("Processing error: " + e.getMessage());
         }
         
+        // Rows may have been written even when the job failed part-way
+        statsCache.invalidate(StatsCache.PRODUCTS);
+        
         jobRepository.save(job);
         return CompletableFuture.completedFuture(job);
     }
@@ -0,0 +1,260 @@
+package com.odop.root.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Conditional-GET support for reference data (crafts, district map, schemes, festivals,
+ * CMS content, platform settings).
+ *
+ * Every {@link ReferenceResource} has a version document in reference_data_versions (a
+ * counter and the time of the last write) that owning services bump through
+ * {@link #bump(ReferenceResource)} with a single $inc. The version yields a strong ETag and
+ * Last-Modified, so a matching If-None-Match / If-Modified-Since is answered with 304 after one
+ * _id lookup and before the loader runs - no data query and no serialization. Fresh responses
+ * are serialized once per version and kept together with a pre-gzipped copy.
+ *
+ * Because the version lives in Mongo, every node hands out the same ETag for the same data and
+ * sees a write made on another node on its next request; restarts do not change it.
+ */
+@Component
+@Slf4j
+public class ReferenceDataCache {
+
+    private static final int GZIP_MIN_BYTES = 1024;
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
+    static final String VERSIONS_COLLECTION = "reference_data_versions";
+
+    private final ObjectMapper objectMapper;
+    private final MongoTemplate mongoTemplate;
+    private final Map<ReferenceResource, Map<String, Representation>> representations =
+            new EnumMap<>(ReferenceResource.class);
+
+    public ReferenceDataCache(ObjectMapper objectMapper, MongoTemplate mongoTemplate) {
+        this.objectMapper = objectMapper;
+        this.mongoTemplate = mongoTemplate;
+        for (ReferenceResource resource : ReferenceResource.values()) {
+            representations.put(resource, new ConcurrentHashMap<>());
+        }
+    }
+
+    // ==================== Write Side ====================
+
+    /**
+     * Mark a resource as changed. Call after the write has been persisted.
+     */
+    public void bump(ReferenceResource resource) {
+        Document updated = mongoTemplate.findAndModify(byResource(resource),
+                new Update().inc("version", 1L).max("modifiedAt", System.currentTimeMillis()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class, VERSIONS_COLLECTION);
+        representations.get(resource).clear();
+        log.debug("Reference data {} bumped to version {}", resource, updated != null ? updated.get("version") : null);
+    }
+
+    public Map<ReferenceResource, Long> getVersions() {
+        Map<ReferenceResource, Long> snapshot = new EnumMap<>(ReferenceResource.class);
+        for (ReferenceResource resource : ReferenceResource.values()) {
+            snapshot.put(resource, currentVersion(resource).number());
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    // ==================== Read Side ====================
+
+    /**
+     * Serve a reference data representation with ETag/Last-Modified handling.
+     *
+     * @param resource the data set the body is derived from
+     * @param key      distinguishes representations of the same resource (endpoint + params)
+     * @param request  current request, read for conditional and Accept-Encoding headers
+     * @param loader   produces the body; only invoked on a cache miss. Returning null yields 404.
+     */
+    public ResponseEntity<byte[]> respond(ReferenceResource resource, String key,
+                                          HttpServletRequest request, Supplier<?> loader) {
+        // Read the version before loading so a concurrent write can only make us serve an older tag
+        Version version = currentVersion(resource);
+        String stamp = stamp(resource, version);
+        long lastModified = lastModified(resource, version.modifiedAt());
+        String identityTag = "\"" + stamp + "\"";
+        String gzipTag = "\"" + stamp + "-gz\"";
+
+        String matchedTag = matchIfNoneMatch(request, identityTag, gzipTag);
+        // If-Modified-Since is only consulted when the client sent no If-None-Match (RFC 7232 6)
+        if (matchedTag != null || (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null
+                && notModifiedSince(request, lastModified))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(matchedTag != null ? matchedTag : identityTag)
+                    .lastModified(lastModified)
+                    .cacheControl(CACHE_CONTROL)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        Map<String, Representation> cached = representations.get(resource);
+        Representation representation = cached.get(key);
+        if (representation == null || !representation.stamp.equals(stamp)) {
+            Object body = loader.get();
+            if (body == null) {
+                return ResponseEntity.notFound().build();
+            }
+            representation = Representation.of(stamp, serialize(body));
+            cached.put(key, representation);
+        }
+
+        boolean useGzip = representation.gzipped != null && acceptsGzip(request);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(useGzip ? gzipTag : identityTag)
+                .lastModified(lastModified)
+                .cacheControl(CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (useGzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return builder.body(representation.gzipped);
+        }
+        return builder.body(representation.json);
+    }
+
+    // ==================== Helpers ====================
+
+    /**
+     * The shared version of a resource. A resource that has never been bumped gets its document
+     * created here; $setOnInsert makes every node agree on the first writer's timestamp.
+     */
+    private Version currentVersion(ReferenceResource resource) {
+        Document doc = mongoTemplate.findOne(byResource(resource), Document.class, VERSIONS_COLLECTION);
+        if (doc == null) {
+            doc = mongoTemplate.findAndModify(byResource(resource),
+                    new Update().setOnInsert("version", 0L).setOnInsert("modifiedAt", System.currentTimeMillis()),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Document.class, VERSIONS_COLLECTION);
+        }
+        return new Version(((Number) doc.get("version")).longValue(), ((Number) doc.get("modifiedAt")).longValue());
+    }
+
+    private static Query byResource(ReferenceResource resource) {
+        return Query.query(Criteria.where("_id").is(resource.name()));
+    }
+
+    private String stamp(ReferenceResource resource, Version version) {
+        // The write time is part of the tag so a recreated version document cannot reuse old tags
+        String stamp = resource.getTag() + "-" + Long.toString(version.number(), 36)
+                + "." + Long.toString(version.modifiedAt(), 36);
+        if (resource.isDateSensitive()) {
+            stamp += "-" + LocalDate.now().toEpochDay();
+        }
+        return stamp;
+    }
+
+    private long lastModified(ReferenceResource resource, long modifiedAt) {
+        if (!resource.isDateSensitive()) {
+            return modifiedAt;
+        }
+        long startOfDay = LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return Math.max(modifiedAt, startOfDay);
+    }
+
+    private String matchIfNoneMatch(HttpServletRequest request, String identityTag, String gzipTag) {
+        String header = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(identityTag)) {
+                return identityTag;
+            }
+            if (tag.equals(gzipTag)) {
+                return gzipTag;
+            }
+        }
+        return null;
+    }
+
+    private boolean notModifiedSince(HttpServletRequest request, long lastModified) {
+        long since;
+        try {
+            since = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // HTTP dates have second precision
+        return since >= 0 && lastModified / 1000 <= since / 1000;
+    }
+
+    private boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize reference data: " + e.getMessage(), e);
+        }
+    }
+
+    private record Version(long number, long modifiedAt) {}
+
+    /**
+     * Pre-serialized body plus its gzip encoding (only kept when worth compressing).
+     */
+    private static final class Representation {
+        private final String stamp;
+        private final byte[] json;
+        private final byte[] gzipped;
+
+        private Representation(String stamp, byte[] json, byte[] gzipped) {
+            this.stamp = stamp;
+            this.json = json;
+            this.gzipped = gzipped;
+        }
+
+        static Representation of(String stamp, byte[] json) {
+            byte[] gzipped = null;
+            if (json.length >= GZIP_MIN_BYTES) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(json);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to compress reference data", e);
+                }
+                if (out.size() < json.length) {
+                    gzipped = out.toByteArray();
+                }
+            }
+            return new Representation(stamp, json, gzipped);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.odop.root.cache;
+
+/**
+ * Rarely-changing reference data sets served with version-stamped ETags.
+ *
+ * Each resource carries one version stamp that is bumped by the owning service on every
+ * write. Date-sensitive resources (live/upcoming festivals, open schemes) also roll their
+ * ETag at midnight because their content depends on "today".
+ */
+public enum ReferenceResource {
+
+    CRAFT_CATEGORIES("crafts", false),
+    DISTRICT_MAP("districts", false),
+    GOVERNMENT_SCHEMES("schemes", true),
+    FESTIVALS("festivals", true),
+    CMS("cms", false),
+    PLATFORM_SETTINGS("settings", false);
+
+    private final String tag;
+    private final boolean dateSensitive;
+
+    ReferenceResource(String tag, boolean dateSensitive) {
+        this.tag = tag;
+        this.dateSensitive = dateSensitive;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public boolean isDateSensitive() {
+        return dateSensitive;
+    }
+}
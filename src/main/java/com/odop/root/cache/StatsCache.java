@@ -0,0 +1,70 @@
+package com.odop.root.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache for dashboard counters (approval, verification, return and shipment stats).
+ *
+ * Entries live for stats.cache.ttl-seconds and are dropped early when the owning service
+ * writes to the underlying collection ({@link #invalidate(String)}). Keys are namespaced as
+ * "{collection}" or "{collection}:{scope}", so invalidating "shipments" also drops every
+ * per-vendor entry. Writes that bypass the owning service are picked up once the TTL expires.
+ */
+@Component
+@Slf4j
+public class StatsCache {
+
+    public static final String PRODUCTS = "products";
+    public static final String VENDOR_VERIFICATIONS = "vendor_verifications";
+    public static final String RETURNS = "returns";
+    public static final String SHIPMENTS = "shipments";
+
+    @Value("${stats.cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a load that started before a write is not cached after it
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Return the cached value for a key, loading it when missing or expired.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && now < entry.expiresAt) {
+            return (T) entry.value;
+        }
+
+        long loadGeneration = generation.get();
+        T value = loader.get();
+        if (value != null && generation.get() == loadGeneration) {
+            entries.put(key, new Entry(value, now + ttlSeconds * 1_000_000_000L));
+        }
+        return value;
+    }
+
+    /**
+     * Drop a namespace ("shipments") or a single scoped key ("shipments:V123").
+     */
+    public void invalidate(String key) {
+        generation.incrementAndGet();
+        String scopedPrefix = key + ":";
+        entries.keySet().removeIf(k -> k.equals(key) || k.startsWith(scopedPrefix));
+        log.debug("Stats cache invalidated: {}", key);
+    }
+
+    public static String key(String namespace, String scope) {
+        return namespace + ":" + scope;
+    }
+
+    private record Entry(Object value, long expiresAt) {}
+}
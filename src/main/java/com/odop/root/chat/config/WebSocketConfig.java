@@ -1,20 +1,52 @@
 package com.odop.root.chat.config;
 
+import com.odop.root.chat.service.ChatRelay;
+import com.odop.root.chat.service.PresenceRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.config.annotation.*;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
 
 /**
  * WebSocket configuration for real-time chat support
  */
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
+    private final ChatRelay chatRelay;
+    private final PresenceRegistry presenceRegistry;
+    
+    @Value("${chat.websocket.send-buffer-kb:512}")
+    private int sendBufferKb;
+    
+    @Value("${chat.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMillis;
+    
+    @Value("${chat.websocket.heartbeat-ms:20000}")
+    private long heartbeatMillis;
+    
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker for /topic and /queue prefixes
-        config.enableSimpleBroker("/topic", "/queue");
+        // Enable a simple in-memory message broker for /topic and /queue prefixes, with STOMP
+        // heartbeats so idle but connected clients keep their presence alive
+        ThreadPoolTaskScheduler heartbeatScheduler = new ThreadPoolTaskScheduler();
+        heartbeatScheduler.setPoolSize(1);
+        heartbeatScheduler.setThreadNamePrefix("ws-heartbeat-");
+        heartbeatScheduler.initialize();
+        config.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[] {heartbeatMillis, heartbeatMillis})
+                .setTaskScheduler(heartbeatScheduler);
+        
+        // Chat broadcasts are relayed to the other nodes' brokers through Mongo
+        config.configureBrokerChannel().interceptors(chatRelay);
         
         // Application destination prefix for client-to-server messages
         config.setApplicationDestinationPrefixes("/app");
@@ -23,6 +55,29 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.setUserDestinationPrefix("/user");
     }
     
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Any frame from a session counts as a presence heartbeat
+        registration.interceptors(presenceRegistry);
+    }
+    
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Each session buffers at most this much unsent output; a client that falls further
+        // behind (or blocks a send past the time limit) is disconnected instead of slowing others
+        registration.setSendBufferSizeLimit(sendBufferKb * 1024)
+                .setSendTimeLimit(sendTimeLimitMillis)
+                .addDecoratorFactory(handler -> new WebSocketHandlerDecorator(handler) {
+                    @Override
+                    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+                        if (status.getCode() == CloseStatus.SESSION_NOT_RELIABLE.getCode()) {
+                            chatRelay.recordEviction();
+                        }
+                        super.afterConnectionClosed(session, status);
+                    }
+                });
+    }
+    
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // WebSocket endpoint that clients will connect to
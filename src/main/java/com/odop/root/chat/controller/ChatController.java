@@ -2,6 +2,7 @@ package com.odop.root.chat.controller;
 
 import com.odop.root.chat.dto.ChatDto.*;
 import com.odop.root.chat.model.*;
+import com.odop.root.chat.service.ChatRelay;
 import com.odop.root.chat.service.ChatService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +27,7 @@ import java.util.*;
 public class ChatController {
     
     private final ChatService chatService;
+    private final ChatRelay chatRelay;
     
     // ==================== CHAT ROOM ENDPOINTS ====================
     
@@ -160,24 +162,26 @@ public class ChatController {
     }
     
     /**
-     * Get messages for a room
+     * Get messages for a room: the latest ones, or those before/after a cursor from an earlier page
      */
     @GetMapping("/rooms/{roomId}/messages")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> getMessages(
             @PathVariable String roomId,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
             @RequestParam(defaultValue = "50") int size,
             Authentication auth) {
         
-        List<MessageResponse> messages = chatService.getMessages(roomId, page, size);
+        MessagePage page = chatService.getMessages(roomId, before, after, size);
         
-        return ResponseEntity.ok(Map.of(
-                "success", true,
-                "messages", messages,
-                "page", page,
-                "size", size
-        ));
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("messages", page.getMessages());
+        response.put("olderCursor", page.getOlderCursor());
+        response.put("newerCursor", page.getNewerCursor());
+        response.put("size", size);
+        return ResponseEntity.ok(response);
     }
     
     /**
@@ -326,6 +330,18 @@ public class ChatController {
         ));
     }
     
+    /**
+     * Cross-node relay counters and fan-out latency for this node
+     */
+    @GetMapping("/relay/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getRelayStats() {
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "stats", chatRelay.getStats()
+        ));
+    }
+    
     // ==================== HEALTH CHECK ====================
     
     @GetMapping("/health")
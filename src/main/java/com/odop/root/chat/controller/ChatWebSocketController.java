@@ -3,6 +3,7 @@ package com.odop.root.chat.controller;
 import com.odop.root.chat.dto.ChatDto.*;
 import com.odop.root.chat.model.*;
 import com.odop.root.chat.service.ChatService;
+import com.odop.root.chat.service.PresenceRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.*;
@@ -22,6 +23,7 @@ import java.util.Map;
 public class ChatWebSocketController {
     
     private final ChatService chatService;
+    private final PresenceRegistry presenceRegistry;
     
     /**
      * Handle incoming chat messages via WebSocket
@@ -119,7 +121,7 @@ public class ChatWebSocketController {
         String userId = principal.getName();
         
         // Update online status
-        chatService.updateOnlineStatus(roomId, userId, true);
+        presenceRegistry.join(headerAccessor.getSessionId(), userId, roomId);
         
         // Return room info
         ChatRoom room = chatService.getChatRoom(roomId);
@@ -142,8 +144,7 @@ public class ChatWebSocketController {
         if (principal == null) return;
         
         String roomId = payload.get("roomId");
-        String userId = principal.getName();
         
-        chatService.updateOnlineStatus(roomId, userId, false);
+        presenceRegistry.leave(headerAccessor.getSessionId(), roomId);
     }
 }
@@ -61,6 +61,20 @@ public class ChatDto {
         }
     }
     
+    /**
+     * A slice of a room's history in chronological order. Pass olderCursor as "before" to load
+     * earlier messages and newerCursor as "after" to load later ones; null when there are none.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class MessagePage {
+        private List<MessageResponse> messages;
+        private String olderCursor;
+        private String newerCursor;
+    }
+    
     // ==================== CHAT ROOM DTOs ====================
     
     @Data
@@ -227,6 +241,16 @@ public class ChatDto {
                     .build();
         }
         
+        public static ChatEvent messagesReadUpTo(String chatRoomId, String userId, LocalDateTime readUpTo) {
+            return ChatEvent.builder()
+                    .eventType("MESSAGES_READ")
+                    .chatRoomId(chatRoomId)
+                    .senderId(userId)
+                    .payload(Map.of("readUpTo", readUpTo))
+                    .timestamp(LocalDateTime.now())
+                    .build();
+        }
+        
         public static ChatEvent messagesRead(String chatRoomId, String userId, List<String> messageIds) {
             return ChatEvent.builder()
                     .eventType("MESSAGES_READ")
@@ -58,6 +58,8 @@ public class ChatRoom {
     
     private Map<String, Integer> unreadCounts;
     
+    private Map<String, LocalDateTime> readUpTo; // per participant: everything sent up to here has been read
+    
     // Timestamps
     @Indexed
     private LocalDateTime createdAt;
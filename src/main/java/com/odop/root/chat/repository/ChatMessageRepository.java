@@ -54,12 +54,6 @@ public interface ChatMessageRepository extends MongoRepository<ChatMessage, Stri
      */
     List<ChatMessage> findBySenderIdOrderByTimestampDesc(String senderId);
     
-    /**
-     * Find messages containing keyword (search)
-     */
-    @Query("{ 'chatRoomId': ?0, 'content': { $regex: ?1, $options: 'i' } }")
-    List<ChatMessage> searchMessages(String chatRoomId, String keyword);
-    
     /**
      * Delete all messages in a chat room
      */
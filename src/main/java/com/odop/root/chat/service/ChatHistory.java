@@ -0,0 +1,139 @@
+package com.odop.root.chat.service;
+
+import com.odop.root.chat.dto.ChatDto.MessagePage;
+import com.odop.root.chat.dto.ChatDto.MessageResponse;
+import com.odop.root.chat.model.ChatMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads of a room's message history.
+ *
+ * History is keyset-paged on the (chatRoomId, timestamp, _id) index: a cursor is the
+ * "epochMillis_id" of the message at the edge of a page, so opening or scrolling a room with
+ * 100k messages costs the same as one with ten. Keyword search uses a text index prefixed by
+ * chatRoomId, so it only looks at the room's own tokens instead of regex-scanning its messages.
+ * Text search matches whole (stemmed) words, not arbitrary substrings.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatHistory {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            mongoTemplate.indexOps(ChatMessage.class).ensureIndex(new CompoundIndexDefinition(
+                    new Document("chatRoomId", 1).append("timestamp", -1).append("_id", -1))
+                    .named("room_timestamp_idx"));
+            mongoTemplate.indexOps(ChatMessage.class).ensureIndex(new CompoundIndexDefinition(
+                    new Document("chatRoomId", 1).append("content", "text"))
+                    .named("room_content_text_idx"));
+        } catch (Exception e) {
+            log.warn("Could not create chat message indexes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Messages before the "before" cursor, or after the "after" cursor, or the latest ones
+     */
+    public MessagePage page(String roomId, String before, String after, int limit) {
+        int size = limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        boolean forward = after != null && !after.isBlank();
+        Cursor cursor = forward ? Cursor.parse(after) : before != null && !before.isBlank() ? Cursor.parse(before) : null;
+
+        Criteria criteria = Criteria.where("chatRoomId").is(roomId);
+        if (cursor != null) {
+            criteria = forward
+                    ? criteria.orOperator(Criteria.where("timestamp").gt(cursor.timestamp()),
+                            Criteria.where("timestamp").is(cursor.timestamp()).and("_id").gt(cursor.id()))
+                    : criteria.orOperator(Criteria.where("timestamp").lt(cursor.timestamp()),
+                            Criteria.where("timestamp").is(cursor.timestamp()).and("_id").lt(cursor.id()));
+        }
+        Sort.Direction direction = forward ? Sort.Direction.ASC : Sort.Direction.DESC;
+        List<ChatMessage> found = new ArrayList<>(mongoTemplate.find(Query.query(criteria)
+                .with(Sort.by(direction, "timestamp", "_id"))
+                .limit(size + 1), ChatMessage.class));
+
+        boolean more = found.size() > size;
+        if (more) {
+            found.remove(size);
+        }
+        if (!forward) {
+            Collections.reverse(found);
+        }
+
+        String olderCursor = null;
+        String newerCursor = null;
+        if (!found.isEmpty()) {
+            // Going back there is more history if this page was cut short; going forward,
+            // whatever the cursor came from is older. Newer messages may always arrive.
+            if (forward || more) {
+                olderCursor = Cursor.of(found.get(0));
+            }
+            newerCursor = Cursor.of(found.get(found.size() - 1));
+        } else if (cursor != null && forward) {
+            newerCursor = after;
+        }
+        return MessagePage.builder()
+                .messages(found.stream().map(MessageResponse::from).toList())
+                .olderCursor(olderCursor)
+                .newerCursor(newerCursor)
+                .build();
+    }
+
+    /**
+     * Messages in the room containing the keywords, newest first
+     */
+    public List<ChatMessage> search(String roomId, String keywords, int limit) {
+        int size = limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(keywords))
+                .addCriteria(Criteria.where("chatRoomId").is(roomId))
+                .with(Sort.by(Sort.Direction.DESC, "timestamp"))
+                .limit(size);
+        return mongoTemplate.find(query, ChatMessage.class);
+    }
+
+    record Cursor(LocalDateTime timestamp, ObjectId id) {
+
+        static String of(ChatMessage message) {
+            long millis = message.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            return millis + "_" + message.getId();
+        }
+
+        static Cursor parse(String cursor) {
+            try {
+                int separator = cursor.indexOf('_');
+                long millis = Long.parseLong(cursor.substring(0, separator));
+                return new Cursor(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()),
+                        new ObjectId(cursor.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+    }
+}
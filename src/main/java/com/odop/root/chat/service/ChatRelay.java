@@ -0,0 +1,317 @@
+package com.odop.root.chat.service;
+
+import com.mongodb.CursorType;
+import com.mongodb.client.MongoCursor;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Forwards chat broadcasts between app nodes through a capped Mongo collection, so the simple
+ * in-memory broker still reaches subscribers connected to another node.
+ *
+ * As a broker-channel interceptor it copies every /topic/chat/ message this node broadcasts to
+ * a publish queue; a publisher thread writes the queue to chat.relay.collection in batches.
+ * A tailer thread follows the collection with a tailable cursor and re-sends other nodes'
+ * messages into the local broker channel, marked so they are not relayed again. Capped
+ * collections and tailable cursors work on a standalone mongod as well as a replica set.
+ *
+ * Delivery is best effort, like the simple broker itself: a full publish queue drops the
+ * message (counted). A tailable cursor is dead from the start on an empty collection or when
+ * nothing matches its filter, and dies when it falls behind the cap; the tailer then reopens it
+ * with backoff. The filter also matches the newest message, so the cursor does not die just
+ * because the collection is idle. It resumes by sentAt rather than _id, since ObjectIds from different nodes in
+ * the same second do not sort by time: it goes back chat.relay.resume-overlap-ms before the
+ * newest message it saw and skips the _ids it has already handled.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatRelay implements ChannelInterceptor {
+
+    private static final String RELAYED_HEADER = "odopRelayedFrom";
+    private static final String DESTINATION_PREFIX = "/topic/chat/";
+    private static final int PUBLISH_BATCH = 100;
+    private static final int SEEN_IDS = 10_000;
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 2000;
+    /** Upper bounds (inclusive) of the fan-out latency buckets; the last bucket is open-ended. */
+    private static final long[] LATENCY_BUCKETS_MILLIS = {5, 10, 25, 50, 100, 250, 500, 1000, 5000};
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationContext applicationContext;
+
+    @Value("${chat.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.relay.collection:chat_relay}")
+    private String collection;
+
+    @Value("${chat.relay.collection-size-mb:64}")
+    private long collectionSizeMb;
+
+    @Value("${chat.relay.publish-queue-size:10000}")
+    private int publishQueueSize;
+
+    @Value("${chat.relay.resume-overlap-ms:5000}")
+    private long resumeOverlapMillis;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private BlockingQueue<Document> outbound;
+    private volatile MessageChannel brokerChannel;
+    private volatile boolean running;
+    // Newest sentAt the tailer has seen, and the _ids it handled recently (tailer thread only)
+    private volatile long resumeFromMillis;
+    private final Set<ObjectId> seenIds = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ObjectId, Boolean> eldest) {
+            return size() > SEEN_IDS;
+        }
+    });
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder evictedSessions = new LongAdder();
+    private final LongAdder latencyMillisTotal = new LongAdder();
+    private final AtomicLong latencyMillisMax = new AtomicLong();
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKETS_MILLIS.length + 1);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!mongoTemplate.collectionExists(collection)) {
+                mongoTemplate.createCollection(collection,
+                        CollectionOptions.empty().capped().size(collectionSizeMb * 1024 * 1024));
+            }
+        } catch (RuntimeException e) {
+            // Another node created it first, or Mongo is down; the tailer retries either way
+            log.warn("Could not create chat relay collection {}: {}", collection, e.getMessage());
+        }
+        brokerChannel = applicationContext.getBean("brokerChannel", MessageChannel.class);
+        outbound = new ArrayBlockingQueue<>(publishQueueSize);
+        resumeFromMillis = System.currentTimeMillis();
+        running = true;
+        startThread("chat-relay-publisher", this::publishLoop);
+        startThread("chat-relay-tailer", this::tailLoop);
+        log.info("Chat relay started on node {} via {}", nodeId, collection);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    // ==================== PUBLISHING ====================
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (!running || message.getHeaders().containsKey(RELAYED_HEADER)) {
+            return message;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        String destination = accessor.getDestination();
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE
+                || destination == null || !destination.startsWith(DESTINATION_PREFIX)
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+        MimeType contentType = accessor.getContentType();
+        Document relayed = new Document("_id", new ObjectId())
+                .append("node", nodeId)
+                .append("destination", destination)
+                .append("contentType", contentType != null ? contentType.toString() : null)
+                .append("payload", new Binary(payload))
+                .append("sentAt", System.currentTimeMillis());
+        if (!outbound.offer(relayed)) {
+            dropped.increment();
+        }
+        return message;
+    }
+
+    private void publishLoop() {
+        List<Document> batch = new ArrayList<>(PUBLISH_BATCH);
+        while (running) {
+            try {
+                Document first = outbound.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                outbound.drainTo(batch, PUBLISH_BATCH - 1);
+                mongoTemplate.getCollection(collection).insertMany(batch);
+                published.add(batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                dropped.add(batch.size());
+                log.warn("Chat relay publish of {} messages failed: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // ==================== TAILING ====================
+
+    private void tailLoop() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (running) {
+            long since = resumeFromMillis - resumeOverlapMillis;
+            try (MongoCursor<Document> cursor = mongoTemplate.getCollection(collection)
+                    .find(resumeFilter(since))
+                    .cursorType(CursorType.TailableAwait)
+                    .noCursorTimeout(true)
+                    .maxAwaitTime(1, TimeUnit.SECONDS)
+                    .iterator()) {
+                while (running) {
+                    Document relayed = cursor.tryNext();
+                    if (relayed != null) {
+                        handle(relayed, since);
+                        backoff = MIN_BACKOFF_MILLIS;
+                    } else if (cursor.getServerCursor() == null) {
+                        // Dead cursor: empty collection, nothing matched yet, or fell behind the cap
+                        break;
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.debug("Chat relay cursor failed: {}", e.getMessage());
+            }
+            sleep(backoff);
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    private Document resumeFilter(long sinceMillis) {
+        Document since = new Document("sentAt", new Document("$gte", sinceMillis));
+        Document newest = mongoTemplate.getCollection(collection).find()
+                .sort(new Document("$natural", -1))
+                .projection(new Document("_id", 1))
+                .first();
+        if (newest == null) {
+            return since;
+        }
+        // Anchor on the newest message to keep the cursor alive; handle() skips it if it is older
+        return new Document("$or", List.of(since, new Document("_id", newest.getObjectId("_id"))));
+    }
+
+    private void handle(Document relayed, long since) {
+        Long sentAt = relayed.getLong("sentAt");
+        if (sentAt == null || sentAt < since || !seenIds.add(relayed.getObjectId("_id"))) {
+            return;
+        }
+        if (sentAt > resumeFromMillis) {
+            resumeFromMillis = sentAt;
+        }
+        if (!nodeId.equals(relayed.getString("node"))) {
+            deliver(relayed);
+        }
+    }
+
+    private void deliver(Document relayed) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(relayed.getString("destination"));
+        String contentType = relayed.getString("contentType");
+        if (contentType != null) {
+            accessor.setContentType(MimeType.valueOf(contentType));
+        }
+        accessor.setHeader(RELAYED_HEADER, relayed.getString("node"));
+        byte[] payload = relayed.get("payload", Binary.class).getData();
+        try {
+            brokerChannel.send(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+            delivered.increment();
+            recordLatency(System.currentTimeMillis() - relayed.getLong("sentAt"));
+        } catch (RuntimeException e) {
+            log.warn("Chat relay delivery to {} failed: {}", relayed.getString("destination"), e.getMessage());
+        }
+    }
+
+    // ==================== METRICS ====================
+
+    /**
+     * A WebSocket session closed because its outbound buffer overflowed or a send took too long
+     */
+    public void recordEviction() {
+        evictedSessions.increment();
+    }
+
+    private void recordLatency(long millis) {
+        long latency = Math.max(0, millis);
+        latencyMillisTotal.add(latency);
+        latencyMillisMax.accumulateAndGet(latency, Math::max);
+        int bucket = LATENCY_BUCKETS_MILLIS.length;
+        for (int i = 0; i < LATENCY_BUCKETS_MILLIS.length; i++) {
+            if (latency <= LATENCY_BUCKETS_MILLIS[i]) {
+                bucket = i;
+                break;
+            }
+        }
+        latencyHistogram.incrementAndGet(bucket);
+    }
+
+    public Map<String, Object> getStats() {
+        long deliveredCount = delivered.sum();
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < latencyHistogram.length(); i++) {
+            histogram.put(i < LATENCY_BUCKETS_MILLIS.length ? "<=" + LATENCY_BUCKETS_MILLIS[i] + "ms" : ">"
+                    + LATENCY_BUCKETS_MILLIS[LATENCY_BUCKETS_MILLIS.length - 1] + "ms", latencyHistogram.get(i));
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nodeId", nodeId);
+        stats.put("running", running);
+        stats.put("published", published.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("publishQueued", outbound != null ? outbound.size() : 0);
+        stats.put("delivered", deliveredCount);
+        stats.put("evictedSessions", evictedSessions.sum());
+        stats.put("avgFanOutMillis", deliveredCount > 0 ? latencyMillisTotal.sum() / (double) deliveredCount : 0);
+        stats.put("maxFanOutMillis", latencyMillisMax.get());
+        stats.put("fanOutHistogram", histogram);
+        return stats;
+    }
+
+    // ==================== HELPERS ====================
+
+    private static void startThread(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -7,6 +7,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,6 +30,9 @@ public class ChatService {
     private final ChatRoomRepository chatRoomRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final TypingThrottle typingThrottle;
+    private final ChatHistory chatHistory;
     
     // ==================== CHAT ROOM OPERATIONS ====================
     
@@ -199,32 +206,16 @@ public class ChatService {
         
         message = chatMessageRepository.save(message);
         
-        // Update room
-        room.setLastMessagePreview(truncate(content, 100));
-        room.setLastMessageAt(message.getTimestamp());
-        room.setMessageCount(room.getMessageCount() + 1);
-        room.setUpdatedAt(LocalDateTime.now());
+        // Update room counters and preview, with unread bumped for the other participants
+        recordMessage(roomId, message, room.getParticipantIds(), senderId);
         
         // Update status based on sender
         if (senderType == ChatMessage.SenderType.CUSTOMER || senderType == ChatMessage.SenderType.VENDOR) {
-            if (room.getStatus() == ChatRoom.RoomStatus.WAITING_CUSTOMER) {
-                room.setStatus(ChatRoom.RoomStatus.WAITING_AGENT);
-            }
+            moveStatus(roomId, ChatRoom.RoomStatus.WAITING_CUSTOMER, ChatRoom.RoomStatus.WAITING_AGENT);
         } else if (senderType == ChatMessage.SenderType.SUPPORT_AGENT || senderType == ChatMessage.SenderType.ADMIN) {
-            if (room.getStatus() == ChatRoom.RoomStatus.WAITING_AGENT) {
-                room.setStatus(ChatRoom.RoomStatus.WAITING_CUSTOMER);
-            }
+            moveStatus(roomId, ChatRoom.RoomStatus.WAITING_AGENT, ChatRoom.RoomStatus.WAITING_CUSTOMER);
         }
         
-        // Increment unread for other participants
-        for (String participantId : room.getParticipantIds()) {
-            if (!participantId.equals(senderId)) {
-                room.incrementUnread(participantId);
-            }
-        }
-        
-        chatRoomRepository.save(room);
-        
         // Broadcast message via WebSocket
         broadcastMessage(message);
         
@@ -232,19 +223,10 @@ public class ChatService {
     }
     
     /**
-     * Get messages for a chat room
+     * Get a page of a chat room's history, keyset-paged by before/after cursors
      */
-    public List<MessageResponse> getMessages(String roomId, int page, int size) {
-        Page<ChatMessage> messages = chatMessageRepository
-                .findByChatRoomIdOrderByTimestampDesc(roomId, PageRequest.of(page, size));
-        
-        List<MessageResponse> responses = messages.getContent().stream()
-                .map(MessageResponse::from)
-                .collect(Collectors.toList());
-        
-        // Reverse to get chronological order
-        Collections.reverse(responses);
-        return responses;
+    public MessagePage getMessages(String roomId, String before, String after, int size) {
+        return chatHistory.page(roomId, before, after, size);
     }
     
     /**
@@ -259,30 +241,31 @@ public class ChatService {
     }
     
     /**
-     * Mark messages as read
+     * Mark messages as read: moves the user's read watermark on the room and flags the other
+     * participants' messages up to it, each in a single command however many messages there are
      */
-    @Transactional
     public void markAsRead(String roomId, String userId) {
-        List<ChatMessage> unread = chatMessageRepository.findUnreadMessages(roomId, userId);
-        
-        for (ChatMessage message : unread) {
-            message.setStatus(ChatMessage.MessageStatus.READ);
-            message.setReadAt(LocalDateTime.now());
-        }
-        
-        chatMessageRepository.saveAll(unread);
-        
-        // Reset unread count
-        ChatRoom room = chatRoomRepository.findById(roomId).orElse(null);
-        if (room != null) {
-            room.resetUnread(userId);
-            chatRoomRepository.save(room);
-        }
+        LocalDateTime now = LocalDateTime.now();
+        
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(roomId)),
+                new Update()
+                        .max("readUpTo." + userId, now)
+                        .set("unreadCounts." + userId, 0),
+                ChatRoom.class);
+        
+        long marked = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("chatRoomId").is(roomId)
+                        .and("senderId").ne(userId)
+                        .and("status").ne(ChatMessage.MessageStatus.READ)
+                        .and("timestamp").lte(now)),
+                new Update()
+                        .set("status", ChatMessage.MessageStatus.READ)
+                        .set("readAt", now),
+                ChatMessage.class).getModifiedCount();
         
         // Broadcast read receipt
-        if (!unread.isEmpty()) {
-            List<String> messageIds = unread.stream().map(ChatMessage::getId).toList();
-            ChatEvent event = ChatEvent.messagesRead(roomId, userId, messageIds);
+        if (marked > 0) {
+            ChatEvent event = ChatEvent.messagesReadUpTo(roomId, userId, now);
             messagingTemplate.convertAndSend("/topic/chat/" + roomId, event);
         }
     }
@@ -291,7 +274,7 @@ public class ChatService {
      * Search messages
      */
     public List<MessageResponse> searchMessages(String roomId, String keyword) {
-        return chatMessageRepository.searchMessages(roomId, keyword)
+        return chatHistory.search(roomId, keyword, ChatHistory.DEFAULT_PAGE_SIZE)
                 .stream()
                 .map(MessageResponse::from)
                 .collect(Collectors.toList());
@@ -409,30 +392,16 @@ public class ChatService {
     }
     
     /**
-     * Send typing indicator
+     * Send typing indicator, throttled per user and room
      */
     public void sendTypingIndicator(String roomId, String userId, String userName, boolean isTyping) {
+        if (!typingThrottle.shouldForward(roomId, userId, isTyping)) {
+            return;
+        }
         ChatEvent event = ChatEvent.typing(roomId, userId, userName, isTyping);
         messagingTemplate.convertAndSend("/topic/chat/" + roomId, event);
     }
     
-    /**
-     * Update user online status
-     */
-    public void updateOnlineStatus(String roomId, String userId, boolean isOnline) {
-        ChatRoom room = chatRoomRepository.findById(roomId).orElse(null);
-        if (room != null && room.getParticipants() != null) {
-            room.getParticipants().stream()
-                    .filter(p -> p.getId().equals(userId))
-                    .findFirst()
-                    .ifPresent(p -> {
-                        p.setOnline(isOnline);
-                        p.setLastSeenAt(LocalDateTime.now());
-                    });
-            chatRoomRepository.save(room);
-        }
-    }
-    
     // ==================== AUTO-RESPONSE ====================
     
     /**
@@ -459,11 +428,7 @@ public class ChatService {
         ChatMessage autoMessage = ChatMessage.createAutoResponse(room.getId(), message);
         chatMessageRepository.save(autoMessage);
         
-        // Update room
-        room.setLastMessagePreview(truncate(message, 100));
-        room.setLastMessageAt(autoMessage.getTimestamp());
-        room.setMessageCount(room.getMessageCount() + 1);
-        chatRoomRepository.save(room);
+        recordMessage(room.getId(), autoMessage, List.of(), null);
     }
     
     // ==================== STATISTICS ====================
@@ -490,6 +455,37 @@ public class ChatService {
     
     // ==================== HELPERS ====================
     
+    /**
+     * Count a new message on its room with $inc/$set instead of rewriting the whole room,
+     * so concurrent senders don't overwrite each other's counts
+     */
+    private void recordMessage(String roomId, ChatMessage message, List<String> participantIds, String senderId) {
+        Update update = new Update()
+                .inc("messageCount", 1)
+                .set("lastMessagePreview", truncate(message.getContent(), 100))
+                .set("lastMessageAt", message.getTimestamp())
+                .set("updatedAt", LocalDateTime.now());
+        if (participantIds != null) {
+            for (String participantId : participantIds) {
+                if (!participantId.equals(senderId)) {
+                    update.inc("unreadCounts." + participantId, 1);
+                }
+            }
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(roomId)), update, ChatRoom.class);
+    }
+    
+    /**
+     * Change the room status only if it is still the expected one
+     */
+    private void moveStatus(String roomId, ChatRoom.RoomStatus from, ChatRoom.RoomStatus to) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(roomId).and("status").is(from)),
+                new Update().set("status", to),
+                ChatRoom.class);
+    }
+    
+    
     private String truncate(String text, int maxLength) {
         if (text == null) return "";
         return text.length() <= maxLength ? text : text.substring(0, maxLength - 3) + "...";
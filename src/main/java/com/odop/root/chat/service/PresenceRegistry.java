@@ -0,0 +1,180 @@
+package com.odop.root.chat.service;
+
+import com.odop.root.chat.model.ChatRoom;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Who is in which chat room on this node, kept in memory.
+ *
+ * A WebSocket session joins and leaves rooms; every inbound frame from the session, STOMP
+ * heartbeats included, refreshes it without touching Mongo. A session that disconnects, or is
+ * silent for chat.presence.ttl-ms, is dropped. A user goes online in a room when their first
+ * session joins it and offline when their last one goes; only those transitions are written to
+ * the room's participants, batched every chat.presence.flush-interval-ms, and a user who
+ * flickers between flushes costs one write with their final state.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceRegistry implements ChannelInterceptor {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${chat.presence.ttl-ms:60000}")
+    private long ttlMillis;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Guarded by this
+    private final Map<String, Set<Session>> sessionsByUser = new HashMap<>();
+    private final Map<RoomUser, Boolean> pending = new LinkedHashMap<>();
+
+    // ==================== SESSIONS ====================
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        Session session = sessionId != null ? sessions.get(sessionId) : null;
+        if (session != null) {
+            session.lastSeen = System.currentTimeMillis();
+        }
+        return message;
+    }
+
+    public synchronized void join(String sessionId, String userId, String roomId) {
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            session = new Session(sessionId, userId);
+            sessions.put(sessionId, session);
+            sessionsByUser.computeIfAbsent(userId, id -> new HashSet<>()).add(session);
+        }
+        session.lastSeen = System.currentTimeMillis();
+        if (session.rooms.add(roomId) && !inRoomElsewhere(session, roomId)) {
+            pending.put(new RoomUser(roomId, userId), true);
+        }
+    }
+
+    public synchronized void leave(String sessionId, String roomId) {
+        Session session = sessions.get(sessionId);
+        if (session != null && session.rooms.remove(roomId) && !inRoomElsewhere(session, roomId)) {
+            pending.put(new RoomUser(roomId, session.userId), false);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        end(event.getSessionId());
+    }
+
+    public boolean isOnline(String roomId, String userId) {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        synchronized (this) {
+            return sessionsByUser.getOrDefault(userId, Set.of()).stream()
+                    .anyMatch(session -> session.lastSeen >= cutoff && session.rooms.contains(roomId));
+        }
+    }
+
+    private synchronized void end(String sessionId) {
+        Session session = sessions.remove(sessionId);
+        if (session == null) {
+            return;
+        }
+        Set<Session> userSessions = sessionsByUser.get(session.userId);
+        if (userSessions != null) {
+            userSessions.remove(session);
+            if (userSessions.isEmpty()) {
+                sessionsByUser.remove(session.userId);
+            }
+        }
+        for (String roomId : session.rooms) {
+            if (!inRoomElsewhere(session, roomId)) {
+                pending.put(new RoomUser(roomId, session.userId), false);
+            }
+        }
+    }
+
+    private boolean inRoomElsewhere(Session session, String roomId) {
+        for (Session other : sessionsByUser.getOrDefault(session.userId, Set.of())) {
+            if (other != session && other.rooms.contains(roomId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ==================== EXPIRY AND PERSISTENCE ====================
+
+    @Scheduled(fixedDelayString = "${chat.presence.flush-interval-ms:2000}")
+    public void expireAndFlush() {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        sessions.values().stream()
+                .filter(session -> session.lastSeen < cutoff)
+                .map(session -> session.id)
+                .toList()
+                .forEach(this::end);
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        new ArrayList<>(sessions.keySet()).forEach(this::end);
+        flush();
+    }
+
+    private void flush() {
+        Map<RoomUser, Boolean> transitions;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            transitions = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatRoom.class);
+        transitions.forEach((key, online) -> bulk.updateOne(
+                Query.query(Criteria.where("_id").is(key.roomId()).and("participants.id").is(key.userId())),
+                new Update()
+                        .set("participants.$.isOnline", online)
+                        .set("participants.$.lastSeenAt", now)));
+        try {
+            bulk.execute();
+        } catch (RuntimeException e) {
+            // Presence is advisory; the next transition of each user rewrites it
+            log.warn("Presence flush of {} transitions failed: {}", transitions.size(), e.getMessage());
+        }
+    }
+
+    private record RoomUser(String roomId, String userId) {}
+
+    private static final class Session {
+        final String id;
+        final String userId;
+        final Set<String> rooms = new HashSet<>();
+        volatile long lastSeen;
+
+        Session(String id, String userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.odop.root.chat.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which typing events are worth broadcasting.
+ *
+ * Clients send "typing" on every keystroke; per user and room only the first one, and then at
+ * most one per chat.typing.throttle-ms while typing continues, is forwarded. A "stopped typing"
+ * event is always forwarded, since it is what clears the indicator on the other side.
+ */
+@Component
+public class TypingThrottle {
+
+    @Value("${chat.typing.throttle-ms:3000}")
+    private long throttleMillis;
+
+    // roomId|userId -> when the last "typing" event was forwarded
+    private final Map<String, Long> lastForwarded = new ConcurrentHashMap<>();
+
+    public boolean shouldForward(String roomId, String userId, boolean typing) {
+        return shouldForward(roomId, userId, typing, System.currentTimeMillis());
+    }
+
+    boolean shouldForward(String roomId, String userId, boolean typing, long now) {
+        String key = roomId + "|" + userId;
+        if (!typing) {
+            lastForwarded.remove(key);
+            return true;
+        }
+        boolean[] forward = {false};
+        lastForwarded.compute(key, (k, last) -> {
+            if (last == null || now - last >= throttleMillis) {
+                forward[0] = true;
+                return now;
+            }
+            return last;
+        });
+        return forward[0];
+    }
+
+    /**
+     * Forget users who stopped typing without saying so
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - throttleMillis * 10;
+        lastForwarded.values().removeIf(last -> last < cutoff);
+    }
+}
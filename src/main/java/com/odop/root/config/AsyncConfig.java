@@ -1,21 +1,38 @@
 package com.odop.root.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Configuration for asynchronous email sending
  * Emails are sent in background threads to avoid blocking API responses
+ *
+ * Also hosts the bounded pools used for image uploads, variant rendering, invoice PDFs and
+ * notification fan-out
  */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    @Value("${image.upload.parallelism:4}")
+    private int imageUploadParallelism;
+
+    @Value("${invoice.pdf.renderer-pool-size:4}")
+    private int invoicePdfParallelism;
+
+    @Value("${notification.fanout.parallelism:4}")
+    private int notificationFanOutParallelism;
+
+    // Primary so plain @Async methods keep running here now that other executors exist
     @Bean(name = "emailExecutor")
+    @Primary
     public Executor emailExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
@@ -25,4 +42,84 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Image variant rendering is CPU/heap heavy, so the pool is small and applies
+     * back-pressure (caller runs) instead of queueing unbounded decoded images
+     */
+    @Bean(name = "imageVariantExecutor")
+    public Executor imageVariantExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        int cores = Runtime.getRuntime().availableProcessors();
+        executor.setCorePoolSize(Math.max(2, cores / 2));
+        executor.setMaxPoolSize(Math.max(2, cores));
+        executor.setQueueCapacity(30);
+        executor.setThreadNamePrefix("ImageVariant-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Multi-image uploads are mostly network bound (Cloudinary) or disk bound (local storage);
+     * a fixed number of workers caps how many files are in flight across all requests
+     */
+    @Bean(name = "imageUploadExecutor")
+    public Executor imageUploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(imageUploadParallelism);
+        executor.setMaxPoolSize(imageUploadParallelism);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("ImageUpload-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Invoice PDF layout is CPU bound; one worker per pooled renderer, and the caller renders
+     * itself when the queue is full
+     */
+    @Bean(name = "invoicePdfExecutor")
+    public Executor invoicePdfExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(invoicePdfParallelism);
+        executor.setMaxPoolSize(invoicePdfParallelism);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("InvoicePdf-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs broadcast notification jobs, each one walking its recipients wave by wave; a job
+     * rejected here stays pending and is picked up by the next resume pass
+     */
+    @Bean(name = "notificationJobExecutor")
+    public Executor notificationJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("NotificationJob-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Inserts and delivers the recipient chunks of notification jobs; sends are paced per
+     * channel, so more workers only help while the providers have spare rate
+     */
+    @Bean(name = "notificationFanOutExecutor")
+    public Executor notificationFanOutExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(notificationFanOutParallelism);
+        executor.setMaxPoolSize(notificationFanOutParallelism);
+        executor.setQueueCapacity(notificationFanOutParallelism * 2);
+        executor.setThreadNamePrefix("NotificationFanOut-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
 }
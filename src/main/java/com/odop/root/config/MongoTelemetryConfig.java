@@ -0,0 +1,57 @@
+package com.odop.root.config;
+
+import com.odop.root.telemetry.QueryContext;
+import com.odop.root.telemetry.service.QueryTelemetryService;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Mongo query telemetry wiring
+ *
+ * Registers QueryTelemetryService as a driver command listener and wraps every Spring Data
+ * repository proxy so commands can be attributed to the repository method that issued them.
+ * Disable with mongo.telemetry.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "mongo.telemetry.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoTelemetryConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer queryTelemetryListener(QueryTelemetryService queryTelemetryService) {
+        return builder -> builder.addCommandListener(queryTelemetryService);
+    }
+
+    // Static: post-processors are instantiated before regular beans
+    @Bean
+    public static BeanPostProcessor repositoryMethodTracker() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> {
+                                String repository = repositoryInformation.getRepositoryInterface().getSimpleName();
+                                proxyFactory.addAdvice(repositoryMethodInterceptor(repository));
+                            }));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static MethodInterceptor repositoryMethodInterceptor(String repository) {
+        return invocation -> {
+            String previous = QueryContext.enterRepositoryMethod(repository + "." + invocation.getMethod().getName());
+            try {
+                return invocation.proceed();
+            } finally {
+                QueryContext.exitRepositoryMethod(previous);
+            }
+        };
+    }
+}
@@ -93,11 +93,14 @@ public class SecurityConfig {
                         .requestMatchers("/odop/coupon/health").permitAll()
                         .requestMatchers("/odop/coupon/available").permitAll()
                         .requestMatchers("/odop/coupon/validate").hasRole("CUSTOMER")
+                        .requestMatchers("/odop/coupon/apply").hasRole("CUSTOMER")
+                        .requestMatchers("/odop/coupon/best").hasRole("CUSTOMER")
                         .requestMatchers("/odop/coupon/**").hasRole("ADMIN")
                         // ✅ Product Variant endpoints - public read, vendor/admin write
                         .requestMatchers(HttpMethod.GET, "/odop/variants/**").permitAll()
                         .requestMatchers("/odop/variants/attributes/init").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/odop/variants/attributes").hasRole("ADMIN")
+                        .requestMatchers("/odop/variants/stock/reserve", "/odop/variants/stock/release").hasRole("ADMIN")
                         .requestMatchers("/odop/variants/**").authenticated()
                         // ✅ Bulk Upload endpoints - vendor only
                         .requestMatchers("/odop/bulk-upload/health").permitAll()
@@ -164,11 +167,14 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.PUT, "/odop/artisans/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/odop/artisans/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PATCH, "/odop/artisans/**").hasRole("ADMIN")
+                        // ✅ Invoice export - vendor (own invoices, checked in the controller) or admin
+                        .requestMatchers("/odop/invoice/vendor/*/export").hasAnyRole("VENDOR", "ADMIN")
                         // Payment status and history require authentication
                         .requestMatchers("/odop/payment/**").authenticated()
                         // ✅ Order endpoints - vendor can view their orders
                         .requestMatchers("/odop/order/vendor/**").hasRole("VENDOR")
                         .requestMatchers("/odop/order/customer/**").hasRole("CUSTOMER")
+                        .requestMatchers("/odop/order/transition-stats").hasRole("ADMIN")
                         .requestMatchers("/odop/order/**").authenticated()
                         // ✅ PUBLIC Product endpoints - allow browsing without auth
                         .requestMatchers(HttpMethod.GET, "/odop/product/featured").permitAll()
@@ -182,6 +188,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/odop/product/vendor/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/odop/product/{id}").permitAll()
                         .requestMatchers(HttpMethod.GET, "/odop/product/details/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/odop/product/get_image/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/odop/product/filter").permitAll()
                         .requestMatchers(HttpMethod.POST, "/odop/product/filter").permitAll()
                         // ✅ PUBLIC Vendor endpoints - allow browsing vendors without auth
@@ -5,6 +5,7 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -23,9 +24,9 @@ public class CartController {
     private static final Logger logger = LogManager.getLogger(CartController.class);
 
     @PostMapping("/save_cart")
-    public Cart saveCart(@RequestBody Cart cart) {
+    public Cart saveCart(@RequestBody Cart cart, Authentication auth) {
         cart.setCreatedAt(LocalDateTime.now());
-        return this.cartService.saveCart(cart);
+        return this.cartService.saveCart(cart, auth.getName());
     }
 
     @GetMapping("/get_all_carts")
@@ -40,9 +41,13 @@ public class CartController {
 
     @GetMapping("/approve_cart_id/{id}")
     public Cart approveCartById(@PathVariable("id") String uid) {
-        Cart cart = this.cartService.getCartById(uid);
-        cart.setApproval(true);
-        return saveCart(cart);
+        return this.cartService.approveCart(uid);
+    }
+
+    @PutMapping("/update_status/{id}/{status}")
+    public Cart updateCartStatus(@PathVariable("id") String id, @PathVariable("status") String status,
+                                 Authentication auth) {
+        return this.cartService.updateStatus(id, status, auth.getName());
     }
 
     @GetMapping("/get_cart_vendor_id/{vendorId}")
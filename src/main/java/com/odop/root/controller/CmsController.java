@@ -4,11 +4,15 @@ import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.odop.root.cache.ReferenceDataCache;
+import com.odop.root.cache.ReferenceResource;
 import com.odop.root.models.cms.*;
 import com.odop.root.services.CmsService;
 
@@ -20,6 +24,9 @@ public class CmsController {
     @Autowired
     private CmsService cmsService;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     // ==================== PAGES ====================
 
     @GetMapping("/pages")
@@ -39,10 +46,9 @@ public class CmsController {
     }
 
     @GetMapping("/pages/slug/{slug}")
-    public ResponseEntity<CmsPage> getPageBySlug(@PathVariable String slug) {
-        return cmsService.getPageBySlug(slug)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getPageBySlug(@PathVariable String slug, HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.CMS, "page:" + slug, request,
+                () -> cmsService.getPageBySlug(slug).orElse(null));
     }
 
     @PostMapping("/pages")
@@ -132,8 +138,9 @@ public class CmsController {
     }
 
     @GetMapping("/faqs/active")
-    public ResponseEntity<List<CmsFaq>> getActiveFaqs() {
-        return ResponseEntity.ok(cmsService.getActiveFaqs());
+    public ResponseEntity<byte[]> getActiveFaqs(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.CMS, "faqs:active", request,
+                cmsService::getActiveFaqs);
     }
 
     @GetMapping("/faqs/{id}")
@@ -184,8 +191,9 @@ public class CmsController {
     }
 
     @GetMapping("/testimonials/active")
-    public ResponseEntity<List<CmsTestimonial>> getActiveTestimonials() {
-        return ResponseEntity.ok(cmsService.getActiveTestimonials());
+    public ResponseEntity<byte[]> getActiveTestimonials(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.CMS, "testimonials:active", request,
+                cmsService::getActiveTestimonials);
     }
 
     @GetMapping("/testimonials/{id}")
@@ -228,8 +236,9 @@ public class CmsController {
     // ==================== SEO SETTINGS ====================
 
     @GetMapping("/seo")
-    public ResponseEntity<SeoSettings> getSeoSettings() {
-        return ResponseEntity.ok(cmsService.getSeoSettings());
+    public ResponseEntity<byte[]> getSeoSettings(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.CMS, "seo", request,
+                cmsService::getSeoSettings);
     }
 
     @PutMapping("/seo")
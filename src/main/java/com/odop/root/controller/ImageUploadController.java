@@ -4,15 +4,27 @@ import com.odop.root.dto.ImageUploadResponse;
 import com.odop.root.dto.MultiImageUploadResponse;
 import com.odop.root.models.ImageMetadata;
 import com.odop.root.services.ImageUploadService;
+import com.odop.root.storage.ImageStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +42,7 @@ import java.util.Optional;
  * - DELETE /odop/images/{entityType}/{entityId}/all - Delete all images for entity
  * - PUT /odop/images/{imageId}/set-primary - Set image as primary
  * - GET /odop/images/transform - Get transformed image URL
+ * - GET /odop/images/files/{fileName} - Serve a locally stored image or variant
  * - GET /odop/images/health - Health check
  */
 @RestController
@@ -39,9 +52,21 @@ public class ImageUploadController {
 
     private static final Logger logger = LoggerFactory.getLogger(ImageUploadController.class);
 
+    // File names are content hashes, so a given URL never changes content
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    // Tomcat sendfile request attributes (org.apache.coyote.Constants / Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     @Autowired
     private ImageUploadService imageUploadService;
 
+    @Autowired
+    private ImageStorage imageStorage;
+
     /**
      * Health check endpoint
      */
@@ -122,6 +147,52 @@ public class ImageUploadController {
         }
     }
 
+    /**
+     * Serve a locally stored image or one of its variants.
+     * Uses Tomcat sendfile (zero-copy) when the connector supports it, otherwise a
+     * FileChannel transfer.
+     */
+    @GetMapping("/files/{fileName:.+}")
+    public void serveImageFile(@PathVariable String fileName,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        Optional<Path> file = imageStorage.resolveFile(fileName);
+        if (file.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        String etag = "\"" + fileName + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        Path path = file.get();
+        long length = Files.size(path);
+        response.setContentType(MediaTypeFactory.getMediaType(fileName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(length);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             OutputStream out = response.getOutputStream()) {
+            long position = 0;
+            while (position < length) {
+                position += channel.transferTo(position, length - position, Channels.newChannel(out));
+            }
+        }
+    }
+
     /**
      * Get all images for a specific entity
      */
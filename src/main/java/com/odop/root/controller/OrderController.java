@@ -6,16 +6,23 @@ import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.odop.root.dto.CheckoutRequest;
+import com.odop.root.dto.CheckoutResponse;
 import com.odop.root.dto.OrderDto;
 import com.odop.root.dto.OrderItemDto;
 import com.odop.root.dto.PageResponse;
 import com.odop.root.models.Order;
 import com.odop.root.models.OrderItem;
+import com.odop.root.services.CheckoutService;
+import com.odop.root.services.CheckoutService.CheckoutResult;
+import com.odop.root.services.CustomerService;
 import com.odop.root.services.OrderService;
 
 @RestController
@@ -26,6 +33,12 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CustomerService customerService;
+
     private static final Logger logger = LogManager.getLogger(OrderController.class);
 
     @PostMapping("/create")
@@ -35,6 +48,29 @@ public class OrderController {
         return ResponseEntity.ok(toDto(savedOrder));
     }
 
+    /**
+     * Check out a whole cart: one order per vendor, placed in one request.
+     * Retrying with the same Idempotency-Key returns the orders of the first attempt.
+     */
+    @PostMapping("/checkout")
+    public ResponseEntity<CheckoutResponse> checkout(
+            @RequestHeader("Idempotency-Key") String idempotencyKey,
+            @RequestBody CheckoutRequest request,
+            Authentication auth) {
+        // The cart owner and the idempotency record are the signed-in customer, never the body's
+        String customerId = customerService.resolveCustomerId(auth.getName());
+        if (customerId == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        CheckoutResult result = checkoutService.checkout(customerId, request, idempotencyKey);
+        CheckoutResponse response = new CheckoutResponse();
+        response.setCheckoutId(result.checkout().getCheckoutId());
+        response.setOrders(result.orders().stream().map(this::toDto).collect(Collectors.toList()));
+        response.setGrandTotal(result.checkout().getGrandTotal());
+        response.setReplayed(result.replayed());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/get/{orderId}")
     public ResponseEntity<OrderDto> getOrderById(@PathVariable String orderId) {
         Order order = orderService.getOrderById(orderId);
@@ -100,6 +136,14 @@ public class OrderController {
         return ResponseEntity.ok(toDto(cancelledOrder));
     }
 
+    /**
+     * Counts of applied, concurrently conflicting and rejected status transitions since startup.
+     */
+    @GetMapping("/transition-stats")
+    public ResponseEntity<Map<String, Long>> getTransitionStats() {
+        return ResponseEntity.ok(orderService.getTransitionStats());
+    }
+
     @GetMapping("/all")
     public ResponseEntity<List<OrderDto>> getAllOrders() {
         List<Order> orders = orderService.getAllOrders();
@@ -198,6 +242,7 @@ public class OrderController {
     private OrderItemDto toItemDto(OrderItem item) {
         OrderItemDto dto = new OrderItemDto();
         dto.setProductId(item.getProductId());
+        dto.setVariantId(item.getVariantId());
         dto.setProductName(item.getProductName());
         dto.setProductImageURL(item.getProductImageURL());
         dto.setQuantity(item.getQuantity());
@@ -235,7 +280,7 @@ public class OrderController {
     }
 
     private OrderItem toItemEntity(OrderItemDto dto) {
-        return new OrderItem(
+        OrderItem item = new OrderItem(
                 dto.getProductId(),
                 dto.getProductName(),
                 dto.getProductImageURL(),
@@ -243,5 +288,7 @@ public class OrderController {
                 dto.getUnitPrice(),
                 dto.getDiscount()
         );
+        item.setVariantId(dto.getVariantId());
+        return item;
     }
 }
@@ -2,10 +2,14 @@ package com.odop.root.controller;
 
 import java.util.Map;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.odop.root.cache.ReferenceDataCache;
+import com.odop.root.cache.ReferenceResource;
 import com.odop.root.models.settings.PlatformSettings;
 import com.odop.root.services.PlatformSettingsService;
 
@@ -17,6 +21,9 @@ public class PlatformSettingsController {
     @Autowired
     private PlatformSettingsService settingsService;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     // ==================== GET ALL SETTINGS ====================
 
     @GetMapping
@@ -32,8 +39,9 @@ public class PlatformSettingsController {
     // ==================== PUBLIC SETTINGS ====================
 
     @GetMapping("/public/general")
-    public ResponseEntity<Map<String, Object>> getPublicGeneralSettings() {
-        return ResponseEntity.ok(settingsService.getGeneralSettings());
+    public ResponseEntity<byte[]> getPublicGeneralSettings(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.PLATFORM_SETTINGS, "public:general", request,
+                settingsService::getGeneralSettings);
     }
 
     // ==================== GENERAL SETTINGS ====================
@@ -147,27 +155,29 @@ public class PlatformSettingsController {
      * Public endpoint for clients to check maintenance status
      */
     @GetMapping("/public/maintenance")
-    public ResponseEntity<Map<String, Object>> getPublicMaintenanceStatus() {
-        Map<String, Object> status = Map.of(
-            "enabled", settingsService.isMaintenanceMode(),
-            "message", settingsService.getMaintenanceSettings().get("message")
-        );
-        return ResponseEntity.ok(status);
+    public ResponseEntity<byte[]> getPublicMaintenanceStatus(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.PLATFORM_SETTINGS, "public:maintenance", request,
+                () -> Map.of(
+                    "enabled", settingsService.isMaintenanceMode(),
+                    "message", settingsService.getMaintenanceSettings().get("message")
+                ));
     }
 
     /**
      * Public endpoint for clients to get social media links
      */
     @GetMapping("/public/social")
-    public ResponseEntity<Map<String, Object>> getPublicSocialLinks() {
-        return ResponseEntity.ok(settingsService.getSocialSettings());
+    public ResponseEntity<byte[]> getPublicSocialLinks(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.PLATFORM_SETTINGS, "public:social", request,
+                settingsService::getSocialSettings);
     }
 
     /**
      * Public endpoint for clients to get contact information
      */
     @GetMapping("/public/contact")
-    public ResponseEntity<Map<String, Object>> getPublicContactInfo() {
-        return ResponseEntity.ok(settingsService.getContactSettings());
+    public ResponseEntity<byte[]> getPublicContactInfo(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.PLATFORM_SETTINGS, "public:contact", request,
+                settingsService::getContactSettings);
     }
 }
@@ -1,10 +1,15 @@
 package com.odop.root.controller;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.apache.logging.log4j.LogManager;
@@ -12,6 +17,7 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.odop.root.models.Products;
+import com.odop.root.services.ImageUploadService;
 import com.odop.root.services.ProductService;
 import com.odop.root.dto.ProductDto;
 import com.odop.root.dto.PageResponse;
@@ -25,6 +31,9 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ImageUploadService imageUploadService;
+
     private static final Logger logger = LogManager.getLogger(ProductController.class);
 
     @PostMapping("/save_product")
@@ -147,9 +156,27 @@ public class ProductController {
         return this.productService.deleteById(id);
     }
 
+    /**
+     * Redirect to the product's primary image in the requested size.
+     * The target URL is content-addressed and cached long-term, so only this
+     * short-lived redirect is resolved per page view.
+     */
     @GetMapping("/get_image/{productId}")
-    public ResponseEntity<byte[]> getImage(@PathVariable String productId) {
-        return null;
+    public ResponseEntity<byte[]> getImage(@PathVariable String productId,
+                                           @RequestParam(defaultValue = "medium") String size) {
+        Optional<String> imageUrl = imageUploadService.getPrimaryImageUrl("product", productId, size);
+        if (imageUrl.isEmpty()) {
+            Products product = productService.getProductById(productId);
+            if (product != null && product.getProductImageURL() != null && !product.getProductImageURL().isEmpty()) {
+                imageUrl = Optional.of(product.getProductImageURL());
+            }
+        }
+        return imageUrl
+                .map(url -> ResponseEntity.status(HttpStatus.FOUND)
+                        .location(URI.create(url))
+                        .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                        .<byte[]>build())
+                .orElse(ResponseEntity.notFound().build());
     }
 
     // --- GI Tag Filtering Endpoints ---
@@ -0,0 +1,125 @@
+package com.odop.root.counter.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind counters for views, clicks, shares and votes.
+ *
+ * Increments land in a LongAdder per (document, field), so a hot page costs no Mongo write and
+ * concurrent readers of the same document don't contend. Every counters.flush-interval-ms the
+ * pending amounts are drained and written as one unordered bulk of $inc per collection, one
+ * update per document. A crash loses at most one interval of increments; shutdown flushes.
+ *
+ * Counters read from Mongo therefore trail the real count by up to one interval.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EngagementCounterService {
+
+    // Flushes a counter must stay at zero before its adder is dropped
+    private static final int IDLE_FLUSHES_BEFORE_EVICTION = 3;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Map<Class<?>, Map<CounterKey, Pending>> pending = new ConcurrentHashMap<>();
+
+    public void increment(Class<?> entity, String id, String field) {
+        add(entity, id, field, 1);
+    }
+
+    public void add(Class<?> entity, String id, String field, long delta) {
+        if (id == null || delta == 0) {
+            return;
+        }
+        pending.computeIfAbsent(entity, type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(new CounterKey(id, field), key -> new Pending())
+                .adder.add(delta);
+    }
+
+    @Scheduled(fixedDelayString = "${counters.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        pending.forEach((entity, counters) -> {
+            try {
+                flush(entity, counters);
+            } catch (RuntimeException e) {
+                log.error("Counter flush for {} failed: {}", entity.getSimpleName(), e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void flush(Class<?> entity, Map<CounterKey, Pending> counters) {
+        Map<String, Map<String, Long>> byDocument = new LinkedHashMap<>();
+        for (Map.Entry<CounterKey, Pending> entry : counters.entrySet()) {
+            CounterKey key = entry.getKey();
+            Pending counter = entry.getValue();
+            long amount = counter.adder.sum();
+            if (amount != 0) {
+                // Subtract rather than reset, so increments racing with the drain are kept
+                counter.adder.add(-amount);
+                counter.idleFlushes = 0;
+                byDocument.computeIfAbsent(key.id(), id -> new LinkedHashMap<>()).merge(key.field(), amount, Long::sum);
+            } else if (++counter.idleFlushes >= IDLE_FLUSHES_BEFORE_EVICTION && counters.remove(key, counter)) {
+                long late = counter.adder.sum();
+                if (late != 0) {
+                    add(entity, key.id(), key.field(), late);
+                }
+            }
+        }
+        if (byDocument.isEmpty()) {
+            return;
+        }
+
+        List<String> ids = new ArrayList<>(byDocument.keySet());
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entity);
+        for (String id : ids) {
+            Update update = new Update();
+            byDocument.get(id).forEach(update::inc);
+            bulk.updateOne(Query.query(Criteria.where("_id").is(id)), update);
+        }
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // Unordered: only the failed updates are retried with the next flush
+            for (BulkWriteError error : e.getErrors()) {
+                restore(entity, ids.get(error.getIndex()), byDocument.get(ids.get(error.getIndex())));
+            }
+            log.warn("{} of {} {} counter updates failed, retrying next flush",
+                    e.getErrors().size(), ids.size(), entity.getSimpleName());
+        } catch (RuntimeException e) {
+            byDocument.forEach((id, fields) -> restore(entity, id, fields));
+            throw e;
+        }
+    }
+
+    private void restore(Class<?> entity, String id, Map<String, Long> fields) {
+        fields.forEach((field, amount) -> add(entity, id, field, amount));
+    }
+
+    private record CounterKey(String id, String field) {}
+
+    private static final class Pending {
+        final LongAdder adder = new LongAdder();
+        int idleFlushes;
+    }
+}
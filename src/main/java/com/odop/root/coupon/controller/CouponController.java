@@ -3,8 +3,10 @@ package com.odop.root.coupon.controller;
 import com.odop.root.coupon.dto.*;
 import com.odop.root.coupon.model.Coupon;
 import com.odop.root.coupon.service.CouponService;
+import com.odop.root.services.CustomerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +21,7 @@ import java.util.*;
 public class CouponController {
 
     private final CouponService couponService;
+    private final CustomerService customerService;
 
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
@@ -66,16 +69,45 @@ public class CouponController {
     }
 
     // ========== CUSTOMER ENDPOINTS ==========
+    // Usage limits and order checks are keyed by customer id; the login principal is the email
 
     @PostMapping("/validate")
     public ResponseEntity<CouponValidationResponse> validateCoupon(
             @RequestBody ApplyCouponRequest req, Authentication auth) {
         log.info("Validating coupon: {}", req.getCouponCode());
+        String customerId = customerService.resolveCustomerId(auth.getName());
+        if (customerId == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         CouponValidationResponse response = couponService.validateCoupon(
-            req.getCouponCode(), auth.getName(), req.getCartTotal(), req.getShippingState());
+            req.getCouponCode(), customerId, req.getCartTotal(), req.getShippingState());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/apply")
+    public ResponseEntity<CouponValidationResponse> applyCoupon(
+            @RequestBody ApplyCouponRequest req, Authentication auth) {
+        log.info("Applying coupon {} to order {}", req.getCouponCode(), req.getOrderId());
+        String customerId = customerService.resolveCustomerId(auth.getName());
+        if (customerId == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        CouponValidationResponse response = couponService.applyCoupon(
+            req.getCouponCode(), customerId, req.getOrderId());
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/best")
+    public ResponseEntity<CouponValidationResponse> bestCoupon(
+            @RequestBody ApplyCouponRequest req, Authentication auth) {
+        String customerId = customerService.resolveCustomerId(auth.getName());
+        if (customerId == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(couponService.findBestCoupon(
+            customerId, req.getCartTotal(), req.getShippingState()));
+    }
+
     @GetMapping("/available")
     public ResponseEntity<List<Coupon>> getAvailableCoupons() {
         return ResponseEntity.ok(couponService.getActiveCoupons());
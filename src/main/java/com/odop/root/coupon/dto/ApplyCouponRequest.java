@@ -9,6 +9,7 @@ import lombok.*;
 public class ApplyCouponRequest {
     private String couponCode;
     private String cartId;
+    private String orderId;
     private double cartTotal;
     private String shippingState;
 }
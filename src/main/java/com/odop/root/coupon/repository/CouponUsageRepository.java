@@ -12,4 +12,5 @@ public interface CouponUsageRepository extends MongoRepository<CouponUsage, Stri
     List<CouponUsage> findByCouponCodeAndCustomerId(String couponCode, String customerId);
     long countByCouponCode(String couponCode);
     long countByCouponCodeAndCustomerId(String couponCode, String customerId);
+    boolean existsByOrderId(String orderId);
 }
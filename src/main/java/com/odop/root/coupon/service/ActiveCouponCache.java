@@ -0,0 +1,113 @@
+package com.odop.root.coupon.service;
+
+import com.odop.root.coupon.model.Coupon;
+import com.odop.root.coupon.repository.CouponRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory table of active coupons keyed by upper-case code, plus the {@link CouponRuleIndex}
+ * used to find the best coupon for a cart.
+ *
+ * Loaded on first use and reloaded every coupon.cache.refresh-ms; CouponService patches single
+ * entries as coupons are created, edited, deleted or used, so this node sees its own writes at
+ * once and other nodes' writes after the next reload. Usage counts here are only a pre-check:
+ * the usage limit itself is enforced by the conditional $inc in CouponService.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActiveCouponCache {
+
+    private final CouponRepository couponRepository;
+
+    private volatile Map<String, Coupon> byCode;
+    private volatile CouponRuleIndex index = CouponRuleIndex.EMPTY;
+    // Bumped on every single-entry change so a reload that raced with it is not installed
+    private long generation;
+
+    public Coupon get(String code) {
+        return code == null ? null : table().get(code.toUpperCase());
+    }
+
+    public Collection<Coupon> all() {
+        return table().values();
+    }
+
+    public CouponRuleIndex index() {
+        table();
+        return index;
+    }
+
+    /**
+     * Add or replace a coupon after a write; inactive coupons are dropped
+     */
+    public synchronized void put(Coupon coupon) {
+        Map<String, Coupon> updated = new HashMap<>(table());
+        if (coupon.isActive()) {
+            updated.put(coupon.getCode().toUpperCase(), coupon);
+        } else {
+            updated.remove(coupon.getCode().toUpperCase());
+        }
+        index = index.with(coupon);
+        byCode = Map.copyOf(updated);
+        generation++;
+    }
+
+    public synchronized void remove(String code) {
+        Map<String, Coupon> updated = new HashMap<>(table());
+        updated.remove(code.toUpperCase());
+        index = index.without(code);
+        byCode = Map.copyOf(updated);
+        generation++;
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.cache.refresh-ms:60000}")
+    public void refresh() {
+        long startedAt;
+        synchronized (this) {
+            startedAt = generation;
+        }
+        Map<String, Coupon> loaded = load();
+        synchronized (this) {
+            if (generation == startedAt) {
+                install(loaded);
+            }
+        }
+    }
+
+    private Map<String, Coupon> table() {
+        Map<String, Coupon> table = byCode;
+        if (table == null) {
+            synchronized (this) {
+                if (byCode == null) {
+                    install(load());
+                }
+                table = byCode;
+            }
+        }
+        return table;
+    }
+
+    private void install(Map<String, Coupon> loaded) {
+        index = CouponRuleIndex.of(loaded.values());
+        byCode = loaded;
+    }
+
+    private Map<String, Coupon> load() {
+        Map<String, Coupon> loaded = new HashMap<>();
+        for (Coupon coupon : couponRepository.findByIsActiveTrue()) {
+            if (coupon.getCode() != null) {
+                loaded.put(coupon.getCode().toUpperCase(), coupon);
+            }
+        }
+        log.debug("Loaded {} active coupons", loaded.size());
+        return Map.copyOf(loaded);
+    }
+}
@@ -0,0 +1,210 @@
+package com.odop.root.coupon.service;
+
+import com.odop.root.coupon.model.Coupon;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Immutable eligibility index over the active coupons, used to pick the best coupon for a cart
+ * without validating codes one by one.
+ *
+ * Coupons occupy slots sorted by minOrderAmount, so the coupons a cart total qualifies for are
+ * always a prefix of the slots (found by binary search). Shipping-state restrictions are one
+ * bitset per state plus one for unrestricted coupons, exhausted usage limits are a bitset, and
+ * validity windows are folded into a "valid now" bitset that is recomputed only when the clock
+ * passes the next validFrom/validUntil boundary. A cart is matched by and-ing those bitsets.
+ *
+ * {@link #with(Coupon)} swaps in a coupon whose usage count changed without rebuilding
+ * anything else; other changes re-derive the bitsets from the existing slots.
+ */
+public final class CouponRuleIndex {
+
+    public static final CouponRuleIndex EMPTY = new CouponRuleIndex(List.of());
+
+    private final Coupon[] slots;
+    private final double[] minOrderAmounts;
+    private final Map<String, Integer> slotByCode;
+    private final Map<String, BitSet> byState;
+    private final BitSet anyState;
+    private final BitSet exhausted;
+    private volatile ValidWindow validWindow;
+
+    private CouponRuleIndex(Collection<Coupon> coupons) {
+        slots = coupons.stream()
+                .sorted(Comparator.comparingDouble(Coupon::getMinOrderAmount))
+                .toArray(Coupon[]::new);
+        minOrderAmounts = new double[slots.length];
+        slotByCode = new HashMap<>();
+        byState = new HashMap<>();
+        anyState = new BitSet(slots.length);
+        exhausted = new BitSet(slots.length);
+        for (int slot = 0; slot < slots.length; slot++) {
+            Coupon coupon = slots[slot];
+            minOrderAmounts[slot] = coupon.getMinOrderAmount();
+            slotByCode.put(coupon.getCode().toUpperCase(), slot);
+            List<String> states = coupon.getApplicableStates();
+            if (states == null || states.isEmpty()) {
+                anyState.set(slot);
+            } else {
+                for (String state : states) {
+                    byState.computeIfAbsent(state, s -> new BitSet(slots.length)).set(slot);
+                }
+            }
+            exhausted.set(slot, isExhausted(coupon));
+        }
+    }
+
+    private CouponRuleIndex(CouponRuleIndex base, int slot, Coupon coupon) {
+        slots = base.slots.clone();
+        slots[slot] = coupon;
+        minOrderAmounts = base.minOrderAmounts;
+        slotByCode = base.slotByCode;
+        byState = base.byState;
+        anyState = base.anyState;
+        exhausted = (BitSet) base.exhausted.clone();
+        exhausted.set(slot, isExhausted(coupon));
+        validWindow = base.validWindow;
+    }
+
+    public static CouponRuleIndex of(Collection<Coupon> coupons) {
+        return new CouponRuleIndex(coupons);
+    }
+
+    /**
+     * Index with the coupon added or replaced (or removed, if it is no longer active)
+     */
+    public CouponRuleIndex with(Coupon coupon) {
+        Integer slot = slotByCode.get(coupon.getCode().toUpperCase());
+        if (slot != null && coupon.isActive() && sameRules(slots[slot], coupon)) {
+            return new CouponRuleIndex(this, slot, coupon);
+        }
+        List<Coupon> coupons = new ArrayList<>(Arrays.asList(slots));
+        if (slot != null) {
+            coupons.remove((int) slot);
+        }
+        if (coupon.isActive()) {
+            coupons.add(coupon);
+        }
+        return new CouponRuleIndex(coupons);
+    }
+
+    public CouponRuleIndex without(String code) {
+        Integer slot = slotByCode.get(code.toUpperCase());
+        if (slot == null) {
+            return this;
+        }
+        List<Coupon> coupons = new ArrayList<>(Arrays.asList(slots));
+        coupons.remove((int) slot);
+        return new CouponRuleIndex(coupons);
+    }
+
+    /**
+     * Coupons the cart qualifies for on amount, state, validity and total usage, best discount first.
+     * Per-customer conditions (usage per customer, first order) are left to the caller.
+     */
+    public List<Candidate> candidates(double cartTotal, String shippingState, LocalDateTime now) {
+        BitSet eligible = (BitSet) anyState.clone();
+        BitSet stateBits = shippingState != null ? byState.get(shippingState) : null;
+        if (stateBits != null) {
+            eligible.or(stateBits);
+        }
+        eligible.and(validAt(now));
+        eligible.andNot(exhausted);
+        eligible.clear(qualifyingPrefix(cartTotal), Math.max(slots.length, 1));
+
+        List<Candidate> candidates = new ArrayList<>(eligible.cardinality());
+        for (int slot = eligible.nextSetBit(0); slot >= 0; slot = eligible.nextSetBit(slot + 1)) {
+            candidates.add(new Candidate(slots[slot], CouponService.calculateDiscount(slots[slot], cartTotal)));
+        }
+        candidates.sort(Comparator.comparingDouble(Candidate::discount).reversed());
+        return candidates;
+    }
+
+    public int size() {
+        return slots.length;
+    }
+
+    // ==================== Helpers ====================
+
+    /**
+     * Number of leading slots whose minOrderAmount the cart total meets
+     */
+    private int qualifyingPrefix(double cartTotal) {
+        int low = 0;
+        int high = minOrderAmounts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (minOrderAmounts[mid] <= cartTotal) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private BitSet validAt(LocalDateTime now) {
+        ValidWindow window = validWindow;
+        if (window == null || now.isBefore(window.from) || !now.isBefore(window.until)) {
+            window = computeWindow(now);
+            validWindow = window;
+        }
+        return window.valid;
+    }
+
+    private ValidWindow computeWindow(LocalDateTime now) {
+        BitSet valid = new BitSet(slots.length);
+        LocalDateTime from = LocalDateTime.MIN;
+        LocalDateTime until = LocalDateTime.MAX;
+        for (int slot = 0; slot < slots.length; slot++) {
+            LocalDateTime validFrom = slots[slot].getValidFrom();
+            LocalDateTime validUntil = slots[slot].getValidUntil();
+            boolean started = validFrom == null || !now.isBefore(validFrom);
+            boolean ended = validUntil != null && now.isAfter(validUntil);
+            valid.set(slot, started && !ended);
+            // The result holds until the nearest boundary on either side of now
+            if (validFrom != null) {
+                if (started) {
+                    from = max(from, validFrom);
+                } else {
+                    until = min(until, validFrom);
+                }
+            }
+            if (validUntil != null) {
+                if (ended) {
+                    from = max(from, validUntil.plusNanos(1));
+                } else {
+                    until = min(until, validUntil.plusNanos(1));
+                }
+            }
+        }
+        return new ValidWindow(valid, from, until);
+    }
+
+    private static boolean isExhausted(Coupon coupon) {
+        return coupon.getTotalUsageLimit() > 0 && coupon.getCurrentUsageCount() >= coupon.getTotalUsageLimit();
+    }
+
+    /**
+     * Whether two versions of a coupon sit in the same slot and bitsets
+     */
+    private static boolean sameRules(Coupon a, Coupon b) {
+        return a.getMinOrderAmount() == b.getMinOrderAmount()
+                && Objects.equals(a.getApplicableStates(), b.getApplicableStates())
+                && Objects.equals(a.getValidFrom(), b.getValidFrom())
+                && Objects.equals(a.getValidUntil(), b.getValidUntil());
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private record ValidWindow(BitSet valid, LocalDateTime from, LocalDateTime until) {}
+
+    public record Candidate(Coupon coupon, double discount) {}
+}
@@ -3,14 +3,24 @@ package com.odop.root.coupon.service;
 import com.odop.root.coupon.dto.*;
 import com.odop.root.coupon.model.*;
 import com.odop.root.coupon.repository.*;
+import com.odop.root.models.Order;
 import com.odop.root.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +30,30 @@ public class CouponService {
     private final CouponRepository couponRepository;
     private final CouponUsageRepository usageRepository;
     private final OrderRepository orderRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ActiveCouponCache activeCoupons;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            mongoTemplate.indexOps(Coupon.class).ensureIndex(new Index()
+                    .on("code", Sort.Direction.ASC)
+                    .unique()
+                    .named("coupon_code_idx"));
+            mongoTemplate.indexOps(CouponUsage.class).ensureIndex(new Index()
+                    .on("couponCode", Sort.Direction.ASC)
+                    .on("customerId", Sort.Direction.ASC)
+                    .named("usage_coupon_customer_idx"));
+            mongoTemplate.indexOps(CouponUsage.class).ensureIndex(new Index()
+                    .on("orderId", Sort.Direction.ASC)
+                    .named("usage_order_idx"));
+            mongoTemplate.indexOps("orders").ensureIndex(new Index()
+                    .on("customerId", Sort.Direction.ASC)
+                    .named("order_customer_idx"));
+        } catch (Exception e) {
+            log.warn("Could not create coupon indexes: {}", e.getMessage());
+        }
+    }
 
     public Coupon createCoupon(CouponDto dto, String adminId) {
         if (couponRepository.existsByCode(dto.getCode().toUpperCase())) {
@@ -47,7 +81,9 @@ public class CouponService {
             .updatedAt(LocalDateTime.now())
             .build();
 
-        return couponRepository.save(coupon);
+        coupon = couponRepository.save(coupon);
+        activeCoupons.put(coupon);
+        return coupon;
     }
 
     public List<Coupon> getAllCoupons() {
@@ -63,16 +99,29 @@ public class CouponService {
         return couponRepository.findByCodeIgnoreCase(code);
     }
 
+    /**
+     * Check a coupon against a cart. Active coupons come from the in-memory table; the only
+     * queries are the per-customer usage count and the first-order check, when the coupon has them.
+     */
     public CouponValidationResponse validateCoupon(String code, String customerId, 
             double cartTotal, String shippingState) {
+        return validate(code, customerId, cartTotal, shippingState, null);
+    }
+
+    /**
+     * @param orderId the order the coupon is being applied to, which does not count against
+     *                first-order-only coupons; null before the order exists
+     */
+    private CouponValidationResponse validate(String code, String customerId,
+            double cartTotal, String shippingState, String orderId) {
         
-        Coupon coupon = couponRepository.findByCodeIgnoreCase(code);
+        Coupon coupon = activeCoupons.get(code);
         
         if (coupon == null) {
-            return invalid("Coupon not found");
-        }
-        if (!coupon.isActive()) {
-            return invalid("Coupon is inactive");
+            // Not active: one indexed lookup to tell "inactive" from "not found"
+            return code != null && couponRepository.findByCode(code.toUpperCase()) != null
+                ? invalid("Coupon is inactive")
+                : invalid("Coupon not found");
         }
         
         LocalDateTime now = LocalDateTime.now();
@@ -93,15 +142,17 @@ public class CouponService {
         }
         
         if (coupon.getUsagePerCustomer() > 0) {
-            long customerUsage = usageRepository.countByCouponCodeAndCustomerId(code, customerId);
+            long customerUsage = usageRepository.countByCouponCodeAndCustomerId(coupon.getCode(), customerId);
             if (customerUsage >= coupon.getUsagePerCustomer()) {
                 return invalid("You have already used this coupon");
             }
         }
         
         if (coupon.isFirstOrderOnly()) {
-            long orderCount = orderRepository.findByCustomerId(customerId).size();
-            if (orderCount > 0) {
+            boolean hasOtherOrders = orderId == null
+                ? orderRepository.existsByCustomerId(customerId)
+                : orderRepository.existsByCustomerIdAndOrderIdNot(customerId, orderId);
+            if (hasOtherOrders) {
                 return invalid("Coupon valid for first order only");
             }
         }
@@ -112,66 +163,143 @@ public class CouponService {
             }
         }
 
-        double discount = calculateDiscount(coupon, cartTotal);
-        double finalAmount = cartTotal - discount;
+        return applicable(coupon, calculateDiscount(coupon, cartTotal), cartTotal, "Coupon applied successfully");
+    }
 
-        return CouponValidationResponse.builder()
-            .valid(true)
-            .couponCode(coupon.getCode())
-            .message("Coupon applied successfully")
-            .discountType(coupon.getDiscountType())
-            .discountValue(coupon.getDiscountValue())
-            .discountAmount(discount)
-            .finalAmount(finalAmount)
-            .build();
+    /**
+     * The coupon giving the biggest discount on this cart. Amount, state, validity and total usage
+     * are matched in memory by the rule index; per-customer conditions are then checked only for
+     * the best candidates, in order, until one passes.
+     */
+    public CouponValidationResponse findBestCoupon(String customerId, double cartTotal, String shippingState) {
+        List<CouponRuleIndex.Candidate> candidates = activeCoupons.index()
+            .candidates(cartTotal, shippingState, LocalDateTime.now());
+
+        Boolean hasOrders = null;
+        for (CouponRuleIndex.Candidate candidate : candidates) {
+            Coupon coupon = candidate.coupon();
+            if (coupon.isFirstOrderOnly()) {
+                if (hasOrders == null) {
+                    hasOrders = orderRepository.existsByCustomerId(customerId);
+                }
+                if (hasOrders) {
+                    continue;
+                }
+            }
+            if (coupon.getUsagePerCustomer() > 0
+                    && usageRepository.countByCouponCodeAndCustomerId(coupon.getCode(), customerId)
+                        >= coupon.getUsagePerCustomer()) {
+                continue;
+            }
+            return applicable(coupon, candidate.discount(), cartTotal, "Best coupon for your cart");
+        }
+        return invalid("No applicable coupon");
     }
 
-    public void recordUsage(String couponCode, String customerId, String orderId, double discount) {
-        CouponUsage usage = CouponUsage.builder()
-            .couponCode(couponCode)
+    /**
+     * Validate the coupon against one of the customer's own orders and, if it applies, record its
+     * use on that order. Total and shipping state are taken from the stored order, not the client.
+     */
+    public CouponValidationResponse applyCoupon(String code, String customerId, String orderId) {
+        Order order = orderId != null ? orderRepository.findByOrderId(orderId) : null;
+        if (order == null || !customerId.equals(order.getCustomerId())) {
+            return invalid("Order not found");
+        }
+        if (usageRepository.existsByOrderId(orderId)) {
+            return invalid("A coupon has already been applied to this order");
+        }
+        CouponValidationResponse validation = validate(code, order.getCustomerId(), order.getTotalAmount(),
+            order.getShippingState(), orderId);
+        if (!validation.isValid()) {
+            return validation;
+        }
+        if (!recordUsage(validation.getCouponCode(), order.getCustomerId(), orderId, validation.getDiscountAmount())) {
+            return invalid("Coupon usage limit reached");
+        }
+        return validation;
+    }
+
+    /**
+     * Count one use of the coupon. The increment is a single conditional update that only matches
+     * while the coupon is below its total limit, so concurrent checkouts cannot overshoot it.
+     * The per-customer limit is checked after the usage is written; the loser of a race backs out.
+     *
+     * @return false if a limit was reached (nothing is recorded)
+     */
+    public boolean recordUsage(String couponCode, String customerId, String orderId, double discount) {
+        String code = couponCode.toUpperCase();
+        Query withinLimit = Query.query(new Criteria().andOperator(
+                Criteria.where("code").is(code),
+                new Criteria().orOperator(
+                        Criteria.where("totalUsageLimit").lte(0),
+                        Criteria.expr(() -> new Document("$lt",
+                                List.of("$currentUsageCount", "$totalUsageLimit"))))));
+        Coupon coupon = mongoTemplate.findAndModify(withinLimit,
+                new Update().inc("currentUsageCount", 1),
+                FindAndModifyOptions.options().returnNew(true), Coupon.class);
+        if (coupon == null) {
+            log.info("Coupon {} not recorded for order {}: usage limit reached", code, orderId);
+            return false;
+        }
+
+        CouponUsage usage = usageRepository.save(CouponUsage.builder()
+            .couponCode(code)
             .customerId(customerId)
             .orderId(orderId)
             .discountApplied(discount)
             .usedAt(LocalDateTime.now())
-            .build();
-        usageRepository.save(usage);
+            .build());
 
-        Coupon coupon = couponRepository.findByCodeIgnoreCase(couponCode);
-        if (coupon != null) {
-            coupon.setCurrentUsageCount(coupon.getCurrentUsageCount() + 1);
-            couponRepository.save(coupon);
+        if (coupon.getUsagePerCustomer() > 0
+                && usageRepository.countByCouponCodeAndCustomerId(code, customerId) > coupon.getUsagePerCustomer()) {
+            usageRepository.delete(usage);
+            coupon = mongoTemplate.findAndModify(Query.query(Criteria.where("code").is(code)),
+                    new Update().inc("currentUsageCount", -1),
+                    FindAndModifyOptions.options().returnNew(true), Coupon.class);
+            if (coupon != null) {
+                activeCoupons.put(coupon);
+            }
+            log.info("Coupon {} not recorded for order {}: per-customer limit reached", code, orderId);
+            return false;
         }
+
+        activeCoupons.put(coupon);
+        return true;
     }
 
     public Coupon updateCoupon(String code, CouponDto dto) {
-        Coupon coupon = couponRepository.findByCodeIgnoreCase(code);
+        // $set only the editable fields so concurrent usage increments are not overwritten
+        Update update = new Update()
+            .set("description", dto.getDescription())
+            .set("discountType", dto.getDiscountType())
+            .set("discountValue", dto.getDiscountValue())
+            .set("maxDiscountAmount", dto.getMaxDiscountAmount())
+            .set("validFrom", dto.getValidFrom())
+            .set("validUntil", dto.getValidUntil())
+            .set("isActive", dto.isActive())
+            .set("totalUsageLimit", dto.getTotalUsageLimit())
+            .set("usagePerCustomer", dto.getUsagePerCustomer())
+            .set("minOrderAmount", dto.getMinOrderAmount())
+            .set("updatedAt", LocalDateTime.now());
+        Coupon coupon = mongoTemplate.findAndModify(Query.query(Criteria.where("code").is(code.toUpperCase())),
+            update, FindAndModifyOptions.options().returnNew(true), Coupon.class);
         if (coupon == null) {
             throw new RuntimeException("Coupon not found");
         }
 
-        coupon.setDescription(dto.getDescription());
-        coupon.setDiscountType(dto.getDiscountType());
-        coupon.setDiscountValue(dto.getDiscountValue());
-        coupon.setMaxDiscountAmount(dto.getMaxDiscountAmount());
-        coupon.setValidFrom(dto.getValidFrom());
-        coupon.setValidUntil(dto.getValidUntil());
-        coupon.setActive(dto.isActive());
-        coupon.setTotalUsageLimit(dto.getTotalUsageLimit());
-        coupon.setUsagePerCustomer(dto.getUsagePerCustomer());
-        coupon.setMinOrderAmount(dto.getMinOrderAmount());
-        coupon.setUpdatedAt(LocalDateTime.now());
-
-        return couponRepository.save(coupon);
+        activeCoupons.put(coupon);
+        return coupon;
     }
 
     public void deleteCoupon(String code) {
         Coupon coupon = couponRepository.findByCodeIgnoreCase(code);
         if (coupon != null) {
             couponRepository.delete(coupon);
+            activeCoupons.remove(coupon.getCode());
         }
     }
 
-    private double calculateDiscount(Coupon coupon, double cartTotal) {
+    static double calculateDiscount(Coupon coupon, double cartTotal) {
         double discount = 0;
         
         switch (coupon.getDiscountType()) {
@@ -192,6 +320,18 @@ public class CouponService {
         return Math.round(discount * 100.0) / 100.0;
     }
 
+    private CouponValidationResponse applicable(Coupon coupon, double discount, double cartTotal, String message) {
+        return CouponValidationResponse.builder()
+            .valid(true)
+            .couponCode(coupon.getCode())
+            .message(message)
+            .discountType(coupon.getDiscountType())
+            .discountValue(coupon.getDiscountValue())
+            .discountAmount(discount)
+            .finalAmount(cartTotal - discount)
+            .build();
+    }
+
     private CouponValidationResponse invalid(String message) {
         return CouponValidationResponse.builder()
             .valid(false)
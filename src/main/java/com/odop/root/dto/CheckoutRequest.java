@@ -0,0 +1,24 @@
+package com.odop.root.dto;
+
+import lombok.Data;
+
+/**
+ * Request DTO for checking out a (possibly multi-vendor) cart.
+ * Prices and vendors are taken from the catalog, not from the cart lines.
+ */
+@Data
+public class CheckoutRequest {
+
+    private String cartId;
+    private String customerId;
+
+    // Shipping Address
+    private String shippingAddress;
+    private String shippingDistrict;
+    private String shippingState;
+    private String shippingPinCode;
+    private long shippingContactNumber;
+
+    private String paymentMethod;       // COD, UPI, CARD, NET_BANKING
+    private String customerNotes;
+}
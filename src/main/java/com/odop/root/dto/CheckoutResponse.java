@@ -0,0 +1,16 @@
+package com.odop.root.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Orders created by a checkout, one per vendor.
+ */
+@Data
+public class CheckoutResponse {
+
+    private String checkoutId;
+    private List<OrderDto> orders;
+    private double grandTotal;
+    private boolean replayed;           // true when an earlier checkout with the same key is returned
+}
@@ -47,6 +47,20 @@ public class MultiImageUploadResponse {
         return response;
     }
 
+    public static MultiImageUploadResponse failed(List<String> failedFiles, String entityType, String entityId) {
+        MultiImageUploadResponse response = new MultiImageUploadResponse();
+        response.setSuccess(false);
+        response.setMessage("All uploads failed");
+        response.setUploadedImages(List.of());
+        response.setFailedFiles(failedFiles);
+        response.setSuccessCount(0);
+        response.setFailedCount(failedFiles.size());
+        response.setTotalFiles(failedFiles.size());
+        response.setEntityType(entityType);
+        response.setEntityId(entityId);
+        return response;
+    }
+
     public static MultiImageUploadResponse error(String message) {
         MultiImageUploadResponse response = new MultiImageUploadResponse();
         response.setSuccess(false);
@@ -5,6 +5,7 @@ import lombok.Data;
 @Data
 public class OrderItemDto {
     private String productId;
+    private String variantId;
     private String productName;
     private String productImageURL;
     private int quantity;
@@ -0,0 +1,29 @@
+package com.odop.root.events.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far one outbox consumer has got, and which node is currently delivering to it
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "outbox_offsets")
+public class ConsumerOffset {
+
+    @Id
+    private String consumer;
+    private String lastEventId;         // Last event handled (or skipped) by this consumer
+    private int failedAttempts;         // Consecutive failed deliveries of the batch after lastEventId
+    private String leaseOwner;
+    private LocalDateTime leaseUntil;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,37 @@
+package com.odop.root.events.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A domain change recorded for asynchronous consumers (notifications, rollups, caches).
+ * Written by the service that made the change; delivered by OutboxRelay in _id order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "outbox_events")
+public class OutboxEvent {
+
+    public static final String ORDER_CREATED = "ORDER_CREATED";
+    public static final String ORDER_STATUS_CHANGED = "ORDER_STATUS_CHANGED";
+    public static final String PAYMENT_STATUS_CHANGED = "PAYMENT_STATUS_CHANGED";
+    public static final String SHIPMENT_CREATED = "SHIPMENT_CREATED";
+    public static final String SHIPMENT_STATUS_CHANGED = "SHIPMENT_STATUS_CHANGED";
+
+    @Id
+    private String id;
+    private String type;                // One of the constants above
+    private String aggregateType;       // ORDER, SHIPMENT
+    private String aggregateId;
+    private Map<String, Object> payload;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,24 @@
+package com.odop.root.events.service;
+
+import com.odop.root.events.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Receives outbox events in batches, off the request thread. Delivery is at-least-once: a batch
+ * that throws is delivered again, so handlers must tolerate seeing an event twice.
+ */
+public interface OutboxConsumer {
+
+    /**
+     * Stable name; the consumer's offset is stored under it
+     */
+    String name();
+
+    boolean accepts(String eventType);
+
+    /**
+     * Handle accepted events in the order they were written
+     */
+    void handle(List<OutboxEvent> events);
+}
@@ -0,0 +1,178 @@
+package com.odop.root.events.service;
+
+import com.odop.root.events.model.ConsumerOffset;
+import com.odop.root.events.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Polls the outbox and delivers events to every {@link OutboxConsumer}, in batches.
+ *
+ * Each consumer has its own offset (the last event _id it has dealt with) and a lease, so one
+ * node at a time delivers to a given consumer and a slow or failing consumer never holds up the
+ * others. The offset only moves after a batch is handled: a crash or exception redelivers it.
+ * A batch that keeps failing is retried event by event after outbox.relay.max-attempts, and
+ * the events that still fail are logged and skipped so the consumer is not stuck forever.
+ *
+ * Events younger than outbox.relay.settle-ms are left for the next poll: _ids are generated by
+ * the writers, so a write still in flight may carry a smaller _id than one already visible. The
+ * window is bounded on the _id itself, whole seconds at a time: ObjectIds from different nodes
+ * within one second do not sort by time (machine bytes come before the counter), so a second is
+ * only read once every event stamped with it has settled.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    private static final int MAX_BATCHES_PER_POLL = 10;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectProvider<OutboxConsumer> consumers;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.relay.settle-ms:2000}")
+    private long settleMillis;
+
+    @Value("${outbox.relay.lease-ms:30000}")
+    private long leaseMillis;
+
+    @Value("${outbox.relay.max-attempts:5}")
+    private int maxAttempts;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:1000}")
+    public void relay() {
+        consumers.orderedStream().forEach(consumer -> {
+            try {
+                relay(consumer);
+            } catch (RuntimeException e) {
+                log.error("Outbox relay to {} failed: {}", consumer.name(), e.getMessage());
+            }
+        });
+    }
+
+    private void relay(OutboxConsumer consumer) {
+        for (int batch = 0; batch < MAX_BATCHES_PER_POLL; batch++) {
+            ConsumerOffset offset = claim(consumer.name());
+            if (offset == null) {
+                return;
+            }
+            List<OutboxEvent> events = nextBatch(offset.getLastEventId());
+            if (events.isEmpty()) {
+                return;
+            }
+            List<OutboxEvent> accepted = events.stream()
+                    .filter(event -> consumer.accepts(event.getType()))
+                    .toList();
+            if (!accepted.isEmpty() && !deliver(consumer, accepted, offset)) {
+                return;
+            }
+            advance(consumer.name(), events.get(events.size() - 1).getId());
+            if (events.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private boolean deliver(OutboxConsumer consumer, List<OutboxEvent> events, ConsumerOffset offset) {
+        try {
+            consumer.handle(events);
+            return true;
+        } catch (RuntimeException e) {
+            int attempts = offset.getFailedAttempts() + 1;
+            if (attempts < maxAttempts) {
+                log.warn("Outbox consumer {} failed a batch of {} (attempt {}): {}",
+                        consumer.name(), events.size(), attempts, e.getMessage());
+                mongoTemplate.updateFirst(ownedBy(consumer.name()),
+                        new Update().set("failedAttempts", attempts).set("updatedAt", LocalDateTime.now()),
+                        ConsumerOffset.class);
+                return false;
+            }
+        }
+        // Out of batch attempts: isolate the poison events
+        for (OutboxEvent event : events) {
+            try {
+                consumer.handle(List.of(event));
+            } catch (RuntimeException e) {
+                log.error("Outbox consumer {} skipped {} {} after {} attempts: {}",
+                        consumer.name(), event.getType(), event.getId(), maxAttempts, e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private List<OutboxEvent> nextBatch(String lastEventId) {
+        Criteria criteria = Criteria.where("_id").lt(firstIdOfSecond(System.currentTimeMillis() - settleMillis));
+        if (lastEventId != null) {
+            criteria = criteria.gt(new ObjectId(lastEventId));
+        }
+        return mongoTemplate.find(Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(batchSize), OutboxEvent.class);
+    }
+
+    /**
+     * The lowest possible ObjectId stamped with the second containing the given time
+     */
+    static ObjectId firstIdOfSecond(long epochMillis) {
+        return new ObjectId(String.format("%08x%016x", epochMillis / 1000, 0));
+    }
+
+    /**
+     * Take or extend the consumer's lease; null if another node holds it
+     */
+    private ConsumerOffset claim(String consumer) {
+        LocalDateTime now = LocalDateTime.now();
+        Query claimable = Query.query(new Criteria().andOperator(
+                Criteria.where("_id").is(consumer),
+                new Criteria().orOperator(
+                        Criteria.where("leaseOwner").is(nodeId),
+                        Criteria.where("leaseUntil").lt(now),
+                        Criteria.where("leaseUntil").exists(false))));
+        try {
+            return mongoTemplate.findAndModify(claimable,
+                    new Update()
+                            .set("leaseOwner", nodeId)
+                            .set("leaseUntil", now.plusNanos(leaseMillis * 1_000_000))
+                            .setOnInsert("failedAttempts", 0),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    ConsumerOffset.class);
+        } catch (DuplicateKeyException e) {
+            // The offset exists and another node's lease is live
+            return null;
+        }
+    }
+
+    private void advance(String consumer, String lastEventId) {
+        mongoTemplate.updateFirst(ownedBy(consumer),
+                new Update()
+                        .set("lastEventId", lastEventId)
+                        .set("failedAttempts", 0)
+                        .set("updatedAt", LocalDateTime.now()),
+                ConsumerOffset.class);
+    }
+
+    private Query ownedBy(String consumer) {
+        return Query.query(Criteria.where("_id").is(consumer).and("leaseOwner").is(nodeId));
+    }
+}
@@ -0,0 +1,78 @@
+package com.odop.root.events.service;
+
+import com.odop.root.events.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records domain changes in the outbox_events collection. Callers publish right after their
+ * own write succeeds; consumers are fed from the collection by {@link OutboxRelay}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${outbox.retention-days:7}")
+    private long retentionDays;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            mongoTemplate.indexOps(OutboxEvent.class).ensureIndex(new Index()
+                    .on("createdAt", Sort.Direction.ASC)
+                    .expire(retentionDays, TimeUnit.DAYS)
+                    .named("outbox_retention_idx"));
+        } catch (Exception e) {
+            log.warn("Could not create outbox indexes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Append an event. A failure is logged rather than thrown: the change it describes has
+     * already been written and must not be reported to the caller as failed.
+     */
+    public void publish(String type, String aggregateType, String aggregateId, Map<String, Object> payload) {
+        try {
+            mongoTemplate.insert(OutboxEvent.builder()
+                    .type(type)
+                    .aggregateType(aggregateType)
+                    .aggregateId(aggregateId)
+                    .payload(payload)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (RuntimeException e) {
+            log.error("Could not record {} for {} {}: {}", type, aggregateType, aggregateId, e.getMessage());
+        }
+    }
+
+    /**
+     * Append several events with one bulk insert (e.g. the orders of one checkout)
+     */
+    public void publishAll(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        events.forEach(event -> event.setCreatedAt(now));
+        try {
+            mongoTemplate.insertAll(events);
+        } catch (RuntimeException e) {
+            log.error("Could not record {} outbox events: {}", events.size(), e.getMessage());
+        }
+    }
+}
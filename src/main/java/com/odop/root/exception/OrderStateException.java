@@ -0,0 +1,12 @@
+package com.odop.root.exception;
+
+/**
+ * An order status change that is not allowed from the order's current state, or that kept
+ * losing to concurrent updates. Reported as 409 Conflict.
+ */
+public class OrderStateException extends RuntimeException {
+
+    public OrderStateException(String message) {
+        super(message);
+    }
+}
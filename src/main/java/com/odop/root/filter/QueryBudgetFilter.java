@@ -0,0 +1,53 @@
+package com.odop.root.filter;
+
+import com.odop.root.telemetry.QueryContext;
+import com.odop.root.telemetry.QueryContext.RequestQueries;
+import com.odop.root.telemetry.service.QueryTelemetryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Binds a Mongo command counter to each request (outermost, so the JWT user lookup counts too)
+ * and reports it under the matched route pattern when the request finishes.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private QueryTelemetryService queryTelemetryService;
+
+    @Value("${mongo.telemetry.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestQueries queries = QueryContext.beginRequest(request.getMethod() + " " + request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryContext.endRequest();
+            // Route patterns keep the number of tracked keys bounded; raw URIs would not
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String route = request.getMethod() + " " + (pattern != null ? pattern : "[unmatched]");
+            queryTelemetryService.completeRequest(route, queries);
+        }
+    }
+}
@@ -2,14 +2,22 @@ package com.odop.root.invoice.controller;
 
 import com.odop.root.invoice.dto.InvoiceDto;
 import com.odop.root.invoice.model.Invoice;
+import com.odop.root.invoice.service.InvoiceExportService;
 import com.odop.root.invoice.service.InvoiceService;
+import com.odop.root.models.Vendor;
+import com.odop.root.repository.VendorRepository;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,6 +34,12 @@ public class InvoiceController {
     @Autowired
     private InvoiceService invoiceService;
 
+    @Autowired
+    private InvoiceExportService invoiceExportService;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
     /**
      * Generate invoice for an order
      */
@@ -140,4 +154,51 @@ public class InvoiceController {
             .collect(Collectors.toList());
         return ResponseEntity.ok(dtos);
     }
+
+    /**
+     * Download all of a vendor's invoices for a month (yyyy-MM) as a ZIP of PDFs.
+     * Admins can export any vendor; a vendor only their own.
+     */
+    @GetMapping("/vendor/{vendorId}/export")
+    @PreAuthorize("hasAnyRole('VENDOR', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportVendorInvoices(@PathVariable String vendorId,
+                                                                      @RequestParam String month,
+                                                                      Authentication auth) {
+        if (!isAdminOrVendor(auth, vendorId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        YearMonth period;
+        try {
+            period = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Invoice> invoices = invoiceExportService.getMonthlyInvoices(vendorId, period);
+        if (invoices.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        logger.info("Exporting {} invoices for vendor {} ({})", invoices.size(), vendorId, period);
+
+        StreamingResponseBody body = out -> invoiceExportService.writeZip(invoices, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/zip"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("invoices-" + vendorId + "-" + period + ".zip")
+                .build().toString())
+            .body(body);
+    }
+
+    /**
+     * The login principal is the account's email address, so a vendor is matched through their record
+     */
+    private boolean isAdminOrVendor(Authentication auth, String vendorId) {
+        if (auth.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()))) {
+            return true;
+        }
+        if (vendorId.equals(auth.getName())) {
+            return true;
+        }
+        Vendor vendor = vendorRepository.findByEmailAddress(auth.getName());
+        return vendor != null && vendorId.equals(vendor.getVendorId());
+    }
 }
@@ -0,0 +1,101 @@
+package com.odop.root.invoice.service;
+
+import com.odop.root.invoice.model.Invoice;
+import com.odop.root.invoice.repository.InvoiceRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Bulk export of a vendor's invoices for a month as one ZIP of PDFs (for GST filing).
+ *
+ * PDFs are rendered on the "invoicePdfExecutor" pool a few at a time ahead of the writer and
+ * added to the ZIP in invoice number order as they complete, so the archive streams to the
+ * client without holding the whole month in memory. Invoices that fail to render are listed in
+ * an errors.txt entry instead of failing the export.
+ */
+@Service
+public class InvoiceExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceExportService.class);
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    @Qualifier("invoicePdfExecutor")
+    private Executor pdfExecutor;
+
+    @Value("${invoice.pdf.renderer-pool-size:4}")
+    private int parallelism;
+
+    public List<Invoice> getMonthlyInvoices(String vendorId, YearMonth month) {
+        // Between is exclusive; step back just before midnight so invoices dated exactly at the start count
+        LocalDateTime from = month.atDay(1).atStartOfDay().minusNanos(1);
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        List<Invoice> invoices = new ArrayList<>(invoiceRepository.findByVendorIdAndInvoiceDateBetween(vendorId, from, to));
+        invoices.sort(Comparator.comparing(Invoice::getInvoiceNumber, Comparator.nullsLast(Comparator.naturalOrder())));
+        return invoices;
+    }
+
+    public void writeZip(List<Invoice> invoices, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        List<String> failures = new ArrayList<>();
+        Deque<Rendering> inFlight = new ArrayDeque<>();
+        Iterator<Invoice> pending = invoices.iterator();
+        int window = Math.max(1, parallelism) * 2;
+
+        while (pending.hasNext() || !inFlight.isEmpty()) {
+            while (pending.hasNext() && inFlight.size() < window) {
+                Invoice invoice = pending.next();
+                inFlight.add(new Rendering(invoice,
+                        CompletableFuture.supplyAsync(() -> invoiceService.renderPdf(invoice), pdfExecutor)));
+            }
+            Rendering next = inFlight.poll();
+            try {
+                byte[] pdf = next.pdf().join();
+                zip.putNextEntry(new ZipEntry(fileName(next.invoice())));
+                zip.write(pdf);
+                zip.closeEntry();
+            } catch (CompletionException e) {
+                String reason = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                logger.warn("Skipping invoice {} in export: {}", next.invoice().getInvoiceNumber(), reason);
+                failures.add(next.invoice().getInvoiceNumber() + ": " + reason);
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("errors.txt"));
+            zip.write(String.join("\n", failures).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        logger.info("Exported {} invoices ({} failed)", invoices.size() - failures.size(), failures.size());
+    }
+
+    private static String fileName(Invoice invoice) {
+        String name = invoice.getInvoiceNumber() != null ? invoice.getInvoiceNumber() : invoice.getInvoiceId();
+        return name.replaceAll("[^A-Za-z0-9._-]", "_") + ".pdf";
+    }
+
+    private record Rendering(Invoice invoice, CompletableFuture<byte[]> pdf) {}
+}
@@ -0,0 +1,55 @@
+package com.odop.root.invoice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Converts invoice HTML to PDF with Flying Saucer.
+ *
+ * An ITextRenderer is expensive to create (it sets up its font resolver and loads the base
+ * fonts) but can lay out any number of documents one after another, so warm renderers are kept
+ * in a small pool and reused. A renderer is used by one thread at a time; when all are busy a
+ * new one is created, and it is dropped afterwards if the pool is already full.
+ */
+@Component
+public class InvoicePdfRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoicePdfRenderer.class);
+
+    private final BlockingQueue<ITextRenderer> idle;
+
+    public InvoicePdfRenderer(@Value("${invoice.pdf.renderer-pool-size:4}") int poolSize) {
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+    }
+
+    public byte[] render(String html) {
+        ITextRenderer renderer = idle.poll();
+        if (renderer == null) {
+            renderer = new ITextRenderer();
+        }
+        boolean reusable = false;
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(32 * 1024);
+            renderer.setDocumentFromString(html);
+            renderer.layout();
+            renderer.createPDF(outputStream);
+            reusable = true;
+            return outputStream.toByteArray();
+        } catch (Exception e) {
+            logger.error("Error generating PDF: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to generate PDF: " + e.getMessage());
+        } finally {
+            // A renderer that failed half way may hold a broken document; let it go
+            if (reusable && !idle.offer(renderer)) {
+                logger.debug("Renderer pool full, discarding renderer");
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.odop.root.invoice.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Rendered invoice PDFs on local disk, named after the SHA-256 of the HTML they were rendered
+ * from and sharded by the first two hash characters.
+ *
+ * An invoice whose data changes (payment status, cancellation) renders to different HTML and so
+ * to a new file; unchanged invoices are served from disk without touching the renderer.
+ */
+@Component
+public class InvoicePdfStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoicePdfStore.class);
+
+    @Value("${invoice.pdf.storage-dir:uploads/invoices}")
+    private String storageDir;
+
+    private Path root;
+    private Path tmpDir;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(storageDir).toAbsolutePath().normalize();
+        tmpDir = root.resolve("tmp");
+        Files.createDirectories(tmpDir);
+        logger.info("📁 Invoice PDF storage at {}", root);
+    }
+
+    public static String hash(String html) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(html.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public Optional<byte[]> read(String hash) {
+        Path path = pathFor(hash);
+        try {
+            return Files.exists(path) ? Optional.of(Files.readAllBytes(path)) : Optional.empty();
+        } catch (IOException e) {
+            logger.warn("Could not read stored invoice PDF {}: {}", hash, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store a rendered PDF; failures are logged and the PDF is simply rendered again next time
+     */
+    public void write(String hash, byte[] pdf) {
+        Path target = pathFor(hash);
+        try {
+            Files.createDirectories(target.getParent());
+            Path part = Files.createTempFile(tmpDir, "invoice-", ".part");
+            try {
+                Files.write(part, pdf);
+                try {
+                    Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(part);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not store invoice PDF {}: {}", hash, e.getMessage());
+        }
+    }
+
+    private Path pathFor(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash + ".pdf");
+    }
+}
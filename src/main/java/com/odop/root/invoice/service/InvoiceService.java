@@ -6,17 +6,18 @@ import com.odop.root.invoice.model.Invoice.InvoiceItem;
 import com.odop.root.invoice.repository.InvoiceRepository;
 import com.odop.root.models.*;
 import com.odop.root.repository.*;
+import com.odop.root.sequence.service.SequenceService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
-import org.xhtmlrenderer.pdf.ITextRenderer;
 
-import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -48,6 +49,15 @@ public class InvoiceService {
     @Autowired
     private TemplateEngine templateEngine;
 
+    @Autowired
+    private SequenceService sequenceService;
+
+    @Autowired
+    private InvoicePdfRenderer pdfRenderer;
+
+    @Autowired
+    private InvoicePdfStore pdfStore;
+
     @Value("${company.name:ODOP - One District One Product}")
     private String companyName;
 
@@ -240,24 +250,24 @@ public class InvoiceService {
         Invoice invoice = invoiceRepository.findById(invoiceId)
             .orElseThrow(() -> new RuntimeException("Invoice not found: " + invoiceId));
 
-        try {
-            // Generate HTML from Thymeleaf template
-            String html = generateInvoiceHtml(invoice);
-
-            // Convert HTML to PDF using Flying Saucer
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            ITextRenderer renderer = new ITextRenderer();
-            renderer.setDocumentFromString(html);
-            renderer.layout();
-            renderer.createPDF(outputStream);
-
-            logger.info("PDF generated successfully for invoice: {}", invoice.getInvoiceNumber());
-            return outputStream.toByteArray();
+        return renderPdf(invoice);
+    }
 
-        } catch (Exception e) {
-            logger.error("Error generating PDF: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to generate PDF: " + e.getMessage());
+    /**
+     * PDF for an invoice, rendered once per distinct invoice content and served from storage afterwards
+     */
+    public byte[] renderPdf(Invoice invoice) {
+        String html = generateInvoiceHtml(invoice);
+        String hash = InvoicePdfStore.hash(html);
+        Optional<byte[]> stored = pdfStore.read(hash);
+        if (stored.isPresent()) {
+            return stored.get();
         }
+
+        byte[] pdf = pdfRenderer.render(html);
+        pdfStore.write(hash, pdf);
+        logger.info("PDF generated successfully for invoice: {}", invoice.getInvoiceNumber());
+        return pdf;
     }
 
     /**
@@ -338,10 +348,33 @@ public class InvoiceService {
 
     // ================ PRIVATE HELPER METHODS ================
 
+    private static final String INVOICE_SEQUENCE = "invoice";
+
+    /**
+     * Start the invoice sequence above the numbers issued before it existed (they were count() + 1)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedInvoiceSequence() {
+        try {
+            long floor = invoiceRepository.count();
+            Optional<Invoice> latest = invoiceRepository.findTopByOrderByCreatedAtDesc();
+            if (latest.isPresent() && latest.get().getInvoiceNumber() != null) {
+                String number = latest.get().getInvoiceNumber();
+                try {
+                    floor = Math.max(floor, Long.parseLong(number.substring(number.lastIndexOf('-') + 1)));
+                } catch (NumberFormatException e) {
+                    logger.warn("Unexpected invoice number format: {}", number);
+                }
+            }
+            sequenceService.ensureAtLeast(INVOICE_SEQUENCE, floor);
+        } catch (Exception e) {
+            logger.warn("Could not seed invoice sequence: {}", e.getMessage());
+        }
+    }
+
     private String generateInvoiceNumber() {
         String year = String.valueOf(LocalDateTime.now().getYear());
-        long count = invoiceRepository.count() + 1;
-        return String.format("ODOP-INV-%s-%05d", year, count);
+        return String.format("ODOP-INV-%s-%05d", year, sequenceService.next(INVOICE_SEQUENCE));
     }
 
     private boolean isInterStateSupply(Customer customer, Vendor vendor) {
@@ -16,6 +16,8 @@ import lombok.NoArgsConstructor;
 public class CartItem {
 
     private String productId;           // reference to Products
+    private String variantId;           // reference to ProductVariant (stock is held per variant)
+    private String holdId;              // active StockHold for this line, set by CartService
     private String vendorId;            // reference to Vendor (for multi-vendor cart)
     private String productName;         // denormalized for quick display
     private String productImageURL;     // denormalized for quick display
@@ -0,0 +1,33 @@
+package com.odop.root.models;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * One checkout attempt, keyed by customer and the client's idempotency key.
+ * A retried checkout with the same key returns the orders recorded here instead of ordering again.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "checkouts")
+public class Checkout {
+
+    @Id
+    private String checkoutId;          // customerId + ":" + idempotency key
+    private String customerId;
+    private String cartId;
+    private String status;              // IN_PROGRESS, COMPLETED
+    private List<String> orderIds;      // one per vendor, set when COMPLETED
+    private double grandTotal;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;    // TTL: the key can be reused after this
+}
@@ -59,6 +59,10 @@ public class ImageMetadata {
 
     private Map<String, Object> cloudinaryData; // Full Cloudinary response
 
+    private String storageBackend;     // cloudinary, local
+    @Indexed
+    private String contentHash;        // Local storage file hash (shared by identical uploads)
+
     /**
      * Convenience constructor that sets defaults.
      */
@@ -57,4 +57,5 @@ public class Order {
     
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private long version;               // Bumped by every status/tracking change in OrderService
 }
@@ -15,6 +15,7 @@ import lombok.NoArgsConstructor;
 public class OrderItem {
 
     private String productId;           // reference to Products
+    private String variantId;           // reference to ProductVariant, when ordered as a variant
     private String productName;         // denormalized for order history
     private String productImageURL;     // denormalized for order history
     private int quantity;
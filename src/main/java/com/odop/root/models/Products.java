@@ -35,6 +35,7 @@ public class Products {
     private String specification;
     private String warranty;
     private int rating;
+    private RatingSummary ratingSummary; // approved reviews: sum, count, 1-5 histogram
     private String vendorId;             // reference to Vendor
     private List<String> tags;
     private String stockStatus;          // In Stock, Out of Stock
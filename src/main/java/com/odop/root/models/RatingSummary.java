@@ -0,0 +1,35 @@
+package com.odop.root.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running totals of the approved reviews of a product or vendor, embedded as ratingSummary.
+ * Kept current by $inc as reviews are approved, rejected or deleted (see RatingSummaryService).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingSummary {
+
+    private long sum;                       // total of all star ratings
+    private long count;                     // number of approved reviews
+    @Builder.Default
+    private Map<String, Long> histogram = new HashMap<>();  // "1".."5" -> number of reviews
+    private long revision;                  // bumped by every $inc; the reconciler only overwrites an unchanged summary
+
+    public double getAverage() {
+        return count > 0 ? Math.round((double) sum / count * 10.0) / 10.0 : 0.0;
+    }
+
+    public long countOf(int stars) {
+        Long n = histogram != null ? histogram.get(String.valueOf(stars)) : null;
+        return n != null ? n : 0;
+    }
+}
@@ -56,6 +56,7 @@ public class Vendor {
     private Double storeCreditsOrWallet;
     private Double ratings;
     private Integer reviewCount;
+    private RatingSummary ratingSummary; // approved reviews: sum, count, 1-5 histogram
     private List<String> tags;
     private String notes;
 
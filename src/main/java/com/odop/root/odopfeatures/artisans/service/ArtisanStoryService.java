@@ -1,5 +1,6 @@
 package com.odop.root.odopfeatures.artisans.service;
 
+import com.odop.root.counter.service.EngagementCounterService;
 import com.odop.root.odopfeatures.artisans.dto.ArtisanStoryDto.*;
 import com.odop.root.odopfeatures.artisans.model.ArtisanStory;
 import com.odop.root.odopfeatures.artisans.model.ArtisanStory.*;
@@ -24,6 +25,7 @@ import java.util.stream.Collectors;
 public class ArtisanStoryService {
     
     private final ArtisanStoryRepository storyRepository;
+    private final EngagementCounterService counterService;
     
     // ==================== Initialization ====================
     
@@ -65,9 +67,7 @@ public class ArtisanStoryService {
         ArtisanStory story = storyRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Artisan story not found: " + id));
         
-        // Increment view count
-        story.setViewCount(story.getViewCount() + 1);
-        storyRepository.save(story);
+        countView(story);
         
         return toResponse(story);
     }
@@ -76,9 +76,7 @@ public class ArtisanStoryService {
         ArtisanStory story = storyRepository.findBySlug(slug)
                 .orElseThrow(() -> new RuntimeException("Artisan story not found: " + slug));
         
-        // Increment view count
-        story.setViewCount(story.getViewCount() + 1);
-        storyRepository.save(story);
+        countView(story);
         
         return toResponse(story);
     }
@@ -252,10 +250,12 @@ public class ArtisanStoryService {
     // ==================== Share Tracking ====================
     
     public void trackShare(String storyId) {
-        storyRepository.findById(storyId).ifPresent(story -> {
-            story.setShareCount(story.getShareCount() + 1);
-            storyRepository.save(story);
-        });
+        counterService.increment(ArtisanStory.class, storyId, "shareCount");
+    }
+
+    private void countView(ArtisanStory story) {
+        counterService.increment(ArtisanStory.class, story.getId(), "viewCount");
+        story.setViewCount(story.getViewCount() + 1);
     }
     
     // ==================== Admin Methods ====================
@@ -1,7 +1,10 @@
 package com.odop.root.odopfeatures.crafts.controller;
 
+import com.odop.root.cache.ReferenceDataCache;
+import com.odop.root.cache.ReferenceResource;
 import com.odop.root.odopfeatures.crafts.dto.CraftCategoryDto.*;
 import com.odop.root.odopfeatures.crafts.service.CraftCategoryService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -20,6 +23,7 @@ import java.util.Map;
 public class CraftCategoryController {
     
     private final CraftCategoryService categoryService;
+    private final ReferenceDataCache referenceDataCache;
     
     // ==================== Public Endpoints ====================
     
@@ -27,16 +31,18 @@ public class CraftCategoryController {
      * Get all root categories
      */
     @GetMapping("/roots")
-    public ResponseEntity<List<CraftCategoryResponse>> getRootCategories() {
-        return ResponseEntity.ok(categoryService.getRootCategories());
+    public ResponseEntity<byte[]> getRootCategories(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.CRAFT_CATEGORIES, "roots", request,
+                categoryService::getRootCategories);
     }
     
     /**
      * Get category tree (hierarchical)
      */
     @GetMapping("/tree")
-    public ResponseEntity<CategoryTreeResponse> getCategoryTree() {
-        return ResponseEntity.ok(categoryService.getCategoryTree());
+    public ResponseEntity<byte[]> getCategoryTree(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.CRAFT_CATEGORIES, "tree", request,
+                categoryService::getCategoryTree);
     }
     
     /**
@@ -67,8 +73,9 @@ public class CraftCategoryController {
      * Get featured categories
      */
     @GetMapping("/featured")
-    public ResponseEntity<List<CraftCategoryResponse>> getFeaturedCategories() {
-        return ResponseEntity.ok(categoryService.getFeaturedCategories());
+    public ResponseEntity<byte[]> getFeaturedCategories(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.CRAFT_CATEGORIES, "featured", request,
+                categoryService::getFeaturedCategories);
     }
     
     /**
@@ -1,5 +1,7 @@
 package com.odop.root.odopfeatures.crafts.service;
 
+import com.odop.root.cache.ReferenceDataCache;
+import com.odop.root.cache.ReferenceResource;
 import com.odop.root.odopfeatures.crafts.dto.CraftCategoryDto.*;
 import com.odop.root.odopfeatures.crafts.model.CraftCategory;
 import com.odop.root.odopfeatures.crafts.repository.CraftCategoryRepository;
@@ -23,6 +25,7 @@ import java.util.stream.Collectors;
 public class CraftCategoryService {
     
     private final CraftCategoryRepository categoryRepository;
+    private final ReferenceDataCache referenceDataCache;
     
     // ==================== Initialization ====================
     
@@ -32,6 +35,7 @@ public class CraftCategoryService {
             log.info("Initializing default craft categories...");
             List<CraftCategory> defaultCategories = CraftCategory.getDefaultCategories();
             categoryRepository.saveAll(defaultCategories);
+            referenceDataCache.bump(ReferenceResource.CRAFT_CATEGORIES);
             log.info("Created {} default craft categories", defaultCategories.size());
         }
     }
@@ -299,6 +303,7 @@ public class CraftCategoryService {
         }
         
         CraftCategory saved = categoryRepository.save(category);
+        referenceDataCache.bump(ReferenceResource.CRAFT_CATEGORIES);
         log.info("Created new category: {} ({})", saved.getName(), saved.getId());
         
         return CraftCategoryResponse.from(saved);
@@ -336,6 +341,7 @@ public class CraftCategoryService {
         category.setUpdatedAt(LocalDateTime.now());
         
         CraftCategory saved = categoryRepository.save(category);
+        referenceDataCache.bump(ReferenceResource.CRAFT_CATEGORIES);
         log.info("Updated category: {} ({})", saved.getName(), saved.getId());
         
         return CraftCategoryResponse.from(saved);
@@ -359,6 +365,7 @@ public class CraftCategoryService {
         category.setActive(false);
         category.setUpdatedAt(LocalDateTime.now());
         categoryRepository.save(category);
+        referenceDataCache.bump(ReferenceResource.CRAFT_CATEGORIES);
         
         log.info("Deleted category: {} ({})", category.getName(), id);
     }
@@ -373,6 +380,7 @@ public class CraftCategoryService {
             category.setProductCount(count);
             category.setUpdatedAt(LocalDateTime.now());
             categoryRepository.save(category);
+            referenceDataCache.bump(ReferenceResource.CRAFT_CATEGORIES);
         }
     }
     
@@ -386,6 +394,7 @@ public class CraftCategoryService {
             category.setArtisanCount(count);
             category.setUpdatedAt(LocalDateTime.now());
             categoryRepository.save(category);
+            referenceDataCache.bump(ReferenceResource.CRAFT_CATEGORIES);
         }
     }
     
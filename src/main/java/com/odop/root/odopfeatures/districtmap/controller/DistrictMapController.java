@@ -1,8 +1,11 @@
 package com.odop.root.odopfeatures.districtmap.controller;
 
+import com.odop.root.cache.ReferenceDataCache;
+import com.odop.root.cache.ReferenceResource;
 import com.odop.root.odopfeatures.districtmap.dto.DistrictMapDto.*;
 import com.odop.root.odopfeatures.districtmap.model.DistrictInfo;
 import com.odop.root.odopfeatures.districtmap.service.DistrictMapService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -20,6 +23,7 @@ import java.util.List;
 public class DistrictMapController {
     
     private final DistrictMapService districtMapService;
+    private final ReferenceDataCache referenceDataCache;
     
     // ==================== Map Data Endpoints ====================
     
@@ -27,16 +31,18 @@ public class DistrictMapController {
      * Get complete map data including states and featured districts
      */
     @GetMapping("/data")
-    public ResponseEntity<MapDataResponse> getMapData() {
-        return ResponseEntity.ok(districtMapService.getMapData());
+    public ResponseEntity<byte[]> getMapData(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.DISTRICT_MAP, "data", request,
+                districtMapService::getMapData);
     }
     
     /**
      * Get map markers for visualization
      */
     @GetMapping("/markers")
-    public ResponseEntity<List<MapMarker>> getMapMarkers() {
-        return ResponseEntity.ok(districtMapService.getMapMarkers());
+    public ResponseEntity<byte[]> getMapMarkers(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.DISTRICT_MAP, "markers", request,
+                districtMapService::getMapMarkers);
     }
     
     /**
@@ -53,8 +59,9 @@ public class DistrictMapController {
      * Get all states with summary
      */
     @GetMapping("/states")
-    public ResponseEntity<List<StateResponse>> getAllStates() {
-        return ResponseEntity.ok(districtMapService.getAllStates());
+    public ResponseEntity<byte[]> getAllStates(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.DISTRICT_MAP, "states", request,
+                districtMapService::getAllStates);
     }
     
     /**
@@ -1,5 +1,7 @@
 package com.odop.root.odopfeatures.districtmap.service;
 
+import com.odop.root.cache.ReferenceDataCache;
+import com.odop.root.cache.ReferenceResource;
 import com.odop.root.odopfeatures.districtmap.dto.DistrictMapDto.*;
 import com.odop.root.odopfeatures.districtmap.model.DistrictInfo;
 import com.odop.root.odopfeatures.districtmap.repository.DistrictInfoRepository;
@@ -23,6 +25,7 @@ import java.util.stream.Collectors;
 public class DistrictMapService {
     
     private final DistrictInfoRepository districtRepository;
+    private final ReferenceDataCache referenceDataCache;
     
     // Cache for state information
     private final Map<String, DistrictInfo.StateInfo> stateCache = DistrictInfo.getIndianStates();
@@ -43,6 +46,7 @@ public class DistrictMapService {
             }
             
             districtRepository.saveAll(sampleDistricts);
+            referenceDataCache.bump(ReferenceResource.DISTRICT_MAP);
             log.info("Created {} sample districts", sampleDistricts.size());
         }
     }
@@ -290,6 +294,7 @@ public class DistrictMapService {
         district.setUpdatedAt(LocalDateTime.now());
         
         DistrictInfo saved = districtRepository.save(district);
+        referenceDataCache.bump(ReferenceResource.DISTRICT_MAP);
         log.info("Created district: {} ({})", saved.getName(), saved.getId());
         
         return DistrictResponse.from(saved);
@@ -307,6 +312,7 @@ public class DistrictMapService {
         district.setUpdatedAt(LocalDateTime.now());
         
         DistrictInfo saved = districtRepository.save(district);
+        referenceDataCache.bump(ReferenceResource.DISTRICT_MAP);
         log.info("Updated district: {} ({})", saved.getName(), saved.getId());
         
         return DistrictResponse.from(saved);
@@ -323,6 +329,7 @@ public class DistrictMapService {
         district.setActive(false);
         district.setUpdatedAt(LocalDateTime.now());
         districtRepository.save(district);
+        referenceDataCache.bump(ReferenceResource.DISTRICT_MAP);
         
         log.info("Deleted district: {} ({})", district.getName(), id);
     }
@@ -341,7 +348,9 @@ public class DistrictMapService {
         district.getOdopProducts().add(product);
         district.setUpdatedAt(LocalDateTime.now());
         
-        return DistrictResponse.from(districtRepository.save(district));
+        DistrictInfo saved = districtRepository.save(district);
+        referenceDataCache.bump(ReferenceResource.DISTRICT_MAP);
+        return DistrictResponse.from(saved);
     }
     
     /**
@@ -356,6 +365,7 @@ public class DistrictMapService {
             district.setTotalProducts(products);
             district.setUpdatedAt(LocalDateTime.now());
             districtRepository.save(district);
+            referenceDataCache.bump(ReferenceResource.DISTRICT_MAP);
         }
     }
     
@@ -1,8 +1,11 @@
 package com.odop.root.odopfeatures.festivals.controller;
 
+import com.odop.root.cache.ReferenceDataCache;
+import com.odop.root.cache.ReferenceResource;
 import com.odop.root.odopfeatures.festivals.dto.FestivalDto.*;
 import com.odop.root.odopfeatures.festivals.model.FestivalCollection;
 import com.odop.root.odopfeatures.festivals.service.FestivalService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,6 +26,7 @@ import java.util.Map;
 public class FestivalController {
     
     private final FestivalService festivalService;
+    private final ReferenceDataCache referenceDataCache;
     
     // ==================== Public Endpoints ====================
     
@@ -30,32 +34,36 @@ public class FestivalController {
      * Get all active festivals
      */
     @GetMapping
-    public ResponseEntity<FestivalListResponse> getAllFestivals() {
-        return ResponseEntity.ok(festivalService.getAllFestivals());
+    public ResponseEntity<byte[]> getAllFestivals(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.FESTIVALS, "all", request,
+                festivalService::getAllFestivals);
     }
     
     /**
      * Get featured festivals for homepage
      */
     @GetMapping("/featured")
-    public ResponseEntity<List<FestivalCollectionResponse>> getFeaturedFestivals() {
-        return ResponseEntity.ok(festivalService.getFeaturedFestivals());
+    public ResponseEntity<byte[]> getFeaturedFestivals(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.FESTIVALS, "featured", request,
+                festivalService::getFeaturedFestivals);
     }
     
     /**
      * Get live festivals (currently active)
      */
     @GetMapping("/live")
-    public ResponseEntity<List<FestivalCollectionResponse>> getLiveFestivals() {
-        return ResponseEntity.ok(festivalService.getLiveFestivals());
+    public ResponseEntity<byte[]> getLiveFestivals(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.FESTIVALS, "live", request,
+                festivalService::getLiveFestivals);
     }
     
     /**
      * Get upcoming festivals
      */
     @GetMapping("/upcoming")
-    public ResponseEntity<List<FestivalCollectionResponse>> getUpcomingFestivals() {
-        return ResponseEntity.ok(festivalService.getUpcomingFestivals());
+    public ResponseEntity<byte[]> getUpcomingFestivals(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.FESTIVALS, "upcoming", request,
+                festivalService::getUpcomingFestivals);
     }
     
     /**
@@ -118,8 +126,9 @@ public class FestivalController {
      * Get festival calendar
      */
     @GetMapping("/calendar")
-    public ResponseEntity<Map<String, List<FestivalCollectionResponse>>> getFestivalCalendar() {
-        return ResponseEntity.ok(festivalService.getFestivalCalendar());
+    public ResponseEntity<byte[]> getFestivalCalendar(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.FESTIVALS, "calendar", request,
+                festivalService::getFestivalCalendar);
     }
     
     /**
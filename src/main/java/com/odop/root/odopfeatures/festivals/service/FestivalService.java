@@ -1,5 +1,8 @@
 package com.odop.root.odopfeatures.festivals.service;
 
+import com.odop.root.cache.ReferenceDataCache;
+import com.odop.root.cache.ReferenceResource;
+import com.odop.root.counter.service.EngagementCounterService;
 import com.odop.root.odopfeatures.festivals.dto.FestivalDto.*;
 import com.odop.root.odopfeatures.festivals.model.FestivalCollection;
 import com.odop.root.odopfeatures.festivals.repository.FestivalCollectionRepository;
@@ -24,6 +27,8 @@ import java.util.stream.Collectors;
 public class FestivalService {
     
     private final FestivalCollectionRepository festivalRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final EngagementCounterService counterService;
     
     // ==================== Initialization ====================
     
@@ -41,6 +46,7 @@ public class FestivalService {
             }
             
             festivalRepository.saveAll(defaultFestivals);
+            referenceDataCache.bump(ReferenceResource.FESTIVALS);
             log.info("Created {} default festival collections", defaultFestivals.size());
         }
     }
@@ -258,6 +264,7 @@ public class FestivalService {
         festival.setCreatedBy(userId);
         
         FestivalCollection saved = festivalRepository.save(festival);
+        referenceDataCache.bump(ReferenceResource.FESTIVALS);
         log.info("Created festival: {} ({})", saved.getName(), saved.getId());
         
         return FestivalCollectionResponse.from(saved);
@@ -281,6 +288,7 @@ public class FestivalService {
         festival.setUpdatedAt(LocalDateTime.now());
         
         FestivalCollection saved = festivalRepository.save(festival);
+        referenceDataCache.bump(ReferenceResource.FESTIVALS);
         log.info("Updated festival: {} ({})", saved.getName(), saved.getId());
         
         return FestivalCollectionResponse.from(saved);
@@ -297,6 +305,7 @@ public class FestivalService {
         festival.setActive(false);
         festival.setUpdatedAt(LocalDateTime.now());
         festivalRepository.save(festival);
+        referenceDataCache.bump(ReferenceResource.FESTIVALS);
         
         log.info("Deleted festival: {} ({})", festival.getName(), id);
     }
@@ -313,7 +322,9 @@ public class FestivalService {
         festival.setProductCount(productIds.size());
         festival.setUpdatedAt(LocalDateTime.now());
         
-        return FestivalCollectionResponse.from(festivalRepository.save(festival));
+        FestivalCollection saved = festivalRepository.save(festival);
+        referenceDataCache.bump(ReferenceResource.FESTIVALS);
+        return FestivalCollectionResponse.from(saved);
     }
     
     /**
@@ -331,7 +342,9 @@ public class FestivalService {
         festival.getSections().add(section);
         festival.setUpdatedAt(LocalDateTime.now());
         
-        return FestivalCollectionResponse.from(festivalRepository.save(festival));
+        FestivalCollection saved = festivalRepository.save(festival);
+        referenceDataCache.bump(ReferenceResource.FESTIVALS);
+        return FestivalCollectionResponse.from(saved);
     }
     
     /**
@@ -345,7 +358,9 @@ public class FestivalService {
         festival.setDiscountInfo(discount);
         festival.setUpdatedAt(LocalDateTime.now());
         
-        return FestivalCollectionResponse.from(festivalRepository.save(festival));
+        FestivalCollection saved = festivalRepository.save(festival);
+        referenceDataCache.bump(ReferenceResource.FESTIVALS);
+        return FestivalCollectionResponse.from(saved);
     }
     
     // ==================== Helper Methods ====================
@@ -392,10 +407,7 @@ public class FestivalService {
     }
     
     private void incrementViewCount(String festivalId) {
-        festivalRepository.findById(festivalId).ifPresent(festival -> {
-            festival.setViewCount(festival.getViewCount() + 1);
-            festivalRepository.save(festival);
-        });
+        counterService.increment(FestivalCollection.class, festivalId, "viewCount");
     }
     
     private boolean isLive(FestivalCollection festival, LocalDate date) {
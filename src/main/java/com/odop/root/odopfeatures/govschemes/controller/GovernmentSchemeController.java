@@ -1,8 +1,11 @@
 package com.odop.root.odopfeatures.govschemes.controller;
 
+import com.odop.root.cache.ReferenceDataCache;
+import com.odop.root.cache.ReferenceResource;
 import com.odop.root.odopfeatures.govschemes.dto.GovernmentSchemeDto.*;
 import com.odop.root.odopfeatures.govschemes.model.GovernmentScheme.*;
 import com.odop.root.odopfeatures.govschemes.service.GovernmentSchemeService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -28,6 +31,7 @@ import java.util.Map;
 public class GovernmentSchemeController {
     
     private final GovernmentSchemeService schemeService;
+    private final ReferenceDataCache referenceDataCache;
     
     // ==================== Public Endpoints ====================
     
@@ -35,24 +39,27 @@ public class GovernmentSchemeController {
      * Get all active government schemes
      */
     @GetMapping
-    public ResponseEntity<List<SchemeListItem>> getAllSchemes() {
-        return ResponseEntity.ok(schemeService.getAllSchemes());
+    public ResponseEntity<byte[]> getAllSchemes(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.GOVERNMENT_SCHEMES, "all", request,
+                schemeService::getAllSchemes);
     }
     
     /**
      * Get featured schemes for homepage
      */
     @GetMapping("/featured")
-    public ResponseEntity<List<SchemeListItem>> getFeaturedSchemes() {
-        return ResponseEntity.ok(schemeService.getFeaturedSchemes());
+    public ResponseEntity<byte[]> getFeaturedSchemes(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.GOVERNMENT_SCHEMES, "featured", request,
+                schemeService::getFeaturedSchemes);
     }
     
     /**
      * Get schemes overview with statistics
      */
     @GetMapping("/overview")
-    public ResponseEntity<SchemesOverview> getOverview() {
-        return ResponseEntity.ok(schemeService.getOverview());
+    public ResponseEntity<byte[]> getOverview(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.GOVERNMENT_SCHEMES, "overview", request,
+                schemeService::getOverview);
     }
     
     /**
@@ -77,8 +84,9 @@ public class GovernmentSchemeController {
      * Get available filters
      */
     @GetMapping("/filters")
-    public ResponseEntity<SchemeFilters> getFilters() {
-        return ResponseEntity.ok(schemeService.getFilters());
+    public ResponseEntity<byte[]> getFilters(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.GOVERNMENT_SCHEMES, "filters", request,
+                schemeService::getFilters);
     }
     
     /**
@@ -131,8 +139,9 @@ public class GovernmentSchemeController {
      * Get schemes currently open for applications
      */
     @GetMapping("/open")
-    public ResponseEntity<List<SchemeListItem>> getOpenSchemes() {
-        return ResponseEntity.ok(schemeService.getOpenSchemes());
+    public ResponseEntity<byte[]> getOpenSchemes(HttpServletRequest request) {
+        return referenceDataCache.respond(ReferenceResource.GOVERNMENT_SCHEMES, "open", request,
+                schemeService::getOpenSchemes);
     }
     
     /**
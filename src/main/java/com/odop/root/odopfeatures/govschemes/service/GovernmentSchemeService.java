@@ -1,5 +1,8 @@
 package com.odop.root.odopfeatures.govschemes.service;
 
+import com.odop.root.cache.ReferenceDataCache;
+import com.odop.root.cache.ReferenceResource;
+import com.odop.root.counter.service.EngagementCounterService;
 import com.odop.root.odopfeatures.govschemes.dto.GovernmentSchemeDto.*;
 import com.odop.root.odopfeatures.govschemes.model.GovernmentScheme;
 import com.odop.root.odopfeatures.govschemes.model.GovernmentScheme.*;
@@ -26,6 +29,8 @@ import java.util.stream.Collectors;
 public class GovernmentSchemeService {
     
     private final GovernmentSchemeRepository schemeRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final EngagementCounterService counterService;
     
     // ==================== Initialization ====================
     
@@ -43,6 +48,7 @@ public class GovernmentSchemeService {
             }
             
             schemeRepository.saveAll(defaultSchemes);
+            referenceDataCache.bump(ReferenceResource.GOVERNMENT_SCHEMES);
             log.info("Initialized {} default government schemes", defaultSchemes.size());
         }
     }
@@ -67,9 +73,7 @@ public class GovernmentSchemeService {
         GovernmentScheme scheme = schemeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Scheme not found: " + id));
         
-        // Increment view count
-        scheme.setViewCount(scheme.getViewCount() + 1);
-        schemeRepository.save(scheme);
+        countView(scheme);
         
         return toResponse(scheme);
     }
@@ -78,9 +82,7 @@ public class GovernmentSchemeService {
         GovernmentScheme scheme = schemeRepository.findBySlug(slug)
                 .orElseThrow(() -> new RuntimeException("Scheme not found: " + slug));
         
-        // Increment view count
-        scheme.setViewCount(scheme.getViewCount() + 1);
-        schemeRepository.save(scheme);
+        countView(scheme);
         
         return toResponse(scheme);
     }
@@ -364,10 +366,12 @@ public class GovernmentSchemeService {
     // ==================== Track Clicks ====================
     
     public void trackApplicationClick(String schemeId) {
-        schemeRepository.findById(schemeId).ifPresent(scheme -> {
-            scheme.setApplicationClicks(scheme.getApplicationClicks() + 1);
-            schemeRepository.save(scheme);
-        });
+        counterService.increment(GovernmentScheme.class, schemeId, "applicationClicks");
+    }
+
+    private void countView(GovernmentScheme scheme) {
+        counterService.increment(GovernmentScheme.class, scheme.getId(), "viewCount");
+        scheme.setViewCount(scheme.getViewCount() + 1);
     }
     
     // ==================== Admin Methods ====================
@@ -384,6 +388,7 @@ public class GovernmentSchemeService {
         scheme.setOpenForApplications(true);
         
         GovernmentScheme saved = schemeRepository.save(scheme);
+        referenceDataCache.bump(ReferenceResource.GOVERNMENT_SCHEMES);
         log.info("Created new government scheme: {}", saved.getName());
         
         return toResponse(saved);
@@ -398,6 +403,7 @@ public class GovernmentSchemeService {
         scheme.setUpdatedAt(LocalDateTime.now());
         
         GovernmentScheme saved = schemeRepository.save(scheme);
+        referenceDataCache.bump(ReferenceResource.GOVERNMENT_SCHEMES);
         log.info("Updated government scheme: {}", saved.getName());
         
         return toResponse(saved);
@@ -409,6 +415,7 @@ public class GovernmentSchemeService {
                 .orElseThrow(() -> new RuntimeException("Scheme not found: " + id));
         
         schemeRepository.delete(scheme);
+        referenceDataCache.bump(ReferenceResource.GOVERNMENT_SCHEMES);
         log.info("Deleted government scheme: {}", scheme.getName());
     }
     
@@ -421,6 +428,7 @@ public class GovernmentSchemeService {
         scheme.setUpdatedAt(LocalDateTime.now());
         
         GovernmentScheme saved = schemeRepository.save(scheme);
+        referenceDataCache.bump(ReferenceResource.GOVERNMENT_SCHEMES);
         log.info("Toggled scheme active status: {} - {}", saved.getName(), saved.isActive());
         
         return toResponse(saved);
@@ -447,6 +455,7 @@ public class GovernmentSchemeService {
         
         scheme.setUpdatedAt(LocalDateTime.now());
         GovernmentScheme saved = schemeRepository.save(scheme);
+        referenceDataCache.bump(ReferenceResource.GOVERNMENT_SCHEMES);
         
         return toResponse(saved);
     }
@@ -469,6 +478,7 @@ public class GovernmentSchemeService {
         
         scheme.setUpdatedAt(LocalDateTime.now());
         GovernmentScheme saved = schemeRepository.save(scheme);
+        referenceDataCache.bump(ReferenceResource.GOVERNMENT_SCHEMES);
         
         return toResponse(saved);
     }
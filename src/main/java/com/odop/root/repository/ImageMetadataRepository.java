@@ -54,6 +54,11 @@ public interface ImageMetadataRepository extends MongoRepository<ImageMetadata,
      */
     void deleteByPublicId(String publicId);
 
+    /**
+     * Count images backed by the same locally stored file
+     */
+    long countByContentHash(String contentHash);
+
     /**
      * Find images without an associated entity (orphaned images)
      */
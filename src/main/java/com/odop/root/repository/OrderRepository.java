@@ -17,6 +17,10 @@ public interface OrderRepository extends MongoRepository<Order, String> {
 
     List<Order> findByCustomerId(String customerId);
 
+    boolean existsByCustomerId(String customerId);
+
+    boolean existsByCustomerIdAndOrderIdNot(String customerId, String orderId);
+
     List<Order> findByVendorId(String vendorId);
 
     List<Order> findByCustomerIdAndOrderStatus(String customerId, String orderStatus);
@@ -253,9 +253,4 @@ public class ReturnRequest {
         this.status = newStatus;
         this.updatedAt = LocalDateTime.now();
     }
-    
-    public static String generateReturnId() {
-        return "RET" + System.currentTimeMillis() + 
-               String.format("%04d", new Random().nextInt(10000));
-    }
 }
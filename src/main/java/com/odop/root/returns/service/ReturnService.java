@@ -1,13 +1,19 @@
 package com.odop.root.returns.service;
 
+import com.odop.root.cache.StatsCache;
 import com.odop.root.returns.dto.ReturnDto.*;
 import com.odop.root.returns.model.ReturnRequest;
 import com.odop.root.returns.model.ReturnRequest.*;
 import com.odop.root.returns.repository.ReturnRequestRepository;
+import com.odop.root.sequence.service.SequenceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +31,9 @@ import java.util.stream.Collectors;
 public class ReturnService {
     
     private final ReturnRequestRepository returnRepository;
+    private final MongoTemplate mongoTemplate;
+    private final StatsCache statsCache;
+    private final SequenceService sequenceService;
     
     // Return policy configuration
     private static final int RETURN_WINDOW_DAYS = 7;
@@ -53,7 +62,7 @@ public class ReturnService {
         
         // Create return request
         ReturnRequest returnRequest = ReturnRequest.builder()
-                .returnId(ReturnRequest.generateReturnId())
+                .returnId(sequenceService.next("return", "RET", 8))
                 .orderId(request.getOrderId())
                 .orderItemId(request.getOrderItemId())
                 .productId(request.getProductId())
@@ -85,7 +94,7 @@ public class ReturnService {
         // For now, set placeholders
         returnRequest.setProductName("Product " + request.getProductId());
         
-        returnRequest = returnRepository.save(returnRequest);
+        returnRequest = save(returnRequest);
         
         log.info("Return request created: {} for order: {}", 
                 returnRequest.getReturnId(), request.getOrderId());
@@ -194,7 +203,7 @@ public class ReturnService {
         // Handle special status actions
         handleStatusAction(returnRequest, status);
         
-        returnRequest = returnRepository.save(returnRequest);
+        returnRequest = save(returnRequest);
         
         log.info("Return {} status updated to {}", returnId, newStatus);
         
@@ -216,7 +225,7 @@ public class ReturnService {
         returnRequest.addStatusHistory(ReturnStatus.APPROVED, 
                 comment != null ? comment : "Return request approved", approvedBy);
         
-        returnRequest = returnRepository.save(returnRequest);
+        returnRequest = save(returnRequest);
         
         log.info("Return {} approved by {}", returnId, approvedBy);
         
@@ -240,7 +249,7 @@ public class ReturnService {
                 reason != null ? reason : "Return request rejected", rejectedBy);
         returnRequest.setResolvedAt(LocalDateTime.now());
         
-        returnRequest = returnRepository.save(returnRequest);
+        returnRequest = save(returnRequest);
         
         log.info("Return {} rejected by {}: {}", returnId, rejectedBy, reason);
         
@@ -273,7 +282,7 @@ public class ReturnService {
                 reason != null ? reason : "Cancelled by customer", customerId);
         returnRequest.setResolvedAt(LocalDateTime.now());
         
-        returnRequest = returnRepository.save(returnRequest);
+        returnRequest = save(returnRequest);
         
         log.info("Return {} cancelled by customer", returnId);
         
@@ -307,7 +316,7 @@ public class ReturnService {
         returnRequest.addStatusHistory(ReturnStatus.PICKUP_SCHEDULED, 
                 "Pickup scheduled for " + request.getScheduledDate(), scheduledBy);
         
-        returnRequest = returnRepository.save(returnRequest);
+        returnRequest = save(returnRequest);
         
         log.info("Pickup scheduled for return {}", request.getReturnId());
         
@@ -356,7 +365,7 @@ public class ReturnService {
                 "Quality check " + (request.isPassed() ? "passed" : "failed") + 
                 ": " + request.getNotes(), inspectorId);
         
-        returnRequest = returnRepository.save(returnRequest);
+        returnRequest = save(returnRequest);
         
         log.info("Quality check recorded for return {}: {}", 
                 request.getReturnId(), request.isPassed() ? "PASSED" : "FAILED");
@@ -392,7 +401,7 @@ public class ReturnService {
         returnRequest.addStatusHistory(ReturnStatus.REFUND_INITIATED, 
                 "Refund of ₹" + request.getRefundAmount() + " initiated", initiatedBy);
         
-        returnRequest = returnRepository.save(returnRequest);
+        returnRequest = save(returnRequest);
         
         log.info("Refund initiated for return {}: ₹{}", 
                 request.getReturnId(), request.getRefundAmount());
@@ -428,7 +437,7 @@ public class ReturnService {
                 "Return process completed", "SYSTEM");
         returnRequest.setResolvedAt(LocalDateTime.now());
         
-        returnRequest = returnRepository.save(returnRequest);
+        returnRequest = save(returnRequest);
         
         log.info("Refund completed for return {}: {}", returnId, transactionId);
         
@@ -440,27 +449,43 @@ public class ReturnService {
     // ==================== STATISTICS ====================
     
     /**
-     * Get return summary statistics
+     * Get return summary statistics.
+     * One $facet aggregation (status counts and refund totals), cached briefly and
+     * invalidated on return writes.
      */
     public ReturnSummary getReturnSummary() {
-        long pending = returnRepository.countPendingReturns();
-        long approved = returnRepository.countByStatus(ReturnStatus.APPROVED) +
-                       returnRepository.countByStatus(ReturnStatus.PICKUP_SCHEDULED);
-        long completed = returnRepository.countByStatus(ReturnStatus.COMPLETED);
-        long rejected = returnRepository.countByStatus(ReturnStatus.REJECTED);
-        
-        // Calculate refund amounts
-        double totalRefund = calculateTotalRefundAmount();
-        double pendingRefund = calculatePendingRefundAmount();
+        return statsCache.get(StatsCache.RETURNS, this::loadReturnSummary);
+    }
+    
+    private ReturnSummary loadReturnSummary() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.facet(Aggregation.group("status").count().as("count")).as("byStatus")
+                        .and(Aggregation.match(Criteria.where("refundDetails.refundStatus")
+                                        .in(RefundStatus.COMPLETED.name(), RefundStatus.PENDING.name())),
+                                Aggregation.group("refundDetails.refundStatus")
+                                        .sum("refundDetails.refundAmount").as("amount")).as("refunds"));
+        Document result = mongoTemplate.aggregate(aggregation, ReturnRequest.class, Document.class)
+                .getUniqueMappedResult();
+        
+        Map<String, Long> byStatus = new HashMap<>();
+        Map<String, Double> refunds = new HashMap<>();
+        if (result != null) {
+            for (Document bucket : result.getList("byStatus", Document.class, List.of())) {
+                byStatus.put(String.valueOf(bucket.get("_id")), ((Number) bucket.get("count")).longValue());
+            }
+            for (Document bucket : result.getList("refunds", Document.class, List.of())) {
+                refunds.put(String.valueOf(bucket.get("_id")), ((Number) bucket.get("amount")).doubleValue());
+            }
+        }
         
         return ReturnSummary.builder()
-                .totalReturns(returnRepository.count())
-                .pendingReturns(pending)
-                .approvedReturns(approved)
-                .completedReturns(completed)
-                .rejectedReturns(rejected)
-                .totalRefundAmount(totalRefund)
-                .pendingRefundAmount(pendingRefund)
+                .totalReturns(byStatus.values().stream().mapToLong(Long::longValue).sum())
+                .pendingReturns(count(byStatus, ReturnStatus.REQUESTED, ReturnStatus.PENDING_APPROVAL))
+                .approvedReturns(count(byStatus, ReturnStatus.APPROVED, ReturnStatus.PICKUP_SCHEDULED))
+                .completedReturns(count(byStatus, ReturnStatus.COMPLETED))
+                .rejectedReturns(count(byStatus, ReturnStatus.REJECTED))
+                .totalRefundAmount(refunds.getOrDefault(RefundStatus.COMPLETED.name(), 0.0))
+                .pendingRefundAmount(refunds.getOrDefault(RefundStatus.PENDING.name(), 0.0))
                 .build();
     }
     
@@ -560,19 +585,17 @@ public class ReturnService {
                status == ReturnStatus.APPROVED;
     }
     
-    private double calculateTotalRefundAmount() {
-        List<ReturnRequest> completed = returnRepository.findByRefundStatus("COMPLETED");
-        return completed.stream()
-                .filter(r -> r.getRefundDetails() != null)
-                .mapToDouble(r -> r.getRefundDetails().getRefundAmount())
-                .sum();
+    private ReturnRequest save(ReturnRequest returnRequest) {
+        ReturnRequest saved = returnRepository.save(returnRequest);
+        statsCache.invalidate(StatsCache.RETURNS);
+        return saved;
     }
     
-    private double calculatePendingRefundAmount() {
-        List<ReturnRequest> pending = returnRepository.findPendingRefunds();
-        return pending.stream()
-                .filter(r -> r.getRefundDetails() != null)
-                .mapToDouble(r -> r.getRefundDetails().getRefundAmount())
-                .sum();
+    private static long count(Map<String, Long> byStatus, ReturnStatus... statuses) {
+        long total = 0;
+        for (ReturnStatus status : statuses) {
+            total += byStatus.getOrDefault(status.name(), 0L);
+        }
+        return total;
     }
 }
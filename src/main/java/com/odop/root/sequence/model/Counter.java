@@ -0,0 +1,21 @@
+package com.odop.root.sequence.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Highest value handed out so far for one named sequence
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "counters")
+public class Counter {
+
+    @Id
+    private String name;
+    private long value;
+}
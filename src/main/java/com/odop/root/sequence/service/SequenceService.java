@@ -0,0 +1,97 @@
+package com.odop.root.sequence.service;
+
+import com.odop.root.sequence.model.Counter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unique, increasing numbers for invoices, returns, shipments and anything else that needs a
+ * human-readable id.
+ *
+ * Each sequence is one document in the counters collection. A node reserves a block of
+ * sequence.block-size numbers with a single atomic $inc and hands them out from memory, so a
+ * number costs one round trip per block rather than per call. Numbers are unique across nodes;
+ * they are increasing within a node, and a node that stops loses at most the rest of its block.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SequenceService {
+
+    private static final int MAX_ALLOCATION_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${sequence.block-size:20}")
+    private int blockSize;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public long next(String sequence) {
+        Block block = blocks.computeIfAbsent(sequence, name -> new Block());
+        synchronized (block) {
+            if (block.next > block.last) {
+                block.last = allocate(sequence, blockSize);
+                block.next = block.last - blockSize + 1;
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Next number formatted as prefix followed by at least the given number of digits
+     */
+    public String next(String sequence, String prefix, int digits) {
+        return prefix + String.format("%0" + digits + "d", next(sequence));
+    }
+
+    /**
+     * Make sure the sequence never hands out a number at or below floor, e.g. when it takes over
+     * from ids that were generated some other way
+     */
+    public void ensureAtLeast(String sequence, long floor) {
+        Query query = Query.query(Criteria.where("_id").is(sequence));
+        try {
+            mongoTemplate.upsert(query, new Update().max("value", floor), Counter.class);
+        } catch (DuplicateKeyException e) {
+            // Another node created the counter first; apply the floor to it
+            mongoTemplate.updateFirst(query, new Update().max("value", floor), Counter.class);
+        }
+    }
+
+    /**
+     * Reserve the next size numbers; returns the highest of them
+     */
+    private long allocate(String sequence, int size) {
+        Query query = Query.query(Criteria.where("_id").is(sequence));
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Counter counter = mongoTemplate.findAndModify(query, new Update().inc("value", size),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true), Counter.class);
+                log.debug("Allocated {} block ending at {}", sequence, counter.getValue());
+                return counter.getValue();
+            } catch (DuplicateKeyException e) {
+                // Two nodes created the counter at once; the retry finds the existing document
+                if (attempt == MAX_ALLOCATION_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static final class Block {
+        private long next = 1;
+        private long last = 0;
+    }
+}
@@ -1,7 +1,10 @@
 package com.odop.root.services;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.apache.logging.log4j.LogManager;
@@ -9,19 +12,114 @@ import org.apache.logging.log4j.Logger;
 
 import com.odop.root.models.Cart;
 import com.odop.root.repository.CartRepository;
+import com.odop.root.variant.service.StockHoldService;
 
 @Service
 public class CartService {
 
 	private static final Logger logger = LogManager.getLogger(CartService.class);
 	
+	// Statuses a client may set; CONVERTED is set by CheckoutService only
+	private static final Set<String> STATUSES = Set.of("ACTIVE", "ABANDONED");
+	
 	@Autowired
 	CartRepository cart_repo;
 	
-	public Cart saveCart(Cart cart) {
+	@Autowired
+	StockHoldService stockHoldService;
+	
+	@Autowired
+	CustomerService customerService;
+	
+	/**
+	 * Save one of the caller's carts. Active carts (re)hold stock for their variant lines and
+	 * abandoned carts release their holds. Only checkout converts a cart (and confirms its holds),
+	 * so CONVERTED is refused here, as is any change to a cart that is already converted.
+	 *
+	 * @param principal the authenticated user; the cart is saved under their customer id
+	 */
+	public Cart saveCart(Cart cart, String principal) {
+		String customerId = requireCustomer(principal);
+		if (cart.getCartId() != null) {
+			Cart existing = this.cart_repo.findByCartId(cart.getCartId());
+			if (existing != null) {
+				requireOwnedAndOpen(existing, customerId);
+			}
+		}
+		cart.setCustomerId(customerId);
+		
+		String status = cart.getStatus() != null ? cart.getStatus().toUpperCase() : "ACTIVE";
+		if (!STATUSES.contains(status)) {
+			throw new RuntimeException("Invalid cart status: " + cart.getStatus());
+		}
+		cart.setStatus(status);
+		switch (status) {
+			case "ABANDONED" -> {
+				Cart saved = this.cart_repo.save(cart);
+				stockHoldService.releaseCart(saved.getCartId());
+				return saved;
+			}
+			default -> {
+				// Holds reference the cart, so new carts need their id before the first save
+				if (cart.getCartId() == null) {
+					cart.setCartId(new ObjectId().toHexString());
+				}
+				stockHoldService.syncCartHolds(cart);
+				return this.cart_repo.save(cart);
+			}
+		}
+	}
+	
+	/**
+	 * Move one of the caller's carts to ACTIVE or ABANDONED
+	 */
+	public Cart updateStatus(String cartId, String status, String principal) {
+		String customerId = requireCustomer(principal);
+		Cart cart = this.cart_repo.findByCartId(cartId);
+		if (cart == null) {
+			throw new RuntimeException("Cart not found: " + cartId);
+		}
+		requireOwnedAndOpen(cart, customerId);
+		String newStatus = status.toUpperCase();
+		if (!STATUSES.contains(newStatus)) {
+			throw new RuntimeException("Invalid cart status: " + status);
+		}
+		cart.setStatus(newStatus);
+		cart.setUpdatedAt(LocalDateTime.now());
+		return saveCart(cart, principal);
+	}
+	
+	/**
+	 * Mark a cart approved; its lines and holds are left as they are
+	 */
+	public Cart approveCart(String cartId) {
+		Cart cart = this.cart_repo.findByCartId(cartId);
+		if (cart == null) {
+			throw new RuntimeException("Cart not found: " + cartId);
+		}
+		cart.setApproval(true);
+		cart.setUpdatedAt(LocalDateTime.now());
 		return this.cart_repo.save(cart);
 	}
 	
+	private String requireCustomer(String principal) {
+		String customerId = customerService.resolveCustomerId(principal);
+		if (customerId == null) {
+			throw new RuntimeException("Only customers can change carts");
+		}
+		return customerId;
+	}
+	
+	private static void requireOwnedAndOpen(Cart cart, String customerId) {
+		if (!customerId.equals(cart.getCustomerId())) {
+			// Same answer as a missing cart, so cart ids cannot be probed
+			throw new RuntimeException("Cart not found: " + cart.getCartId());
+		}
+		if ("CONVERTED".equals(cart.getStatus())) {
+			throw new RuntimeException("Cart has already been checked out: " + cart.getCartId());
+		}
+	}
+	
 	public List<Cart> getAllCarts() {
 		return this.cart_repo.findAll();
 	}
@@ -54,6 +152,7 @@ public class CartService {
 	public boolean deleteById(String id) {
 		if(this.getCartById(id) != null) {
 			this.cart_repo.deleteById(id);
+			stockHoldService.releaseCart(id);
 			boolean result = (this.getCartById(id) == null);
 			logger.debug("Cart result : {}", result);
 			return result;
@@ -0,0 +1,351 @@
+package com.odop.root.services;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.odop.root.dto.CheckoutRequest;
+import com.odop.root.exception.OrderStateException;
+import com.odop.root.models.Cart;
+import com.odop.root.models.CartItem;
+import com.odop.root.models.Checkout;
+import com.odop.root.models.Order;
+import com.odop.root.models.OrderItem;
+import com.odop.root.models.Products;
+import com.odop.root.repository.CartRepository;
+import com.odop.root.repository.OrderRepository;
+import com.odop.root.repository.ProductRepository;
+import com.odop.root.variant.dto.StockReservationResult;
+import com.odop.root.variant.model.ProductVariant;
+import com.odop.root.variant.repository.ProductVariantRepository;
+import com.odop.root.variant.service.ProductVariantService;
+import com.odop.root.variant.service.StockHoldService;
+
+/**
+ * Turns a cart into one order per vendor in a single request.
+ *
+ * The pipeline prices every selected line from one product fetch and one variant fetch, keeps
+ * the cart's live stock holds and reserves stock for the lines without one (all or nothing),
+ * then inserts all vendor orders with one bulk write. Each checkout is recorded under the
+ * customer's idempotency key first, so a retried request returns the orders already placed.
+ */
+@Service
+public class CheckoutService {
+
+    private static final Logger logger = LogManager.getLogger(CheckoutService.class);
+
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+    private static final String COMPLETED = "COMPLETED";
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository variantRepository;
+
+    @Autowired
+    private ProductVariantService variantService;
+
+    @Autowired
+    private StockHoldService stockHoldService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${checkout.idempotency-hours:24}")
+    private long idempotencyHours;
+
+    public record CheckoutResult(Checkout checkout, List<Order> orders, boolean replayed) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            mongoTemplate.indexOps(Checkout.class).ensureIndex(new Index()
+                .on("expiresAt", Sort.Direction.ASC)
+                .expire(0, TimeUnit.SECONDS)
+                .named("checkout_expiry_idx"));
+        } catch (Exception e) {
+            logger.warn("Could not create checkout indexes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @param customerId the authenticated customer; any customerId in the request body is replaced
+     */
+    public CheckoutResult checkout(String customerId, CheckoutRequest request, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            throw new RuntimeException("Idempotency-Key header is required");
+        }
+        if (customerId == null) {
+            throw new RuntimeException("Only customers can check out");
+        }
+        if (request.getCartId() == null) {
+            throw new RuntimeException("cartId is required");
+        }
+        request.setCustomerId(customerId);
+
+        LocalDateTime now = LocalDateTime.now();
+        Checkout claim = Checkout.builder()
+            .checkoutId(request.getCustomerId() + ":" + idempotencyKey)
+            .customerId(request.getCustomerId())
+            .cartId(request.getCartId())
+            .status(IN_PROGRESS)
+            .createdAt(now)
+            .expiresAt(now.plusHours(idempotencyHours))
+            .build();
+        try {
+            mongoTemplate.insert(claim);
+        } catch (DuplicateKeyException e) {
+            return replay(claim.getCheckoutId(), request.getCartId());
+        }
+
+        List<Order> orders;
+        try {
+            orders = placeOrders(request);
+        } catch (RuntimeException e) {
+            // Nothing was ordered; free the key so the client can retry with it
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(claim.getCheckoutId())), Checkout.class);
+            throw e;
+        }
+
+        claim.setStatus(COMPLETED);
+        claim.setOrderIds(orders.stream().map(Order::getOrderId).toList());
+        claim.setGrandTotal(orders.stream().mapToDouble(Order::getFinalAmount).sum());
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(claim.getCheckoutId())),
+            new Update()
+                .set("status", COMPLETED)
+                .set("orderIds", claim.getOrderIds())
+                .set("grandTotal", claim.getGrandTotal()),
+            Checkout.class);
+        logger.info("Checkout {} placed {} orders for cart {}", claim.getCheckoutId(), orders.size(), request.getCartId());
+        return new CheckoutResult(claim, orders, false);
+    }
+
+    private CheckoutResult replay(String checkoutId, String cartId) {
+        Checkout existing = mongoTemplate.findById(checkoutId, Checkout.class);
+        if (existing == null) {
+            throw new OrderStateException("Checkout " + checkoutId + " did not complete, please retry");
+        }
+        if (!existing.getCartId().equals(cartId)) {
+            throw new OrderStateException("Idempotency key was already used for cart " + existing.getCartId());
+        }
+        if (!COMPLETED.equals(existing.getStatus())) {
+            throw new OrderStateException("Checkout " + checkoutId + " is already in progress");
+        }
+        Map<String, Order> byId = orderRepository.findAllById(existing.getOrderIds()).stream()
+            .collect(Collectors.toMap(Order::getOrderId, Function.identity()));
+        List<Order> orders = existing.getOrderIds().stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .toList();
+        return new CheckoutResult(existing, orders, true);
+    }
+
+    private List<Order> placeOrders(CheckoutRequest request) {
+        Cart cart = cartRepository.findByCartId(request.getCartId());
+        if (cart == null || !request.getCustomerId().equals(cart.getCustomerId())) {
+            throw new RuntimeException("Cart not found: " + request.getCartId());
+        }
+        if (!"ACTIVE".equals(cart.getStatus())) {
+            throw new OrderStateException("Cart " + cart.getCartId() + " is " + cart.getStatus());
+        }
+        List<CartItem> lines = cart.getCartItems() == null ? List.of() : cart.getCartItems().stream()
+            .filter(item -> item.isSelected() && item.getQuantity() > 0)
+            .toList();
+        if (lines.isEmpty()) {
+            throw new RuntimeException("Cart has no items to check out");
+        }
+
+        Map<String, List<OrderItem>> itemsByVendor = priceLines(lines);
+
+        // Lines still covered by a live cart hold keep it; the rest reserve stock now
+        Set<String> liveHolds = stockHoldService.holdForCheckout(lines.stream()
+            .filter(item -> item.getVariantId() != null && item.getHoldId() != null)
+            .map(CartItem::getHoldId)
+            .toList());
+        Map<String, Integer> toReserve = new HashMap<>();
+        for (CartItem item : lines) {
+            if (item.getVariantId() != null && (item.getHoldId() == null || !liveHolds.contains(item.getHoldId()))) {
+                toReserve.merge(item.getVariantId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        StockReservationResult reservation = variantService.reserveStock(toReserve);
+        if (!reservation.isSuccess()) {
+            throw new IllegalStateException("Insufficient stock for variant " + reservation.getFailedVariantId()
+                + ": requested " + reservation.getRequestedQuantity()
+                + ", available " + reservation.getAvailableQuantity());
+        }
+
+        // Turn the live holds into deductions before any order is written. A hold released since
+        // holdForCheckout (e.g. by a concurrent cart edit) is not confirmed; its line must reserve
+        // stock like the others, or the checkout fails
+        Map<String, Integer> reserved = new HashMap<>(reservation.getReserved());
+        Map<String, Integer> deducted = new HashMap<>();
+        Set<String> confirmed;
+        try {
+            confirmed = stockHoldService.confirmHolds(liveHolds);
+        } catch (RuntimeException e) {
+            variantService.releaseStock(reserved);
+            throw e;
+        }
+        Map<String, Integer> shortfall = new HashMap<>();
+        for (CartItem item : lines) {
+            if (item.getHoldId() != null && liveHolds.contains(item.getHoldId())) {
+                (confirmed.contains(item.getHoldId()) ? deducted : shortfall)
+                    .merge(item.getVariantId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        if (!shortfall.isEmpty()) {
+            StockReservationResult late = variantService.reserveStock(shortfall);
+            if (!late.isSuccess()) {
+                undoStock(reserved, deducted);
+                throw new IllegalStateException("Insufficient stock for variant " + late.getFailedVariantId()
+                    + ": requested " + late.getRequestedQuantity()
+                    + ", available " + late.getAvailableQuantity());
+            }
+            late.getReserved().forEach((variantId, quantity) -> reserved.merge(variantId, quantity, Integer::sum));
+        }
+
+        // Ids are assigned up front so a partly applied bulk insert can be removed again
+        List<Order> orders = new ArrayList<>();
+        itemsByVendor.forEach((vendorId, items) -> orders.add(buildOrder(request, vendorId, items)));
+        List<Order> saved;
+        try {
+            saved = orderService.createOrders(orders);
+        } catch (RuntimeException e) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(orders.stream().map(Order::getOrderId).toList())),
+                Order.class);
+            undoStock(reserved, deducted);
+            throw e;
+        }
+
+        // The orders are placed; from here on failures are logged, not reported to the customer
+        try {
+            variantService.confirmStockDeduction(reserved);
+            closeCart(cart, lines);
+        } catch (RuntimeException e) {
+            logger.error("Cart {} checked out but could not be closed: {}", cart.getCartId(), e.getMessage());
+        }
+        return saved;
+    }
+
+    /**
+     * Checkout failed before any order was kept: release what it reserved and put back what the
+     * confirmed holds deducted
+     */
+    private void undoStock(Map<String, Integer> reserved, Map<String, Integer> deducted) {
+        variantService.releaseStock(reserved);
+        deducted.forEach(variantService::restoreStock);
+    }
+
+    /**
+     * Price every line from the catalog (one product and one variant query for the whole cart)
+     * and group the resulting order items by vendor
+     */
+    private Map<String, List<OrderItem>> priceLines(List<CartItem> lines) {
+        Map<String, Products> products = productRepository.findAllById(lines.stream()
+                .map(CartItem::getProductId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()))
+            .stream()
+            .collect(Collectors.toMap(Products::getProductId, Function.identity()));
+        Map<String, ProductVariant> variants = variantRepository.findAllById(lines.stream()
+                .map(CartItem::getVariantId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()))
+            .stream()
+            .collect(Collectors.toMap(ProductVariant::getId, Function.identity()));
+
+        Map<String, List<OrderItem>> itemsByVendor = new LinkedHashMap<>();
+        for (CartItem line : lines) {
+            Products product = products.get(line.getProductId());
+            if (product == null || Boolean.FALSE.equals(product.getIsActive())) {
+                throw new RuntimeException("Product is no longer available: " + line.getProductId());
+            }
+            ProductVariant variant = null;
+            if (line.getVariantId() != null) {
+                variant = variants.get(line.getVariantId());
+                if (variant == null || !variant.isActive() || !product.getProductId().equals(variant.getProductId())) {
+                    throw new RuntimeException("Variant is no longer available: " + line.getVariantId());
+                }
+            }
+
+            double unitPrice = variant != null && variant.getPrice() > 0 ? variant.getPrice() : product.getPrice();
+            double discount = round(unitPrice * line.getQuantity() * product.getDiscount() / 100.0);
+            OrderItem item = new OrderItem(product.getProductId(), product.getProductName(),
+                product.getProductImageURL(), line.getQuantity(), unitPrice, discount);
+            item.setVariantId(line.getVariantId());
+            itemsByVendor.computeIfAbsent(product.getVendorId(), vendorId -> new ArrayList<>()).add(item);
+        }
+        return itemsByVendor;
+    }
+
+    private Order buildOrder(CheckoutRequest request, String vendorId, List<OrderItem> items) {
+        double total = round(items.stream().mapToDouble(item -> item.getUnitPrice() * item.getQuantity()).sum());
+        double discount = round(items.stream().mapToDouble(OrderItem::getDiscount).sum());
+        return Order.builder()
+            .orderId(new ObjectId().toHexString())
+            .customerId(request.getCustomerId())
+            .vendorId(vendorId)
+            .orderItems(items)
+            .totalAmount(total)
+            .discountAmount(discount)
+            .deliveryCharges(0)
+            .finalAmount(round(total - discount))
+            .shippingAddress(request.getShippingAddress())
+            .shippingDistrict(request.getShippingDistrict())
+            .shippingState(request.getShippingState())
+            .shippingPinCode(request.getShippingPinCode())
+            .shippingContactNumber(request.getShippingContactNumber())
+            .paymentMethod(request.getPaymentMethod())
+            .customerNotes(request.getCustomerNotes())
+            .build();
+    }
+
+    /**
+     * Drop the ordered lines from the cart; a cart with nothing left is marked CONVERTED
+     */
+    private void closeCart(Cart cart, List<CartItem> ordered) {
+        List<CartItem> remaining = new ArrayList<>(cart.getCartItems());
+        remaining.removeAll(ordered);
+        if (remaining.isEmpty()) {
+            cart.setStatus("CONVERTED");
+        } else {
+            cart.setCartItems(remaining);
+            cart.recalculateTotals();
+        }
+        cart.setUpdatedAt(LocalDateTime.now());
+        cartRepository.save(cart);
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100.0) / 100.0;
+    }
+}
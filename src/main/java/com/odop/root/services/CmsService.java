@@ -11,6 +11,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import com.odop.root.cache.ReferenceDataCache;
+import com.odop.root.cache.ReferenceResource;
 import com.odop.root.models.cms.*;
 import com.odop.root.repository.cms.*;
 
@@ -32,6 +34,9 @@ public class CmsService {
     @Autowired
     private SeoSettingsRepository seoSettingsRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     // ==================== PAGES ====================
 
     public Page<CmsPage> getPages(int page, int size, String status) {
@@ -60,7 +65,7 @@ public class CmsService {
         if (page.getStatus() == null) {
             page.setStatus("Draft");
         }
-        return pageRepository.save(page);
+        return changed(pageRepository.save(page));
     }
 
     public CmsPage updatePage(String id, CmsPage pageData) {
@@ -75,12 +80,13 @@ public class CmsService {
             page.setStatus(pageData.getStatus());
             page.setAuthor(pageData.getAuthor());
             page.setUpdatedAt(LocalDateTime.now());
-            return pageRepository.save(page);
+            return changed(pageRepository.save(page));
         }).orElse(null);
     }
 
     public void deletePage(String id) {
         pageRepository.deleteById(id);
+        referenceDataCache.bump(ReferenceResource.CMS);
     }
 
     public CmsPage publishPage(String id) {
@@ -88,7 +94,7 @@ public class CmsService {
             page.setStatus("Published");
             page.setPublishedAt(LocalDateTime.now());
             page.setUpdatedAt(LocalDateTime.now());
-            return pageRepository.save(page);
+            return changed(pageRepository.save(page));
         }).orElse(null);
     }
 
@@ -114,7 +120,7 @@ public class CmsService {
         if (banner.getPosition() == null) {
             banner.setPosition((int) bannerRepository.count() + 1);
         }
-        return bannerRepository.save(banner);
+        return changed(bannerRepository.save(banner));
     }
 
     public CmsBanner updateBanner(String id, CmsBanner bannerData) {
@@ -129,19 +135,20 @@ public class CmsService {
             banner.setStartDate(bannerData.getStartDate());
             banner.setEndDate(bannerData.getEndDate());
             banner.setUpdatedAt(LocalDateTime.now());
-            return bannerRepository.save(banner);
+            return changed(bannerRepository.save(banner));
         }).orElse(null);
     }
 
     public void deleteBanner(String id) {
         bannerRepository.deleteById(id);
+        referenceDataCache.bump(ReferenceResource.CMS);
     }
 
     public CmsBanner toggleBannerStatus(String id) {
         return bannerRepository.findById(id).map(banner -> {
             banner.setActive(!banner.getActive());
             banner.setUpdatedAt(LocalDateTime.now());
-            return bannerRepository.save(banner);
+            return changed(bannerRepository.save(banner));
         }).orElse(null);
     }
 
@@ -171,7 +178,7 @@ public class CmsService {
         if (faq.getPosition() == null) {
             faq.setPosition((int) faqRepository.count() + 1);
         }
-        return faqRepository.save(faq);
+        return changed(faqRepository.save(faq));
     }
 
     public CmsFaq updateFaq(String id, CmsFaq faqData) {
@@ -182,19 +189,20 @@ public class CmsService {
             faq.setPosition(faqData.getPosition());
             faq.setActive(faqData.getActive());
             faq.setUpdatedAt(LocalDateTime.now());
-            return faqRepository.save(faq);
+            return changed(faqRepository.save(faq));
         }).orElse(null);
     }
 
     public void deleteFaq(String id) {
         faqRepository.deleteById(id);
+        referenceDataCache.bump(ReferenceResource.CMS);
     }
 
     public CmsFaq toggleFaqStatus(String id) {
         return faqRepository.findById(id).map(faq -> {
             faq.setActive(!faq.getActive());
             faq.setUpdatedAt(LocalDateTime.now());
-            return faqRepository.save(faq);
+            return changed(faqRepository.save(faq));
         }).orElse(null);
     }
 
@@ -224,7 +232,7 @@ public class CmsService {
         if (testimonial.getFeatured() == null) {
             testimonial.setFeatured(false);
         }
-        return testimonialRepository.save(testimonial);
+        return changed(testimonialRepository.save(testimonial));
     }
 
     public CmsTestimonial updateTestimonial(String id, CmsTestimonial testimonialData) {
@@ -239,19 +247,20 @@ public class CmsService {
             testimonial.setActive(testimonialData.getActive());
             testimonial.setFeatured(testimonialData.getFeatured());
             testimonial.setUpdatedAt(LocalDateTime.now());
-            return testimonialRepository.save(testimonial);
+            return changed(testimonialRepository.save(testimonial));
         }).orElse(null);
     }
 
     public void deleteTestimonial(String id) {
         testimonialRepository.deleteById(id);
+        referenceDataCache.bump(ReferenceResource.CMS);
     }
 
     public CmsTestimonial toggleTestimonialStatus(String id) {
         return testimonialRepository.findById(id).map(testimonial -> {
             testimonial.setActive(!testimonial.getActive());
             testimonial.setUpdatedAt(LocalDateTime.now());
-            return testimonialRepository.save(testimonial);
+            return changed(testimonialRepository.save(testimonial));
         }).orElse(null);
     }
 
@@ -268,7 +277,7 @@ public class CmsService {
     public SeoSettings updateSeoSettings(SeoSettings settings) {
         List<SeoSettings> all = seoSettingsRepository.findAll();
         if (all.isEmpty()) {
-            return seoSettingsRepository.save(settings);
+            return changed(seoSettingsRepository.save(settings));
         }
         SeoSettings existing = all.get(0);
         existing.setHomepageTitle(settings.getHomepageTitle());
@@ -286,7 +295,7 @@ public class CmsService {
         existing.setFacebookPixelId(settings.getFacebookPixelId());
         existing.setTwitterHandle(settings.getTwitterHandle());
         existing.setOgDefaultImage(settings.getOgDefaultImage());
-        return seoSettingsRepository.save(existing);
+        return changed(seoSettingsRepository.save(existing));
     }
 
     private SeoSettings createDefaultSeoSettings() {
@@ -301,7 +310,13 @@ public class CmsService {
         settings.setProductTitleTemplate("{product} | {category} - ODOP");
         settings.setDefaultAuthor("ODOP Team");
         settings.setRobotsTxt("User-agent: *\nAllow: /\nSitemap: https://odop.in/sitemap.xml");
-        return seoSettingsRepository.save(settings);
+        return changed(seoSettingsRepository.save(settings));
+    }
+
+    // Every CMS write invalidates the cached public CMS responses
+    private <T> T changed(T saved) {
+        referenceDataCache.bump(ReferenceResource.CMS);
+        return saved;
     }
 
     // ==================== STATS ====================
@@ -69,6 +69,21 @@ public class CustomerService {
                 .orElseThrow(() -> new RuntimeException("Customer not found with id: " + customerId));
 	}
 	
+	/**
+	 * Customer id of a login principal. The JWT subject is the email address; a customer id is
+	 * accepted as well. Returns null when neither matches a customer.
+	 */
+	public String resolveCustomerId(String principal) {
+		if (principal == null) {
+			return null;
+		}
+		Customer customer = this.custRepo.findByEmailAddress(principal);
+		if (customer == null) {
+			customer = this.custRepo.findByCustomerId(principal);
+		}
+		return customer != null ? customer.getCustomerId() : null;
+	}
+	
 	public Customer getCustomerByEmailAndPassword(String email, String password) {
 		Customer customer = this.custRepo.findByEmailAddress(email);
 		if (customer != null && passwordEncoder.matches(password, customer.getPassword())) {
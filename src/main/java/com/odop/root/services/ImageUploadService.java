@@ -8,32 +8,53 @@ import com.odop.root.dto.ImageUploadResponse;
 import com.odop.root.dto.MultiImageUploadResponse;
 import com.odop.root.models.ImageMetadata;
 import com.odop.root.repository.ImageMetadataRepository;
+import com.odop.root.storage.ImageStorage;
+import com.odop.root.storage.ImageVariant;
+import com.odop.root.storage.StoredImage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Service for handling image uploads to Cloudinary
+ * Service for handling image uploads to Cloudinary or local disk
  * 
  * Features:
- * - Single and multiple image uploads
+ * - Single and multiple image uploads (multiple uploads run in parallel on the bounded
+ *   "imageUploadExecutor" pool, each with its own timeout)
  * - Automatic thumbnail generation
  * - Image transformations (resize, crop)
  * - Image deletion
- * - Demo mode for testing without Cloudinary config
+ * - Local-disk storage with pre-rendered variants (image.storage.backend=local, or auto
+ *   when Cloudinary is not configured)
+ * - Demo mode for testing without any storage (image.storage.backend=demo)
  */
 @Service
 public class ImageUploadService {
 
     private static final Logger logger = LoggerFactory.getLogger(ImageUploadService.class);
 
+    private static final String LOCAL_ID_PREFIX = "local-";
+
     @Autowired
     private Cloudinary cloudinary;
 
@@ -43,6 +64,19 @@ public class ImageUploadService {
     @Autowired
     private ImageMetadataRepository imageMetadataRepository;
 
+    @Autowired
+    private ImageStorage imageStorage;
+
+    @Autowired
+    @Qualifier("imageUploadExecutor")
+    private Executor uploadExecutor;
+
+    @Value("${image.upload.per-file-timeout-seconds:60}")
+    private long perFileTimeoutSeconds;
+
+    @Value("${image.storage.backend:auto}")
+    private String storageBackend;
+
     @Value("${image.upload.max-size-mb:10}")
     private int maxSizeMb;
 
@@ -67,72 +101,56 @@ public class ImageUploadService {
     public ImageUploadResponse uploadImage(MultipartFile file, String entityType, 
                                             String entityId, String description,
                                             String uploadedBy, String userType) {
-        try {
-            // Validate file
-            String validationError = validateFile(file);
-            if (validationError != null) {
-                return ImageUploadResponse.error(validationError);
-            }
-
-            // Check if Cloudinary is configured
-            if (!cloudinaryConfig.isConfigured()) {
-                return handleDemoModeUpload(file, entityType, entityId);
-            }
-
-            // Get folder based on entity type
-            String folder = getFolderForEntityType(entityType);
-
-            // Upload to Cloudinary with transformations
-            @SuppressWarnings("rawtypes")
-            Map uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.asMap(
-                "folder", folder,
-                "resource_type", "image",
-                "use_filename", true,
-                "unique_filename", true,
-                "overwrite", false,
-                "transformation", new Transformation<>()
-                    .quality("auto")
-                    .fetchFormat("auto")
-            ));
-
-            // Build response with different size URLs
-            ImageUploadResponse response = buildResponseFromCloudinaryResult(uploadResult, entityType, entityId);
-
-            // Save metadata to database
-            saveImageMetadata(uploadResult, entityType, entityId, description, 
-                             file.getOriginalFilename(), uploadedBy, userType);
-
-            logger.info("✅ Image uploaded successfully: {}", uploadResult.get("public_id"));
-            return response;
-
-        } catch (IOException e) {
-            logger.error("❌ Failed to upload image: {}", e.getMessage());
-            return ImageUploadResponse.error("Failed to upload image: " + e.getMessage());
-        }
+        return uploadImage(file, entityType, entityId, description, uploadedBy, userType, true);
     }
 
     /**
-     * Upload multiple images
+     * Upload multiple images.
+     * Files are uploaded concurrently (bounded by the upload pool) and each one is given
+     * image.upload.per-file-timeout-seconds from the moment it starts; a slow or failing
+     * file is reported in failedFiles without affecting the others.
      */
     public MultiImageUploadResponse uploadMultipleImages(MultipartFile[] files, String entityType,
                                                           String entityId, String uploadedBy, 
                                                           String userType) {
+        // Concurrent uploads would all see an empty entity and claim primary; settle it afterwards
+        List<CompletableFuture<ImageUploadResponse>> pending = new ArrayList<>(files.length);
+        for (MultipartFile file : files) {
+            pending.add(submitUpload(file, entityType, entityId, uploadedBy, userType));
+        }
+
         List<ImageUploadResponse> successfulUploads = new ArrayList<>();
         List<String> failedUploads = new ArrayList<>();
-
-        for (MultipartFile file : files) {
-            ImageUploadResponse result = uploadImage(file, entityType, entityId, null, uploadedBy, userType);
-            if (result.isSuccess()) {
-                successfulUploads.add(result);
-            } else {
-                failedUploads.add(file.getOriginalFilename() + ": " + result.getMessage());
+        for (int i = 0; i < files.length; i++) {
+            String fileName = files[i] != null ? files[i].getOriginalFilename() : null;
+            try {
+                ImageUploadResponse result = pending.get(i).join();
+                if (result.isSuccess()) {
+                    successfulUploads.add(result);
+                } else {
+                    failedUploads.add(fileName + ": " + result.getMessage());
+                }
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof TimeoutException) {
+                    logger.warn("⏱️ Upload of {} timed out after {}s", fileName, perFileTimeoutSeconds);
+                    failedUploads.add(fileName + ": Upload timed out after " + perFileTimeoutSeconds + "s");
+                } else {
+                    logger.error("❌ Failed to upload image {}: {}", fileName, cause.getMessage());
+                    failedUploads.add(fileName + ": " + cause.getMessage());
+                }
             }
         }
 
+        if (!successfulUploads.isEmpty()) {
+            assignPrimaryIfMissing(entityType, entityId, successfulUploads.get(0).getImageId());
+        }
+
+        logger.info("📦 Uploaded {}/{} images for {} {}", successfulUploads.size(), files.length, entityType, entityId);
         if (failedUploads.isEmpty()) {
             return MultiImageUploadResponse.success(successfulUploads, entityType, entityId);
         } else if (successfulUploads.isEmpty()) {
-            return MultiImageUploadResponse.error("All uploads failed");
+            return MultiImageUploadResponse.failed(failedUploads, entityType, entityId);
         } else {
             return MultiImageUploadResponse.partial(successfulUploads, failedUploads, entityType, entityId);
         }
@@ -143,6 +161,10 @@ public class ImageUploadService {
      */
     public boolean deleteImage(String publicId) {
         try {
+            if (publicId.startsWith(LOCAL_ID_PREFIX)) {
+                return deleteLocalImage(publicId);
+            }
+
             if (!cloudinaryConfig.isConfigured()) {
                 logger.info("🗑️ [DEMO MODE] Would delete image: {}", publicId);
                 imageMetadataRepository.deleteByPublicId(publicId);
@@ -198,6 +220,21 @@ public class ImageUploadService {
         return imageMetadataRepository.findByEntityTypeAndEntityIdAndIsPrimaryTrue(entityType, entityId);
     }
 
+    /**
+     * URL of an entity's primary image in the requested size (thumbnail, medium, large, original)
+     */
+    public Optional<String> getPrimaryImageUrl(String entityType, String entityId, String size) {
+        return getPrimaryImage(entityType, entityId).map(image -> {
+            String url = switch (size == null ? "" : size.toLowerCase()) {
+                case "thumbnail", "small" -> image.getThumbnailUrl();
+                case "large" -> image.getLargeUrl();
+                case "original" -> image.getSecureUrl();
+                default -> image.getMediumUrl();
+            };
+            return url != null ? url : image.getSecureUrl();
+        });
+    }
+
     /**
      * Set an image as primary for its entity
      */
@@ -250,6 +287,145 @@ public class ImageUploadService {
 
     // ========== Private Helper Methods ==========
 
+    private ImageUploadResponse uploadImage(MultipartFile file, String entityType,
+                                            String entityId, String description,
+                                            String uploadedBy, String userType,
+                                            boolean primaryCandidate) {
+        try {
+            // Validate file
+            String validationError = validateFile(file);
+            if (validationError != null) {
+                return ImageUploadResponse.error(validationError);
+            }
+
+            if (useLocalStorage()) {
+                return handleLocalUpload(file, entityType, entityId, description, uploadedBy, userType,
+                                         primaryCandidate);
+            }
+
+            // Check if Cloudinary is configured
+            if (!cloudinaryConfig.isConfigured() || "demo".equalsIgnoreCase(storageBackend)) {
+                return handleDemoModeUpload(file, entityType, entityId);
+            }
+
+            // Get folder based on entity type
+            String folder = getFolderForEntityType(entityType);
+
+            // The Cloudinary uploader takes a File, byte[] or URL but no stream, so spool the part to a
+            // temp file (a move when the container already buffered it on disk) instead of getBytes()
+            @SuppressWarnings("rawtypes")
+            Map uploadResult;
+            Path spooled = Files.createTempFile("odop-upload-", ".part");
+            try {
+                file.transferTo(spooled.toFile());
+                ensureNotCancelled();
+                uploadResult = cloudinary.uploader().upload(spooled.toFile(), ObjectUtils.asMap(
+                    "folder", folder,
+                    "resource_type", "image",
+                    "use_filename", true,
+                    "unique_filename", true,
+                    "overwrite", false,
+                    "transformation", new Transformation<>()
+                        .quality("auto")
+                        .fetchFormat("auto")
+                ));
+            } finally {
+                Files.deleteIfExists(spooled);
+            }
+
+            if (Thread.interrupted()) {
+                // Timed out while uploading: the caller already reported it as failed
+                try {
+                    cloudinary.uploader().destroy((String) uploadResult.get("public_id"), ObjectUtils.emptyMap());
+                } finally {
+                    Thread.currentThread().interrupt();
+                }
+                throw new InterruptedIOException("Upload cancelled");
+            }
+
+            // Build response with different size URLs
+            ImageUploadResponse response = buildResponseFromCloudinaryResult(uploadResult, entityType, entityId);
+
+            // Save metadata to database
+            saveImageMetadata(uploadResult, entityType, entityId, description, 
+                             file.getOriginalFilename(), uploadedBy, userType, primaryCandidate);
+
+            logger.info("✅ Image uploaded successfully: {}", uploadResult.get("public_id"));
+            return response;
+
+        } catch (IOException e) {
+            logger.error("❌ Failed to upload image: {}", e.getMessage());
+            return ImageUploadResponse.error("Failed to upload image: " + e.getMessage());
+        }
+    }
+
+    private CompletableFuture<ImageUploadResponse> submitUpload(MultipartFile file, String entityType,
+                                                                String entityId, String uploadedBy,
+                                                                String userType) {
+        CompletableFuture<ImageUploadResponse> result = new CompletableFuture<>();
+        Thread caller = Thread.currentThread();
+        AtomicBoolean ranOnCaller = new AtomicBoolean();
+        FutureTask<ImageUploadResponse> upload = new FutureTask<>(() -> {
+            ranOnCaller.set(Thread.currentThread() == caller);
+            // The timeout starts when a worker picks the file up, not while it waits in the queue
+            result.orTimeout(perFileTimeoutSeconds, TimeUnit.SECONDS);
+            return uploadImage(file, entityType, entityId, null, uploadedBy, userType, false);
+        }) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    result.complete(get());
+                } catch (ExecutionException e) {
+                    result.completeExceptionally(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                }
+            }
+        };
+        // On timeout, interrupt the worker so the file is neither stored nor recorded
+        result.whenComplete((response, failure) -> {
+            if (failure != null) {
+                upload.cancel(true);
+            }
+        });
+        boolean callerInterrupted = caller.isInterrupted();
+        uploadExecutor.execute(upload);
+        if (ranOnCaller.get()) {
+            // The pool was full and the request thread ran the upload itself (CallerRunsPolicy).
+            // A timeout interrupted it; FutureTask has delivered that interrupt by the time run()
+            // returns, so clear it here or the rest of the request would fail on it.
+            Thread.interrupted();
+            if (callerInterrupted) {
+                caller.interrupt();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stop before a storage or metadata write once the upload has been cancelled (timed out)
+     */
+    private static void ensureNotCancelled() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Upload cancelled");
+        }
+    }
+
+    private void assignPrimaryIfMissing(String entityType, String entityId, String publicId) {
+        if (getPrimaryImage(entityType, entityId).isPresent()) {
+            return;
+        }
+        imageMetadataRepository.findByPublicId(publicId).ifPresent(image -> {
+            image.setIsPrimary(true);
+            image.setUpdatedAt(LocalDateTime.now());
+            imageMetadataRepository.save(image);
+        });
+    }
+
     private String validateFile(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             return "File is empty or not provided";
@@ -317,9 +493,10 @@ public class ImageUploadService {
     @SuppressWarnings("rawtypes")
     private void saveImageMetadata(Map cloudinaryResult, String entityType, String entityId,
                                     String description, String originalFilename,
-                                    String uploadedBy, String userType) {
+                                    String uploadedBy, String userType, boolean primaryCandidate) {
         ImageMetadata metadata = new ImageMetadata();
         metadata.setPublicId((String) cloudinaryResult.get("public_id"));
+        metadata.setStorageBackend("cloudinary");
         metadata.setEntityType(entityType);
         metadata.setEntityId(entityId);
         metadata.setOriginalUrl((String) cloudinaryResult.get("url"));
@@ -348,7 +525,7 @@ public class ImageUploadService {
 
         // Set as primary if this is the first image for the entity
         long existingCount = imageMetadataRepository.countByEntityTypeAndEntityId(entityType, entityId);
-        metadata.setIsPrimary(existingCount == 0);
+        metadata.setIsPrimary(primaryCandidate && existingCount == 0);
 
         // Store full Cloudinary response
         @SuppressWarnings("unchecked")
@@ -358,6 +535,90 @@ public class ImageUploadService {
         imageMetadataRepository.save(metadata);
     }
 
+    private boolean useLocalStorage() {
+        return "local".equalsIgnoreCase(storageBackend)
+            || ("auto".equalsIgnoreCase(storageBackend) && !cloudinaryConfig.isConfigured());
+    }
+
+    private ImageUploadResponse handleLocalUpload(MultipartFile file, String entityType, String entityId,
+                                                  String description, String uploadedBy,
+                                                  String userType, boolean primaryCandidate) throws IOException {
+        ensureNotCancelled();
+        StoredImage stored;
+        try (InputStream in = file.getInputStream()) {
+            stored = imageStorage.store(in, file.getOriginalFilename(), file.getContentType());
+        }
+        if (Thread.interrupted()) {
+            // Timed out while storing; files are shared between identical uploads, so only
+            // remove them when no recorded image uses them (interrupt cleared for the lookup)
+            try {
+                if (imageMetadataRepository.countByContentHash(stored.getContentHash()) == 0) {
+                    imageStorage.delete(stored.getContentHash());
+                }
+            } finally {
+                Thread.currentThread().interrupt();
+            }
+            throw new InterruptedIOException("Upload cancelled");
+        }
+
+        // Unique per upload; the content hash is shared by identical files.
+        // No underscores: the delete endpoint maps "_" back to "/" for Cloudinary folders
+        String publicId = LOCAL_ID_PREFIX + stored.getContentHash() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+        ImageUploadResponse response = new ImageUploadResponse();
+        response.setSuccess(true);
+        response.setMessage("Image uploaded successfully");
+        response.setImageId(publicId);
+        response.setImageUrl(stored.getOriginalUrl());
+        response.setSecureUrl(stored.getOriginalUrl());
+        response.setThumbnailUrl(stored.getVariantUrl(ImageVariant.THUMBNAIL));
+        response.setMediumUrl(stored.getVariantUrl(ImageVariant.MEDIUM));
+        response.setLargeUrl(stored.getVariantUrl(ImageVariant.LARGE));
+        response.setFormat(stored.getFormat());
+        response.setSize(stored.getSize());
+        response.setWidth(stored.getWidth());
+        response.setHeight(stored.getHeight());
+        response.setEntityType(entityType);
+        response.setEntityId(entityId);
+        response.setUploadedAt(LocalDateTime.now());
+
+        ImageMetadata metadata = new ImageMetadata(publicId, entityType, entityId);
+        metadata.setStorageBackend("local");
+        metadata.setContentHash(stored.getContentHash());
+        metadata.setOriginalUrl(stored.getOriginalUrl());
+        metadata.setSecureUrl(stored.getOriginalUrl());
+        metadata.setThumbnailUrl(response.getThumbnailUrl());
+        metadata.setMediumUrl(response.getMediumUrl());
+        metadata.setLargeUrl(response.getLargeUrl());
+        metadata.setFormat(stored.getFormat());
+        metadata.setFileSize(stored.getSize());
+        metadata.setWidth(stored.getWidth());
+        metadata.setHeight(stored.getHeight());
+        metadata.setOriginalFilename(file.getOriginalFilename());
+        metadata.setDescription(description);
+        metadata.setUploadedBy(uploadedBy);
+        metadata.setUserType(userType);
+        metadata.setIsPrimary(primaryCandidate
+            && imageMetadataRepository.countByEntityTypeAndEntityId(entityType, entityId) == 0);
+        imageMetadataRepository.save(metadata);
+
+        logger.info("✅ Image stored locally: {} ({})", publicId, stored.getContentHash());
+        return response;
+    }
+
+    private boolean deleteLocalImage(String publicId) {
+        Optional<ImageMetadata> metadata = imageMetadataRepository.findByPublicId(publicId);
+        imageMetadataRepository.deleteByPublicId(publicId);
+
+        // Files are shared between identical uploads; only remove them with the last reference
+        String contentHash = metadata.map(ImageMetadata::getContentHash).orElse(null);
+        if (contentHash != null && imageMetadataRepository.countByContentHash(contentHash) == 0) {
+            imageStorage.delete(contentHash);
+        }
+        logger.info("✅ Local image deleted: {}", publicId);
+        return metadata.isPresent();
+    }
+
     private ImageUploadResponse handleDemoModeUpload(MultipartFile file, String entityType, String entityId) {
         // Demo mode - generate placeholder response
         String fakeId = "demo_" + UUID.randomUUID().toString().substring(0, 8);
@@ -1,17 +1,31 @@
 package com.odop.root.services;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.odop.root.events.model.OutboxEvent;
+import com.odop.root.events.service.OutboxService;
+import com.odop.root.exception.OrderStateException;
 import com.odop.root.models.Order;
 import com.odop.root.repository.OrderRepository;
 
@@ -21,9 +35,39 @@ public class OrderService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private OutboxService outboxService;
+
     private static final Logger logger = LogManager.getLogger(OrderService.class);
 
     public Order createOrder(Order order) {
+        applyDefaults(order);
+        Order saved = orderRepository.save(order);
+        outboxService.publish(OutboxEvent.ORDER_CREATED, "ORDER", saved.getOrderId(), payload(saved));
+        return saved;
+    }
+
+    /**
+     * Insert several orders (one checkout, split by vendor) with a single bulk write
+     */
+    public List<Order> createOrders(List<Order> orders) {
+        orders.forEach(this::applyDefaults);
+        List<Order> saved = List.copyOf(mongoTemplate.insert(orders, Order.class));
+        outboxService.publishAll(saved.stream()
+            .map(order -> OutboxEvent.builder()
+                .type(OutboxEvent.ORDER_CREATED)
+                .aggregateType("ORDER")
+                .aggregateId(order.getOrderId())
+                .payload(payload(order))
+                .build())
+            .toList());
+        return saved;
+    }
+
+    private void applyDefaults(Order order) {
         order.setCreatedAt(LocalDateTime.now());
         order.setUpdatedAt(LocalDateTime.now());
         if (order.getOrderStatus() == null) {
@@ -32,7 +76,6 @@ public class OrderService {
         if (order.getPaymentStatus() == null) {
             order.setPaymentStatus("PENDING");
         }
-        return orderRepository.save(order);
     }
 
     public Order getOrderById(String orderId) {
@@ -87,53 +130,188 @@ public class OrderService {
         return orderRepository.findByOrderStatus(status, pageable);
     }
 
+    // --- Status Transitions ---
+    //
+    // Each change reads the order's state (statuses and version only), checks the move against
+    // the transition tables, then applies it with one conditional findAndModify that matches only
+    // if the state and version are still what was read. A miss means another request got there
+    // first: it is counted as a conflict and the change is re-evaluated against the new state.
+
+    private static final Map<String, Set<String>> ORDER_TRANSITIONS = Map.of(
+        "PENDING", Set.of("CONFIRMED", "CANCELLED"),
+        "CONFIRMED", Set.of("PROCESSING", "SHIPPED", "CANCELLED"),
+        "PROCESSING", Set.of("SHIPPED", "CANCELLED"),
+        "SHIPPED", Set.of("DELIVERED", "RETURNED"),
+        "DELIVERED", Set.of("RETURNED"),
+        "CANCELLED", Set.of(),
+        "RETURNED", Set.of());
+
+    private static final Map<String, Set<String>> PAYMENT_TRANSITIONS = Map.of(
+        "PENDING", Set.of("PAID", "FAILED"),
+        "FAILED", Set.of("PAID", "PENDING"),
+        "PAID", Set.of("REFUNDED"),
+        "REFUNDED", Set.of());
+
+    private static final int MAX_TRANSITION_ATTEMPTS = 3;
+
+    private final LongAdder appliedTransitions = new LongAdder();
+    private final LongAdder transitionConflicts = new LongAdder();
+    private final LongAdder rejectedTransitions = new LongAdder();
+
     public Order updateOrderStatus(String orderId, String status) {
-        Order order = orderRepository.findByOrderId(orderId);
-        if (order != null) {
-            order.setOrderStatus(status);
-            order.setUpdatedAt(LocalDateTime.now());
-            
+        return transition(orderId, current -> {
+            if (status == null) {
+                throw new OrderStateException("Order status is required");
+            }
+            if (status.equals(orderStatusOf(current))) {
+                return null;
+            }
+            requireTransition(ORDER_TRANSITIONS, "order", orderStatusOf(current), status);
+            Update update = new Update().set("orderStatus", status);
             // Auto-set delivery date if delivered
             if ("DELIVERED".equals(status)) {
-                order.setActualDeliveryDate(LocalDateTime.now());
+                update.set("actualDeliveryDate", LocalDateTime.now());
             }
-            return orderRepository.save(order);
-        }
-        throw new RuntimeException("Order not found with id: " + orderId);
+            return update;
+        });
     }
 
+    /**
+     * Payment callbacks may arrive more than once or out of order; a repeat of the current status
+     * is a no-op. A successful payment also confirms a pending order.
+     */
     public Order updatePaymentStatus(String orderId, String paymentStatus, String transactionId) {
-        Order order = orderRepository.findByOrderId(orderId);
-        if (order != null) {
-            order.setPaymentStatus(paymentStatus);
-            order.setPaymentTransactionId(transactionId);
-            order.setUpdatedAt(LocalDateTime.now());
-            return orderRepository.save(order);
-        }
-        throw new RuntimeException("Order not found with id: " + orderId);
+        return transition(orderId, current -> {
+            if (paymentStatus == null) {
+                throw new OrderStateException("Payment status is required");
+            }
+            String currentPayment = current.getPaymentStatus() != null ? current.getPaymentStatus() : "PENDING";
+            if (paymentStatus.equals(currentPayment)) {
+                return null;
+            }
+            requireTransition(PAYMENT_TRANSITIONS, "payment", currentPayment, paymentStatus);
+            Update update = new Update().set("paymentStatus", paymentStatus);
+            if (transactionId != null) {
+                update.set("paymentTransactionId", transactionId);
+            }
+            if ("PAID".equals(paymentStatus) && "PENDING".equals(orderStatusOf(current))) {
+                update.set("orderStatus", "CONFIRMED");
+            }
+            return update;
+        });
     }
 
     public Order updateTrackingInfo(String orderId, String trackingNumber, String courierPartner) {
-        Order order = orderRepository.findByOrderId(orderId);
-        if (order != null) {
-            order.setTrackingNumber(trackingNumber);
-            order.setCourierPartner(courierPartner);
-            order.setOrderStatus("SHIPPED");
-            order.setUpdatedAt(LocalDateTime.now());
-            return orderRepository.save(order);
-        }
-        throw new RuntimeException("Order not found with id: " + orderId);
+        return transition(orderId, current -> {
+            // Correcting the tracking details of a shipped order is allowed
+            if (!"SHIPPED".equals(orderStatusOf(current))) {
+                requireTransition(ORDER_TRANSITIONS, "order", orderStatusOf(current), "SHIPPED");
+            }
+            return new Update()
+                .set("trackingNumber", trackingNumber)
+                .set("courierPartner", courierPartner)
+                .set("orderStatus", "SHIPPED");
+        });
     }
 
     public Order cancelOrder(String orderId, String reason) {
-        Order order = orderRepository.findByOrderId(orderId);
-        if (order != null) {
-            order.setOrderStatus("CANCELLED");
-            order.setCancellationReason(reason);
-            order.setUpdatedAt(LocalDateTime.now());
-            return orderRepository.save(order);
+        return transition(orderId, current -> {
+            if ("CANCELLED".equals(orderStatusOf(current))) {
+                return null;
+            }
+            requireTransition(ORDER_TRANSITIONS, "order", orderStatusOf(current), "CANCELLED");
+            return new Update()
+                .set("orderStatus", "CANCELLED")
+                .set("cancellationReason", reason);
+        });
+    }
+
+    public Map<String, Long> getTransitionStats() {
+        return Map.of(
+            "applied", appliedTransitions.sum(),
+            "conflicts", transitionConflicts.sum(),
+            "rejected", rejectedTransitions.sum());
+    }
+
+    /**
+     * Apply the change planned from the order's current state, retrying on concurrent modification.
+     * The plan returns null when the order is already in the requested state.
+     */
+    private Order transition(String orderId, Function<Order, Update> plan) {
+        for (int attempt = 1; attempt <= MAX_TRANSITION_ATTEMPTS; attempt++) {
+            Query stateQuery = Query.query(Criteria.where("_id").is(orderId));
+            stateQuery.fields().include("orderStatus", "paymentStatus", "version");
+            Order current = mongoTemplate.findOne(stateQuery, Order.class);
+            if (current == null) {
+                throw new RuntimeException("Order not found with id: " + orderId);
+            }
+
+            Update update = plan.apply(current);
+            if (update == null) {
+                return orderRepository.findByOrderId(orderId);
+            }
+            update.set("updatedAt", LocalDateTime.now()).inc("version", 1);
+
+            Order updated = mongoTemplate.findAndModify(expectedState(orderId, current), update,
+                FindAndModifyOptions.options().returnNew(true), Order.class);
+            if (updated != null) {
+                appliedTransitions.increment();
+                publishChanges(current, updated);
+                return updated;
+            }
+            transitionConflicts.increment();
+            logger.warn("Order {} changed concurrently (attempt {} of {})", orderId, attempt, MAX_TRANSITION_ATTEMPTS);
+        }
+        throw new OrderStateException("Order " + orderId + " is being updated concurrently, please retry");
+    }
+
+    private void publishChanges(Order before, Order after) {
+        if (!Objects.equals(after.getOrderStatus(), before.getOrderStatus())) {
+            Map<String, Object> payload = payload(after);
+            payload.put("from", before.getOrderStatus());
+            payload.put("to", after.getOrderStatus());
+            outboxService.publish(OutboxEvent.ORDER_STATUS_CHANGED, "ORDER", after.getOrderId(), payload);
+        }
+        if (!Objects.equals(after.getPaymentStatus(), before.getPaymentStatus())) {
+            Map<String, Object> payload = payload(after);
+            payload.put("from", before.getPaymentStatus());
+            payload.put("to", after.getPaymentStatus());
+            outboxService.publish(OutboxEvent.PAYMENT_STATUS_CHANGED, "ORDER", after.getOrderId(), payload);
+        }
+    }
+
+    private Map<String, Object> payload(Order order) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("customerId", order.getCustomerId());
+        payload.put("vendorId", order.getVendorId());
+        payload.put("amount", order.getFinalAmount());
+        if (order.getTrackingNumber() != null) {
+            payload.put("trackingNumber", order.getTrackingNumber());
         }
-        throw new RuntimeException("Order not found with id: " + orderId);
+        return payload;
+    }
+
+    private Query expectedState(String orderId, Order current) {
+        // Orders created before versioning have no version field yet
+        Criteria version = current.getVersion() == 0
+            ? new Criteria().orOperator(Criteria.where("version").is(0L), Criteria.where("version").exists(false))
+            : Criteria.where("version").is(current.getVersion());
+        return Query.query(new Criteria().andOperator(
+            Criteria.where("_id").is(orderId),
+            Criteria.where("orderStatus").is(current.getOrderStatus()),
+            Criteria.where("paymentStatus").is(current.getPaymentStatus()),
+            version));
+    }
+
+    private void requireTransition(Map<String, Set<String>> table, String kind, String from, String to) {
+        if (!table.getOrDefault(from, Set.of()).contains(to)) {
+            rejectedTransitions.increment();
+            throw new OrderStateException("Cannot change " + kind + " status from " + from + " to " + to);
+        }
+    }
+
+    private static String orderStatusOf(Order order) {
+        return order.getOrderStatus() != null ? order.getOrderStatus() : "PENDING";
     }
 
     public List<Order> getAllOrders() {
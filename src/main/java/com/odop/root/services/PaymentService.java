@@ -19,10 +19,8 @@ import com.odop.root.dto.CreatePaymentRequest;
 import com.odop.root.dto.PaymentResponse;
 import com.odop.root.dto.PaymentVerificationRequest;
 import com.odop.root.dto.RefundRequest;
-import com.odop.root.models.Order;
 import com.odop.root.models.Payment;
 import com.odop.root.models.PaymentStatus;
-import com.odop.root.repository.OrderRepository;
 import com.odop.root.repository.PaymentRepository;
 import com.razorpay.RazorpayClient;
 import com.razorpay.RazorpayException;
@@ -44,7 +42,7 @@ public class PaymentService {
     private PaymentRepository paymentRepository;
 
     @Autowired
-    private OrderRepository orderRepository;
+    private OrderService orderService;
 
     @Value("${razorpay.key.id}")
     private String razorpayKeyId;
@@ -406,20 +404,8 @@ public class PaymentService {
      */
     private void updateOrderPaymentStatus(String orderId, String paymentStatus, String transactionId) {
         try {
-            Optional<Order> optOrder = orderRepository.findById(orderId);
-            if (optOrder.isPresent()) {
-                Order order = optOrder.get();
-                order.setPaymentStatus(paymentStatus);
-                if (transactionId != null) {
-                    order.setPaymentTransactionId(transactionId);
-                }
-                if ("PAID".equals(paymentStatus)) {
-                    order.setOrderStatus("CONFIRMED");
-                }
-                order.setUpdatedAt(LocalDateTime.now());
-                orderRepository.save(order);
-                logger.info("Order {} payment status updated to: {}", orderId, paymentStatus);
-            }
+            orderService.updatePaymentStatus(orderId, paymentStatus, transactionId);
+            logger.info("Order {} payment status updated to: {}", orderId, paymentStatus);
         } catch (Exception e) {
             logger.error("Error updating order payment status: {}", e.getMessage());
         }
@@ -7,6 +7,8 @@ import java.util.HashMap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.odop.root.cache.ReferenceDataCache;
+import com.odop.root.cache.ReferenceResource;
 import com.odop.root.models.settings.PlatformSettings;
 import com.odop.root.repository.settings.PlatformSettingsRepository;
 
@@ -16,6 +18,9 @@ public class PlatformSettingsService {
     @Autowired
     private PlatformSettingsRepository settingsRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     /**
      * Get all platform settings (singleton)
      */
@@ -57,7 +62,7 @@ public class PlatformSettingsService {
         if (generalData.containsKey("accentColor")) settings.setAccentColor((String) generalData.get("accentColor"));
         if (generalData.containsKey("logoUrl")) settings.setLogoUrl((String) generalData.get("logoUrl"));
         if (generalData.containsKey("faviconUrl")) settings.setFaviconUrl((String) generalData.get("faviconUrl"));
-        return settingsRepository.save(settings);
+        return changed(settingsRepository.save(settings));
     }
 
     /**
@@ -86,7 +91,7 @@ public class PlatformSettingsService {
         if (securityData.containsKey("loginAttemptLimit")) settings.setLoginAttemptLimit((Integer) securityData.get("loginAttemptLimit"));
         if (securityData.containsKey("requireSpecialChars")) settings.setRequireSpecialChars((Boolean) securityData.get("requireSpecialChars"));
         if (securityData.containsKey("captchaEnabled")) settings.setCaptchaEnabled((Boolean) securityData.get("captchaEnabled"));
-        return settingsRepository.save(settings);
+        return changed(settingsRepository.save(settings));
     }
 
     /**
@@ -119,7 +124,7 @@ public class PlatformSettingsService {
         if (emailData.containsKey("senderEmail")) settings.setSenderEmail((String) emailData.get("senderEmail"));
         if (emailData.containsKey("senderName")) settings.setSenderName((String) emailData.get("senderName"));
         if (emailData.containsKey("encryptionType")) settings.setEncryptionType((String) emailData.get("encryptionType"));
-        return settingsRepository.save(settings);
+        return changed(settingsRepository.save(settings));
     }
 
     /**
@@ -148,7 +153,7 @@ public class PlatformSettingsService {
         if (notificationData.containsKey("userMessageAlerts")) settings.setUserMessageAlerts((Boolean) notificationData.get("userMessageAlerts"));
         if (notificationData.containsKey("soundAlerts")) settings.setSoundAlerts((Boolean) notificationData.get("soundAlerts"));
         if (notificationData.containsKey("vibrationAlerts")) settings.setVibrationAlerts((Boolean) notificationData.get("vibrationAlerts"));
-        return settingsRepository.save(settings);
+        return changed(settingsRepository.save(settings));
     }
 
     /**
@@ -173,7 +178,7 @@ public class PlatformSettingsService {
         if (maintenanceData.containsKey("message")) settings.setMaintenanceMessage((String) maintenanceData.get("message"));
         if (maintenanceData.containsKey("scheduledStart")) settings.setMaintenanceScheduledStart((String) maintenanceData.get("scheduledStart"));
         if (maintenanceData.containsKey("scheduledEnd")) settings.setMaintenanceScheduledEnd((String) maintenanceData.get("scheduledEnd"));
-        return settingsRepository.save(settings);
+        return changed(settingsRepository.save(settings));
     }
 
     /**
@@ -200,7 +205,7 @@ public class PlatformSettingsService {
         }
         if (paymentData.containsKey("razorpayTestMode")) settings.setRazorpayTestMode((Boolean) paymentData.get("razorpayTestMode"));
         if (paymentData.containsKey("platformCommissionPercent")) settings.setPlatformCommissionPercent((Double) paymentData.get("platformCommissionPercent"));
-        return settingsRepository.save(settings);
+        return changed(settingsRepository.save(settings));
     }
 
     /**
@@ -227,7 +232,7 @@ public class PlatformSettingsService {
         if (socialData.containsKey("instagramUrl")) settings.setInstagramUrl((String) socialData.get("instagramUrl"));
         if (socialData.containsKey("linkedinUrl")) settings.setLinkedinUrl((String) socialData.get("linkedinUrl"));
         if (socialData.containsKey("youtubeUrl")) settings.setYoutubeUrl((String) socialData.get("youtubeUrl"));
-        return settingsRepository.save(settings);
+        return changed(settingsRepository.save(settings));
     }
 
     /**
@@ -250,7 +255,7 @@ public class PlatformSettingsService {
         if (contactData.containsKey("contactAddress")) settings.setContactAddress((String) contactData.get("contactAddress"));
         if (contactData.containsKey("contactPhone")) settings.setContactPhone((String) contactData.get("contactPhone"));
         if (contactData.containsKey("contactWhatsapp")) settings.setContactWhatsapp((String) contactData.get("contactWhatsapp"));
-        return settingsRepository.save(settings);
+        return changed(settingsRepository.save(settings));
     }
 
     /**
@@ -260,7 +265,7 @@ public class PlatformSettingsService {
         PlatformSettings settings = getSettings();
         // Copy ID from existing to ensure we update, not create new
         newSettings.setId(settings.getId());
-        return settingsRepository.save(newSettings);
+        return changed(settingsRepository.save(newSettings));
     }
 
     /**
@@ -330,6 +335,14 @@ public class PlatformSettingsService {
         settings.setContactPhone("");
         settings.setContactWhatsapp("");
         
-        return settingsRepository.save(settings);
+        return changed(settingsRepository.save(settings));
+    }
+
+    /**
+     * Bump the settings version stamp so cached public settings are revalidated
+     */
+    private PlatformSettings changed(PlatformSettings saved) {
+        referenceDataCache.bump(ReferenceResource.PLATFORM_SETTINGS);
+        return saved;
     }
 }
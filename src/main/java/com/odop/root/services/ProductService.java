@@ -1,7 +1,11 @@
 package com.odop.root.services;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
 
 // import org.bson.types.Binary; // Commented out - not currently used
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,9 +13,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.odop.root.cache.StatsCache;
+import com.odop.root.dto.ImageUploadResponse;
 import com.odop.root.models.Products;
 import com.odop.root.repository.ProductRepository;
 
@@ -20,13 +28,29 @@ public class ProductService {
 
 	@Autowired
 	ProductRepository productRepository;
+
+	@Autowired
+	ImageUploadService imageUploadService;
+
+	@Autowired
+	MongoTemplate mongoTemplate;
+
+	@Autowired
+	StatsCache statsCache;
 	
 	public Products saveProduct(Products product, MultipartFile file) throws IOException {
+		Products saved = this.productRepository.save(product);
+		statsCache.invalidate(StatsCache.PRODUCTS);
 		if (file != null && !file.isEmpty()) {
-            // Binary binaryImage = new Binary(file.getBytes());
-            // product.setProductImage(binaryImage); - for a while commented
-        }
-        return this.productRepository.save(product);
+			// Store the image (variants are rendered once here) and point the product at the medium size
+			ImageUploadResponse upload = imageUploadService.uploadImage(file, "product", saved.getProductId(),
+					saved.getProductName(), saved.getVendorId(), "vendor");
+			if (upload.isSuccess()) {
+				saved.setProductImageURL(upload.getMediumUrl());
+				saved = this.productRepository.save(saved);
+			}
+		}
+		return saved;
 	}
 	
 	public List<Products> getAllProducts() {
@@ -94,6 +118,7 @@ public class ProductService {
 	public boolean deleteById(String adminId) {
 		if(this.getProductById(adminId) != null) {
 			this.productRepository.deleteById(adminId);
+			statsCache.invalidate(StatsCache.PRODUCTS);
 			return (this.getProductById(adminId)!= null);
 		}
 		return false;
@@ -181,7 +206,9 @@ public class ProductService {
 			product.setApprovalDate(java.time.LocalDateTime.now());
 			product.setIsActive(true);
 			product.setRejectionReason(null);
-			return this.productRepository.save(product);
+			Products saved = this.productRepository.save(product);
+			statsCache.invalidate(StatsCache.PRODUCTS);
+			return saved;
 		}
 		return null;
 	}
@@ -197,7 +224,9 @@ public class ProductService {
 			product.setApprovalDate(java.time.LocalDateTime.now());
 			product.setRejectionReason(reason);
 			product.setIsActive(false);
-			return this.productRepository.save(product);
+			Products saved = this.productRepository.save(product);
+			statsCache.invalidate(StatsCache.PRODUCTS);
+			return saved;
 		}
 		return null;
 	}
@@ -209,22 +238,48 @@ public class ProductService {
 		Products product = this.productRepository.findByProductId(productId);
 		if (product != null) {
 			product.setIsActive(isActive);
-			return this.productRepository.save(product);
+			Products saved = this.productRepository.save(product);
+			statsCache.invalidate(StatsCache.PRODUCTS);
+			return saved;
 		}
 		return null;
 	}
 
 	/**
-	 * Get product approval statistics for admin dashboard
+	 * Get product approval statistics for admin dashboard.
+	 * One $facet aggregation (status and active counts) instead of six count commands,
+	 * cached briefly and invalidated on product writes.
 	 */
 	public ProductApprovalStats getApprovalStats() {
-		long total = this.productRepository.count();
-		long pending = this.productRepository.countByApprovalStatus("PENDING");
-		long approved = this.productRepository.countByApprovalStatus("APPROVED");
-		long rejected = this.productRepository.countByApprovalStatus("REJECTED");
-		long active = this.productRepository.countByIsActive(true);
-		long inactive = this.productRepository.countByIsActive(false);
-		return new ProductApprovalStats(total, pending, approved, rejected, active, inactive);
+		return statsCache.get(StatsCache.PRODUCTS, this::loadApprovalStats);
+	}
+
+	private ProductApprovalStats loadApprovalStats() {
+		Aggregation aggregation = Aggregation.newAggregation(
+			Aggregation.facet(Aggregation.group("approvalStatus").count().as("count")).as("byStatus")
+				.and(Aggregation.group("isActive").count().as("count")).as("byActive"));
+		Document result = this.mongoTemplate.aggregate(aggregation, Products.class, Document.class)
+			.getUniqueMappedResult();
+
+		Map<Object, Long> byStatus = countsById(result, "byStatus");
+		Map<Object, Long> byActive = countsById(result, "byActive");
+		long total = byStatus.values().stream().mapToLong(Long::longValue).sum();
+		return new ProductApprovalStats(total,
+			byStatus.getOrDefault("PENDING", 0L),
+			byStatus.getOrDefault("APPROVED", 0L),
+			byStatus.getOrDefault("REJECTED", 0L),
+			byActive.getOrDefault(Boolean.TRUE, 0L),
+			byActive.getOrDefault(Boolean.FALSE, 0L));
+	}
+
+	private static Map<Object, Long> countsById(Document facets, String facet) {
+		Map<Object, Long> counts = new HashMap<>();
+		if (facets != null) {
+			for (Document bucket : facets.getList(facet, Document.class, List.of())) {
+				counts.put(bucket.get("_id"), ((Number) bucket.get("count")).longValue());
+			}
+		}
+		return counts;
 	}
 
 	/**
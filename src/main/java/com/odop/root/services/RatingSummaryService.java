@@ -0,0 +1,203 @@
+package com.odop.root.services;
+
+import java.util.*;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.odop.root.models.Products;
+import com.odop.root.models.RatingSummary;
+import com.odop.root.models.Review;
+import com.odop.root.models.Vendor;
+
+/**
+ * Maintains the ratingSummary (sum, count, 1-5 histogram of approved reviews) on products and
+ * vendors, so rating reads are a field lookup instead of a scan of the reviews.
+ *
+ * ReviewService applies a +1/-1 delta with $inc whenever a review enters or leaves APPROVED.
+ * The reconciler periodically rebuilds the summaries from the reviews, a batch of products or
+ * vendors at a time, to repair any drift. It only overwrites a summary whose revision has not
+ * moved since the batch was read, so it never discards a delta applied while it was counting.
+ */
+@Service
+public class RatingSummaryService {
+
+    private static final Logger logger = LogManager.getLogger(RatingSummaryService.class);
+
+    private static final String APPROVED = "APPROVED";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${reviews.rating-reconcile.batch-size:500}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            mongoTemplate.indexOps(Review.class).ensureIndex(new Index()
+                .on("productId", Sort.Direction.ASC)
+                .on("status", Sort.Direction.ASC)
+                .named("product_status_idx"));
+            mongoTemplate.indexOps(Review.class).ensureIndex(new Index()
+                .on("vendorId", Sort.Direction.ASC)
+                .on("status", Sort.Direction.ASC)
+                .named("vendor_status_idx"));
+        } catch (Exception e) {
+            logger.warn("Could not create review indexes: {}", e.getMessage());
+        }
+    }
+
+    public boolean isCounted(Review review) {
+        return review != null && APPROVED.equals(review.getStatus()) && review.getRating() >= 1 && review.getRating() <= 5;
+    }
+
+    /**
+     * Count (+1) or uncount (-1) a review on its product and vendor
+     */
+    public void apply(Review review, int direction) {
+        int stars = review.getRating();
+        Update update = new Update()
+            .inc("ratingSummary.sum", (long) direction * stars)
+            .inc("ratingSummary.count", (long) direction)
+            .inc("ratingSummary.histogram." + stars, (long) direction)
+            .inc("ratingSummary.revision", 1L);
+        if (review.getProductId() != null) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(review.getProductId())), update, Products.class);
+        }
+        if (review.getVendorId() != null) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(review.getVendorId())), update, Vendor.class);
+        }
+    }
+
+    public RatingSummary getProductSummary(String productId) {
+        Products product = mongoTemplate.findOne(summaryQuery(productId), Products.class);
+        return product != null && product.getRatingSummary() != null ? product.getRatingSummary() : new RatingSummary();
+    }
+
+    public RatingSummary getVendorSummary(String vendorId) {
+        Vendor vendor = mongoTemplate.findOne(summaryQuery(vendorId), Vendor.class);
+        return vendor != null && vendor.getRatingSummary() != null ? vendor.getRatingSummary() : new RatingSummary();
+    }
+
+    // ==================== RECONCILER ====================
+
+    @Scheduled(initialDelayString = "${reviews.rating-reconcile.initial-delay-ms:60000}",
+               fixedDelayString = "${reviews.rating-reconcile.interval-ms:21600000}")
+    public void reconcile() {
+        try {
+            int products = reconcile(Products.class, "productId");
+            int vendors = reconcile(Vendor.class, "vendorId");
+            logger.info("Rating summaries reconciled: {} products and {} vendors corrected", products, vendors);
+        } catch (RuntimeException e) {
+            logger.error("Rating summary reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Walk the collection by _id in batches, recount each batch's approved reviews with one
+     * aggregation and write back the summaries that differ
+     */
+    private int reconcile(Class<?> target, String reviewField) {
+        int corrected = 0;
+        Object lastId = null;
+        while (true) {
+            Query page = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+            if (lastId != null) {
+                page.addCriteria(Criteria.where("_id").gt(lastId));
+            }
+            page.fields().include("_id", "ratingSummary");
+            List<Document> batch = mongoTemplate.find(page, Document.class, mongoTemplate.getCollectionName(target));
+            if (batch.isEmpty()) {
+                return corrected;
+            }
+
+            Map<String, RatingSummary> counted = count(reviewField,
+                batch.stream().map(doc -> String.valueOf(doc.get("_id"))).toList());
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, target);
+            int changes = 0;
+            for (Document doc : batch) {
+                Object id = doc.get("_id");
+                Document current = doc.get("ratingSummary", Document.class);
+                RatingSummary actual = counted.getOrDefault(String.valueOf(id), new RatingSummary());
+                if (matches(current, actual)) {
+                    continue;
+                }
+                Object revision = current != null ? current.get("revision") : null;
+                Criteria unchanged = revision != null
+                    ? Criteria.where("ratingSummary.revision").is(revision)
+                    : Criteria.where("ratingSummary.revision").exists(false);
+                actual.setRevision(revision != null ? ((Number) revision).longValue() + 1 : 1);
+                bulk.updateOne(Query.query(Criteria.where("_id").is(id).andOperator(unchanged)),
+                    new Update().set("ratingSummary", actual));
+                changes++;
+            }
+            if (changes > 0) {
+                corrected += bulk.execute().getModifiedCount();
+            }
+            if (batch.size() < batchSize) {
+                return corrected;
+            }
+            lastId = batch.get(batch.size() - 1).get("_id");
+        }
+    }
+
+    private Map<String, RatingSummary> count(String reviewField, List<String> ids) {
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where(reviewField).in(ids).and("status").is(APPROVED).and("rating").gte(1).lte(5)),
+            Aggregation.group(reviewField, "rating").count().as("n"));
+        Map<String, RatingSummary> summaries = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Review.class, Document.class)) {
+            Document key = row.get("_id", Document.class);
+            int stars = ((Number) key.get("rating")).intValue();
+            long n = ((Number) row.get("n")).longValue();
+            RatingSummary summary = summaries.computeIfAbsent(key.getString(reviewField), id -> new RatingSummary());
+            summary.setSum(summary.getSum() + stars * n);
+            summary.setCount(summary.getCount() + n);
+            summary.getHistogram().put(String.valueOf(stars), n);
+        }
+        return summaries;
+    }
+
+    private static boolean matches(Document current, RatingSummary actual) {
+        if (current == null) {
+            return actual.getCount() == 0;
+        }
+        if (number(current.get("sum")) != actual.getSum() || number(current.get("count")) != actual.getCount()) {
+            return false;
+        }
+        Document histogram = current.get("histogram", Document.class);
+        for (int stars = 1; stars <= 5; stars++) {
+            long stored = histogram != null ? number(histogram.get(String.valueOf(stars))) : 0;
+            if (stored != actual.countOf(stars)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long number(Object value) {
+        return value instanceof Number n ? n.longValue() : 0;
+    }
+
+    private static Query summaryQuery(String id) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        query.fields().include("ratingSummary");
+        return query;
+    }
+}
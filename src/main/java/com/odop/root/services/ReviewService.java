@@ -1,14 +1,23 @@
 package com.odop.root.services;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.odop.root.counter.service.EngagementCounterService;
 import com.odop.root.models.Review;
 import com.odop.root.repository.ReviewRepository;
 
@@ -18,6 +27,15 @@ public class ReviewService {
     @Autowired
     private ReviewRepository reviewRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private RatingSummaryService ratingSummaryService;
+
+    @Autowired
+    private EngagementCounterService counterService;
+
     private static final Logger logger = LogManager.getLogger(ReviewService.class);
 
     public Review createReview(Review review) {
@@ -34,7 +52,11 @@ public class ReviewService {
         if (review.getNotHelpfulCount() == null) {
             review.setNotHelpfulCount(0);
         }
-        return reviewRepository.save(review);
+        Review saved = reviewRepository.save(review);
+        if (ratingSummaryService.isCounted(saved)) {
+            ratingSummaryService.apply(saved, 1);
+        }
+        return saved;
     }
 
     public Review getReviewById(String reviewId) {
@@ -66,31 +88,55 @@ public class ReviewService {
     }
 
     public Review updateReviewStatus(String reviewId, String status) {
-        Review review = reviewRepository.findByReviewId(reviewId);
-        if (review != null) {
-            review.setStatus(status);
-            review.setUpdatedAt(LocalDateTime.now());
-            return reviewRepository.save(review);
+        return changeStatus(reviewId, status, new Update());
+    }
+
+    /**
+     * Set the status in one findAndModify and move the review in or out of the rating summaries
+     * according to the status it actually had, so concurrent moderation cannot double-count it
+     */
+    private Review changeStatus(String reviewId, String status, Update update) {
+        update.set("status", status).set("updatedAt", LocalDateTime.now());
+        Review before = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(reviewId)), update,
+                FindAndModifyOptions.options().returnNew(false), Review.class);
+        if (before == null) {
+            throw new RuntimeException("Review not found with id: " + reviewId);
         }
-        throw new RuntimeException("Review not found with id: " + reviewId);
+        boolean wasCounted = ratingSummaryService.isCounted(before);
+        before.setStatus(status);
+        boolean isCounted = ratingSummaryService.isCounted(before);
+        if (wasCounted != isCounted) {
+            ratingSummaryService.apply(before, isCounted ? 1 : -1);
+        }
+        return reviewRepository.findByReviewId(reviewId);
     }
 
-    public Review addVendorReply(String reviewId, String reply) {
-        Review review = reviewRepository.findByReviewId(reviewId);
-        if (review != null) {
-            review.setVendorReply(reply);
-            review.setVendorReplyDate(LocalDateTime.now());
-            review.setUpdatedAt(LocalDateTime.now());
-            return reviewRepository.save(review);
+    /**
+     * $set only the given fields, so a concurrent status change or helpful-count flush is not
+     * overwritten by a stale copy of the review
+     */
+    private Review updateFields(String reviewId, Update update) {
+        update.set("updatedAt", LocalDateTime.now());
+        Review updated = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(reviewId)), update,
+                FindAndModifyOptions.options().returnNew(true), Review.class);
+        if (updated == null) {
+            throw new RuntimeException("Review not found with id: " + reviewId);
         }
-        throw new RuntimeException("Review not found with id: " + reviewId);
+        return updated;
+    }
+
+    public Review addVendorReply(String reviewId, String reply) {
+        return updateFields(reviewId, new Update()
+                .set("vendorReply", reply)
+                .set("vendorReplyDate", LocalDateTime.now()));
     }
 
     public Review markHelpful(String reviewId) {
         Review review = reviewRepository.findByReviewId(reviewId);
         if (review != null) {
-            review.setHelpfulCount(review.getHelpfulCount() + 1);
-            return reviewRepository.save(review);
+            counterService.increment(Review.class, reviewId, "helpfulCount");
+            review.setHelpfulCount(count(review.getHelpfulCount()) + 1);
+            return review;
         }
         throw new RuntimeException("Review not found with id: " + reviewId);
     }
@@ -98,28 +144,23 @@ public class ReviewService {
     public Review markNotHelpful(String reviewId) {
         Review review = reviewRepository.findByReviewId(reviewId);
         if (review != null) {
-            review.setNotHelpfulCount(review.getNotHelpfulCount() + 1);
-            return reviewRepository.save(review);
+            counterService.increment(Review.class, reviewId, "notHelpfulCount");
+            review.setNotHelpfulCount(count(review.getNotHelpfulCount()) + 1);
+            return review;
         }
         throw new RuntimeException("Review not found with id: " + reviewId);
     }
 
+    private static int count(Integer value) {
+        return value != null ? value : 0;
+    }
+
     public double getAverageRatingForProduct(String productId) {
-        List<Review> reviews = reviewRepository.findByProductIdAndStatus(productId, "APPROVED");
-        if (reviews.isEmpty()) return 0.0;
-        return reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+        return ratingSummaryService.getProductSummary(productId).getAverage();
     }
 
     public double getAverageRatingForVendor(String vendorId) {
-        List<Review> reviews = reviewRepository.findByVendorIdAndStatus(vendorId, "APPROVED");
-        if (reviews.isEmpty()) return 0.0;
-        return reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+        return ratingSummaryService.getVendorSummary(vendorId).getAverage();
     }
 
     public long getReviewCountForProduct(String productId) {
@@ -131,12 +172,14 @@ public class ReviewService {
     }
 
     public boolean deleteReview(String reviewId) {
-        Review review = reviewRepository.findByReviewId(reviewId);
-        if (review != null) {
-            reviewRepository.delete(review);
-            return true;
+        Review removed = mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(reviewId)), Review.class);
+        if (removed == null) {
+            return false;
         }
-        return false;
+        if (ratingSummaryService.isCounted(removed)) {
+            ratingSummaryService.apply(removed, -1);
+        }
+        return true;
     }
 
     public List<Review> getAllReviews() {
@@ -151,23 +194,10 @@ public class ReviewService {
      * Add images to an existing review
      */
     public Review addReviewImages(String reviewId, List<String> imageUrls) {
-        Review review = reviewRepository.findByReviewId(reviewId);
-        if (review == null) {
-            throw new RuntimeException("Review not found with id: " + reviewId);
-        }
-        
-        List<String> existingImages = review.getReviewImages();
-        if (existingImages == null) {
-            existingImages = new ArrayList<>();
-        }
-        existingImages.addAll(imageUrls);
-        review.setReviewImages(existingImages);
-        review.setUpdatedAt(LocalDateTime.now());
-        
+        Review review = updateFields(reviewId, new Update().push("reviewImages").each(imageUrls.toArray()));
         logger.info("Added {} images to review {}. Total images: {}", 
-                    imageUrls.size(), reviewId, existingImages.size());
-        
-        return reviewRepository.save(review);
+                    imageUrls.size(), reviewId, review.getReviewImages().size());
+        return review;
     }
 
     /**
@@ -180,16 +210,30 @@ public class ReviewService {
         }
         
         List<String> images = review.getReviewImages();
-        if (images != null && imageIndex >= 0 && imageIndex < images.size()) {
-            String removedUrl = images.remove(imageIndex);
-            review.setReviewImages(images);
-            review.setUpdatedAt(LocalDateTime.now());
-            logger.info("Removed image at index {} from review {}. URL: {}", 
-                        imageIndex, reviewId, removedUrl);
-            return reviewRepository.save(review);
+        if (images == null || imageIndex < 0 || imageIndex >= images.size()) {
+            throw new RuntimeException("Invalid image index: " + imageIndex);
         }
+        String removedUrl = images.get(imageIndex);
         
-        throw new RuntimeException("Invalid image index: " + imageIndex);
+        // Cut the element out server-side, only while that position still holds the URL we read
+        Document head = imageIndex == 0
+                ? null
+                : new Document("$slice", List.of("$reviewImages", imageIndex));
+        Document tail = new Document("$slice", List.of("$reviewImages", imageIndex + 1,
+                new Document("$size", "$reviewImages")));
+        AggregationUpdate remove = AggregationUpdate.update()
+                .set(SetOperation.set("reviewImages").toValue((AggregationExpression) context ->
+                        new Document("$concatArrays", head != null ? List.of(head, tail) : List.of(tail)))
+                        .and().set("updatedAt").toValue(LocalDateTime.now()));
+        Review updated = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(reviewId).and("reviewImages." + imageIndex).is(removedUrl)),
+                remove, FindAndModifyOptions.options().returnNew(true), Review.class);
+        if (updated == null) {
+            throw new RuntimeException("Review images changed, please retry");
+        }
+        logger.info("Removed image at index {} from review {}. URL: {}", 
+                    imageIndex, reviewId, removedUrl);
+        return updated;
     }
 
     /**
@@ -241,67 +285,49 @@ public class ReviewService {
      * Admin approve a review
      */
     public Review approveReview(String reviewId, String adminId) {
-        Review review = reviewRepository.findByReviewId(reviewId);
-        if (review == null) {
-            throw new RuntimeException("Review not found with id: " + reviewId);
-        }
-        review.setStatus("APPROVED");
-        review.setModeratedBy(adminId);
-        review.setModeratedAt(LocalDateTime.now());
-        review.setFlagged(false);
-        review.setUpdatedAt(LocalDateTime.now());
+        Review review = changeStatus(reviewId, "APPROVED", new Update()
+                .set("moderatedBy", adminId)
+                .set("moderatedAt", LocalDateTime.now())
+                .set("flagged", false));
         logger.info("Admin {} approved review {}", adminId, reviewId);
-        return reviewRepository.save(review);
+        return review;
     }
 
     /**
      * Admin reject a review
      */
     public Review rejectReview(String reviewId, String adminId, String reason) {
-        Review review = reviewRepository.findByReviewId(reviewId);
-        if (review == null) {
-            throw new RuntimeException("Review not found with id: " + reviewId);
-        }
-        review.setStatus("REJECTED");
-        review.setModeratedBy(adminId);
-        review.setModeratedAt(LocalDateTime.now());
-        review.setFlagReason(reason);
-        review.setUpdatedAt(LocalDateTime.now());
+        Review review = changeStatus(reviewId, "REJECTED", new Update()
+                .set("moderatedBy", adminId)
+                .set("moderatedAt", LocalDateTime.now())
+                .set("flagReason", reason));
         logger.info("Admin {} rejected review {} with reason: {}", adminId, reviewId, reason);
-        return reviewRepository.save(review);
+        return review;
     }
 
     /**
      * Admin flag a review
      */
     public Review flagReview(String reviewId, String adminId, String reason) {
-        Review review = reviewRepository.findByReviewId(reviewId);
-        if (review == null) {
-            throw new RuntimeException("Review not found with id: " + reviewId);
-        }
-        review.setFlagged(true);
-        review.setFlagReason(reason);
-        review.setModeratedBy(adminId);
-        review.setModeratedAt(LocalDateTime.now());
-        review.setUpdatedAt(LocalDateTime.now());
+        Review review = updateFields(reviewId, new Update()
+                .set("flagged", true)
+                .set("flagReason", reason)
+                .set("moderatedBy", adminId)
+                .set("moderatedAt", LocalDateTime.now()));
         logger.info("Admin {} flagged review {} with reason: {}", adminId, reviewId, reason);
-        return reviewRepository.save(review);
+        return review;
     }
 
     /**
      * Admin add reply to a review
      */
     public Review addAdminReply(String reviewId, String adminId, String reply) {
-        Review review = reviewRepository.findByReviewId(reviewId);
-        if (review == null) {
-            throw new RuntimeException("Review not found with id: " + reviewId);
-        }
-        review.setAdminReply(reply);
-        review.setAdminReplyDate(LocalDateTime.now());
-        review.setModeratedBy(adminId);
-        review.setUpdatedAt(LocalDateTime.now());
+        Review review = updateFields(reviewId, new Update()
+                .set("adminReply", reply)
+                .set("adminReplyDate", LocalDateTime.now())
+                .set("moderatedBy", adminId));
         logger.info("Admin {} replied to review {}", adminId, reviewId);
-        return reviewRepository.save(review);
+        return review;
     }
 
     /**
@@ -0,0 +1,29 @@
+package com.odop.root.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Storage backend for uploaded images and their resized variants.
+ */
+public interface ImageStorage {
+
+    /**
+     * Store an image read from the given stream and generate its {@link ImageVariant}s.
+     * The stream is consumed but not closed.
+     */
+    StoredImage store(InputStream content, String originalFilename, String contentType) throws IOException;
+
+    /**
+     * Resolve a public file name (as used in the image URLs) to a local file.
+     * Backends that do not keep files on local disk return empty.
+     */
+    Optional<Path> resolveFile(String fileName);
+
+    /**
+     * Delete the original and all variants stored under a content hash.
+     */
+    boolean delete(String contentHash);
+}
@@ -0,0 +1,28 @@
+package com.odop.root.storage;
+
+/**
+ * Resized renditions generated once per uploaded image.
+ * Sizes match the thumbnail/medium/large URLs exposed in ImageUploadResponse.
+ */
+public enum ImageVariant {
+
+    THUMBNAIL(150, true),   // 150x150 square crop
+    MEDIUM(500, true),      // 500x500 square crop
+    LARGE(1000, false);     // fit within 1000x1000
+
+    private final int size;
+    private final boolean crop;
+
+    ImageVariant(int size, boolean crop) {
+        this.size = size;
+        this.crop = crop;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isCrop() {
+        return crop;
+    }
+}
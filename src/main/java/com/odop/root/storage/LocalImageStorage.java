@@ -0,0 +1,283 @@
+package com.odop.root.storage;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Local-disk image storage.
+ *
+ * Files are named after the SHA-256 of the uploaded bytes ({hash}.jpg, {hash}_150.jpg, ...) and
+ * sharded by the first two hash characters, so URLs are immutable and identical uploads share
+ * files. Variants are rendered once at upload time on the bounded "imageVariantExecutor" pool.
+ */
+@Component
+public class LocalImageStorage implements ImageStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalImageStorage.class);
+
+    private static final int HASH_LENGTH = 32;
+    private static final Pattern FILE_NAME = Pattern.compile("[a-f0-9]{32}(_\\d{2,4})?\\.(jpg|png|gif|webp)");
+
+    @Autowired
+    @Qualifier("imageVariantExecutor")
+    private Executor variantExecutor;
+
+    @Value("${image.storage.local.dir:uploads/images}")
+    private String storageDir;
+
+    @Value("${image.storage.local.base-url:}")
+    private String baseUrl;
+
+    @Value("${image.storage.local.public-path:/odop/images/files}")
+    private String publicPath;
+
+    @Value("${image.storage.variant-timeout-seconds:30}")
+    private long variantTimeoutSeconds;
+
+    private Path root;
+    private Path tmpDir;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(storageDir).toAbsolutePath().normalize();
+        tmpDir = root.resolve("tmp");
+        Files.createDirectories(tmpDir);
+        logger.info("📁 Local image storage at {}", root);
+    }
+
+    @Override
+    public StoredImage store(InputStream content, String originalFilename, String contentType) throws IOException {
+        Path upload = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            // Stream to disk while hashing; the upload is never held in memory as a byte[]
+            MessageDigest digest = sha256();
+            long size;
+            try (DigestInputStream in = new DigestInputStream(content, digest)) {
+                size = Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest()).substring(0, HASH_LENGTH);
+            String format = formatFor(contentType, originalFilename);
+
+            String originalName = hash + "." + format;
+            Path original = pathFor(originalName);
+            if (Files.exists(original)) {
+                logger.info("♻️ Image {} already stored, reusing existing files", hash);
+            } else {
+                moveIntoPlace(upload, original);
+            }
+
+            BufferedImage source = ImageIO.read(original.toFile());
+            Map<ImageVariant, String> variantUrls = source != null
+                    ? renderVariants(hash, format, source)
+                    : new EnumMap<>(ImageVariant.class);
+
+            return StoredImage.builder()
+                    .contentHash(hash)
+                    .format(format)
+                    .size(size)
+                    .width(source != null ? source.getWidth() : null)
+                    .height(source != null ? source.getHeight() : null)
+                    .originalUrl(urlFor(originalName))
+                    .variantUrls(variantUrls)
+                    .build();
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    @Override
+    public Optional<Path> resolveFile(String fileName) {
+        if (fileName == null || !FILE_NAME.matcher(fileName).matches()) {
+            return Optional.empty();
+        }
+        Path file = pathFor(fileName);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    @Override
+    public boolean delete(String contentHash) {
+        if (contentHash == null || contentHash.length() != HASH_LENGTH) {
+            return false;
+        }
+        Path shard = root.resolve(contentHash.substring(0, 2));
+        if (!Files.isDirectory(shard)) {
+            return false;
+        }
+        boolean deleted = false;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(shard, contentHash + "*")) {
+            for (Path file : files) {
+                deleted |= Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            logger.error("❌ Failed to delete local image {}: {}", contentHash, e.getMessage());
+        }
+        return deleted;
+    }
+
+    // ========== Variant Rendering ==========
+
+    private Map<ImageVariant, String> renderVariants(String hash, String format, BufferedImage source) {
+        // GIF variants are rendered as PNG; JPEG stays JPEG
+        String variantFormat = "jpg".equals(format) ? "jpg" : "png";
+        Map<ImageVariant, CompletableFuture<String>> pending = new EnumMap<>(ImageVariant.class);
+        for (ImageVariant variant : ImageVariant.values()) {
+            String name = hash + "_" + variant.getSize() + "." + variantFormat;
+            pending.put(variant, CompletableFuture.supplyAsync(
+                    () -> renderVariant(source, variant, variantFormat, name), variantExecutor));
+        }
+
+        Map<ImageVariant, String> urls = new EnumMap<>(ImageVariant.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(variantTimeoutSeconds);
+        for (Map.Entry<ImageVariant, CompletableFuture<String>> entry : pending.entrySet()) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                urls.put(entry.getKey(), urlFor(entry.getValue().get(remaining, TimeUnit.NANOSECONDS)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // Fall back to the original for this size rather than failing the upload
+                logger.warn("⚠️ Could not render {} variant of {}: {}", entry.getKey(), hash, e.getMessage());
+            }
+        }
+        return urls;
+    }
+
+    private String renderVariant(BufferedImage source, ImageVariant variant, String format, String name) {
+        Path target = pathFor(name);
+        if (Files.exists(target)) {
+            return name;
+        }
+        try {
+            BufferedImage resized = resize(source, variant, "jpg".equals(format));
+            Path tmp = Files.createTempFile(tmpDir, "variant-", ".part");
+            try {
+                if (!ImageIO.write(resized, format, tmp.toFile())) {
+                    throw new IOException("No ImageIO writer for " + format);
+                }
+                moveIntoPlace(tmp, target);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            return name;
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    static BufferedImage resize(BufferedImage source, ImageVariant variant, boolean opaque) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int sx = 0;
+        int sy = 0;
+        int sw = width;
+        int sh = height;
+        int tw;
+        int th;
+
+        if (variant.isCrop()) {
+            int side = Math.min(width, height);
+            sx = (width - side) / 2;
+            sy = (height - side) / 2;
+            sw = side;
+            sh = side;
+            tw = Math.min(variant.getSize(), side);
+            th = tw;
+        } else {
+            double scale = Math.min(1.0, (double) variant.getSize() / Math.max(width, height));
+            tw = Math.max(1, (int) Math.round(width * scale));
+            th = Math.max(1, (int) Math.round(height * scale));
+        }
+
+        BufferedImage target = new BufferedImage(tw, th,
+                opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (opaque) {
+                // JPEG has no alpha channel; flatten transparent pixels onto white
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, tw, th);
+            }
+            g.drawImage(source, 0, 0, tw, th, sx, sy, sx + sw, sy + sh, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    // ========== Helpers ==========
+
+    private Path pathFor(String fileName) {
+        return root.resolve(fileName.substring(0, 2)).resolve(fileName);
+    }
+
+    private String urlFor(String fileName) {
+        return baseUrl + publicPath + "/" + fileName;
+    }
+
+    private void moveIntoPlace(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String formatFor(String contentType, String originalFilename) {
+        if (contentType != null) {
+            switch (contentType.toLowerCase()) {
+                case "image/jpeg", "image/jpg" -> { return "jpg"; }
+                case "image/png" -> { return "png"; }
+                case "image/gif" -> { return "gif"; }
+                case "image/webp" -> { return "webp"; }
+                default -> { }
+            }
+        }
+        String name = originalFilename != null ? originalFilename.toLowerCase() : "";
+        if (name.endsWith(".png")) return "png";
+        if (name.endsWith(".gif")) return "gif";
+        if (name.endsWith(".webp")) return "webp";
+        return "jpg";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.odop.root.storage;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Result of storing an image through an {@link ImageStorage} backend.
+ */
+@Getter
+@Builder
+public class StoredImage {
+
+    private final String contentHash;      // Hex content hash, also the base of every file name
+    private final String format;           // jpg, png, gif, webp
+    private final long size;               // Original size in bytes
+    private final Integer width;           // Original width (null if the format could not be decoded)
+    private final Integer height;          // Original height
+    private final String originalUrl;      // URL of the untouched upload
+    private final Map<ImageVariant, String> variantUrls;
+
+    public String getVariantUrl(ImageVariant variant) {
+        String url = variantUrls != null ? variantUrls.get(variant) : null;
+        return url != null ? url : originalUrl;
+    }
+}
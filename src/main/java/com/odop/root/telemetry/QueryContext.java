@@ -0,0 +1,122 @@
+package com.odop.root.telemetry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Thread-bound attribution for Mongo commands.
+ *
+ * The sync driver notifies command listeners on the thread that issued the command, so the
+ * HTTP request (bound by QueryBudgetFilter) and the repository method currently executing
+ * (bound by the repository proxy interceptor) can be read straight from thread locals.
+ * Work handed off to other executors is not attributed to the originating request.
+ */
+public final class QueryContext {
+
+    /** Upper bounds (inclusive) of the command latency histogram buckets; the last bucket is open-ended. */
+    public static final long[] LATENCY_BUCKETS_MILLIS = {1, 5, 10, 25, 50, 100, 250, 500, 1000};
+
+    private static final ThreadLocal<RequestQueries> CURRENT_REQUEST = new ThreadLocal<>();
+    private static final ThreadLocal<String> CURRENT_REPOSITORY_METHOD = new ThreadLocal<>();
+
+    private QueryContext() {
+    }
+
+    // ==================== Request ====================
+
+    public static RequestQueries beginRequest(String requestLine) {
+        RequestQueries queries = new RequestQueries(requestLine);
+        CURRENT_REQUEST.set(queries);
+        return queries;
+    }
+
+    public static RequestQueries currentRequest() {
+        return CURRENT_REQUEST.get();
+    }
+
+    public static void endRequest() {
+        CURRENT_REQUEST.remove();
+    }
+
+    // ==================== Repository Method ====================
+
+    /**
+     * Mark a repository method as running; returns the previous label so nested calls can restore it.
+     */
+    public static String enterRepositoryMethod(String label) {
+        String previous = CURRENT_REPOSITORY_METHOD.get();
+        CURRENT_REPOSITORY_METHOD.set(label);
+        return previous;
+    }
+
+    public static void exitRepositoryMethod(String previous) {
+        if (previous == null) {
+            CURRENT_REPOSITORY_METHOD.remove();
+        } else {
+            CURRENT_REPOSITORY_METHOD.set(previous);
+        }
+    }
+
+    public static String currentRepositoryMethod() {
+        return CURRENT_REPOSITORY_METHOD.get();
+    }
+
+    public static int bucketFor(long elapsedNanos) {
+        long millis = elapsedNanos / 1_000_000;
+        for (int i = 0; i < LATENCY_BUCKETS_MILLIS.length; i++) {
+            if (millis <= LATENCY_BUCKETS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return LATENCY_BUCKETS_MILLIS.length;
+    }
+
+    /**
+     * Mongo commands issued while serving one HTTP request.
+     */
+    public static final class RequestQueries {
+
+        private final String requestLine;
+        private final long startedAt = System.nanoTime();
+        private final Map<String, Integer> commandsBySource = new HashMap<>();
+        private final long[] latencyHistogram;
+        private int commandCount;
+        private long mongoNanos;
+
+        private RequestQueries(String requestLine) {
+            this.requestLine = requestLine;
+            this.latencyHistogram = new long[LATENCY_BUCKETS_MILLIS.length + 1];
+        }
+
+        public synchronized void record(String source, long elapsedNanos) {
+            commandCount++;
+            mongoNanos += elapsedNanos;
+            commandsBySource.merge(source, 1, Integer::sum);
+            latencyHistogram[bucketFor(elapsedNanos)]++;
+        }
+
+        public String getRequestLine() {
+            return requestLine;
+        }
+
+        public synchronized long[] getLatencyHistogram() {
+            return latencyHistogram.clone();
+        }
+
+        public synchronized int getCommandCount() {
+            return commandCount;
+        }
+
+        public synchronized long getMongoNanos() {
+            return mongoNanos;
+        }
+
+        public synchronized Map<String, Integer> getCommandsBySource() {
+            return new HashMap<>(commandsBySource);
+        }
+
+        public long getElapsedNanos() {
+            return System.nanoTime() - startedAt;
+        }
+    }
+}
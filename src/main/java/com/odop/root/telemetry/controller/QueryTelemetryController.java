@@ -0,0 +1,40 @@
+package com.odop.root.telemetry.controller;
+
+import com.odop.root.telemetry.dto.QueryTelemetryDto.TelemetrySnapshot;
+import com.odop.root.telemetry.service.QueryTelemetryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin view of per-route Mongo command counts, N+1 suspects and slow commands
+ */
+@RestController
+@RequestMapping("/odop/admin/telemetry/mongo")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class QueryTelemetryController {
+
+    private final QueryTelemetryService queryTelemetryService;
+
+    /**
+     * Worst routes first; sort by max (default), avg, total or budget
+     */
+    @GetMapping
+    public ResponseEntity<TelemetrySnapshot> getWorstOffenders(
+            @RequestParam(defaultValue = "max") String sort,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(queryTelemetryService.snapshot(sort, limit));
+    }
+
+    /**
+     * Clear collected statistics (e.g. after deploying a fix)
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> reset() {
+        queryTelemetryService.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
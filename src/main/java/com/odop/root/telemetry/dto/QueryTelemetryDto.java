@@ -0,0 +1,57 @@
+package com.odop.root.telemetry.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTOs for Mongo query telemetry
+ */
+public class QueryTelemetryDto {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class TelemetrySnapshot {
+        private LocalDateTime since;
+        private int queryBudget;
+        private int nPlusOneThreshold;
+        private long slowCommandMillis;
+        private List<Long> latencyBucketsMillis;     // Upper bounds of the histogram buckets
+        private List<RouteQueryStats> routes;
+        private List<SlowCommand> slowCommands;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RouteQueryStats {
+        private String route;                        // e.g. "GET /odop/wishlist/{customerId}"
+        private long requests;
+        private long totalCommands;
+        private double avgCommandsPerRequest;
+        private int maxCommandsPerRequest;
+        private double avgMongoMillisPerRequest;
+        private long overBudgetRequests;
+        private long nPlusOneRequests;
+        private List<Long> commandLatencyHistogram;  // Counts per latencyBucketsMillis bucket (+ overflow)
+        private Map<String, Integer> worstRequestSources; // Command counts by source for the heaviest request
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SlowCommand {
+        private LocalDateTime at;
+        private String route;
+        private String source;                       // Repository method or "<command> <collection>"
+        private String command;
+        private String collection;
+        private long millis;
+    }
+}
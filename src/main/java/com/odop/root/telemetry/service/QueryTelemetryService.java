@@ -0,0 +1,261 @@
+package com.odop.root.telemetry.service;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.odop.root.telemetry.QueryContext;
+import com.odop.root.telemetry.QueryContext.RequestQueries;
+import com.odop.root.telemetry.dto.QueryTelemetryDto.*;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mongo driver command listener that attributes every command to the current HTTP request
+ * and repository method.
+ *
+ * Per route it keeps request/command counts, a command latency histogram, budget violations
+ * and N+1 suspects (one source issuing many commands within a single request). Commands slower
+ * than mongo.telemetry.slow-command-ms are logged and kept in a small ring for the admin endpoint.
+ */
+@Service
+@Slf4j
+public class QueryTelemetryService implements CommandListener {
+
+    private static final Set<String> IGNORED_COMMANDS = Set.of(
+            "hello", "ismaster", "isMaster", "ping", "buildInfo", "saslStart", "saslContinue",
+            "endSessions", "killCursors", "getLastError");
+    private static final int MAX_ROUTES = 500;
+    private static final int MAX_SLOW_COMMANDS = 100;
+    private static final int WORST_SOURCES_SHOWN = 10;
+    private static final String OTHER_ROUTES = "[other]";
+
+    @Value("${mongo.telemetry.query-budget:25}")
+    private int queryBudget;
+
+    @Value("${mongo.telemetry.n-plus-one-threshold:10}")
+    private int nPlusOneThreshold;
+
+    @Value("${mongo.telemetry.slow-command-ms:250}")
+    private long slowCommandMillis;
+
+    private final Map<Integer, PendingCommand> pending = new ConcurrentHashMap<>();
+    private final Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+    private final Deque<SlowCommand> slowCommands = new ConcurrentLinkedDeque<>();
+    private volatile LocalDateTime since = LocalDateTime.now();
+
+    // ==================== CommandListener ====================
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (IGNORED_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        String collection = collectionOf(event);
+        String repositoryMethod = QueryContext.currentRepositoryMethod();
+        String source = repositoryMethod != null
+                ? repositoryMethod
+                : event.getCommandName() + (collection != null ? " " + collection : "");
+        pending.put(event.getRequestId(), new PendingCommand(
+                QueryContext.currentRequest(), source, event.getCommandName(), collection));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        complete(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        complete(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void complete(int requestId, long elapsedNanos) {
+        PendingCommand command = pending.remove(requestId);
+        if (command == null) {
+            return;
+        }
+        if (command.request != null) {
+            command.request.record(command.source, elapsedNanos);
+        }
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (millis >= slowCommandMillis) {
+            String route = command.request != null ? command.request.getRequestLine() : "[background]";
+            log.warn("🐢 Slow Mongo command ({} ms): {} on {} from {} [{}]",
+                    millis, command.commandName, command.collection, command.source, route);
+            slowCommands.addFirst(SlowCommand.builder()
+                    .at(LocalDateTime.now())
+                    .route(route)
+                    .source(command.source)
+                    .command(command.commandName)
+                    .collection(command.collection)
+                    .millis(millis)
+                    .build());
+            while (slowCommands.size() > MAX_SLOW_COMMANDS) {
+                slowCommands.pollLast();
+            }
+        }
+    }
+
+    // ==================== Request Completion ====================
+
+    /**
+     * Fold a finished request into its route's statistics and warn on budget / N+1 violations.
+     */
+    public void completeRequest(String route, RequestQueries request) {
+        int commands = request.getCommandCount();
+        if (commands == 0) {
+            return;
+        }
+        Map<String, Integer> bySource = request.getCommandsBySource();
+
+        boolean overBudget = commands > queryBudget;
+        if (overBudget) {
+            log.warn("⚠️ {} issued {} Mongo commands (budget {}), {} ms in Mongo",
+                    route, commands, queryBudget, TimeUnit.NANOSECONDS.toMillis(request.getMongoNanos()));
+        }
+        boolean nPlusOne = false;
+        for (Map.Entry<String, Integer> entry : bySource.entrySet()) {
+            if (entry.getValue() >= nPlusOneThreshold) {
+                nPlusOne = true;
+                log.warn("⚠️ Possible N+1 in {}: {} ran {} times in one request",
+                        route, entry.getKey(), entry.getValue());
+            }
+        }
+
+        RouteStats stats = routes.get(route);
+        if (stats == null) {
+            String key = routes.size() < MAX_ROUTES ? route : OTHER_ROUTES;
+            stats = routes.computeIfAbsent(key, k -> new RouteStats());
+        }
+        stats.record(commands, request.getMongoNanos(), request.getLatencyHistogram(), overBudget, nPlusOne, bySource);
+    }
+
+    // ==================== Reporting ====================
+
+    /**
+     * Routes ordered by the given measure ("max", "avg", "total" or "budget"), worst first.
+     */
+    public TelemetrySnapshot snapshot(String sortBy, int limit) {
+        Comparator<RouteQueryStats> order = switch (sortBy == null ? "" : sortBy.toLowerCase()) {
+            case "avg" -> Comparator.comparingDouble(RouteQueryStats::getAvgCommandsPerRequest);
+            case "total" -> Comparator.comparingLong(RouteQueryStats::getTotalCommands);
+            case "budget" -> Comparator.comparingLong(RouteQueryStats::getOverBudgetRequests);
+            default -> Comparator.comparingInt(RouteQueryStats::getMaxCommandsPerRequest);
+        };
+
+        List<RouteQueryStats> worst = routes.entrySet().stream()
+                .map(entry -> entry.getValue().toDto(entry.getKey()))
+                .sorted(order.reversed())
+                .limit(Math.max(1, limit))
+                .toList();
+
+        List<Long> buckets = new ArrayList<>();
+        for (long bound : QueryContext.LATENCY_BUCKETS_MILLIS) {
+            buckets.add(bound);
+        }
+        return TelemetrySnapshot.builder()
+                .since(since)
+                .queryBudget(queryBudget)
+                .nPlusOneThreshold(nPlusOneThreshold)
+                .slowCommandMillis(slowCommandMillis)
+                .latencyBucketsMillis(buckets)
+                .routes(worst)
+                .slowCommands(new ArrayList<>(slowCommands))
+                .build();
+    }
+
+    public void reset() {
+        routes.clear();
+        slowCommands.clear();
+        since = LocalDateTime.now();
+    }
+
+    // ==================== Helpers ====================
+
+    private static String collectionOf(CommandStartedEvent event) {
+        // The collection is the value of the command's first key, e.g. { find: "products", ... }
+        BsonValue value = event.getCommand().get(event.getCommandName());
+        return value != null && value.isString() ? value.asString().getValue() : null;
+    }
+
+    private record PendingCommand(RequestQueries request, String source, String commandName, String collection) {}
+
+    /**
+     * Running totals for one route.
+     */
+    private static final class RouteStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder commands = new LongAdder();
+        private final LongAdder mongoNanos = new LongAdder();
+        private final LongAdder overBudget = new LongAdder();
+        private final LongAdder nPlusOne = new LongAdder();
+        private final AtomicLong maxCommands = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(QueryContext.LATENCY_BUCKETS_MILLIS.length + 1);
+        private volatile Map<String, Integer> worstSources = Map.of();
+
+        void record(int requestCommands, long requestMongoNanos, long[] requestHistogram,
+                    boolean overBudgetRequest, boolean nPlusOneRequest, Map<String, Integer> bySource) {
+            requests.increment();
+            commands.add(requestCommands);
+            mongoNanos.add(requestMongoNanos);
+            if (overBudgetRequest) {
+                overBudget.increment();
+            }
+            if (nPlusOneRequest) {
+                nPlusOne.increment();
+            }
+            for (int i = 0; i < requestHistogram.length; i++) {
+                if (requestHistogram[i] > 0) {
+                    histogram.addAndGet(i, requestHistogram[i]);
+                }
+            }
+            long previousMax = maxCommands.getAndAccumulate(requestCommands, Math::max);
+            if (requestCommands > previousMax) {
+                worstSources = topSources(bySource);
+            }
+        }
+
+        RouteQueryStats toDto(String route) {
+            long requestCount = requests.sum();
+            long commandCount = commands.sum();
+            List<Long> counts = new ArrayList<>(histogram.length());
+            for (int i = 0; i < histogram.length(); i++) {
+                counts.add(histogram.get(i));
+            }
+            return RouteQueryStats.builder()
+                    .route(route)
+                    .requests(requestCount)
+                    .totalCommands(commandCount)
+                    .avgCommandsPerRequest(requestCount == 0 ? 0 : (double) commandCount / requestCount)
+                    .maxCommandsPerRequest((int) maxCommands.get())
+                    .avgMongoMillisPerRequest(requestCount == 0 ? 0 : mongoNanos.sum() / 1_000_000.0 / requestCount)
+                    .overBudgetRequests(overBudget.sum())
+                    .nPlusOneRequests(nPlusOne.sum())
+                    .commandLatencyHistogram(counts)
+                    .worstRequestSources(worstSources)
+                    .build();
+        }
+
+        private static Map<String, Integer> topSources(Map<String, Integer> bySource) {
+            Map<String, Integer> top = new LinkedHashMap<>();
+            bySource.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .limit(WORST_SOURCES_SHOWN)
+                    .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+            return top;
+        }
+    }
+}
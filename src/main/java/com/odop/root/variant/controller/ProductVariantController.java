@@ -6,6 +6,7 @@ import com.odop.root.variant.service.ProductVariantService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -203,6 +204,50 @@ public class ProductVariantController {
         ));
     }
     
+    /**
+     * Reserve stock for a whole cart (variantId -> quantity), all or nothing.
+     * Admin correction only: customer reservations are cart holds (StockHoldService)
+     */
+    @PostMapping("/stock/reserve")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> reserveStock(@RequestBody Map<String, Integer> quantities) {
+        StockReservationResult result = variantService.reserveStock(quantities);
+        if (!result.isSuccess()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Release previously reserved stock (variantId -> quantity). Admin correction only
+     */
+    @PostMapping("/stock/release")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> releaseStock(@RequestBody Map<String, Integer> quantities) {
+        variantService.releaseStock(quantities);
+        return ResponseEntity.ok(Map.of("success", true));
+    }
+
+    /**
+     * Turn flash-sale (hot-SKU) reservation mode on or off for a variant
+     */
+    @PutMapping("/{variantId}/hot")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> setHotSku(@PathVariable String variantId, @RequestParam boolean enabled) {
+        try {
+            ProductVariantDto variant = variantService.setHotSku(variantId, enabled);
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "variant", variant
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
     /**
      * Get low stock variants
      */
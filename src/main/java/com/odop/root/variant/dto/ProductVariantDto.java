@@ -35,6 +35,7 @@ public class ProductVariantDto {
     private int availableStock;
     private boolean inStock;
     private boolean lowStock;
+    private boolean hotSku;
     
     // Images
     private List<String> imageUrls;
@@ -64,6 +65,7 @@ public class ProductVariantDto {
                 .availableStock(variant.getAvailableStock())
                 .inStock(variant.isInStock())
                 .lowStock(variant.isLowStock())
+                .hotSku(variant.isHotSku())
                 .imageUrls(variant.getImageUrls())
                 .thumbnailUrl(variant.getThumbnailUrl())
                 .active(variant.isActive())
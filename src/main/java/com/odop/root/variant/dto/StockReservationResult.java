@@ -0,0 +1,41 @@
+package com.odop.root.variant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Outcome of an all-or-nothing multi-variant stock reservation
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationResult {
+    
+    private boolean success;
+    private Map<String, Integer> reserved;   // variantId -> quantity held (empty on failure)
+    private String failedVariantId;          // First variant that could not be reserved
+    private int requestedQuantity;
+    private int availableQuantity;           // Available stock of the failed variant at the time of failure
+    
+    public static StockReservationResult reserved(Map<String, Integer> reserved) {
+        return StockReservationResult.builder()
+                .success(true)
+                .reserved(reserved)
+                .build();
+    }
+    
+    public static StockReservationResult failed(String variantId, int requested, int available) {
+        return StockReservationResult.builder()
+                .success(false)
+                .reserved(Map.of())
+                .failedVariantId(variantId)
+                .requestedQuantity(requested)
+                .availableQuantity(available)
+                .build();
+    }
+}
@@ -47,6 +47,8 @@ public class ProductVariant {
     private int reservedQuantity;   // Items in carts/pending orders
     private int lowStockThreshold;
     private boolean trackInventory;
+    private boolean hotSku;         // Flash-sale mode: reservations served by HotSkuLedger
+    private List<String> appliedClaims; // Recent stock hold claims already applied (ProductVariantService)
     
     // Status
     private boolean active;
@@ -0,0 +1,54 @@
+package com.odop.root.variant.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time-bounded stock reservation for one cart line.
+ *
+ * While HELD, the quantity is counted in the variant's reservedQuantity. The hold is resolved
+ * exactly once (RELEASED, EXPIRED or CONFIRMED): a conditional status update first moves it to
+ * CLAIMED with the outcome it is heading for, the stock change is applied, and only then does it
+ * reach the outcome status and get purgeAt, after which the TTL index removes the document. Expiry itself
+ * is handled by the sweeper rather than the TTL monitor, because deleting a HELD document would
+ * leave its quantity reserved forever.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "stock_holds")
+public class StockHold {
+    
+    @Id
+    private String id;                  // Hold id, stored on the cart line
+    
+    @Indexed
+    private String cartId;
+    private String variantId;
+    private int quantity;
+    
+    private HoldStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;    // HELD holds past this are released by the sweeper
+    private LocalDateTime resolvedAt;
+    private LocalDateTime purgeAt;      // TTL: set once resolved
+    private String claimId;             // Batch token of the sweep/cart operation that resolved it
+    private LocalDateTime claimedAt;    // CLAIMED holds older than the claim timeout are finished by the sweeper
+    private HoldStatus outcome;         // Status a CLAIMED hold is being resolved to
+    
+    public enum HoldStatus {
+        HELD,
+        CLAIMED,        // Being resolved; stock change not yet known to be applied
+        RELEASED,       // Cart line removed or cart abandoned
+        EXPIRED,        // Released by the sweeper
+        CONFIRMED       // Cart converted to an order; stock deducted
+    }
+}
@@ -0,0 +1,16 @@
+package com.odop.root.variant.repository;
+
+import com.odop.root.variant.model.StockHold;
+import com.odop.root.variant.model.StockHold.HoldStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockHoldRepository extends MongoRepository<StockHold, String> {
+    
+    List<StockHold> findByCartIdAndStatus(String cartId, HoldStatus status);
+    
+    List<StockHold> findByClaimId(String claimId);
+}
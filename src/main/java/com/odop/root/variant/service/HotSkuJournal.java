@@ -0,0 +1,153 @@
+package com.odop.root.variant.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Append-only local journal of hot-SKU lease movements, one "op,variantId,quantity" line each.
+ *
+ * Replaying it gives, per variant, how much leased stock this node still held when it stopped:
+ * LEASE and RELEASE add to the lease, RESERVE and RETURN take from it. Every line is written
+ * straight to the file (survives a process crash); {@link #sync()} forces it to disk.
+ */
+@Slf4j
+public class HotSkuJournal {
+
+    public static final String LEASE = "L";
+    public static final String RESERVE = "A";
+    public static final String RELEASE = "R";
+    public static final String RETURN = "T";
+
+    private final Path path;
+    private FileChannel channel;
+    private long size;
+
+    public HotSkuJournal(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Leases still held according to the journal on disk (empty if there is none)
+     */
+    public synchronized Map<String, Integer> replay() {
+        Map<String, Integer> leases = new HashMap<>();
+        if (!Files.exists(path)) {
+            return leases;
+        }
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] parts = line.split(",");
+                if (parts.length != 3) {
+                    // A torn last line from a crash mid-write; nothing after it was acknowledged
+                    log.warn("Skipping malformed hot-SKU journal line {}: {}", lineNumber, line);
+                    continue;
+                }
+                int quantity = Integer.parseInt(parts[2]);
+                int sign = switch (parts[0]) {
+                    case LEASE, RELEASE -> 1;
+                    case RESERVE, RETURN -> -1;
+                    default -> 0;
+                };
+                leases.merge(parts[1], sign * quantity, Integer::sum);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read hot-SKU journal " + path, e);
+        }
+        leases.values().removeIf(quantity -> quantity <= 0);
+        return leases;
+    }
+
+    public synchronized void append(String op, String variantId, int quantity) {
+        try {
+            ByteBuffer line = ByteBuffer.wrap((op + "," + variantId + "," + quantity + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            while (line.hasRemaining()) {
+                size += open().write(line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write hot-SKU journal " + path, e);
+        }
+    }
+
+    public synchronized void sync() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            log.warn("Could not sync hot-SKU journal: {}", e.getMessage());
+        }
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Replace the journal with one LEASE line per variant still leased. Appends are blocked while
+     * the new file is written, synced and moved over the old one.
+     */
+    public synchronized void checkpoint(Map<String, Integer> leases) {
+        Path next = path.resolveSibling(path.getFileName() + ".next");
+        StringBuilder content = new StringBuilder();
+        leases.forEach((variantId, quantity) -> {
+            if (quantity > 0) {
+                content.append(LEASE).append(',').append(variantId).append(',').append(quantity).append('\n');
+            }
+        });
+        try (FileChannel out = FileChannel.open(next, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+            close();
+            Files.move(next, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            size = Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not checkpoint hot-SKU journal " + path, e);
+        }
+    }
+
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close hot-SKU journal: {}", e.getMessage());
+        }
+        channel = null;
+    }
+
+    private FileChannel open() throws IOException {
+        if (channel == null) {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            size = channel.size();
+        }
+        return channel;
+    }
+}
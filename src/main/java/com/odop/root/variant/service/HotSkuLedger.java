@@ -0,0 +1,367 @@
+package com.odop.root.variant.service;
+
+import com.odop.root.variant.model.ProductVariant;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory reservation ledger for flash-sale variants (hotSku = true).
+ *
+ * Instead of a conditional Mongo update per reservation, this node leases a chunk of a hot
+ * variant's available stock (one guarded $inc of reservedQuantity, so other nodes and the normal
+ * path can never oversell it) and hands reservations out of that chunk locally. Releases go back
+ * into the chunk. The chunk is split across stripes taken with CAS, so concurrent checkouts of the
+ * same SKU don't all spin on one counter. A scheduled flush returns unused lease beyond the
+ * working size to Mongo in one bulk write.
+ *
+ * Every lease movement is journaled to a local append-only file before it is acknowledged; on
+ * startup the journal is replayed and whatever lease the previous run still held is returned.
+ * Confirmed sales go through Mongo as usual: they reduce stock and reservations together.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HotSkuLedger {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${stock.hot-sku.enabled:false}")
+    private boolean enabled;
+
+    @Value("${stock.hot-sku.lease-size:50}")
+    private int leaseSize;
+
+    @Value("${stock.hot-sku.stripes:8}")
+    private int stripeCount;
+
+    @Value("${stock.hot-sku.journal-path:data/hot-sku.journal}")
+    private String journalPath;
+
+    @Value("${stock.hot-sku.checkpoint-bytes:1048576}")
+    private long checkpointBytes;
+
+    @Value("${stock.hot-sku.refresh-interval-ms:30000}")
+    private long refreshIntervalMillis;
+
+    private final Map<String, Allowance> allowances = new ConcurrentHashMap<>();
+    // Readers: an in-memory change plus its journal line. Writer: checkpoint, which needs both to agree.
+    private final ReadWriteLock journalLock = new ReentrantReadWriteLock();
+    private volatile Set<String> hotVariants = Set.of();
+    private volatile long hotVariantsLoadedAt;
+    private HotSkuJournal journal;
+
+    @PostConstruct
+    public void start() {
+        journal = new HotSkuJournal(Path.of(journalPath));
+        reconcile();
+        if (enabled) {
+            refreshHotVariants();
+        }
+    }
+
+    // ==================== RESERVATIONS ====================
+
+    public boolean isHot(String variantId) {
+        return enabled && hotVariants.contains(variantId);
+    }
+
+    /**
+     * Reserve from this node's lease, topping it up from Mongo when it runs dry
+     */
+    public boolean reserve(String variantId, int quantity) {
+        if (quantity <= 0) {
+            return false;
+        }
+        Allowance allowance = allowances.computeIfAbsent(variantId, id -> new Allowance(stripeCount));
+        journalLock.readLock().lock();
+        try {
+            if (!allowance.tryTake(quantity) && !reserveSlow(variantId, allowance, quantity)) {
+                return false;
+            }
+            journal.append(HotSkuJournal.RESERVE, variantId, quantity);
+            return true;
+        } finally {
+            journalLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Put a released reservation back into this node's lease; it stays counted as reserved in Mongo
+     */
+    public void release(String variantId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        Allowance allowance = allowances.computeIfAbsent(variantId, id -> new Allowance(stripeCount));
+        journalLock.readLock().lock();
+        try {
+            journal.append(HotSkuJournal.RELEASE, variantId, quantity);
+            allowance.add(quantity);
+        } finally {
+            journalLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stock this node can still hand out for the variant without asking Mongo
+     */
+    public int localAvailable(String variantId) {
+        Allowance allowance = allowances.get(variantId);
+        return allowance != null ? allowance.total() : 0;
+    }
+
+    public void setHot(String variantId, boolean hot) {
+        Set<String> updated = new HashSet<>(hotVariants);
+        if (hot) {
+            updated.add(variantId);
+        } else {
+            updated.remove(variantId);
+        }
+        hotVariants = Set.copyOf(updated);
+    }
+
+    // ==================== FLUSH ====================
+
+    /**
+     * Return lease beyond the working size (all of it for variants no longer hot) in one bulk write
+     */
+    @Scheduled(fixedDelayString = "${stock.hot-sku.flush-interval-ms:1000}")
+    public void flush() {
+        if (enabled && System.currentTimeMillis() - hotVariantsLoadedAt >= refreshIntervalMillis) {
+            refreshHotVariants();
+        }
+        if (allowances.isEmpty()) {
+            return;
+        }
+        returnLeases(false);
+        if (journal.size() >= checkpointBytes) {
+            journalLock.writeLock().lock();
+            try {
+                Map<String, Integer> leases = new HashMap<>();
+                allowances.forEach((variantId, allowance) -> leases.put(variantId, allowance.total()));
+                journal.checkpoint(leases);
+            } finally {
+                journalLock.writeLock().unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        returnLeases(true);
+        journal.close();
+    }
+
+    // ==================== HELPERS ====================
+
+    private boolean reserveSlow(String variantId, Allowance allowance, int quantity) {
+        synchronized (allowance) {
+            // Stock may be spread thinly over several stripes
+            int total = allowance.drain();
+            if (total >= quantity) {
+                allowance.spread(total - quantity);
+                return true;
+            }
+            int leased = lease(variantId, Math.max(quantity, leaseSize) - total);
+            total += leased;
+            if (total < quantity) {
+                allowance.spread(total);
+                return false;
+            }
+            allowance.spread(total - quantity);
+            return true;
+        }
+    }
+
+    /**
+     * Move up to the wanted quantity from the variant's available stock into this node's lease
+     */
+    private int lease(String variantId, int wanted) {
+        int request = wanted;
+        for (int attempt = 0; attempt < 2 && request > 0; attempt++) {
+            Query query = Query.query(Criteria.where("_id").is(variantId)
+                    .andOperator(Criteria.expr(ComparisonOperators.Gte.valueOf(
+                            ArithmeticOperators.Subtract.valueOf("stockQuantity").subtract("reservedQuantity"))
+                            .greaterThanEqualToValue(request))));
+            Update update = new Update()
+                    .inc("reservedQuantity", request)
+                    .set("updatedAt", LocalDateTime.now());
+            ProductVariant leased = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().returnNew(true), ProductVariant.class);
+            if (leased != null) {
+                journal.append(HotSkuJournal.LEASE, variantId, request);
+                return request;
+            }
+            // Not enough for a full chunk: take whatever is left
+            ProductVariant current = mongoTemplate.findById(variantId, ProductVariant.class);
+            request = current != null ? Math.min(request, current.getAvailableStock()) : 0;
+        }
+        return 0;
+    }
+
+    private void returnLeases(boolean all) {
+        Map<String, Integer> returns = new HashMap<>();
+        journalLock.readLock().lock();
+        try {
+            allowances.forEach((variantId, allowance) -> {
+                int keep = all || !isHot(variantId) ? 0 : leaseSize;
+                if (allowance.total() <= (keep == 0 ? 0 : 2 * keep)) {
+                    return;
+                }
+                synchronized (allowance) {
+                    int total = allowance.drain();
+                    int surplus = total - keep;
+                    if (surplus <= 0) {
+                        allowance.spread(total);
+                        return;
+                    }
+                    allowance.spread(keep);
+                    // Journaled before Mongo: a crash in between leaks stock rather than overselling it
+                    journal.append(HotSkuJournal.RETURN, variantId, surplus);
+                    returns.put(variantId, surplus);
+                }
+            });
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        journal.sync();
+        if (!returns.isEmpty()) {
+            applyReturns(returns);
+        }
+    }
+
+    private void reconcile() {
+        Map<String, Integer> leftover = journal.replay();
+        if (leftover.isEmpty()) {
+            return;
+        }
+        log.info("Returning hot-SKU leases left by the previous run: {}", leftover);
+        leftover.forEach((variantId, quantity) -> journal.append(HotSkuJournal.RETURN, variantId, quantity));
+        journal.sync();
+        applyReturns(leftover);
+        journal.checkpoint(Map.of());
+    }
+
+    private void applyReturns(Map<String, Integer> returns) {
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProductVariant.class);
+            returns.forEach((variantId, quantity) -> bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(variantId)),
+                    AggregationUpdate.update().set(SetOperation.set("reservedQuantity")
+                            .toValue(decrementAtLeastZero("reservedQuantity", quantity))
+                            .and().set("updatedAt").toValue(LocalDateTime.now()))));
+            bulk.execute();
+            log.debug("Returned hot-SKU leases: {}", returns);
+        } catch (RuntimeException e) {
+            // Already journaled as returned; these units stay reserved until corrected by hand
+            log.error("Could not return hot-SKU leases {}: {}", returns, e.getMessage());
+        }
+    }
+
+    private void refreshHotVariants() {
+        try {
+            Query query = Query.query(Criteria.where("hotSku").is(true));
+            query.fields().include("_id");
+            hotVariants = mongoTemplate.find(query, ProductVariant.class).stream()
+                    .map(ProductVariant::getId)
+                    .collect(Collectors.toUnmodifiableSet());
+        } catch (RuntimeException e) {
+            log.warn("Could not load hot variants: {}", e.getMessage());
+        }
+        hotVariantsLoadedAt = System.currentTimeMillis();
+    }
+
+    private static AggregationExpression decrementAtLeastZero(String field, int quantity) {
+        return context -> new Document("$max", List.of(
+                new Document("$subtract", List.of("$" + field, quantity)), 0));
+    }
+
+    /**
+     * A variant's leased quantity split over stripes. Takes and adds are lock-free; draining and
+     * re-spreading happen under the allowance's monitor.
+     */
+    static final class Allowance {
+
+        private final AtomicIntegerArray stripes;
+
+        Allowance(int stripeCount) {
+            this.stripes = new AtomicIntegerArray(Math.max(1, stripeCount));
+        }
+
+        boolean tryTake(int quantity) {
+            int count = stripes.length();
+            int home = home();
+            for (int i = 0; i < count; i++) {
+                int stripe = (home + i) % count;
+                int current = stripes.get(stripe);
+                while (current >= quantity) {
+                    if (stripes.compareAndSet(stripe, current, current - quantity)) {
+                        return true;
+                    }
+                    current = stripes.get(stripe);
+                }
+            }
+            return false;
+        }
+
+        void add(int quantity) {
+            stripes.addAndGet(home(), quantity);
+        }
+
+        int drain() {
+            int total = 0;
+            for (int i = 0; i < stripes.length(); i++) {
+                total += stripes.getAndSet(i, 0);
+            }
+            return total;
+        }
+
+        void spread(int total) {
+            int count = stripes.length();
+            for (int i = 0; i < count; i++) {
+                int share = total / count + (i < total % count ? 1 : 0);
+                if (share > 0) {
+                    stripes.addAndGet(i, share);
+                }
+            }
+        }
+
+        int total() {
+            int total = 0;
+            for (int i = 0; i < stripes.length(); i++) {
+                total += stripes.get(i);
+            }
+            return total;
+        }
+
+        private int home() {
+            return (int) (Thread.currentThread().getId() % stripes.length());
+        }
+    }
+}
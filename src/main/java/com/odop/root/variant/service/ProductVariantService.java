@@ -7,6 +7,18 @@ import com.odop.root.variant.repository.ProductVariantRepository;
 import com.odop.root.variant.repository.VariantAttributeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,8 +34,13 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ProductVariantService {
     
+    // Claim ids remembered per variant for at-most-once hold resolution
+    private static final int RECENT_CLAIMS = 64;
+    
     private final ProductVariantRepository variantRepository;
     private final VariantAttributeRepository attributeRepository;
+    private final MongoTemplate mongoTemplate;
+    private final HotSkuLedger hotSkuLedger;
     
     // ==================== VARIANT CRUD ====================
     
@@ -256,70 +273,135 @@ public class ProductVariantService {
     }
     
     /**
-     * Reserve stock (when item added to cart or order placed)
+     * Reserve stock (when item added to cart or order placed).
+     * A single conditional update: the $inc only applies while available stock covers the quantity,
+     * so concurrent reservers can never oversell and never write the whole document.
+     * Hot variants are served from this node's lease in {@link HotSkuLedger}.
      */
-    @Transactional
     public boolean reserveStock(String variantId, int quantity) {
-        ProductVariant variant = variantRepository.findById(variantId).orElse(null);
-        if (variant == null) {
+        if (quantity <= 0) {
             return false;
         }
-        
-        if (variant.getAvailableStock() < quantity) {
+        if (hotSkuLedger.isHot(variantId)) {
+            return hotSkuLedger.reserve(variantId, quantity);
+        }
+        Query query = Query.query(Criteria.where("_id").is(variantId)
+                .andOperator(Criteria.expr(ComparisonOperators.Gte.valueOf(
+                        ArithmeticOperators.Subtract.valueOf("stockQuantity").subtract("reservedQuantity"))
+                        .greaterThanEqualToValue(quantity))));
+        Update update = new Update()
+                .inc("reservedQuantity", quantity)
+                .set("updatedAt", LocalDateTime.now());
+        ProductVariant reserved = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), ProductVariant.class);
+        if (reserved == null) {
+            log.debug("Reservation of {} x {} rejected: insufficient stock or unknown variant", quantity, variantId);
             return false;
         }
-        
-        variant.setReservedQuantity(variant.getReservedQuantity() + quantity);
-        variant.setUpdatedAt(LocalDateTime.now());
-        variantRepository.save(variant);
-        
+        if (reserved.isLowStock()) {
+            log.info("Variant {} is low on stock: {} available", variantId, reserved.getAvailableStock());
+        }
         return true;
     }
     
+    /**
+     * Reserve stock for several variants at once (a whole cart), all or nothing.
+     * Variants are reserved in id order, each with the same conditional update as
+     * {@link #reserveStock(String, int)}; if one is short, the ones already taken are released.
+     */
+    public StockReservationResult reserveStock(Map<String, Integer> quantities) {
+        // Merge duplicates and take a stable order so concurrent carts contend in the same sequence
+        SortedMap<String, Integer> ordered = new TreeMap<>();
+        quantities.forEach((variantId, quantity) -> {
+            if (variantId != null && quantity != null && quantity > 0) {
+                ordered.merge(variantId, quantity, Integer::sum);
+            }
+        });
+        
+        Map<String, Integer> reserved = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> line : ordered.entrySet()) {
+            if (!reserveStock(line.getKey(), line.getValue())) {
+                reserved.forEach(this::releaseStock);
+                return StockReservationResult.failed(line.getKey(), line.getValue(), availableStock(line.getKey()));
+            }
+            reserved.put(line.getKey(), line.getValue());
+        }
+        return StockReservationResult.reserved(reserved);
+    }
+    
     /**
      * Release reserved stock (when cart item removed or order cancelled)
      */
-    @Transactional
     public void releaseStock(String variantId, int quantity) {
-        ProductVariant variant = variantRepository.findById(variantId).orElse(null);
-        if (variant == null) {
+        if (quantity <= 0) {
             return;
         }
-        
-        variant.setReservedQuantity(Math.max(0, variant.getReservedQuantity() - quantity));
-        variant.setUpdatedAt(LocalDateTime.now());
-        variantRepository.save(variant);
+        if (hotSkuLedger.isHot(variantId)) {
+            hotSkuLedger.release(variantId, quantity);
+            return;
+        }
+        // Pipeline update so the clamp at zero happens server-side in the same atomic write
+        mongoTemplate.updateFirst(byId(variantId), releaseUpdate(quantity), ProductVariant.class);
+    }
+    
+    /**
+     * Release reservations for several variants (e.g. a whole cart or a sweep of expired holds)
+     * in one unordered bulk write
+     */
+    public void releaseStock(Map<String, Integer> quantities) {
+        releaseStock(quantities, null);
+    }
+    
+    /**
+     * As {@link #releaseStock(Map)}, applied at most once per variant for the given claim id
+     * (see {@link #bulkUpdate}); hot variants go through the local ledger and are not marked
+     */
+    public void releaseStock(Map<String, Integer> quantities, String claimId) {
+        Map<String, Integer> cold = new HashMap<>();
+        quantities.forEach((variantId, quantity) -> {
+            if (variantId != null && quantity != null && hotSkuLedger.isHot(variantId)) {
+                hotSkuLedger.release(variantId, quantity);
+            } else {
+                cold.put(variantId, quantity);
+            }
+        });
+        bulkUpdate(cold, this::releaseUpdate, claimId);
     }
     
     /**
      * Confirm stock deduction (when order confirmed/paid)
      */
-    @Transactional
     public void confirmStockDeduction(String variantId, int quantity) {
-        ProductVariant variant = variantRepository.findById(variantId).orElse(null);
-        if (variant == null) {
+        if (quantity <= 0) {
             return;
         }
-        
-        variant.setStockQuantity(Math.max(0, variant.getStockQuantity() - quantity));
-        variant.setReservedQuantity(Math.max(0, variant.getReservedQuantity() - quantity));
-        variant.setUpdatedAt(LocalDateTime.now());
-        variantRepository.save(variant);
+        mongoTemplate.updateFirst(byId(variantId), confirmUpdate(quantity), ProductVariant.class);
+    }
+    
+    /**
+     * Confirm deductions for several variants (e.g. a converted cart) in one unordered bulk write
+     */
+    public void confirmStockDeduction(Map<String, Integer> quantities) {
+        confirmStockDeduction(quantities, null);
+    }
+    
+    /**
+     * As {@link #confirmStockDeduction(Map)}, applied at most once per variant for the given claim id
+     */
+    public void confirmStockDeduction(Map<String, Integer> quantities, String claimId) {
+        bulkUpdate(quantities, this::confirmUpdate, claimId);
     }
     
     /**
      * Restore stock (when order returned)
      */
-    @Transactional
     public void restoreStock(String variantId, int quantity) {
-        ProductVariant variant = variantRepository.findById(variantId).orElse(null);
-        if (variant == null) {
+        if (quantity <= 0) {
             return;
         }
-        
-        variant.setStockQuantity(variant.getStockQuantity() + quantity);
-        variant.setUpdatedAt(LocalDateTime.now());
-        variantRepository.save(variant);
+        mongoTemplate.updateFirst(byId(variantId),
+                new Update().inc("stockQuantity", quantity).set("updatedAt", LocalDateTime.now()),
+                ProductVariant.class);
     }
     
     /**
@@ -337,7 +419,89 @@ public class ProductVariantService {
      */
     public boolean checkStockAvailability(String variantId, int quantity) {
         ProductVariant variant = variantRepository.findById(variantId).orElse(null);
-        return variant != null && variant.getAvailableStock() >= quantity;
+        return variant != null && variant.getAvailableStock() + hotSkuLedger.localAvailable(variantId) >= quantity;
+    }
+    
+    /**
+     * Switch flash-sale mode for a variant on or off
+     */
+    public ProductVariantDto setHotSku(String variantId, boolean hot) {
+        ProductVariant variant = mongoTemplate.findAndModify(byId(variantId),
+                new Update().set("hotSku", hot).set("updatedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true), ProductVariant.class);
+        if (variant == null) {
+            throw new IllegalArgumentException("Variant not found: " + variantId);
+        }
+        hotSkuLedger.setHot(variantId, hot);
+        log.info("Variant {} hot-SKU mode {}", variantId, hot ? "on" : "off");
+        return ProductVariantDto.fromEntity(variant);
+    }
+    
+    private AggregationUpdate releaseUpdate(int quantity) {
+        return AggregationUpdate.update()
+                .set(SetOperation.set("reservedQuantity").toValue(decrementAtLeastZero("reservedQuantity", quantity))
+                        .and().set("updatedAt").toValue(LocalDateTime.now()));
+    }
+    
+    private AggregationUpdate confirmUpdate(int quantity) {
+        return AggregationUpdate.update()
+                .set(SetOperation.set("stockQuantity").toValue(decrementAtLeastZero("stockQuantity", quantity))
+                        .and().set("reservedQuantity").toValue(decrementAtLeastZero("reservedQuantity", quantity))
+                        .and().set("updatedAt").toValue(LocalDateTime.now()));
+    }
+    
+    /**
+     * With a claim id, each variant's update only matches while the id is not in its appliedClaims
+     * and adds it there in the same write, so repeating the bulk write for a claim (recovery of a
+     * claim whose owner died mid-way) skips the variants already done. Only the last
+     * RECENT_CLAIMS ids are kept per variant.
+     */
+    private void bulkUpdate(Map<String, Integer> quantities, java.util.function.IntFunction<AggregationUpdate> update,
+                            String claimId) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProductVariant.class);
+        int operations = 0;
+        for (Map.Entry<String, Integer> line : quantities.entrySet()) {
+            if (line.getKey() != null && line.getValue() != null && line.getValue() > 0) {
+                if (claimId == null) {
+                    bulk.updateOne(byId(line.getKey()), update.apply(line.getValue()));
+                } else {
+                    bulk.updateOne(Query.query(Criteria.where("_id").is(line.getKey()).and("appliedClaims").ne(claimId)),
+                            update.apply(line.getValue())
+                                    .set(SetOperation.set("appliedClaims").toValue(appendClaim(claimId))));
+                }
+                operations++;
+            }
+        }
+        if (operations > 0) {
+            bulk.execute();
+        }
+    }
+    
+    /**
+     * { $slice: [ { $concatArrays: [ { $ifNull: ["$appliedClaims", []] }, [claimId] ] }, -RECENT_CLAIMS ] }
+     */
+    private static AggregationExpression appendClaim(String claimId) {
+        return context -> new Document("$slice", List.of(
+                new Document("$concatArrays", List.of(
+                        new Document("$ifNull", List.of("$appliedClaims", List.of())), List.of(claimId))),
+                -RECENT_CLAIMS));
+    }
+    
+    private static Query byId(String variantId) {
+        return Query.query(Criteria.where("_id").is(variantId));
+    }
+    
+    /**
+     * { $max: [ { $subtract: ["$field", quantity] }, 0 ] } - evaluated server-side in a pipeline update
+     */
+    private static AggregationExpression decrementAtLeastZero(String field, int quantity) {
+        return context -> new Document("$max", List.of(
+                new Document("$subtract", List.of("$" + field, quantity)), 0));
+    }
+    
+    private int availableStock(String variantId) {
+        return variantRepository.findById(variantId).map(ProductVariant::getAvailableStock).orElse(0)
+                + hotSkuLedger.localAvailable(variantId);
     }
     
     // ==================== ATTRIBUTE MANAGEMENT ====================
@@ -0,0 +1,315 @@
+package com.odop.root.variant.service;
+
+import com.odop.root.models.Cart;
+import com.odop.root.models.CartItem;
+import com.odop.root.variant.model.StockHold;
+import com.odop.root.variant.model.StockHold.HoldStatus;
+import com.odop.root.variant.repository.StockHoldRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time-bounded stock holds for cart lines.
+ *
+ * Each cart line with a variant gets its own hold (reserving stock on the variant) that expires
+ * after stock.hold.ttl-minutes without cart activity. Holds are resolved by claiming them with a
+ * conditional status update (only HELD holds can be claimed, so each is resolved once even with
+ * several nodes sweeping) and then applying the stock change for the whole batch in one bulk write.
+ *
+ * A claim stays CLAIMED until its stock write is done. If the claiming node dies in between, the
+ * sweeper takes the claim over after stock.hold.claim-timeout-ms and repeats the write under the
+ * same claim id; the variants remember recent claim ids, so the ones already done are skipped.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockHoldService {
+
+    private static final int MAX_SWEEP_BATCHES = 20;
+
+    private final StockHoldRepository holdRepository;
+    private final ProductVariantService variantService;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${stock.hold.ttl-minutes:30}")
+    private long holdTtlMinutes;
+
+    @Value("${stock.hold.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    @Value("${stock.hold.retention-days:7}")
+    private long retentionDays;
+
+    @Value("${stock.hold.claim-timeout-ms:300000}")
+    private long claimTimeoutMillis;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            mongoTemplate.indexOps(StockHold.class).ensureIndex(new Index()
+                    .on("status", Sort.Direction.ASC)
+                    .on("expiresAt", Sort.Direction.ASC)
+                    .named("status_expiry_idx"));
+            mongoTemplate.indexOps(StockHold.class).ensureIndex(new Index()
+                    .on("claimId", Sort.Direction.ASC)
+                    .sparse()
+                    .named("claim_idx"));
+            mongoTemplate.indexOps(StockHold.class).ensureIndex(new Index()
+                    .on("purgeAt", Sort.Direction.ASC)
+                    .expire(0, TimeUnit.SECONDS)
+                    .named("purge_ttl_idx"));
+        } catch (Exception e) {
+            log.warn("Could not create stock hold indexes: {}", e.getMessage());
+        }
+    }
+
+    // ==================== CART HOLDS ====================
+
+    /**
+     * Bring an active cart's holds in line with its lines: hold new or changed lines, release
+     * holds of removed lines and extend the rest. Sets holdId on each variant line.
+     *
+     * @throws IllegalStateException if a line cannot be held; holds placed by this call are released
+     */
+    public void syncCartHolds(Cart cart) {
+        Map<String, StockHold> active = new HashMap<>();
+        for (StockHold hold : holdRepository.findByCartIdAndStatus(cart.getCartId(), HoldStatus.HELD)) {
+            active.put(hold.getId(), hold);
+        }
+
+        List<StockHold> placed = new ArrayList<>();
+        List<StockHold> replaced = new ArrayList<>();
+        try {
+            for (CartItem item : cart.getCartItems() != null ? cart.getCartItems() : List.<CartItem>of()) {
+                if (item.getVariantId() == null || item.getQuantity() <= 0) {
+                    continue;
+                }
+                StockHold existing = item.getHoldId() != null ? active.remove(item.getHoldId()) : null;
+                if (existing != null && existing.getVariantId().equals(item.getVariantId())
+                        && existing.getQuantity() == item.getQuantity()) {
+                    continue;
+                }
+                if (existing != null) {
+                    replaced.add(existing);
+                }
+                StockHold hold = placeHold(cart.getCartId(), item.getVariantId(), item.getQuantity());
+                placed.add(hold);
+                item.setHoldId(hold.getId());
+            }
+        } catch (RuntimeException e) {
+            // Undo this call's holds; the cart keeps its previous ones
+            resolve(placed, HoldStatus.RELEASED);
+            throw e;
+        }
+
+        // Lines that were changed or removed
+        replaced.addAll(active.values());
+        resolve(replaced, HoldStatus.RELEASED);
+        extendCartHolds(cart.getCartId());
+    }
+
+    /**
+     * Cart abandoned or deleted: give the stock back
+     */
+    public int releaseCart(String cartId) {
+        return resolveCart(cartId, HoldStatus.RELEASED);
+    }
+
+    /**
+     * Checkout is about to consume these holds: extend the ones still HELD so the sweeper leaves
+     * them alone while the orders are written, and return their ids. Holds missing from the
+     * result have expired and their lines need stock reserved again.
+     */
+    public Set<String> holdForCheckout(Collection<String> holdIds) {
+        if (holdIds.isEmpty()) {
+            return Set.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Criteria live = Criteria.where("_id").in(holdIds)
+                .and("status").is(HoldStatus.HELD)
+                .and("expiresAt").gt(now);
+        mongoTemplate.updateMulti(Query.query(live),
+                new Update().set("expiresAt", now.plusMinutes(holdTtlMinutes)),
+                StockHold.class);
+        // Expired holds the sweeper has not reached yet were not extended and are not live
+        Query extended = Query.query(Criteria.where("_id").in(holdIds)
+                .and("status").is(HoldStatus.HELD)
+                .and("expiresAt").gt(now));
+        extended.fields().include("_id");
+        Set<String> ids = new HashSet<>();
+        mongoTemplate.find(extended, StockHold.class).forEach(hold -> ids.add(hold.getId()));
+        return ids;
+    }
+
+    /**
+     * Lines checked out: turn these holds' reservations into stock deductions. Returns the ids
+     * actually confirmed; a hold released in the meantime is missing and its stock is not deducted.
+     */
+    public Set<String> confirmHolds(Collection<String> holdIds) {
+        if (holdIds.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> confirmed = new HashSet<>();
+        claimAndApply(Criteria.where("_id").in(holdIds), HoldStatus.CONFIRMED)
+                .forEach(hold -> confirmed.add(hold.getId()));
+        return confirmed;
+    }
+
+    // ==================== SWEEPER ====================
+
+    /**
+     * Finish claims left behind by a node that died mid-way, then release expired holds in
+     * batches until none are left (or the per-run cap is reached)
+     */
+    @Scheduled(fixedDelayString = "${stock.hold.sweep-interval-ms:60000}")
+    public void sweepExpiredHolds() {
+        recoverStaleClaims();
+        int released = 0;
+        for (int batch = 0; batch < MAX_SWEEP_BATCHES; batch++) {
+            Query expired = Query.query(Criteria.where("status").is(HoldStatus.HELD)
+                            .and("expiresAt").lt(LocalDateTime.now()))
+                    .limit(sweepBatchSize);
+            expired.fields().include("_id");
+            List<String> ids = mongoTemplate.find(expired, StockHold.class).stream()
+                    .map(StockHold::getId)
+                    .toList();
+            if (ids.isEmpty()) {
+                break;
+            }
+            released += claimAndApply(Criteria.where("_id").in(ids), HoldStatus.EXPIRED).size();
+            if (ids.size() < sweepBatchSize) {
+                break;
+            }
+        }
+        if (released > 0) {
+            log.info("Released {} expired stock holds", released);
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    private StockHold placeHold(String cartId, String variantId, int quantity) {
+        if (!variantService.reserveStock(variantId, quantity)) {
+            throw new IllegalStateException("Insufficient stock for variant: " + variantId);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        StockHold hold = StockHold.builder()
+                .cartId(cartId)
+                .variantId(variantId)
+                .quantity(quantity)
+                .status(HoldStatus.HELD)
+                .createdAt(now)
+                .expiresAt(now.plusMinutes(holdTtlMinutes))
+                .build();
+        try {
+            return holdRepository.save(hold);
+        } catch (RuntimeException e) {
+            variantService.releaseStock(variantId, quantity);
+            throw e;
+        }
+    }
+
+    private void extendCartHolds(String cartId) {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("cartId").is(cartId).and("status").is(HoldStatus.HELD)),
+                new Update().set("expiresAt", LocalDateTime.now().plusMinutes(holdTtlMinutes)),
+                StockHold.class);
+    }
+
+    private int resolveCart(String cartId, HoldStatus outcome) {
+        int resolved = claimAndApply(Criteria.where("cartId").is(cartId), outcome).size();
+        if (resolved > 0) {
+            log.info("Cart {}: {} stock holds {}", cartId, resolved, outcome.name().toLowerCase());
+        }
+        return resolved;
+    }
+
+    private void resolve(List<StockHold> holds, HoldStatus outcome) {
+        if (!holds.isEmpty()) {
+            claimAndApply(Criteria.where("_id").in(holds.stream().map(StockHold::getId).toList()), outcome);
+        }
+    }
+
+    /**
+     * Move matching HELD holds to CLAIMED under a fresh claim id, apply the stock change for
+     * exactly the holds this call claimed, then settle them on the outcome status.
+     */
+    private List<StockHold> claimAndApply(Criteria selection, HoldStatus outcome) {
+        String claimId = UUID.randomUUID().toString();
+        Query query = Query.query(new Criteria().andOperator(selection, Criteria.where("status").is(HoldStatus.HELD)));
+        Update claim = new Update()
+                .set("status", HoldStatus.CLAIMED)
+                .set("outcome", outcome)
+                .set("claimId", claimId)
+                .set("claimedAt", LocalDateTime.now());
+        if (mongoTemplate.updateMulti(query, claim, StockHold.class).getModifiedCount() == 0) {
+            return List.of();
+        }
+        List<StockHold> claimed = holdRepository.findByClaimId(claimId);
+        applyClaim(claimId, outcome, claimed);
+        return claimed;
+    }
+
+    /**
+     * Take over claims whose owner has not settled them within the claim timeout and finish them.
+     * The takeover is a conditional update on claimedAt, so only one node repeats each claim.
+     */
+    private void recoverStaleClaims() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(claimTimeoutMillis));
+        Query stale = Query.query(Criteria.where("status").is(HoldStatus.CLAIMED).and("claimedAt").lt(cutoff));
+        List<String> claimIds = mongoTemplate.findDistinct(stale, "claimId", StockHold.class, String.class);
+        for (String claimId : claimIds) {
+            Query ours = Query.query(Criteria.where("claimId").is(claimId)
+                    .and("status").is(HoldStatus.CLAIMED)
+                    .and("claimedAt").lt(cutoff));
+            if (mongoTemplate.updateMulti(ours, new Update().set("claimedAt", LocalDateTime.now()),
+                    StockHold.class).getModifiedCount() == 0) {
+                continue;
+            }
+            List<StockHold> holds = mongoTemplate.find(Query.query(Criteria.where("claimId").is(claimId)
+                    .and("status").is(HoldStatus.CLAIMED)), StockHold.class);
+            if (holds.isEmpty()) {
+                continue;
+            }
+            HoldStatus outcome = holds.get(0).getOutcome();
+            log.warn("Finishing stale stock hold claim {}: {} holds to {}", claimId, holds.size(), outcome);
+            applyClaim(claimId, outcome, holds);
+        }
+    }
+
+    private void applyClaim(String claimId, HoldStatus outcome, List<StockHold> holds) {
+        Map<String, Integer> quantities = new HashMap<>();
+        for (StockHold hold : holds) {
+            quantities.merge(hold.getVariantId(), hold.getQuantity(), Integer::sum);
+        }
+        if (outcome == HoldStatus.CONFIRMED) {
+            variantService.confirmStockDeduction(quantities, claimId);
+        } else {
+            variantService.releaseStock(quantities, claimId);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("claimId").is(claimId).and("status").is(HoldStatus.CLAIMED)),
+                new Update()
+                        .set("status", outcome)
+                        .set("resolvedAt", now)
+                        .set("purgeAt", now.plusDays(retentionDays)),
+                StockHold.class);
+    }
+}
@@ -6,6 +6,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +25,9 @@ public class CustomerNotificationService {
     @Autowired
     private CustomerNotificationRepository notificationRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     // ================================
     // Fetch Operations
     // ================================
@@ -193,41 +200,24 @@ public class CustomerNotificationService {
     /**
      * Mark all notifications as read for a customer
      */
-    @Transactional
     public int markAllAsRead(String customerId) {
-        List<CustomerNotification> unread = notificationRepository.findByCustomerIdAndReadFalseAndDeletedFalseOrderByCreatedAtDesc(customerId);
-        LocalDateTime now = LocalDateTime.now();
-        int count = 0;
-        
-        for (CustomerNotification notification : unread) {
-            notification.setRead(true);
-            notification.setReadAt(now);
-            notificationRepository.save(notification);
-            count++;
-        }
-        
-        return count;
+        return markRead(Criteria.where("customerId").is(customerId));
     }
 
     /**
      * Mark notifications of a specific type as read
      */
-    @Transactional
     public int markTypeAsRead(String customerId, String type) {
-        List<CustomerNotification> notifications = notificationRepository.findByCustomerIdAndTypeAndDeletedFalseOrderByCreatedAtDesc(customerId, type);
-        LocalDateTime now = LocalDateTime.now();
-        int count = 0;
-        
-        for (CustomerNotification notification : notifications) {
-            if (!notification.isRead()) {
-                notification.setRead(true);
-                notification.setReadAt(now);
-                notificationRepository.save(notification);
-                count++;
-            }
-        }
-        
-        return count;
+        return markRead(Criteria.where("customerId").is(customerId).and("type").is(type));
+    }
+
+    /**
+     * Mark the matching unread, undeleted notifications as read in one updateMany
+     */
+    private int markRead(Criteria criteria) {
+        Query query = Query.query(criteria.and("read").is(false).and("deleted").is(false));
+        Update update = new Update().set("read", true).set("readAt", LocalDateTime.now());
+        return (int) mongoTemplate.updateMulti(query, update, CustomerNotification.class).getModifiedCount();
     }
 
     // ================================
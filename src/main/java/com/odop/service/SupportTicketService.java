@@ -6,6 +6,10 @@ import com.odop.repository.SupportTicketRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
@@ -20,6 +24,9 @@ public class SupportTicketService {
     @Autowired
     private SupportTicketRepository supportTicketRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     // Customer Methods
 
     /**
@@ -157,26 +164,22 @@ public class SupportTicketService {
      * Mark messages as read for a customer
      */
     public SupportTicket markMessagesAsRead(String ticketId, String customerId) {
-        Optional<SupportTicket> ticketOpt = supportTicketRepository.findById(ticketId);
-        if (ticketOpt.isPresent()) {
-            SupportTicket ticket = ticketOpt.get();
+        // Flag all messages from support as read in place, without rewriting the ticket
+        Update update = new Update()
+            .set("messages.$[m].isRead", true)
+            .set("updatedAt", new Date())
+            .filterArray(Criteria.where("m.senderId").ne(customerId).and("m.isRead").is(false));
+        long matched = mongoTemplate.updateFirst(
+            Query.query(Criteria.where("_id").is(ticketId).and("customerId").is(customerId)),
+            update, SupportTicket.class).getMatchedCount();
+        if (matched == 0) {
             // Verify ownership
-            if (!ticket.getCustomerId().equals(customerId)) {
+            if (supportTicketRepository.existsById(ticketId)) {
                 throw new IllegalArgumentException("Ticket does not belong to this customer");
             }
-            
-            // Mark all messages from support as read
-            if (ticket.getMessages() != null) {
-                for (TicketMessage msg : ticket.getMessages()) {
-                    if (!msg.getSenderId().equals(customerId)) {
-                        msg.setRead(true);
-                    }
-                }
-            }
-            ticket.setUpdatedAt(new Date());
-            return supportTicketRepository.save(ticket);
+            throw new IllegalArgumentException("Ticket not found");
         }
-        throw new IllegalArgumentException("Ticket not found");
+        return supportTicketRepository.findById(ticketId).orElseThrow(() -> new IllegalArgumentException("Ticket not found"));
     }
 
     // Admin/Support Methods
@@ -2,22 +2,164 @@ package com.odop.service;
 
 import com.odop.model.Wallet;
 import com.odop.model.Wallet.WalletTransaction;
+import com.odop.model.WalletLedgerEntry;
 import com.odop.repository.WalletRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Wallet balances and their transaction ledger.
+ *
+ * The balance lives on the wallet document and is only ever changed with a conditional $inc
+ * (debits match only while balance >= amount and the wallet is unlocked), so concurrent
+ * payments cannot spend the same money twice. Each change is then appended to the
+ * wallet_transactions ledger, which history is read from a page at a time by keyset
+ * (timestamp, _id) rather than by loading every transaction.
+ */
 @Service
 public class WalletService {
 
+    private static final Logger logger = LoggerFactory.getLogger(WalletService.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private WalletRepository walletRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * One page of transactions, newest first; nextCursor is null on the last page
+     */
+    public static class TransactionPage {
+        private final List<WalletLedgerEntry> items;
+        private final String nextCursor;
+
+        public TransactionPage(List<WalletLedgerEntry> items, String nextCursor) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<WalletLedgerEntry> getItems() {
+            return items;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+
+    /**
+     * Create the ledger indexes and move any transactions still embedded in wallets to the ledger.
+     * Every node runs this at startup; the migration is safe to run on several at once.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareLedger() {
+        try {
+            mongoTemplate.indexOps(Wallet.class).ensureIndex(new Index()
+                .on("customerId", Sort.Direction.ASC)
+                .unique()
+                .named("wallet_customer_idx"));
+        } catch (Exception e) {
+            // Usually duplicate wallets left by the old create path; the ledger does not depend on it
+            logger.warn("Could not create unique wallet index: {}", e.getMessage());
+        }
+        try {
+            mongoTemplate.indexOps(WalletLedgerEntry.class).ensureIndex(new Index()
+                .on("customerId", Sort.Direction.ASC)
+                .on("timestamp", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("customer_history_idx"));
+            mongoTemplate.indexOps(WalletLedgerEntry.class).ensureIndex(new Index()
+                .on("customerId", Sort.Direction.ASC)
+                .on("type", Sort.Direction.ASC)
+                .on("timestamp", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("customer_type_history_idx"));
+        } catch (Exception e) {
+            logger.warn("Could not create wallet ledger indexes: {}", e.getMessage());
+        }
+        try {
+            migrateEmbeddedTransactions();
+        } catch (Exception e) {
+            logger.warn("Could not move embedded wallet transactions to the ledger: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Each embedded transaction is upserted under an _id derived from its wallet and position, so
+     * a rerun after a crash, or another node migrating the same wallet, rewrites nothing and
+     * leaves no duplicates. The embedded list is only removed once all of its entries are in.
+     */
+    private void migrateEmbeddedTransactions() {
+        int migrated = 0;
+        try (Stream<Wallet> wallets = mongoTemplate.stream(
+                Query.query(Criteria.where("transactions.0").exists(true)), Wallet.class)) {
+            for (Wallet wallet : (Iterable<Wallet>) wallets::iterator) {
+                List<WalletTransaction> transactions = wallet.getTransactions();
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WalletLedgerEntry.class);
+                for (int i = 0; i < transactions.size(); i++) {
+                    WalletLedgerEntry entry = fromLegacy(wallet.getCustomerId(), transactions.get(i));
+                    entry.setId(legacyEntryId(wallet.getWalletId(), i, transactions.get(i)));
+                    Document fields = new Document();
+                    mongoTemplate.getConverter().write(entry, fields);
+                    Update insert = new Update();
+                    fields.forEach((key, value) -> {
+                        if (!"_id".equals(key)) {
+                            insert.setOnInsert(key, value);
+                        }
+                    });
+                    bulk.upsert(Query.query(Criteria.where("_id").is(new ObjectId(entry.getId()))), insert);
+                }
+                bulk.execute();
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(wallet.getWalletId())),
+                    new Update().unset("transactions"), Wallet.class);
+                migrated++;
+            }
+        }
+        if (migrated > 0) {
+            logger.info("💰 Moved embedded transactions of {} wallets to the ledger", migrated);
+        }
+    }
+
+    /**
+     * A fixed ObjectId for the index-th embedded transaction of a wallet: the transaction's own
+     * time in the leading bytes, so history keeps its order, then a hash of where it came from
+     */
+    static String legacyEntryId(String walletId, int index, WalletTransaction transaction) {
+        long seconds = transaction.getTimestamp() != null ? transaction.getTimestamp().getTime() / 1000 : 0;
+        String source = walletId + ":" + index + ":" + transaction.getTransactionId();
+        long hash = UUID.nameUUIDFromBytes(source.getBytes(StandardCharsets.UTF_8)).getMostSignificantBits();
+        return String.format("%08x%016x", seconds, hash);
+    }
+
     /**
      * Get or create wallet for a customer
      */
@@ -27,9 +169,21 @@ public class WalletService {
             return existingWallet.get();
         }
         
-        // Create new wallet
-        Wallet wallet = new Wallet(customerId);
-        return walletRepository.save(wallet);
+        // Create new wallet; an upsert so two first requests cannot create two wallets
+        Date now = new Date();
+        Update create = new Update()
+            .setOnInsert("balance", 0.0)
+            .setOnInsert("currency", "INR")
+            .setOnInsert("isActive", true)
+            .setOnInsert("isLocked", false)
+            .setOnInsert("createdAt", now)
+            .setOnInsert("updatedAt", now);
+        try {
+            return mongoTemplate.findAndModify(Query.query(Criteria.where("customerId").is(customerId)), create,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Wallet.class);
+        } catch (DuplicateKeyException e) {
+            return walletRepository.findByCustomerId(customerId).orElseThrow(() -> e);
+        }
     }
 
     /**
@@ -55,10 +209,8 @@ public class WalletService {
             throw new IllegalArgumentException("Amount must be positive");
         }
         
-        Wallet wallet = getOrCreateWallet(customerId);
-        wallet.addCredit(amount, description, referenceId, referenceType);
-        wallet.preSave();
-        return walletRepository.save(wallet);
+        getOrCreateWallet(customerId);
+        return applyChange(customerId, "credit", amount, description, referenceId, referenceType);
     }
 
     /**
@@ -69,15 +221,7 @@ public class WalletService {
             throw new IllegalArgumentException("Amount must be positive");
         }
         
-        Optional<Wallet> walletOpt = walletRepository.findByCustomerId(customerId);
-        if (walletOpt.isEmpty()) {
-            throw new IllegalArgumentException("Wallet not found");
-        }
-        
-        Wallet wallet = walletOpt.get();
-        wallet.addDebit(amount, description, referenceId, referenceType);
-        wallet.preSave();
-        return walletRepository.save(wallet);
+        return applyChange(customerId, "debit", amount, description, referenceId, referenceType);
     }
 
     /**
@@ -129,38 +273,47 @@ public class WalletService {
     }
 
     /**
-     * Get transaction history
+     * Get a page of transaction history, newest first.
+     * Pass the previous page's nextCursor to continue; type optionally filters (credit, debit).
      */
-    public List<WalletTransaction> getTransactionHistory(String customerId) {
-        Optional<Wallet> wallet = walletRepository.findByCustomerId(customerId);
-        if (wallet.isPresent() && wallet.get().getTransactions() != null) {
-            return wallet.get().getTransactions();
+    public TransactionPage getTransactionHistory(String customerId, String type, String cursor, int limit) {
+        int size = limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        Criteria criteria = Criteria.where("customerId").is(customerId);
+        if (type != null) {
+            criteria = criteria.and("type").is(type);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            Date timestamp;
+            ObjectId id;
+            try {
+                int separator = cursor.indexOf('_');
+                timestamp = new Date(Long.parseLong(cursor.substring(0, separator)));
+                id = new ObjectId(cursor.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            criteria = criteria.orOperator(
+                Criteria.where("timestamp").lt(timestamp),
+                Criteria.where("timestamp").is(timestamp).and("_id").lt(id));
         }
-        return List.of();
-    }
 
-    /**
-     * Get recent transactions
-     */
-    public List<WalletTransaction> getRecentTransactions(String customerId, int limit) {
-        Optional<Wallet> wallet = walletRepository.findByCustomerId(customerId);
-        if (wallet.isPresent()) {
-            return wallet.get().getRecentTransactions(limit);
+        Query query = Query.query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, "timestamp", "_id"))
+            .limit(size + 1);
+        List<WalletLedgerEntry> items = mongoTemplate.find(query, WalletLedgerEntry.class);
+        if (items.size() <= size) {
+            return new TransactionPage(items, null);
         }
-        return List.of();
+        items = items.subList(0, size);
+        WalletLedgerEntry last = items.get(size - 1);
+        return new TransactionPage(items, last.getTimestamp().getTime() + "_" + last.getId());
     }
 
     /**
-     * Get transactions by type
+     * Get recent transactions
      */
-    public List<WalletTransaction> getTransactionsByType(String customerId, String type) {
-        Optional<Wallet> wallet = walletRepository.findByCustomerId(customerId);
-        if (wallet.isPresent() && wallet.get().getTransactions() != null) {
-            return wallet.get().getTransactions().stream()
-                .filter(t -> type.equals(t.getType()))
-                .collect(Collectors.toList());
-        }
-        return List.of();
+    public List<WalletLedgerEntry> getRecentTransactions(String customerId, int limit) {
+        return getTransactionHistory(customerId, null, null, limit).getItems();
     }
 
     /**
@@ -177,40 +330,40 @@ public class WalletService {
         }
         
         Wallet wallet = walletOpt.get();
-        List<WalletTransaction> transactions = wallet.getTransactions();
-        
         summary.put("exists", true);
         summary.put("balance", wallet.getBalance());
         summary.put("currency", wallet.getCurrency());
         summary.put("isActive", wallet.isActive());
         summary.put("isLocked", wallet.isLocked());
-        summary.put("totalTransactions", transactions != null ? transactions.size() : 0);
         
-        // Calculate totals
+        // Totals are summed by the database over the ledger
+        Aggregation totals = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("customerId").is(customerId)),
+            Aggregation.group("type", "referenceType").sum("amount").as("total").count().as("count"));
+        long totalTransactions = 0;
         double totalCredits = 0;
         double totalDebits = 0;
         double totalRefunds = 0;
         double totalCashback = 0;
-        
-        if (transactions != null) {
-            for (WalletTransaction t : transactions) {
-                switch (t.getType()) {
-                    case "credit":
-                        totalCredits += t.getAmount();
-                        break;
-                    case "debit":
-                        totalDebits += t.getAmount();
-                        break;
-                    case "refund":
-                        totalRefunds += t.getAmount();
-                        break;
-                    case "cashback":
-                        totalCashback += t.getAmount();
-                        break;
-                }
+        for (Document row : mongoTemplate.aggregate(totals, WalletLedgerEntry.class, Document.class)) {
+            Document key = row.get("_id", Document.class);
+            String type = key.getString("type");
+            String referenceType = key.getString("referenceType");
+            double total = ((Number) row.get("total")).doubleValue();
+            totalTransactions += ((Number) row.get("count")).longValue();
+            if ("credit".equals(type)) {
+                totalCredits += total;
+            } else if ("debit".equals(type)) {
+                totalDebits += total;
+            }
+            if ("refund".equals(referenceType)) {
+                totalRefunds += total;
+            } else if ("cashback".equals(referenceType)) {
+                totalCashback += total;
             }
         }
         
+        summary.put("totalTransactions", totalTransactions);
         summary.put("totalCredits", totalCredits);
         summary.put("totalDebits", totalDebits);
         summary.put("totalRefunds", totalRefunds);
@@ -223,61 +376,108 @@ public class WalletService {
      * Lock wallet
      */
     public Wallet lockWallet(String customerId, String reason) {
-        Optional<Wallet> walletOpt = walletRepository.findByCustomerId(customerId);
-        if (walletOpt.isEmpty()) {
-            throw new IllegalArgumentException("Wallet not found");
-        }
-        
-        Wallet wallet = walletOpt.get();
-        wallet.setLocked(true);
-        wallet.setLockReason(reason);
-        wallet.preSave();
-        return walletRepository.save(wallet);
+        return setFlags(customerId, new Update().set("isLocked", true).set("lockReason", reason));
     }
 
     /**
      * Unlock wallet
      */
     public Wallet unlockWallet(String customerId) {
-        Optional<Wallet> walletOpt = walletRepository.findByCustomerId(customerId);
-        if (walletOpt.isEmpty()) {
-            throw new IllegalArgumentException("Wallet not found");
-        }
-        
-        Wallet wallet = walletOpt.get();
-        wallet.setLocked(false);
-        wallet.setLockReason(null);
-        wallet.preSave();
-        return walletRepository.save(wallet);
+        return setFlags(customerId, new Update().set("isLocked", false).unset("lockReason"));
     }
 
     /**
      * Deactivate wallet
      */
     public Wallet deactivateWallet(String customerId) {
-        Optional<Wallet> walletOpt = walletRepository.findByCustomerId(customerId);
-        if (walletOpt.isEmpty()) {
-            throw new IllegalArgumentException("Wallet not found");
-        }
-        
-        Wallet wallet = walletOpt.get();
-        wallet.setActive(false);
-        wallet.preSave();
-        return walletRepository.save(wallet);
+        return setFlags(customerId, new Update().set("isActive", false));
     }
 
     /**
      * Reactivate wallet
      */
     public Wallet reactivateWallet(String customerId) {
-        Optional<Wallet> walletOpt = walletRepository.findByCustomerId(customerId);
-        if (walletOpt.isEmpty()) {
+        return setFlags(customerId, new Update().set("isActive", true));
+    }
+
+    // ================ PRIVATE HELPER METHODS ================
+
+    /**
+     * Move the balance with one conditional $inc, then append the ledger entry.
+     * If the entry cannot be written the balance change is reversed.
+     */
+    private Wallet applyChange(String customerId, String type, double amount, String description,
+                               String referenceId, String referenceType) {
+        double delta = "debit".equals(type) ? -amount : amount;
+        Criteria criteria = Criteria.where("customerId").is(customerId).and("isLocked").ne(true);
+        if (delta < 0) {
+            criteria = criteria.and("balance").gte(amount);
+        }
+        Wallet updated = mongoTemplate.findAndModify(Query.query(criteria),
+            new Update().inc("balance", delta).set("updatedAt", new Date()),
+            FindAndModifyOptions.options().returnNew(true), Wallet.class);
+        if (updated == null) {
+            throw rejection(customerId);
+        }
+
+        WalletLedgerEntry entry = new WalletLedgerEntry();
+        entry.setId(new ObjectId().toHexString());
+        entry.setCustomerId(customerId);
+        entry.setTransactionId("TXN-" + entry.getId());
+        entry.setType(type);
+        entry.setAmount(amount);
+        entry.setBalanceAfter(updated.getBalance());
+        entry.setDescription(description);
+        entry.setReferenceId(referenceId);
+        entry.setReferenceType(referenceType);
+        try {
+            mongoTemplate.insert(entry);
+        } catch (RuntimeException e) {
+            logger.error("Could not record {} of {} for {}, reversing: {}", type, amount, customerId, e.getMessage());
+            mongoTemplate.updateFirst(Query.query(Criteria.where("customerId").is(customerId)),
+                new Update().inc("balance", -delta), Wallet.class);
+            throw e;
+        }
+        return updated;
+    }
+
+    /**
+     * Why a conditional balance update matched nothing
+     */
+    private RuntimeException rejection(String customerId) {
+        Optional<Wallet> wallet = walletRepository.findByCustomerId(customerId);
+        if (wallet.isEmpty()) {
+            return new IllegalArgumentException("Wallet not found");
+        }
+        if (wallet.get().isLocked()) {
+            return new IllegalStateException("Wallet is locked: " + wallet.get().getLockReason());
+        }
+        return new IllegalStateException("Insufficient balance");
+    }
+
+    private Wallet setFlags(String customerId, Update update) {
+        Wallet wallet = mongoTemplate.findAndModify(Query.query(Criteria.where("customerId").is(customerId)),
+            update.set("updatedAt", new Date()),
+            FindAndModifyOptions.options().returnNew(true), Wallet.class);
+        if (wallet == null) {
             throw new IllegalArgumentException("Wallet not found");
         }
-        
-        Wallet wallet = walletOpt.get();
-        wallet.setActive(true);
-        wallet.preSave();
-        return walletRepository.save(wallet);
+        return wallet;
+    }
+
+    private static WalletLedgerEntry fromLegacy(String customerId, WalletTransaction transaction) {
+        WalletLedgerEntry entry = new WalletLedgerEntry();
+        entry.setCustomerId(customerId);
+        entry.setTransactionId(transaction.getTransactionId());
+        entry.setType(transaction.getType());
+        entry.setAmount(transaction.getAmount());
+        entry.setBalanceAfter(transaction.getBalanceAfter());
+        entry.setDescription(transaction.getDescription());
+        entry.setReferenceId(transaction.getReferenceId());
+        entry.setReferenceType(transaction.getReferenceType());
+        entry.setStatus(transaction.getStatus());
+        entry.setTimestamp(transaction.getTimestamp() != null ? transaction.getTimestamp() : new Date());
+        entry.setMigrated(true);
+        return entry;
     }
 }
@@ -0,0 +1,136 @@
+package com.odop.root.chat;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.odop.root.chat.dto.ChatDto.MessagePage;
+import com.odop.root.chat.model.ChatMessage;
+import com.odop.root.chat.service.ChatHistory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * History and search latency on a support room with 100k messages.
+ *
+ * Needs a real MongoDB, so it only runs when asked for:
+ *   mvn test -Dtest=ChatHistoryBenchmark -Dbenchmark.mongo.uri=mongodb://localhost:27017
+ *
+ * Compares keyset paging with skip paging deep into the history, and the per-room text index
+ * with the previous regex search, and prints the average latency of each.
+ */
+@EnabledIfSystemProperty(named = "benchmark.mongo.uri", matches = ".+")
+class ChatHistoryBenchmark {
+
+    private static final String ROOM = "bench-room";
+    private static final int MESSAGES = 100_000;
+    private static final int RUNS = 20;
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static ChatHistory chatHistory;
+
+    @BeforeAll
+    static void seed() {
+        client = MongoClients.create(System.getProperty("benchmark.mongo.uri"));
+        mongoTemplate = new MongoTemplate(client, "odop_benchmark_" + UUID.randomUUID().toString().substring(0, 8));
+        chatHistory = new ChatHistory(mongoTemplate);
+        chatHistory.createIndexes();
+
+        LocalDateTime start = LocalDateTime.now().minusDays(30);
+        List<ChatMessage> batch = new ArrayList<>();
+        for (int i = 0; i < MESSAGES; i++) {
+            // Every 1000th message mentions a refund; a second room adds noise
+            String content = i % 1000 == 0
+                    ? "Customer asked about the refund for order " + i
+                    : "Routine update number " + i + " about delivery status";
+            batch.add(message(i % 10 == 0 ? "other-room" : ROOM, content, start.plusSeconds(i)));
+            if (batch.size() == 10_000) {
+                mongoTemplate.insertAll(batch);
+                batch.clear();
+            }
+        }
+        mongoTemplate.insertAll(batch);
+    }
+
+    @AfterAll
+    static void dropDatabase() {
+        if (mongoTemplate != null) {
+            mongoTemplate.getDb().drop();
+        }
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    void keysetPagingStaysFlatDeepIntoHistory() {
+        MessagePage latest = chatHistory.page(ROOM, null, null, 50);
+        assertEquals(50, latest.getMessages().size());
+        assertNotNull(latest.getOlderCursor());
+
+        // Walk back through the history, then time a page at that depth both ways
+        String cursor = latest.getOlderCursor();
+        for (int i = 0; i < 1_000 && cursor != null; i++) {
+            cursor = chatHistory.page(ROOM, cursor, null, 50).getOlderCursor();
+        }
+        String deep = cursor;
+        time("keyset page at depth", () -> chatHistory.page(ROOM, deep, null, 50).getMessages().size());
+        time("skip page at depth (legacy)", () -> mongoTemplate.find(
+                Query.query(Criteria.where("chatRoomId").is(ROOM))
+                        .with(Sort.by(Sort.Direction.DESC, "timestamp"))
+                        .skip(50_000).limit(50), ChatMessage.class).size());
+
+        MessagePage older = chatHistory.page(ROOM, latest.getOlderCursor(), null, 50);
+        MessagePage back = chatHistory.page(ROOM, null, older.getNewerCursor(), 50);
+        assertEquals(latest.getMessages().get(0).getId(), back.getMessages().get(0).getId());
+    }
+
+    @Test
+    void textSearchFindsWhatRegexFound() {
+        int indexed = time("text index search", () -> chatHistory.search(ROOM, "refund", 200).size());
+        int scanned = time("regex search (legacy)", () -> mongoTemplate.find(
+                Query.query(Criteria.where("chatRoomId").is(ROOM).and("content").regex("refund", "i")),
+                ChatMessage.class).size());
+        assertTrue(indexed > 0);
+        assertEquals(scanned, indexed);
+    }
+
+    // ==================== Helpers ====================
+
+    private static ChatMessage message(String room, String content, LocalDateTime timestamp) {
+        return ChatMessage.builder()
+                .chatRoomId(room)
+                .senderId("bench-user")
+                .senderName("Bench")
+                .senderType(ChatMessage.SenderType.CUSTOMER)
+                .content(content)
+                .messageType(ChatMessage.MessageType.TEXT)
+                .status(ChatMessage.MessageStatus.SENT)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private static int time(String label, Supplier<Integer> query) {
+        int result = query.get();
+        long began = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            query.get();
+        }
+        double millis = (System.nanoTime() - began) / 1e6 / RUNS;
+        System.out.printf("%-30s %d results, %.2f ms avg over %d runs%n", label, result, millis, RUNS);
+        return result;
+    }
+}
@@ -0,0 +1,116 @@
+package com.odop.root.chat;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.odop.root.chat.service.ChatRelay;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two relay nodes sharing one capped collection that starts out empty.
+ *
+ * Needs a real MongoDB, so it only runs when asked for:
+ *   mvn test -Dtest=ChatRelayMongoTest -Dbenchmark.mongo.uri=mongodb://localhost:27017
+ */
+@EnabledIfSystemProperty(named = "benchmark.mongo.uri", matches = ".+")
+class ChatRelayMongoTest {
+
+    private static final long WAIT_MILLIS = 10_000;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private ChatRelay nodeA;
+    private ChatRelay nodeB;
+    private final List<Message<?>> receivedByA = new CopyOnWriteArrayList<>();
+    private final List<Message<?>> receivedByB = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void startNodes() {
+        client = MongoClients.create(System.getProperty("benchmark.mongo.uri"));
+        mongoTemplate = new MongoTemplate(client, "odop_relay_test_" + UUID.randomUUID().toString().substring(0, 8));
+        nodeA = node(receivedByA);
+        nodeB = node(receivedByB);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.stop();
+        nodeB.stop();
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Test
+    void relaysFirstMessageIntoAnInitiallyEmptyCollection() throws InterruptedException {
+        nodeA.preSend(message("/topic/chat/room-1", "hello"), null);
+
+        awaitSize(receivedByB, 1);
+        assertEquals("hello", payload(receivedByB.get(0)));
+        assertTrue(receivedByA.isEmpty(), "a node does not re-deliver its own broadcasts");
+    }
+
+    @Test
+    void keepsRelayingAfterTheCollectionGoesIdle() throws InterruptedException {
+        nodeA.preSend(message("/topic/chat/room-1", "first"), null);
+        awaitSize(receivedByB, 1);
+
+        Thread.sleep(3000);
+        nodeB.preSend(message("/topic/chat/room-1", "reply"), null);
+        nodeA.preSend(message("/topic/chat/room-1", "second"), null);
+
+        awaitSize(receivedByB, 2);
+        awaitSize(receivedByA, 1);
+        Thread.sleep(2000);
+        assertEquals(List.of("first", "second"), receivedByB.stream().map(ChatRelayMongoTest::payload).toList());
+        assertEquals(List.of("reply"), receivedByA.stream().map(ChatRelayMongoTest::payload).toList());
+    }
+
+    private ChatRelay node(List<Message<?>> received) {
+        StaticApplicationContext context = new StaticApplicationContext();
+        MessageChannel brokerChannel = (message, timeout) -> received.add(message);
+        context.getBeanFactory().registerSingleton("brokerChannel", brokerChannel);
+        ChatRelay relay = new ChatRelay(mongoTemplate, context);
+        ReflectionTestUtils.setField(relay, "enabled", true);
+        ReflectionTestUtils.setField(relay, "collection", "chat_relay");
+        ReflectionTestUtils.setField(relay, "collectionSizeMb", 1L);
+        ReflectionTestUtils.setField(relay, "publishQueueSize", 100);
+        ReflectionTestUtils.setField(relay, "resumeOverlapMillis", 5000L);
+        relay.start();
+        return relay;
+    }
+
+    private static Message<byte[]> message(String destination, String text) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(text.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+    }
+
+    private static String payload(Message<?> message) {
+        return new String((byte[]) message.getPayload(), StandardCharsets.UTF_8);
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (list.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(list.size() >= size, "expected " + size + " relayed messages, got " + list.size());
+    }
+}
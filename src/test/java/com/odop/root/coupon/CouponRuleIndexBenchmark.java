@@ -0,0 +1,43 @@
+package com.odop.root.coupon;
+
+import com.odop.root.coupon.service.CouponRuleIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput of the best-coupon rule index: 500 active coupons matched against 20,000 carts.
+ *
+ * Timing depends on the machine, so it only runs when asked for:
+ *   mvn test -Dtest=CouponRuleIndexBenchmark -Dbenchmark.coupons=true
+ */
+@EnabledIfSystemProperty(named = "benchmark.coupons", matches = "true")
+class CouponRuleIndexBenchmark {
+
+    private static final int COUPONS = 500;
+    private static final int ROUNDS = 20_000;
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 10, 20, 12, 0);
+
+    @Test
+    void evaluatesHundredsOfCouponsPerCartQuickly() {
+        CouponRuleIndex index = CouponRuleIndex.of(CouponRuleIndexTest.manyCoupons(COUPONS));
+
+        // Warm up so the measured rounds run compiled code
+        for (int i = 0; i < ROUNDS; i++) {
+            index.candidates(1500 + i % 3000, "State" + i % 30, NOW);
+        }
+
+        long started = System.nanoTime();
+        int matched = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            matched += index.candidates(1500 + i % 3000, "State" + i % 30, NOW).size();
+        }
+        long micros = (System.nanoTime() - started) / 1_000 / ROUNDS;
+        System.out.printf("%d coupons: %d µs per cart, %d candidates on average%n",
+                COUPONS, micros, matched / ROUNDS);
+        assertTrue(micros < 500, "took " + micros + " µs per cart");
+    }
+}
@@ -0,0 +1,136 @@
+package com.odop.root.coupon;
+
+import com.odop.root.coupon.model.Coupon;
+import com.odop.root.coupon.service.CouponRuleIndex;
+import com.odop.root.coupon.service.CouponRuleIndex.Candidate;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Eligibility matching of the best-coupon rule index (pure in-memory, no Spring context or Mongo).
+ */
+class CouponRuleIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 10, 20, 12, 0);
+
+    @Test
+    void matchesOnAmountStateValidityAndUsage() {
+        CouponRuleIndex index = CouponRuleIndex.of(List.of(
+                coupon("FLAT100", "FIXED_AMOUNT", 100, 500, null),
+                coupon("BIG20", "PERCENTAGE", 20, 2000, null),
+                coupon("UP15", "PERCENTAGE", 15, 0, List.of("Uttar Pradesh")),
+                expired(coupon("OLD50", "PERCENTAGE", 50, 0, null)),
+                exhausted(coupon("GONE", "FIXED_AMOUNT", 300, 0, null))));
+
+        assertEquals(List.of("FLAT100"), codes(index.candidates(1000, "Kerala", NOW)));
+        assertEquals(List.of("UP15", "FLAT100"), codes(index.candidates(1000, "Uttar Pradesh", NOW)));
+        assertEquals(List.of("BIG20", "UP15", "FLAT100"), codes(index.candidates(3000, "Uttar Pradesh", NOW)));
+        assertTrue(index.candidates(100, null, NOW).isEmpty());
+    }
+
+    @Test
+    void followsValidityBoundariesAsTheClockMoves() {
+        Coupon festive = coupon("DIWALI", "FIXED_AMOUNT", 200, 0, null);
+        festive.setValidFrom(NOW.plusDays(1));
+        festive.setValidUntil(NOW.plusDays(3));
+        CouponRuleIndex index = CouponRuleIndex.of(List.of(festive));
+
+        assertTrue(index.candidates(1000, null, NOW).isEmpty());
+        assertEquals(List.of("DIWALI"), codes(index.candidates(1000, null, NOW.plusDays(2))));
+        assertTrue(index.candidates(1000, null, NOW.plusDays(4)).isEmpty());
+    }
+
+    @Test
+    void usageUpdateKeepsRulesAndRuleChangeReindexes() {
+        Coupon coupon = coupon("LIMITED", "FIXED_AMOUNT", 50, 0, null);
+        coupon.setTotalUsageLimit(2);
+        CouponRuleIndex index = CouponRuleIndex.of(List.of(coupon));
+
+        Coupon used = copy(coupon);
+        used.setCurrentUsageCount(2);
+        assertTrue(index.with(used).candidates(1000, null, NOW).isEmpty());
+        assertEquals(1, index.candidates(1000, null, NOW).size(), "earlier snapshot is unchanged");
+
+        Coupon raisedMinimum = copy(coupon);
+        raisedMinimum.setMinOrderAmount(5000);
+        assertTrue(index.with(raisedMinimum).candidates(1000, null, NOW).isEmpty());
+        assertTrue(index.without("limited").candidates(1000, null, NOW).isEmpty());
+    }
+
+    @Test
+    void matchesEveryEligibleCouponAmongHundreds() {
+        List<Coupon> coupons = manyCoupons(500);
+        CouponRuleIndex index = CouponRuleIndex.of(coupons);
+
+        for (int i = 0; i < 300; i++) {
+            double cartTotal = 1500 + i * 10;
+            String state = "State" + i % 30;
+            List<Candidate> candidates = index.candidates(cartTotal, state, NOW);
+
+            Set<String> eligible = new HashSet<>();
+            for (Coupon coupon : coupons) {
+                if (coupon.getMinOrderAmount() <= cartTotal
+                        && (coupon.getApplicableStates() == null || coupon.getApplicableStates().contains(state))) {
+                    eligible.add(coupon.getCode());
+                }
+            }
+            assertEquals(eligible, new HashSet<>(codes(candidates)), "cart " + cartTotal + " in " + state);
+            for (int j = 1; j < candidates.size(); j++) {
+                assertTrue(candidates.get(j - 1).discount() >= candidates.get(j).discount(), "best discount first");
+            }
+        }
+    }
+
+    /**
+     * Coupons with a spread of types, values, minimum amounts and state restrictions
+     */
+    static List<Coupon> manyCoupons(int count) {
+        List<Coupon> coupons = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            coupons.add(coupon("C" + i, i % 2 == 0 ? "PERCENTAGE" : "FIXED_AMOUNT", 5 + i % 40, i * 10,
+                    i % 3 == 0 ? List.of("State" + i % 30) : null));
+        }
+        return coupons;
+    }
+
+    static Coupon coupon(String code, String type, double value, double minOrder, List<String> states) {
+        return Coupon.builder()
+                .code(code)
+                .discountType(type)
+                .discountValue(value)
+                .minOrderAmount(minOrder)
+                .applicableStates(states)
+                .isActive(true)
+                .build();
+    }
+
+    private static Coupon expired(Coupon coupon) {
+        coupon.setValidUntil(NOW.minusDays(1));
+        return coupon;
+    }
+
+    private static Coupon exhausted(Coupon coupon) {
+        coupon.setTotalUsageLimit(10);
+        coupon.setCurrentUsageCount(10);
+        return coupon;
+    }
+
+    private static Coupon copy(Coupon coupon) {
+        Coupon copy = coupon(coupon.getCode(), coupon.getDiscountType(), coupon.getDiscountValue(),
+                coupon.getMinOrderAmount(), coupon.getApplicableStates());
+        copy.setTotalUsageLimit(coupon.getTotalUsageLimit());
+        copy.setCurrentUsageCount(coupon.getCurrentUsageCount());
+        return copy;
+    }
+
+    private static List<String> codes(List<Candidate> candidates) {
+        return candidates.stream().map(candidate -> candidate.coupon().getCode()).toList();
+    }
+}
@@ -0,0 +1,283 @@
+package com.odop.root.services;
+
+import com.cloudinary.Cloudinary;
+import com.odop.root.config.CloudinaryConfig;
+import com.odop.root.dto.MultiImageUploadResponse;
+import com.odop.root.models.ImageMetadata;
+import com.odop.root.repository.ImageMetadataRepository;
+import com.odop.root.storage.ImageStorage;
+import com.odop.root.storage.StoredImage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Multi-image upload behaviour against an in-memory image store (no Spring context, Mongo or Cloudinary).
+ */
+class ImageUploadServiceTest {
+
+    private static final int PARALLELISM = 3;
+
+    private ExecutorService uploadExecutor;
+    private FakeImageStorage storage;
+    private ImageMetadataRepository repository;
+    private ImageUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        uploadExecutor = Executors.newFixedThreadPool(PARALLELISM);
+        storage = new FakeImageStorage();
+        repository = mock(ImageMetadataRepository.class);
+        when(repository.save(any(ImageMetadata.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service = new ImageUploadService();
+        ReflectionTestUtils.setField(service, "cloudinary", mock(Cloudinary.class));
+        ReflectionTestUtils.setField(service, "cloudinaryConfig", mock(CloudinaryConfig.class));
+        ReflectionTestUtils.setField(service, "imageMetadataRepository", repository);
+        ReflectionTestUtils.setField(service, "imageStorage", storage);
+        ReflectionTestUtils.setField(service, "uploadExecutor", uploadExecutor);
+        ReflectionTestUtils.setField(service, "perFileTimeoutSeconds", 1L);
+        ReflectionTestUtils.setField(service, "storageBackend", "local");
+        ReflectionTestUtils.setField(service, "maxSizeMb", 10);
+        ReflectionTestUtils.setField(service, "allowedTypes", "image/jpeg,image/png");
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploadExecutor.shutdownNow();
+    }
+
+    @Test
+    void uploadsFilesConcurrentlyWithinThePoolBound() {
+        MultipartFile[] files = new MultipartFile[6];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = image("photo-" + i + ".jpg");
+        }
+        // Each store waits until a full pool's worth of stores is in progress at the same time
+        storage.overlap = new CountDownLatch(PARALLELISM);
+
+        MultiImageUploadResponse response = service.uploadMultipleImages(files, "product", "p1", "v1", "vendor");
+
+        assertTrue(response.isSuccess());
+        assertEquals(6, response.getSuccessCount());
+        assertEquals(0, storage.overlap.getCount(), "uploads should overlap");
+        assertTrue(storage.maxConcurrent.get() <= PARALLELISM, "uploads must stay within the pool size");
+    }
+
+    @Test
+    void reportsFailedAndTimedOutFilesWithoutFailingTheRest() {
+        storage.failing.add("broken.jpg");
+        storage.blocked.add("slow.jpg");
+        MultipartFile[] files = {
+                image("ok-1.jpg"),
+                image("broken.jpg"),
+                image("slow.jpg"),
+                new MockMultipartFile("files", "notes.txt", "text/plain", "hello".getBytes()),
+                image("ok-2.jpg")
+        };
+
+        MultiImageUploadResponse response = service.uploadMultipleImages(files, "product", "p1", "v1", "vendor");
+
+        assertTrue(response.isSuccess());
+        assertEquals(5, response.getTotalFiles());
+        assertEquals(2, response.getSuccessCount());
+        assertEquals(3, response.getFailedCount());
+        List<String> failed = response.getFailedFiles();
+        assertTrue(failed.get(0).startsWith("broken.jpg:"), failed.toString());
+        assertTrue(failed.get(1).startsWith("slow.jpg: Upload timed out"), failed.toString());
+        assertTrue(failed.get(2).startsWith("notes.txt: File type not allowed"), failed.toString());
+    }
+
+    @Test
+    void timedOutUploadIsCancelledAndNothingIsRecorded() throws InterruptedException {
+        storage.blocked.add("slow.jpg");
+
+        MultiImageUploadResponse response = service.uploadMultipleImages(
+                new MultipartFile[] { image("slow.jpg") }, "product", "p1", "v1", "vendor");
+
+        assertFalse(response.isSuccess());
+        awaitWorkers();
+        assertFalse(storage.stored.contains("slow.jpg"), "the worker was interrupted before storing");
+        verify(repository, never()).save(any(ImageMetadata.class));
+    }
+
+    @Test
+    void uploadThatIgnoresInterruptsIsRemovedInsteadOfRecorded() throws InterruptedException {
+        storage.blocked.add("stubborn.jpg");
+        storage.uninterruptible.add("stubborn.jpg");
+
+        MultiImageUploadResponse response = service.uploadMultipleImages(
+                new MultipartFile[] { image("stubborn.jpg") }, "product", "p1", "v1", "vendor");
+
+        assertFalse(response.isSuccess());
+        // Let the store finish only after the upload has been reported as timed out
+        storage.unblock.countDown();
+        awaitWorkers();
+        assertTrue(storage.stored.contains("stubborn.jpg"));
+        assertEquals(1, storage.deleted.size(), "the late file is removed again");
+        verify(repository, never()).save(any(ImageMetadata.class));
+    }
+
+    @Test
+    void timeoutOnTheRequestThreadDoesNotLeaveItInterrupted() {
+        // A full pool with CallerRunsPolicy runs the upload on the request thread
+        ReflectionTestUtils.setField(service, "uploadExecutor", (Executor) Runnable::run);
+        storage.blocked.add("slow.jpg");
+
+        MultiImageUploadResponse response = service.uploadMultipleImages(
+                new MultipartFile[] { image("slow.jpg"), image("next.jpg") }, "product", "p1", "v1", "vendor");
+
+        assertFalse(Thread.currentThread().isInterrupted(), "request thread must not stay interrupted");
+        assertEquals(1, response.getSuccessCount(), "the next file on the same thread still uploads");
+        assertTrue(response.getFailedFiles().get(0).startsWith("slow.jpg: Upload timed out"), response.getFailedFiles().toString());
+    }
+
+    @Test
+    void allFailuresKeepPerFileDetails() {
+        storage.failing.add("a.jpg");
+        storage.failing.add("b.jpg");
+
+        MultiImageUploadResponse response = service.uploadMultipleImages(
+                new MultipartFile[] { image("a.jpg"), image("b.jpg") }, "product", "p1", "v1", "vendor");
+
+        assertFalse(response.isSuccess());
+        assertEquals(2, response.getFailedCount());
+        assertEquals(2, response.getFailedFiles().size());
+    }
+
+    @Test
+    void streamsFileContentInsteadOfLoadingBytes() throws IOException {
+        MultipartFile file = spy(image("streamed.jpg"));
+
+        MultiImageUploadResponse response = service.uploadMultipleImages(
+                new MultipartFile[] { file }, "product", "p1", "v1", "vendor");
+
+        assertTrue(response.isSuccess());
+        verify(file, never()).getBytes();
+        verify(file).getInputStream();
+    }
+
+    @Test
+    void marksExactlyOnePrimaryImageForANewEntity() {
+        ImageMetadata first = new ImageMetadata("local-x", "product", "p1");
+        when(repository.findByPublicId(any())).thenReturn(Optional.of(first));
+
+        service.uploadMultipleImages(
+                new MultipartFile[] { image("a.jpg"), image("b.jpg"), image("c.jpg") }, "product", "p1", "v1", "vendor");
+
+        // Concurrent workers never claim primary themselves; the batch assigns it once afterwards
+        verify(repository, never()).countByEntityTypeAndEntityId(any(), any());
+        assertTrue(first.getIsPrimary());
+    }
+
+    private void awaitWorkers() throws InterruptedException {
+        uploadExecutor.shutdown();
+        assertTrue(uploadExecutor.awaitTermination(10, TimeUnit.SECONDS), "upload workers did not finish");
+    }
+
+    private static MockMultipartFile image(String name) {
+        return new MockMultipartFile("files", name, "image/jpeg", name.getBytes());
+    }
+
+    /**
+     * In-memory store that reads the stream, optionally blocks or fails per file name,
+     * and tracks how many stores run at once.
+     */
+    private static class FakeImageStorage implements ImageStorage {
+
+        // Blocked files wait for unblock (or an interrupt, unless also uninterruptible)
+        final List<String> blocked = new java.util.concurrent.CopyOnWriteArrayList<>();
+        final CountDownLatch unblock = new CountDownLatch(1);
+        volatile CountDownLatch overlap;
+        final List<String> failing = new java.util.concurrent.CopyOnWriteArrayList<>();
+        final List<String> uninterruptible = new java.util.concurrent.CopyOnWriteArrayList<>();
+        final List<String> stored = new java.util.concurrent.CopyOnWriteArrayList<>();
+        final List<String> deleted = new java.util.concurrent.CopyOnWriteArrayList<>();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        @Override
+        public StoredImage store(InputStream content, String originalFilename, String contentType) throws IOException {
+            int now = active.incrementAndGet();
+            maxConcurrent.accumulateAndGet(now, Math::max);
+            try {
+                byte[] bytes = content.readAllBytes();
+                if (overlap != null) {
+                    overlap.countDown();
+                    overlap.await(5, TimeUnit.SECONDS);
+                }
+                if (blocked.contains(originalFilename)) {
+                    if (uninterruptible.contains(originalFilename)) {
+                        awaitThroughInterrupts(unblock);
+                    } else {
+                        unblock.await();
+                    }
+                }
+                if (failing.contains(originalFilename)) {
+                    throw new IOException("disk full");
+                }
+                String hash = HexFormat.of().formatHex(bytes).concat("0".repeat(32)).substring(0, 32);
+                stored.add(originalFilename);
+                return StoredImage.builder()
+                        .contentHash(hash)
+                        .format("jpg")
+                        .size(bytes.length)
+                        .originalUrl("/odop/images/files/" + hash + ".jpg")
+                        .variantUrls(Map.of())
+                        .build();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted", e);
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+
+        @Override
+        public Optional<Path> resolveFile(String fileName) {
+            return Optional.empty();
+        }
+
+        @Override
+        public boolean delete(String contentHash) {
+            deleted.add(contentHash);
+            return true;
+        }
+
+        private static void awaitThroughInterrupts(CountDownLatch latch) {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    latch.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
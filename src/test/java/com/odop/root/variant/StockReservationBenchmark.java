@@ -0,0 +1,165 @@
+package com.odop.root.variant;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.odop.root.variant.model.ProductVariant;
+import com.odop.root.variant.repository.ProductVariantRepository;
+import com.odop.root.variant.repository.VariantAttributeRepository;
+import com.odop.root.variant.service.HotSkuLedger;
+import com.odop.root.variant.service.ProductVariantService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Contention benchmark: 1,000 concurrent reservers on a single SKU.
+ *
+ * Needs a real MongoDB, so it only runs when asked for:
+ *   mvn test -Dtest=StockReservationBenchmark -Dbenchmark.mongo.uri=mongodb://localhost:27017
+ *
+ * Compares the conditional findAndModify reservation with the previous read-modify-save
+ * approach and prints throughput and oversell counts for both.
+ */
+@EnabledIfSystemProperty(named = "benchmark.mongo.uri", matches = ".+")
+class StockReservationBenchmark {
+
+    private static final int RESERVERS = 1_000;
+    private static final int STOCK = 500;
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static ProductVariantRepository variantRepository;
+    private static ProductVariantService variantService;
+
+    @BeforeAll
+    static void connect() {
+        client = MongoClients.create(System.getProperty("benchmark.mongo.uri"));
+        mongoTemplate = new MongoTemplate(client, "odop_benchmark_" + UUID.randomUUID().toString().substring(0, 8));
+        MongoRepositoryFactory factory = new MongoRepositoryFactory(mongoTemplate);
+        variantRepository = factory.getRepository(ProductVariantRepository.class);
+        variantService = new ProductVariantService(variantRepository,
+                factory.getRepository(VariantAttributeRepository.class), mongoTemplate,
+                new HotSkuLedger(mongoTemplate));
+    }
+
+    @AfterAll
+    static void dropDatabase() {
+        if (mongoTemplate != null) {
+            mongoTemplate.getDb().drop();
+        }
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    void conditionalReservationNeverOversells() throws InterruptedException {
+        ProductVariant variant = createVariant(STOCK);
+
+        Result result = run("findAndModify", i -> variantService.reserveStock(variant.getId(), 1));
+
+        ProductVariant after = variantRepository.findById(variant.getId()).orElseThrow();
+        assertEquals(STOCK, result.successes);
+        assertEquals(STOCK, after.getReservedQuantity());
+    }
+
+    @Test
+    void conditionalReservationThroughputWithoutShortage() throws InterruptedException {
+        ProductVariant variant = createVariant(RESERVERS);
+
+        Result result = run("findAndModify (no shortage)", i -> variantService.reserveStock(variant.getId(), 1));
+
+        assertEquals(RESERVERS, result.successes);
+        assertEquals(RESERVERS, variantRepository.findById(variant.getId()).orElseThrow().getReservedQuantity());
+    }
+
+    @Test
+    void legacyReadModifySaveForComparison() throws InterruptedException {
+        ProductVariant variant = createVariant(STOCK);
+
+        Result result = run("read-modify-save (legacy)", i -> {
+            ProductVariant current = variantRepository.findById(variant.getId()).orElseThrow();
+            if (current.getAvailableStock() < 1) {
+                return false;
+            }
+            current.setReservedQuantity(current.getReservedQuantity() + 1);
+            variantRepository.save(current);
+            return true;
+        });
+
+        int reserved = variantRepository.findById(variant.getId()).orElseThrow().getReservedQuantity();
+        // Not asserted: lost updates make the outcome nondeterministic, which is the point
+        System.out.printf("  legacy: %d callers told success, %d actually recorded (%d lost updates)%n",
+                result.successes, reserved, result.successes - reserved);
+    }
+
+    // ==================== Helpers ====================
+
+    private static ProductVariant createVariant(int stock) {
+        return variantRepository.save(ProductVariant.builder()
+                .productId("bench-product")
+                .sku("BENCH-" + UUID.randomUUID())
+                .price(100)
+                .stockQuantity(stock)
+                .reservedQuantity(0)
+                .trackInventory(true)
+                .active(true)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    private static Result run(String label, IntPredicate reserve) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(RESERVERS);
+        CountDownLatch ready = new CountDownLatch(RESERVERS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(RESERVERS);
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        for (int i = 0; i < RESERVERS; i++) {
+            int caller = i;
+            pool.execute(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                    if (reserve.test(caller)) {
+                        successes.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        ready.await();
+        long began = System.nanoTime();
+        start.countDown();
+        done.await(5, TimeUnit.MINUTES);
+        long elapsedNanos = System.nanoTime() - began;
+        pool.shutdownNow();
+
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%-30s %d reservers, %d succeeded, %d errors, %.0f ms, %.0f reservations/s%n",
+                label, RESERVERS, successes.get(), errors.get(), seconds * 1000, RESERVERS / seconds);
+        return new Result(successes.get());
+    }
+
+    private record Result(int successes) {}
+}